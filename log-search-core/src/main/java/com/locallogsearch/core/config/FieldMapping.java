@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+/**
+ * How an extracted field is indexed. Fields without a declared mapping are
+ * {@link #DYNAMIC}.
+ */
+public enum FieldMapping {
+    /**
+     * Analyzed text, an exact-match term, a facet and, for numbers, numeric points
+     * and doc values
+     */
+    DYNAMIC,
+    
+    /**
+     * Analyzed text only; no facet, no exact match, no numeric value
+     */
+    TEXT,
+    
+    /**
+     * One unanalyzed term and a facet; queries match the whole value, case-sensitively
+     */
+    KEYWORD,
+    
+    /**
+     * Numeric points and doc values in the value's canonical unit; the original value
+     * is stored for display
+     */
+    NUMERIC,
+    
+    /**
+     * Stored for display, not searchable
+     */
+    STORED,
+    
+    /**
+     * Not indexed or stored at all
+     */
+    IGNORE;
+    
+    /**
+     * Parse a mapping name ignoring case, e.g. {@code keyword}; {@code stored-only}
+     * is accepted for {@link #STORED}.
+     */
+    @JsonCreator
+    public static FieldMapping parse(String name) {
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        if (normalized.equals("STORED_ONLY")) {
+            return STORED;
+        }
+        return valueOf(normalized);
+    }
+}
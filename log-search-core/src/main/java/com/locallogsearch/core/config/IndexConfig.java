@@ -24,15 +24,26 @@
 
 package com.locallogsearch.core.config;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class IndexConfig {
     private String baseDirectory;
     private int commitIntervalSeconds;
     private int maxBufferedDocs;
+    private int fieldTypeSampleSize;
+    private long facetCardinalityLimit;
+    private int maxDynamicFields;
+    private Map<String, Map<String, FieldMapping>> fieldMappings;
     
     public IndexConfig() {
         this.baseDirectory = System.getProperty("user.home") + "/.local_log_search/indices";
         this.commitIntervalSeconds = 15;
         this.maxBufferedDocs = 1000;
+        this.fieldTypeSampleSize = 100;
+        this.facetCardinalityLimit = 10_000;
+        this.maxDynamicFields = 1000;
+        this.fieldMappings = new HashMap<>();
     }
     
     public String getBaseDirectory() {
@@ -58,4 +69,55 @@ public class IndexConfig {
     public void setMaxBufferedDocs(int maxBufferedDocs) {
         this.maxBufferedDocs = maxBufferedDocs;
     }
+    
+    /**
+     * Values of a new field to look at before deciding whether it is numeric.
+     */
+    public int getFieldTypeSampleSize() {
+        return fieldTypeSampleSize;
+    }
+    
+    public void setFieldTypeSampleSize(int fieldTypeSampleSize) {
+        this.fieldTypeSampleSize = fieldTypeSampleSize;
+    }
+    
+    /**
+     * Approximate distinct values of a field above which its facets are no longer
+     * indexed; 0 for no limit.
+     */
+    public long getFacetCardinalityLimit() {
+        return facetCardinalityLimit;
+    }
+    
+    public void setFacetCardinalityLimit(long facetCardinalityLimit) {
+        this.facetCardinalityLimit = facetCardinalityLimit;
+    }
+    
+    /**
+     * Undeclared fields an index may have; values of further fields are indexed as
+     * {@code key=value} terms of one overflow field. 0 for no limit.
+     */
+    public int getMaxDynamicFields() {
+        return maxDynamicFields;
+    }
+    
+    public void setMaxDynamicFields(int maxDynamicFields) {
+        this.maxDynamicFields = maxDynamicFields;
+    }
+    
+    /**
+     * Declared field mappings by index name, then field name. Fields without one are
+     * {@link FieldMapping#DYNAMIC}.
+     */
+    public Map<String, Map<String, FieldMapping>> getFieldMappings() {
+        return fieldMappings;
+    }
+    
+    public void setFieldMappings(Map<String, Map<String, FieldMapping>> fieldMappings) {
+        this.fieldMappings = fieldMappings;
+    }
+    
+    public void putFieldMapping(String indexName, String fieldName, FieldMapping mapping) {
+        fieldMappings.computeIfAbsent(indexName, name -> new HashMap<>()).put(fieldName, mapping);
+    }
 }
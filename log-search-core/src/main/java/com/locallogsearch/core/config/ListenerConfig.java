@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.config;
+
+/**
+ * Makes a source listen on a local socket instead of tailing a file, for
+ * applications that log to syslog or stream lines over TCP. Syslog sources want the
+ * {@code syslog} parser type.
+ */
+public class ListenerConfig {
+    private ListenerProtocol protocol;
+    private String bindAddress;
+    private int port;
+    private int maxMessageBytes;
+    private int receiveBufferBytes;
+    
+    public ListenerConfig() {
+        this.protocol = ListenerProtocol.SYSLOG_UDP;
+        this.bindAddress = "127.0.0.1";
+        this.maxMessageBytes = 64 * 1024;
+        this.receiveBufferBytes = 4 * 1024 * 1024;
+    }
+    
+    public ListenerProtocol getProtocol() {
+        return protocol;
+    }
+    
+    public void setProtocol(ListenerProtocol protocol) {
+        this.protocol = protocol;
+    }
+    
+    /**
+     * Address to listen on. Defaults to localhost, so nothing outside the machine can
+     * send events.
+     */
+    public String getBindAddress() {
+        return bindAddress;
+    }
+    
+    public void setBindAddress(String bindAddress) {
+        this.bindAddress = bindAddress;
+    }
+    
+    public int getPort() {
+        return port;
+    }
+    
+    public void setPort(int port) {
+        this.port = port;
+    }
+    
+    /**
+     * Longest message kept whole. Longer TCP lines are cut at this length and longer
+     * datagrams are truncated by the socket.
+     */
+    public int getMaxMessageBytes() {
+        return maxMessageBytes;
+    }
+    
+    public void setMaxMessageBytes(int maxMessageBytes) {
+        this.maxMessageBytes = maxMessageBytes;
+    }
+    
+    /**
+     * Socket receive buffer, which absorbs bursts while indexing catches up. UDP
+     * datagrams that do not fit are dropped by the kernel.
+     */
+    public int getReceiveBufferBytes() {
+        return receiveBufferBytes;
+    }
+    
+    public void setReceiveBufferBytes(int receiveBufferBytes) {
+        this.receiveBufferBytes = receiveBufferBytes;
+    }
+    
+    @Override
+    public String toString() {
+        return protocol.name().toLowerCase() + "://" + bindAddress + ":" + port;
+    }
+}
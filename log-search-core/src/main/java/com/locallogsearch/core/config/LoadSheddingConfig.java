@@ -0,0 +1,121 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.config;
+
+/**
+ * When and how ingestion degrades once the indexer falls behind. Each mode switches
+ * on when the unread bytes of all tailed files reach its threshold and off again when
+ * they drop below half of it. A threshold of 0 disables the mode.
+ */
+public class LoadSheddingConfig {
+    private boolean enabled;
+    private long skipFacetsBytesBehind;
+    private long sampleDebugBytesBehind;
+    private long deferLowPriorityBytesBehind;
+    private int debugSampleRate;
+    private String levelField;
+    private long checkIntervalMs;
+    
+    public LoadSheddingConfig() {
+        this.enabled = true;
+        this.skipFacetsBytesBehind = 256L * 1024 * 1024;
+        this.sampleDebugBytesBehind = 512L * 1024 * 1024;
+        this.deferLowPriorityBytesBehind = 1024L * 1024 * 1024;
+        this.debugSampleRate = 10;
+        this.levelField = "level";
+        this.checkIntervalMs = 1000;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Bytes behind at which documents are indexed without facet fields.
+     */
+    public long getSkipFacetsBytesBehind() {
+        return skipFacetsBytesBehind;
+    }
+    
+    public void setSkipFacetsBytesBehind(long skipFacetsBytesBehind) {
+        this.skipFacetsBytesBehind = skipFacetsBytesBehind;
+    }
+    
+    /**
+     * Bytes behind at which DEBUG and TRACE events of non-high-priority sources are sampled.
+     */
+    public long getSampleDebugBytesBehind() {
+        return sampleDebugBytesBehind;
+    }
+    
+    public void setSampleDebugBytesBehind(long sampleDebugBytesBehind) {
+        this.sampleDebugBytesBehind = sampleDebugBytesBehind;
+    }
+    
+    /**
+     * Bytes behind at which low-priority sources stop reading until the others catch up.
+     */
+    public long getDeferLowPriorityBytesBehind() {
+        return deferLowPriorityBytesBehind;
+    }
+    
+    public void setDeferLowPriorityBytesBehind(long deferLowPriorityBytesBehind) {
+        this.deferLowPriorityBytesBehind = deferLowPriorityBytesBehind;
+    }
+    
+    /**
+     * One in this many DEBUG and TRACE events is kept while sampling.
+     */
+    public int getDebugSampleRate() {
+        return debugSampleRate;
+    }
+    
+    public void setDebugSampleRate(int debugSampleRate) {
+        this.debugSampleRate = debugSampleRate;
+    }
+    
+    /**
+     * Parsed field that holds the log level.
+     */
+    public String getLevelField() {
+        return levelField;
+    }
+    
+    public void setLevelField(String levelField) {
+        this.levelField = levelField;
+    }
+    
+    public long getCheckIntervalMs() {
+        return checkIntervalMs;
+    }
+    
+    public void setCheckIntervalMs(long checkIntervalMs) {
+        this.checkIntervalMs = checkIntervalMs;
+    }
+}
@@ -33,12 +33,21 @@ public class LogSourceConfig {
     private String indexName;
     private String parserType; // "keyvalue", "regex", "grok", "custom"
     private Map<String, String> parserConfig;
+    private String charset; // file encoding, defaults to UTF-8
+    private MultilineConfig multiline; // null = one event per line
+    private ListenerConfig listener; // null = tail filePath
+    private long maxLinesPerSecond; // 0 = unlimited
+    private long maxBytesPerSecond; // 0 = unlimited
+    private SourcePriority priority;
+    private Map<String, FieldMapping> fieldMappings; // undeclared fields are DYNAMIC
     private boolean enabled;
     
     public LogSourceConfig() {
         this.parserConfig = new HashMap<>();
+        this.fieldMappings = new HashMap<>();
         this.enabled = true;
         this.parserType = "keyvalue";
+        this.priority = SourcePriority.NORMAL;
     }
     
     public String getId() {
@@ -81,6 +90,79 @@ public class LogSourceConfig {
         this.parserConfig = parserConfig;
     }
     
+    public String getCharset() {
+        return charset;
+    }
+    
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+    
+    public MultilineConfig getMultiline() {
+        return multiline;
+    }
+    
+    public void setMultiline(MultilineConfig multiline) {
+        this.multiline = multiline;
+    }
+    
+    /**
+     * Network listener the source receives events from, or {@code null} for a file
+     * source.
+     */
+    public ListenerConfig getListener() {
+        return listener;
+    }
+    
+    public void setListener(ListenerConfig listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * Lines per second the source may ingest, or 0 for no limit.
+     */
+    public long getMaxLinesPerSecond() {
+        return maxLinesPerSecond;
+    }
+    
+    public void setMaxLinesPerSecond(long maxLinesPerSecond) {
+        this.maxLinesPerSecond = maxLinesPerSecond;
+    }
+    
+    /**
+     * Bytes per second the source may ingest, or 0 for no limit.
+     */
+    public long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+    
+    public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+        this.maxBytesPerSecond = maxBytesPerSecond;
+    }
+    
+    /**
+     * How the source is treated when the indexer falls behind.
+     */
+    public SourcePriority getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(SourcePriority priority) {
+        this.priority = priority;
+    }
+    
+    /**
+     * How the fields extracted from this source are indexed, by field name. Applies to
+     * the whole index once the source is added.
+     */
+    public Map<String, FieldMapping> getFieldMappings() {
+        return fieldMappings;
+    }
+    
+    public void setFieldMappings(Map<String, FieldMapping> fieldMappings) {
+        this.fieldMappings = fieldMappings;
+    }
+    
     public boolean isEnabled() {
         return enabled;
     }
@@ -94,6 +176,7 @@ public class LogSourceConfig {
         return "LogSourceConfig{" +
                 "id='" + id + '\'' +
                 ", filePath='" + filePath + '\'' +
+                (listener != null ? ", listener=" + listener : "") +
                 ", indexName='" + indexName + '\'' +
                 ", parserType='" + parserType + '\'' +
                 ", enabled=" + enabled +
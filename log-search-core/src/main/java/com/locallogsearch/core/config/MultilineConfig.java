@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.config;
+
+/**
+ * Joins physical lines into one log event, e.g. a message and its stack trace.
+ *
+ * With only a start pattern, every line that does not match it continues the
+ * current event. With only a continuation pattern, matching lines continue it and
+ * all others start a new one. With both, a line continues the event if it matches
+ * the continuation pattern and not the start pattern. Patterns are found anywhere
+ * in the line unless anchored with {@code ^}.
+ */
+public class MultilineConfig {
+    private String startPattern;
+    private String continuationPattern;
+    private int maxLines;
+    private long timeoutMs;
+    
+    public MultilineConfig() {
+        this.maxLines = 500;
+        this.timeoutMs = 1000;
+    }
+    
+    public String getStartPattern() {
+        return startPattern;
+    }
+    
+    public void setStartPattern(String startPattern) {
+        this.startPattern = startPattern;
+    }
+    
+    public String getContinuationPattern() {
+        return continuationPattern;
+    }
+    
+    public void setContinuationPattern(String continuationPattern) {
+        this.continuationPattern = continuationPattern;
+    }
+    
+    /**
+     * Lines after which an event is emitted even if more continuation lines follow.
+     */
+    public int getMaxLines() {
+        return maxLines;
+    }
+    
+    public void setMaxLines(int maxLines) {
+        this.maxLines = maxLines;
+    }
+    
+    /**
+     * How long a pending event waits for further lines before it is emitted.
+     */
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+    
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+    
+    public boolean isEnabled() {
+        return (startPattern != null && !startPattern.isEmpty())
+            || (continuationPattern != null && !continuationPattern.isEmpty());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.config;
+
+public class PipelineConfig {
+    private boolean enabled;
+    private int queueCapacity;
+    private int batchBytes;
+    private int parseThreads;
+    private int buildThreads;
+    private int indexThreads;
+    
+    public PipelineConfig() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.enabled = true;
+        this.queueCapacity = 64;
+        this.batchBytes = 256 * 1024;
+        this.parseThreads = processors;
+        this.buildThreads = Math.max(1, processors / 2);
+        this.indexThreads = Math.max(1, processors / 2);
+    }
+    
+    /**
+     * When disabled, tailers parse and index on their own thread.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Batches each stage queue holds before submitters block.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    /**
+     * Bytes a tailer reads into one batch.
+     */
+    public int getBatchBytes() {
+        return batchBytes;
+    }
+    
+    public void setBatchBytes(int batchBytes) {
+        this.batchBytes = batchBytes;
+    }
+    
+    public int getParseThreads() {
+        return parseThreads;
+    }
+    
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+    
+    public int getBuildThreads() {
+        return buildThreads;
+    }
+    
+    public void setBuildThreads(int buildThreads) {
+        this.buildThreads = buildThreads;
+    }
+    
+    public int getIndexThreads() {
+        return indexThreads;
+    }
+    
+    public void setIndexThreads(int indexThreads) {
+        this.indexThreads = indexThreads;
+    }
+}
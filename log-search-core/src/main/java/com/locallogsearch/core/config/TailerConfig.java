@@ -0,0 +1,193 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.config;
+
+public class TailerConfig {
+    private boolean watchServiceEnabled;
+    private long minPollIntervalMs;
+    private long maxPollIntervalMs;
+    private long maxWatchedPollIntervalMs;
+    private int schedulerThreads;
+    private long readQuantumBytes;
+    private int maxOpenFiles;
+    private long discoveryIntervalMs;
+    private boolean backfillEnabled;
+    private long backfillThresholdBytes;
+    private long backfillSplitBytes;
+    private int backfillParallelism;
+    private LoadSheddingConfig loadShedding;
+    
+    public TailerConfig() {
+        this.watchServiceEnabled = true;
+        this.minPollIntervalMs = 10;
+        this.maxPollIntervalMs = 1000;
+        this.maxWatchedPollIntervalMs = 5000;
+        this.schedulerThreads = Runtime.getRuntime().availableProcessors();
+        this.readQuantumBytes = 1024 * 1024;
+        this.maxOpenFiles = 1024;
+        this.discoveryIntervalMs = 5000;
+        this.backfillEnabled = true;
+        this.backfillThresholdBytes = 64L * 1024 * 1024;
+        this.backfillSplitBytes = 8L * 1024 * 1024;
+        this.backfillParallelism = Runtime.getRuntime().availableProcessors();
+        this.loadShedding = new LoadSheddingConfig();
+    }
+    
+    public boolean isWatchServiceEnabled() {
+        return watchServiceEnabled;
+    }
+    
+    public void setWatchServiceEnabled(boolean watchServiceEnabled) {
+        this.watchServiceEnabled = watchServiceEnabled;
+    }
+    
+    /**
+     * Delay before the first re-poll after a file stops growing. Doubles on every idle poll.
+     */
+    public long getMinPollIntervalMs() {
+        return minPollIntervalMs;
+    }
+    
+    public void setMinPollIntervalMs(long minPollIntervalMs) {
+        this.minPollIntervalMs = minPollIntervalMs;
+    }
+    
+    /**
+     * Upper bound of the idle backoff for files without change notifications.
+     */
+    public long getMaxPollIntervalMs() {
+        return maxPollIntervalMs;
+    }
+    
+    public void setMaxPollIntervalMs(long maxPollIntervalMs) {
+        this.maxPollIntervalMs = maxPollIntervalMs;
+    }
+    
+    /**
+     * Upper bound of the idle backoff for files registered with the WatchService.
+     * Polling still happens at this rate as a safety net for missed events.
+     */
+    public long getMaxWatchedPollIntervalMs() {
+        return maxWatchedPollIntervalMs;
+    }
+    
+    public void setMaxWatchedPollIntervalMs(long maxWatchedPollIntervalMs) {
+        this.maxWatchedPollIntervalMs = maxWatchedPollIntervalMs;
+    }
+    
+    /**
+     * Number of threads shared by all tailers.
+     */
+    public int getSchedulerThreads() {
+        return schedulerThreads;
+    }
+    
+    public void setSchedulerThreads(int schedulerThreads) {
+        this.schedulerThreads = schedulerThreads;
+    }
+    
+    /**
+     * Maximum bytes a tailer reads per turn before yielding to other sources.
+     */
+    public long getReadQuantumBytes() {
+        return readQuantumBytes;
+    }
+    
+    public void setReadQuantumBytes(long readQuantumBytes) {
+        this.readQuantumBytes = readQuantumBytes;
+    }
+    
+    /**
+     * Maximum number of file channels kept open across all tailers.
+     */
+    public int getMaxOpenFiles() {
+        return maxOpenFiles;
+    }
+    
+    public void setMaxOpenFiles(int maxOpenFiles) {
+        this.maxOpenFiles = maxOpenFiles;
+    }
+    
+    /**
+     * How often glob and directory sources are rescanned for new and deleted files.
+     */
+    public long getDiscoveryIntervalMs() {
+        return discoveryIntervalMs;
+    }
+    
+    public void setDiscoveryIntervalMs(long discoveryIntervalMs) {
+        this.discoveryIntervalMs = discoveryIntervalMs;
+    }
+    
+    public boolean isBackfillEnabled() {
+        return backfillEnabled;
+    }
+    
+    public void setBackfillEnabled(boolean backfillEnabled) {
+        this.backfillEnabled = backfillEnabled;
+    }
+    
+    /**
+     * Unread bytes above which existing content is backfilled in parallel instead of
+     * being read by the tailer line by line.
+     */
+    public long getBackfillThresholdBytes() {
+        return backfillThresholdBytes;
+    }
+    
+    public void setBackfillThresholdBytes(long backfillThresholdBytes) {
+        this.backfillThresholdBytes = backfillThresholdBytes;
+    }
+    
+    /**
+     * Size of the line-aligned ranges a backfill is split into.
+     */
+    public long getBackfillSplitBytes() {
+        return backfillSplitBytes;
+    }
+    
+    public void setBackfillSplitBytes(long backfillSplitBytes) {
+        this.backfillSplitBytes = backfillSplitBytes;
+    }
+    
+    /**
+     * Number of fork-join threads shared by all backfills.
+     */
+    public int getBackfillParallelism() {
+        return backfillParallelism;
+    }
+    
+    public void setBackfillParallelism(int backfillParallelism) {
+        this.backfillParallelism = backfillParallelism;
+    }
+    
+    public LoadSheddingConfig getLoadShedding() {
+        return loadShedding;
+    }
+    
+    public void setLoadShedding(LoadSheddingConfig loadShedding) {
+        this.loadShedding = loadShedding;
+    }
+}
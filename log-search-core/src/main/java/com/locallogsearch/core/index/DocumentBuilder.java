@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import com.locallogsearch.core.model.LogEntry;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds Lucene documents from log entries, recycling the documents and their field
+ * instances once they have been indexed. Each thread has its own builder; documents
+ * may be released from another thread, e.g. by a pipeline's index stage.
+ */
+public class DocumentBuilder {
+    private static final int MAX_FREE_DOCUMENTS = 8192;
+    
+    private final ConcurrentLinkedQueue<ReusableDocument> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    
+    /**
+     * Fill a recycled (or new) document from the entry. The document must be passed to
+     * {@link ReusableDocument#release()} once it has been added to the index.
+     */
+    public ReusableDocument build(LogEntry entry) {
+        return build(entry, true, null);
+    }
+    
+    /**
+     * @param facets     whether to add facet fields for the entry's fields
+     * @param fieldTypes field types of the target index, learned from the entry's
+     *                   values; {@code null} to parse every value as a possible number
+     */
+    public ReusableDocument build(LogEntry entry, boolean facets, FieldTypeRegistry fieldTypes) {
+        ReusableDocument document = free.poll();
+        if (document == null) {
+            document = new ReusableDocument(this);
+        } else {
+            freeCount.decrementAndGet();
+        }
+        document.fill(entry, facets, fieldTypes);
+        return document;
+    }
+    
+    void recycle(ReusableDocument document) {
+        if (freeCount.incrementAndGet() <= MAX_FREE_DOCUMENTS) {
+            free.offer(document);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+}
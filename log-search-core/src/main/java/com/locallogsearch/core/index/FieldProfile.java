@@ -0,0 +1,249 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import com.locallogsearch.core.config.FieldMapping;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What {@link FieldTypeRegistry} knows about one field of an index: its declared
+ * mapping and its learned type. The type is decided from the first values; a field
+ * that later sees the other kind of value becomes {@link FieldType#MIXED}.
+ */
+public class FieldProfile {
+    private static final Logger log = LoggerFactory.getLogger(FieldProfile.class);
+    
+    private final String name;
+    private final FieldTypeRegistry registry;
+    private final LongAdder values = new LongAdder();
+    private final LongAdder numericValues = new LongAdder();
+    private volatile FieldType type;
+    private volatile String unit;
+    private volatile FieldMapping mapping = FieldMapping.DYNAMIC;
+    private volatile boolean facetsDisabled;
+    private volatile long facetCardinality;
+    private volatile HyperLogLog facetValues;
+    private int facetRegisterChanges; // Racy; only paces the estimates
+    
+    // Guarded by this while the type is UNKNOWN
+    private int sampled;
+    private int sampledNumeric;
+    
+    FieldProfile(String name, FieldType type, String unit, FieldTypeRegistry registry) {
+        this.name = name;
+        this.type = type;
+        this.unit = unit;
+        this.registry = registry;
+    }
+    
+    /**
+     * Count a value of this field that is not looked at as a number.
+     */
+    void count() {
+        values.increment();
+    }
+    
+    /**
+     * Record a value of this field.
+     *
+     * @return the value as a number in its canonical unit, or NaN if it is not one
+     */
+    double observe(String value) {
+        values.increment();
+        FieldType current = type;
+        if (current == FieldType.STRING && !NumericValues.mayBeNumeric(value)) {
+            return Double.NaN;
+        }
+        double number = NumericValues.parse(value);
+        boolean numeric = !Double.isNaN(number);
+        if (numeric) {
+            numericValues.increment();
+            if (unit == null) {
+                String valueUnit = NumericValues.unit(value);
+                if (valueUnit != null) {
+                    recordUnit(valueUnit);
+                }
+            }
+        }
+        switch (current) {
+            case UNKNOWN -> sample(numeric);
+            case NUMERIC -> {
+                if (!numeric) {
+                    changeType(FieldType.MIXED);
+                }
+            }
+            case STRING -> {
+                if (numeric) {
+                    changeType(FieldType.MIXED);
+                }
+            }
+            default -> { }
+        }
+        return number;
+    }
+    
+    private synchronized void sample(boolean numeric) {
+        if (type != FieldType.UNKNOWN) {
+            return; // Decided meanwhile; a later value will catch a mismatch
+        }
+        sampled++;
+        if (numeric) {
+            sampledNumeric++;
+        }
+        if (sampled >= registry.getSampleSize()) {
+            changeType(sampledNumeric == sampled ? FieldType.NUMERIC
+                : sampledNumeric == 0 ? FieldType.STRING : FieldType.MIXED);
+        }
+    }
+    
+    /**
+     * Count a facet value of this field.
+     *
+     * @return whether to index the facet; {@code false} once the field has more
+     *         distinct values than the registry's facet cardinality limit
+     */
+    boolean acceptFacet(String value) {
+        if (facetsDisabled) {
+            return false;
+        }
+        long limit = registry.getFacetCardinalityLimit();
+        if (limit <= 0) {
+            return true;
+        }
+        HyperLogLog sketch = facetValues;
+        if (sketch == null) {
+            sketch = createFacetSketch();
+        }
+        // Registers rarely change once a field's values repeat; estimate on every 64th change
+        if (sketch.add(value) && (++facetRegisterChanges & 63) == 0) {
+            long estimate = sketch.estimate();
+            facetCardinality = estimate;
+            if (estimate > limit) {
+                disableFacets(estimate);
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private synchronized HyperLogLog createFacetSketch() {
+        if (facetValues == null) {
+            facetValues = new HyperLogLog();
+        }
+        return facetValues;
+    }
+    
+    private synchronized void disableFacets(long estimate) {
+        if (!facetsDisabled) {
+            facetsDisabled = true;
+            facetValues = null;
+            registry.markChanged();
+            log.info("Stopped indexing facets of field {}: about {} distinct values", name, estimate);
+        }
+    }
+    
+    private synchronized void recordUnit(String newUnit) {
+        if (unit == null) {
+            unit = newUnit;
+            registry.markChanged();
+        }
+    }
+    
+    private synchronized void changeType(FieldType newType) {
+        if (type != newType && type != FieldType.MIXED) {
+            type = newType;
+            registry.markChanged();
+        }
+    }
+    
+    /**
+     * Whether facets are no longer indexed for this field because it has too many
+     * distinct values.
+     */
+    public boolean isFacetsDisabled() {
+        return facetsDisabled;
+    }
+    
+    /**
+     * Estimated distinct facet values seen since the index was opened, or when facets
+     * were disabled.
+     */
+    public long getFacetCardinality() {
+        return facetCardinality;
+    }
+    
+    void restoreFacets(boolean facetsDisabled, long facetCardinality) {
+        this.facetsDisabled = facetsDisabled;
+        this.facetCardinality = facetCardinality;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public FieldType getType() {
+        return type;
+    }
+    
+    public FieldMapping getMapping() {
+        return mapping;
+    }
+    
+    /**
+     * @return whether the mapping changed
+     */
+    boolean setMapping(FieldMapping mapping) {
+        if (this.mapping == mapping) {
+            return false;
+        }
+        this.mapping = mapping;
+        return true;
+    }
+    
+    /**
+     * Canonical unit of the field's numbers, from the first value that had a unit
+     * suffix; {@code null} if none had.
+     */
+    public String getUnit() {
+        return unit;
+    }
+    
+    /**
+     * Values seen since the index was opened.
+     */
+    public long getValues() {
+        return values.sum();
+    }
+    
+    /**
+     * Values seen since the index was opened that were numbers.
+     */
+    public long getNumericValues() {
+        return numericValues.sum();
+    }
+}
@@ -0,0 +1,441 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.locallogsearch.core.config.FieldMapping;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Fields of one index: how each is mapped, and its type learned from the values
+ * being indexed so that only numeric fields are parsed as numbers. Saved next to the
+ * index with each commit and loaded when the index is next opened.
+ */
+public class FieldTypeRegistry {
+    private static final Logger log = LoggerFactory.getLogger(FieldTypeRegistry.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    static final String FILE_NAME = "field-types.json";
+    private static final int MAX_OVERFLOW_SAMPLE = 100;
+    
+    /**
+     * Keyword field holding {@code key=value} terms of the fields beyond the index's
+     * dynamic field limit.
+     */
+    public static final String OVERFLOW_FIELD = "_overflow";
+    
+    private final Path file;
+    private final int sampleSize;
+    private final long facetCardinalityLimit;
+    private final int maxDynamicFields;
+    private final Map<String, FieldProfile> fields = new ConcurrentHashMap<>();
+    private final AtomicInteger dynamicFields = new AtomicInteger();
+    private final LongAdder overflowValues = new LongAdder();
+    private final Set<String> overflowSample = ConcurrentHashMap.newKeySet();
+    private final Map<String, Map<String, FieldMapping>> declarations = new LinkedHashMap<>(); // By declarer
+    private final Map<String, FieldMapping> pendingMappings = new ConcurrentHashMap<>();
+    private volatile boolean changed = false;
+    
+    /**
+     * @param file       where the types are saved, or {@code null} to keep them in memory
+     * @param sampleSize values of a new field to see before deciding its type
+     */
+    public FieldTypeRegistry(Path file, int sampleSize) {
+        this(file, sampleSize, 0);
+    }
+    
+    /**
+     * @param facetCardinalityLimit distinct values of a field above which its facets are
+     *                              no longer indexed; 0 for no limit
+     */
+    public FieldTypeRegistry(Path file, int sampleSize, long facetCardinalityLimit) {
+        this(file, sampleSize, facetCardinalityLimit, 0);
+    }
+    
+    /**
+     * @param maxDynamicFields undeclared fields the index may have; values of further
+     *                         ones go to {@link #OVERFLOW_FIELD}. 0 for no limit
+     */
+    public FieldTypeRegistry(Path file, int sampleSize, long facetCardinalityLimit, int maxDynamicFields) {
+        this.file = file;
+        this.sampleSize = Math.max(1, sampleSize);
+        this.facetCardinalityLimit = facetCardinalityLimit;
+        this.maxDynamicFields = maxDynamicFields;
+        load();
+    }
+    
+    /**
+     * The profile of a field, created on first use.
+     */
+    public FieldProfile profile(String name) {
+        FieldProfile profile = fields.get(name);
+        if (profile == null) {
+            profile = fields.computeIfAbsent(name, n -> {
+                changed = true;
+                dynamicFields.incrementAndGet();
+                return new FieldProfile(n, FieldType.UNKNOWN, null, this);
+            });
+        }
+        return profile;
+    }
+    
+    /**
+     * The profile of a field about to be indexed, or {@code null} if it is a new
+     * undeclared field and the index already has its maximum of dynamic fields.
+     */
+    public FieldProfile indexedProfile(String name) {
+        FieldProfile profile = fields.get(name);
+        if (profile != null) {
+            return profile;
+        }
+        if (maxDynamicFields <= 0) {
+            return profile(name);
+        }
+        // Taking a slot below the limit and adding the field happen together, so
+        // concurrent new fields cannot overshoot it
+        profile = fields.computeIfAbsent(name, n -> {
+            if (!reserveDynamicField()) {
+                return null;
+            }
+            changed = true;
+            return new FieldProfile(n, FieldType.UNKNOWN, null, this);
+        });
+        if (profile == null) {
+            overflowValues.increment();
+            if (overflowSample.size() < MAX_OVERFLOW_SAMPLE && overflowSample.add(name) && overflowSample.size() == 1) {
+                log.warn("Reached the limit of {} dynamic fields; values of new fields such as {} go to {}",
+                    maxDynamicFields, name, OVERFLOW_FIELD);
+            }
+        }
+        return profile;
+    }
+    
+    private boolean reserveDynamicField() {
+        while (true) {
+            int count = dynamicFields.get();
+            if (count >= maxDynamicFields) {
+                return false;
+            }
+            if (dynamicFields.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Count the dynamic fields an existing index already holds but the saved types
+     * miss, e.g. when they were not saved after its last commit, so the dynamic field
+     * limit covers them.
+     */
+    void seed(FieldInfos indexed) {
+        if (indexed == null) {
+            return;
+        }
+        for (FieldInfo info : indexed) {
+            // Dynamic fields are analyzed text under their own name, like the raw line
+            if (info.getIndexOptions() == IndexOptions.DOCS_AND_FREQS_AND_POSITIONS
+                    && !info.name.equals("raw_text") && !fields.containsKey(info.name)) {
+                profile(info.name);
+            }
+        }
+    }
+    
+    /**
+     * Declare how fields are indexed from now on, for an index that holds no fields yet.
+     */
+    public void declare(Map<String, FieldMapping> mappings) {
+        declare("", mappings, () -> null);
+    }
+    
+    /**
+     * Declare how fields are indexed from now on. Each declarer, e.g. a source writing
+     * to the index, replaces its previous declaration: fields it no longer declares go
+     * back to the mapping another declarer gives them, or to {@link FieldMapping#DYNAMIC}.
+     *
+     * Lucene fixes how a field name is indexed once it is in the index, so a mapping
+     * that would index an existing field differently is not applied. It is kept in
+     * {@link #getPendingMappings()} and takes effect when the index is cleared.
+     *
+     * @param indexed supplies the fields of the index so far, or {@code null} if it has
+     *                none; only asked when a mapping changes
+     */
+    public synchronized void declare(String declarer, Map<String, FieldMapping> mappings,
+                                     Supplier<FieldInfos> indexed) {
+        Map<String, FieldMapping> declared = new LinkedHashMap<>();
+        mappings.forEach((name, mapping) -> declared.put(name, mapping != null ? mapping : FieldMapping.DYNAMIC));
+        Map<String, FieldMapping> previous = declarations.remove(declarer);
+        declarations.put(declarer, declared); // Last declarer wins where mappings differ
+        
+        Map<String, FieldMapping> targets = new LinkedHashMap<>();
+        if (previous != null) {
+            for (String name : previous.keySet()) {
+                if (!declared.containsKey(name)) {
+                    targets.put(name, declaredMapping(name));
+                }
+            }
+        }
+        targets.putAll(declared);
+        
+        FieldInfos fieldInfos = null;
+        boolean fieldInfosRead = false;
+        for (Map.Entry<String, FieldMapping> target : targets.entrySet()) {
+            FieldProfile profile = fields.get(target.getKey());
+            if ((profile != null ? profile.getMapping() : FieldMapping.DYNAMIC) == target.getValue()) {
+                pendingMappings.remove(target.getKey());
+                continue;
+            }
+            if (!fieldInfosRead) {
+                fieldInfos = indexed.get();
+                fieldInfosRead = true;
+            }
+            apply(target.getKey(), target.getValue(), fieldInfos);
+        }
+    }
+    
+    private FieldMapping declaredMapping(String name) {
+        FieldMapping mapping = FieldMapping.DYNAMIC;
+        for (Map<String, FieldMapping> declared : declarations.values()) {
+            mapping = declared.getOrDefault(name, mapping);
+        }
+        return mapping;
+    }
+    
+    private void apply(String name, FieldMapping mapping, FieldInfos indexed) {
+        FieldInfo info = indexed != null ? indexed.fieldInfo(name) : null;
+        if (info != null && mapping != FieldMapping.IGNORE && info.getIndexOptions() != indexOptions(mapping)) {
+            if (pendingMappings.put(name, mapping) != mapping) {
+                log.warn("Field {} is already indexed with {}; it stays {} until the index is cleared and reindexed as {}",
+                    name, info.getIndexOptions(), profile(name).getMapping(), mapping);
+            }
+            return;
+        }
+        pendingMappings.remove(name);
+        
+        FieldProfile profile = profile(name);
+        FieldMapping previous = profile.getMapping();
+        if (profile.setMapping(mapping)) {
+            // Declared fields don't count towards the dynamic field limit
+            if (previous == FieldMapping.DYNAMIC) {
+                dynamicFields.decrementAndGet();
+            } else if (mapping == FieldMapping.DYNAMIC) {
+                dynamicFields.incrementAndGet();
+            }
+            changed = true;
+            log.info("Field {} mapped as {}", name, mapping);
+        }
+    }
+    
+    /**
+     * How a mapping indexes the field under its own name; see {@link ReusableDocument}.
+     */
+    static IndexOptions indexOptions(FieldMapping mapping) {
+        return switch (mapping) {
+            case DYNAMIC, TEXT -> IndexOptions.DOCS_AND_FREQS_AND_POSITIONS;
+            case KEYWORD -> IndexOptions.DOCS;
+            case NUMERIC, STORED, IGNORE -> IndexOptions.NONE;
+        };
+    }
+    
+    /**
+     * Declared mappings not applied yet because the index already holds the field
+     * indexed another way, by field name. They take effect once the index is cleared.
+     */
+    public Map<String, FieldMapping> getPendingMappings() {
+        return new TreeMap<>(pendingMappings);
+    }
+    
+    /**
+     * Names of the fields with the given mapping.
+     */
+    public Set<String> fieldsMappedAs(FieldMapping mapping) {
+        Set<String> names = new HashSet<>();
+        for (FieldProfile profile : fields.values()) {
+            if (profile.getMapping() == mapping) {
+                names.add(profile.getName());
+            }
+        }
+        return names;
+    }
+    
+    public FieldProfile getField(String name) {
+        return fields.get(name);
+    }
+    
+    /**
+     * All fields, by name.
+     */
+    public List<FieldProfile> getFields() {
+        List<FieldProfile> result = new ArrayList<>(fields.values());
+        result.sort(Comparator.comparing(FieldProfile::getName));
+        return result;
+    }
+    
+    public int getSampleSize() {
+        return sampleSize;
+    }
+    
+    public long getFacetCardinalityLimit() {
+        return facetCardinalityLimit;
+    }
+    
+    public int getMaxDynamicFields() {
+        return maxDynamicFields;
+    }
+    
+    public int getDynamicFields() {
+        return dynamicFields.get();
+    }
+    
+    /**
+     * Values indexed into {@link #OVERFLOW_FIELD} since the index was opened.
+     */
+    public long getOverflowValues() {
+        return overflowValues.sum();
+    }
+    
+    /**
+     * Some of the field names whose values went to {@link #OVERFLOW_FIELD}.
+     */
+    public Set<String> getOverflowFields() {
+        return new TreeSet<>(overflowSample);
+    }
+    
+    /**
+     * Names of the fields whose facets are no longer indexed; searches skip them.
+     */
+    public Set<String> fieldsWithoutFacets() {
+        Set<String> names = new HashSet<>();
+        for (FieldProfile profile : fields.values()) {
+            if (profile.isFacetsDisabled()) {
+                names.add(profile.getName());
+            }
+        }
+        return names;
+    }
+    
+    void markChanged() {
+        changed = true;
+    }
+    
+    /**
+     * Forget learned types and undeclared fields, e.g. when the index is cleared.
+     * Declared mappings are kept, and pending ones now apply.
+     */
+    public synchronized void clear() throws IOException {
+        fields.clear();
+        pendingMappings.clear();
+        dynamicFields.set(0);
+        overflowValues.reset();
+        overflowSample.clear();
+        changed = false;
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+        for (Map<String, FieldMapping> declared : declarations.values()) {
+            declared.forEach((name, mapping) -> apply(name, mapping, null));
+        }
+    }
+    
+    /**
+     * Write the types if they changed since the last save.
+     */
+    public void save() throws IOException {
+        if (!changed || file == null) {
+            return;
+        }
+        changed = false; // Before writing, so a concurrent change is saved next time
+        
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (FieldProfile profile : getFields()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", profile.getName());
+            entry.put("type", profile.getType().name());
+            if (profile.getUnit() != null) {
+                entry.put("unit", profile.getUnit());
+            }
+            if (profile.getMapping() != FieldMapping.DYNAMIC) {
+                entry.put("mapping", profile.getMapping().name());
+            }
+            if (profile.isFacetsDisabled()) {
+                entry.put("facetsDisabled", true);
+                entry.put("facetCardinality", profile.getFacetCardinality());
+            }
+            entries.add(entry);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        MAPPER.writeValue(temp.toFile(), Map.of("fields", entries));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        try {
+            for (JsonNode entry : MAPPER.readTree(file.toFile()).path("fields")) {
+                String name = entry.path("name").asText();
+                FieldType type = FieldType.valueOf(entry.path("type").asText());
+                String unit = entry.hasNonNull("unit") ? entry.get("unit").asText() : null;
+                FieldProfile profile = new FieldProfile(name, type, unit, this);
+                if (entry.hasNonNull("mapping")) {
+                    profile.setMapping(FieldMapping.valueOf(entry.get("mapping").asText()));
+                }
+                if (entry.path("facetsDisabled").asBoolean(false)) {
+                    profile.restoreFacets(true, entry.path("facetCardinality").asLong());
+                }
+                fields.put(name, profile);
+                if (profile.getMapping() == FieldMapping.DYNAMIC) {
+                    dynamicFields.incrementAndGet();
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Ignoring unreadable field types in {}", file, e);
+            fields.clear();
+            dynamicFields.set(0);
+        }
+    }
+}
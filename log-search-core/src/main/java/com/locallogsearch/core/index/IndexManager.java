@@ -24,14 +24,13 @@
 
 package com.locallogsearch.core.index;
 
+import com.locallogsearch.core.config.FieldMapping;
 import com.locallogsearch.core.config.IndexConfig;
 import com.locallogsearch.core.model.LogEntry;
 import com.locallogsearch.core.truncation.TruncationConfig;
 import com.locallogsearch.core.truncation.TruncationPolicy;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.*;
-import org.apache.lucene.facet.FacetsConfig;
-import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
 import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.Directory;
@@ -49,22 +48,27 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class IndexManager implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(IndexManager.class);
+    private static final String CHECKPOINT_PREFIX = "checkpoint:";
+    private static final String INDEX_CONFIG_DECLARER = ""; // Declares the mappings of the index config
     
     private final IndexConfig config;
     private final Map<String, IndexWriter> indexWriters;
+    private final Map<String, CommitCheckpoints> checkpoints = new ConcurrentHashMap<>();
+    private final Map<String, FieldTypeRegistry> fieldTypes = new ConcurrentHashMap<>();
     private final ScheduledExecutorService commitScheduler;
     private final StandardAnalyzer analyzer;
-    private final FacetsConfig facetsConfig;
+    private final ThreadLocal<DocumentBuilder> documentBuilders = ThreadLocal.withInitial(DocumentBuilder::new);
+    private volatile boolean skipFacets = false;
     
     public IndexManager(IndexConfig config) {
         this.config = config;
         this.indexWriters = new ConcurrentHashMap<>();
         this.analyzer = new StandardAnalyzer();
-        this.facetsConfig = new FacetsConfig();
-        // Use default field name for facets (don't override)
         this.commitScheduler = Executors.newSingleThreadScheduledExecutor();
         
         // Schedule periodic commits
@@ -77,56 +81,262 @@ public class IndexManager implements AutoCloseable {
     }
     
     public void indexLogEntry(LogEntry entry) throws IOException {
-        String indexName = entry.getIndexName();
-        IndexWriter writer = getOrCreateWriter(indexName);
-        
-        Document doc = new Document();
-        
-        // Store raw text
-        doc.add(new TextField("raw_text", entry.getRawText(), Field.Store.YES));
-        
-        // Store timestamp
-        if (entry.getTimestamp() != null) {
-            doc.add(new LongPoint("timestamp", entry.getTimestamp().toEpochMilli()));
-            doc.add(new StoredField("timestamp", entry.getTimestamp().toEpochMilli()));
-            doc.add(new NumericDocValuesField("timestamp", entry.getTimestamp().toEpochMilli()));
-        }
-        
-        // Store source
-        doc.add(new StringField("source", entry.getSource(), Field.Store.YES));
-        
-        // Store all extracted fields
-        for (Map.Entry<String, String> field : entry.getFields().entrySet()) {
-            String fieldName = field.getKey();
-            String fieldValue = field.getValue();
-            
-            // Store as searchable text and exact match
-            doc.add(new TextField(fieldName, fieldValue, Field.Store.YES));
-            doc.add(new StringField(fieldName + "_exact", fieldValue, Field.Store.NO));
-            
-            // Add facet field for efficient aggregation
-            // Skip very long values to avoid bloating the index
-            if (fieldValue.length() <= 100) {
-                doc.add(new SortedSetDocValuesFacetField(fieldName, fieldValue));
-                // Configure facet dimension to be multi-valued
-                facetsConfig.setMultiValued(fieldName, true);
+        indexBatch(List.of(entry));
+    }
+    
+    /**
+     * Index a batch of entries with one {@link IndexWriter#addDocuments} call per index,
+     * building the documents with this thread's reusable document builder.
+     */
+    public void indexBatch(List<LogEntry> entries) throws IOException {
+        int start = 0;
+        while (start < entries.size()) {
+            // Consecutive entries for the same index go in one call
+            String indexName = entries.get(start).getIndexName();
+            int end = start + 1;
+            while (end < entries.size() && indexName.equals(entries.get(end).getIndexName())) {
+                end++;
             }
-            
-            // Try to parse as number and store numeric field for range queries
+            addDocuments(indexName, buildDocuments(entries.subList(start, end)));
+            start = end;
+        }
+    }
+    
+    /**
+     * Build documents for parsed entries with this thread's document builder, without
+     * adding them to an index yet. Each document is recycled by
+     * {@link #addDocuments(String, List)}.
+     */
+    public List<ReusableDocument> buildDocuments(List<LogEntry> entries) {
+        DocumentBuilder builder = documentBuilders.get();
+        List<ReusableDocument> documents = new ArrayList<>(entries.size());
+        String registryIndex = null;
+        FieldTypeRegistry registry = null;
+        for (LogEntry entry : entries) {
             try {
-                double numericValue = Double.parseDouble(fieldValue.trim());
-                // Store as DoublePoint for efficient range queries
-                doc.add(new DoublePoint(fieldName + "_num", numericValue));
-                doc.add(new StoredField(fieldName + "_num", numericValue));
-                doc.add(new DoubleDocValuesField(fieldName + "_num", numericValue));
-            } catch (NumberFormatException e) {
-                // Not a number, skip numeric indexing
+                if (!entry.getIndexName().equals(registryIndex)) {
+                    registryIndex = entry.getIndexName();
+                    registry = getFieldTypes(registryIndex);
+                }
+                documents.add(builder.build(entry, !skipFacets, registry));
+            } catch (RuntimeException e) {
+                log.error("Failed to build document for log line: {}", entry.getRawText(), e);
+            }
+        }
+        return documents;
+    }
+    
+    /**
+     * Add documents built by {@link #buildDocuments(List)} to an index in one call, then
+     * hand them back to their builders for reuse.
+     */
+    public void addDocuments(String indexName, List<ReusableDocument> documents) throws IOException {
+        addDocuments(indexName, documents, null);
+    }
+    
+    /**
+     * Add documents and run {@code afterAdd} before any commit can happen, so a
+     * checkpoint recorded there is committed together with exactly these documents.
+     * {@code afterAdd} is not run if adding fails.
+     */
+    public void addDocuments(String indexName, List<ReusableDocument> documents, Runnable afterAdd) throws IOException {
+        if (documents.isEmpty() && afterAdd == null) {
+            return;
+        }
+        CommitCheckpoints commitCheckpoints = checkpoints(indexName);
+        commitCheckpoints.lock.readLock().lock();
+        try {
+            if (!documents.isEmpty()) {
+                IndexWriter writer = getOrCreateWriter(indexName);
+                writer.addDocuments(documents);
+            }
+            if (afterAdd != null) {
+                afterAdd.run();
+            }
+        } finally {
+            commitCheckpoints.lock.readLock().unlock();
+            for (ReusableDocument document : documents) {
+                document.release();
+            }
+        }
+    }
+    
+    /**
+     * Record where a source has got to. The value is written to the index's commit user
+     * data with the next commit, so it only becomes durable together with the documents
+     * added before it. Call it from the {@code afterAdd} hook of
+     * {@link #addDocuments(String, List, Runnable)}, or when the position moves without
+     * adding documents.
+     */
+    public void recordCheckpoint(String indexName, String key, String checkpoint) {
+        CommitCheckpoints commitCheckpoints = checkpoints(indexName);
+        if (!checkpoint.equals(commitCheckpoints.live.put(key, checkpoint))) {
+            commitCheckpoints.changed = true;
+        }
+    }
+    
+    /**
+     * Drop a checkpoint from the next commit of the index.
+     */
+    public void removeCheckpoint(String indexName, String key) {
+        CommitCheckpoints commitCheckpoints = checkpoints(indexName);
+        if (commitCheckpoints.live.remove(key) != null) {
+            commitCheckpoints.changed = true;
+        }
+    }
+    
+    /**
+     * Checkpoints stored with the last commit of an index, by key. Empty if the index
+     * has not been committed yet.
+     */
+    public Map<String, String> getCommittedCheckpoints(String indexName) throws IOException {
+        Path indexPath = Paths.get(config.getBaseDirectory(), indexName);
+        if (!Files.isDirectory(indexPath)) {
+            return Collections.emptyMap();
+        }
+        try (Directory directory = FSDirectory.open(indexPath)) {
+            if (!DirectoryReader.indexExists(directory)) {
+                return Collections.emptyMap();
+            }
+            return fromUserData(SegmentInfos.readLatestCommit(directory).getUserData().entrySet());
+        }
+    }
+    
+    private CommitCheckpoints checkpoints(String indexName) {
+        return checkpoints.computeIfAbsent(indexName, name -> new CommitCheckpoints());
+    }
+    
+    private static Map<String, String> fromUserData(Iterable<Map.Entry<String, String>> userData) {
+        Map<String, String> result = new HashMap<>();
+        for (Map.Entry<String, String> entry : userData) {
+            if (entry.getKey().startsWith(CHECKPOINT_PREFIX)) {
+                result.put(entry.getKey().substring(CHECKPOINT_PREFIX.length()), entry.getValue());
             }
         }
+        return result;
+    }
+    
+    /**
+     * Commit with the recorded checkpoints as user data. Adds are held off meanwhile,
+     * so the checkpoints match the documents in the commit.
+     */
+    private void commitWithCheckpoints(String indexName, IndexWriter writer, boolean close) throws IOException {
+        CommitCheckpoints commitCheckpoints = checkpoints(indexName);
+        commitCheckpoints.lock.writeLock().lock();
+        try {
+            if (commitCheckpoints.changed) {
+                commitCheckpoints.changed = false; // Before copying, so a concurrent record is not lost
+                Map<String, String> userData = new HashMap<>();
+                for (Map.Entry<String, String> entry : commitCheckpoints.live.entrySet()) {
+                    userData.put(CHECKPOINT_PREFIX + entry.getKey(), entry.getValue());
+                }
+                writer.setLiveCommitData(userData.entrySet());
+            }
+            if (close) {
+                writer.close();
+            } else {
+                writer.commit();
+            }
+            commitCheckpoints.lastCommitTime = System.currentTimeMillis();
+        } finally {
+            commitCheckpoints.lock.writeLock().unlock();
+        }
         
-        // Process document with FacetsConfig to properly index facet fields
-        Document processedDoc = facetsConfig.build(doc);
-        writer.addDocument(processedDoc);
+        FieldTypeRegistry registry = fieldTypes.get(indexName);
+        if (registry != null) {
+            try {
+                registry.save();
+            } catch (IOException e) {
+                log.warn("Failed to save field types of index: {}", indexName, e);
+            }
+        }
+    }
+    
+    /**
+     * The field mappings and learned types of an index, loaded from the index directory
+     * on first use, plus any dynamic fields in the index the saved types miss. Mappings
+     * declared in the index config override saved ones.
+     */
+    public FieldTypeRegistry getFieldTypes(String indexName) {
+        FieldTypeRegistry registry = fieldTypes.get(indexName);
+        if (registry == null) {
+            registry = fieldTypes.computeIfAbsent(indexName, name -> {
+                FieldTypeRegistry created = new FieldTypeRegistry(getIndexPath(name).resolve(FieldTypeRegistry.FILE_NAME),
+                    config.getFieldTypeSampleSize(), config.getFacetCardinalityLimit(), config.getMaxDynamicFields());
+                created.seed(indexedFields(name));
+                Map<String, FieldMapping> mappings = config.getFieldMappings().get(name);
+                if (mappings != null) {
+                    created.declare(INDEX_CONFIG_DECLARER, mappings, () -> indexedFields(name));
+                }
+                return created;
+            });
+        }
+        return registry;
+    }
+    
+    /**
+     * Declare how fields of an index are indexed from now on, e.g. the mappings of a
+     * source writing to it. Replaces what {@code declarer} declared before; see
+     * {@link FieldTypeRegistry#declare(String, Map, java.util.function.Supplier)}.
+     */
+    public void declareFieldMappings(String indexName, String declarer, Map<String, FieldMapping> mappings) {
+        if (indexName != null) {
+            FieldTypeRegistry registry = getFieldTypes(indexName);
+            registry.declare(declarer, mappings != null ? mappings : Collections.emptyMap(), () -> indexedFields(indexName));
+        }
+    }
+    
+    /**
+     * How the fields of an index are indexed so far, including documents not committed
+     * yet, or {@code null} if it has none.
+     */
+    private FieldInfos indexedFields(String indexName) {
+        try {
+            IndexWriter writer = indexWriters.get(indexName);
+            if (writer != null) {
+                try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                    return FieldInfos.getMergedFieldInfos(reader);
+                }
+            }
+            Path indexPath = getIndexPath(indexName);
+            if (!Files.isDirectory(indexPath)) {
+                return null;
+            }
+            try (Directory directory = FSDirectory.open(indexPath)) {
+                if (!DirectoryReader.indexExists(directory)) {
+                    return null;
+                }
+                try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                    return FieldInfos.getMergedFieldInfos(reader);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read the fields of index {}; applying field mappings unchecked", indexName, e);
+            return null;
+        }
+    }
+    
+    /**
+     * When this index was last committed by this manager, or 0 if it has not been.
+     */
+    public long getLastCommitTime(String indexName) {
+        CommitCheckpoints commitCheckpoints = checkpoints.get(indexName);
+        return commitCheckpoints != null ? commitCheckpoints.lastCommitTime : 0;
+    }
+    
+    /**
+     * Build documents without facet fields, e.g. to shed load while indexing falls
+     * behind. Facet counts miss the documents indexed meanwhile.
+     */
+    public void setSkipFacets(boolean skipFacets) {
+        if (this.skipFacets != skipFacets) {
+            log.info("{} facet fields", skipFacets ? "Skipping" : "Indexing");
+        }
+        this.skipFacets = skipFacets;
+    }
+    
+    public boolean isSkipFacets() {
+        return skipFacets;
     }
     
     private IndexWriter getOrCreateWriter(String indexName) throws IOException {
@@ -140,7 +350,12 @@ public class IndexManager implements AutoCloseable {
                 writerConfig.setCommitOnClose(true);
                 
                 log.info("Created index writer for: {}", name);
-                return new IndexWriter(directory, writerConfig);
+                IndexWriter writer = new IndexWriter(directory, writerConfig);
+                
+                // Carry the checkpoints of the last commit over into the next ones
+                Map<String, String> live = checkpoints(name).live;
+                fromUserData(writer.getLiveCommitData()).forEach(live::putIfAbsent);
+                return writer;
             } catch (IOException e) {
                 throw new RuntimeException("Failed to create index writer for: " + name, e);
             }
@@ -150,7 +365,7 @@ public class IndexManager implements AutoCloseable {
     public void commit(String indexName) throws IOException {
         IndexWriter writer = indexWriters.get(indexName);
         if (writer != null) {
-            writer.commit();
+            commitWithCheckpoints(indexName, writer, false);
             log.debug("Committed index: {}", indexName);
         }
     }
@@ -158,7 +373,7 @@ public class IndexManager implements AutoCloseable {
     public void commitAll() {
         for (Map.Entry<String, IndexWriter> entry : indexWriters.entrySet()) {
             try {
-                entry.getValue().commit();
+                commitWithCheckpoints(entry.getKey(), entry.getValue(), false);
                 log.debug("Committed index: {}", entry.getKey());
             } catch (IOException e) {
                 log.error("Failed to commit index: {}", entry.getKey(), e);
@@ -182,6 +397,15 @@ public class IndexManager implements AutoCloseable {
             existingWriter.close();
         }
         
+        // Checkpoints and field types of the cleared documents no longer apply
+        checkpoints.remove(indexName);
+        FieldTypeRegistry registry = fieldTypes.get(indexName);
+        if (registry != null) {
+            registry.clear();
+        } else {
+            Files.deleteIfExists(getIndexPath(indexName).resolve(FieldTypeRegistry.FILE_NAME));
+        }
+        
         // Delete all documents by creating a new writer and calling deleteAll
         Path indexPath = Paths.get(config.getBaseDirectory(), indexName);
         if (Files.exists(indexPath)) {
@@ -189,6 +413,7 @@ public class IndexManager implements AutoCloseable {
             IndexWriterConfig writerConfig = new IndexWriterConfig(analyzer);
             try (IndexWriter writer = new IndexWriter(directory, writerConfig)) {
                 writer.deleteAll();
+                writer.setLiveCommitData(Collections.<String, String>emptyMap().entrySet());
                 writer.commit();
             }
         }
@@ -229,7 +454,7 @@ public class IndexManager implements AutoCloseable {
         // Close existing writer if open
         IndexWriter existingWriter = indexWriters.remove(indexName);
         if (existingWriter != null) {
-            existingWriter.close();
+            commitWithCheckpoints(indexName, existingWriter, true);
         }
         
         // Delete documents
@@ -302,7 +527,7 @@ public class IndexManager implements AutoCloseable {
             // Close existing writer if open
             IndexWriter existingWriter = indexWriters.remove(indexName);
             if (existingWriter != null) {
-                existingWriter.close();
+                commitWithCheckpoints(indexName, existingWriter, true);
             }
             
             // Delete all documents older than the cutoff
@@ -368,7 +593,7 @@ public class IndexManager implements AutoCloseable {
         
         for (Map.Entry<String, IndexWriter> entry : indexWriters.entrySet()) {
             try {
-                entry.getValue().close();
+                commitWithCheckpoints(entry.getKey(), entry.getValue(), true);
                 log.info("Closed index: {}", entry.getKey());
             } catch (IOException e) {
                 log.error("Failed to close index: {}", entry.getKey(), e);
@@ -379,4 +604,14 @@ public class IndexManager implements AutoCloseable {
     public Path getIndexPath(String indexName) {
         return Paths.get(config.getBaseDirectory(), indexName);
     }
+    
+    /**
+     * Source checkpoints of one index that go into its next commit.
+     */
+    private static final class CommitCheckpoints {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<String, String> live = new ConcurrentHashMap<>();
+        volatile boolean changed = false;
+        volatile long lastCommitTime = 0;
+    }
 }
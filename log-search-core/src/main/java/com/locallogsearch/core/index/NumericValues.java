@@ -0,0 +1,242 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+/**
+ * Reads decimal numbers ({@code -12}, {@code 3.5}, {@code 1e6}, {@code 1,234}) without
+ * throwing for everything else, unlike {@link Double#parseDouble}. A unit suffix is
+ * normalized to the unit's canonical one: durations to milliseconds ({@code 1.5s} is
+ * 1500), sizes to bytes ({@code 2KB} is 2048) and {@code %} is kept as is.
+ */
+public final class NumericValues {
+    public static final String MILLISECONDS = "ms";
+    public static final String BYTES = "bytes";
+    public static final String PERCENT = "%";
+    
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
+    // Matched ignoring case, since query parsers lowercase range bounds. A lone "b"
+    // is too common after digits (hex, ids) to be bytes, so only "B" is, except in terms
+    private static final Suffix[] SUFFIXES = {
+        new Suffix("ns", 1e-6, MILLISECONDS),
+        new Suffix("us", 1e-3, MILLISECONDS),
+        new Suffix("\u00b5s", 1e-3, MILLISECONDS),
+        new Suffix("ms", 1, MILLISECONDS),
+        new Suffix("s", 1000, MILLISECONDS),
+        new Suffix("sec", 1000, MILLISECONDS),
+        new Suffix("min", 60_000, MILLISECONDS),
+        new Suffix("h", 3_600_000, MILLISECONDS),
+        new Suffix("B", 1, BYTES, true),
+        new Suffix("bytes", 1, BYTES),
+        new Suffix("kb", 1L << 10, BYTES),
+        new Suffix("kib", 1L << 10, BYTES),
+        new Suffix("mb", 1L << 20, BYTES),
+        new Suffix("mib", 1L << 20, BYTES),
+        new Suffix("gb", 1L << 30, BYTES),
+        new Suffix("gib", 1L << 30, BYTES),
+        new Suffix("tb", 1L << 40, BYTES),
+        new Suffix("tib", 1L << 40, BYTES),
+        new Suffix("%", 1, PERCENT)
+    };
+    
+    private NumericValues() {
+    }
+    
+    /**
+     * @return the value in its canonical unit, or NaN if {@code value} is not a
+     *         decimal number with an optional known unit
+     */
+    public static double parse(String value) {
+        return parse(value, false);
+    }
+    
+    /**
+     * Like {@link #parse}, for query terms that an analyzer may have lowercased:
+     * {@code 4b} is read as 4 bytes.
+     */
+    public static double parseTerm(String value) {
+        return parse(value, true);
+    }
+    
+    private static double parse(String value, boolean lowercased) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && Character.isWhitespace(value.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(value.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return Double.NaN;
+        }
+        
+        int i = start;
+        boolean negative = value.charAt(i) == '-';
+        if (negative || value.charAt(i) == '+') {
+            i++;
+        }
+        // Up to 18 digits fit in a long; longer numbers go to parseDouble
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        int groupDigits = 0;
+        boolean grouped = false;
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (isDigit(c)) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                groupDigits++;
+            } else if (c == ',' && groupDigits > 0 && (grouped ? groupDigits == 3 : groupDigits <= 3)) {
+                // Thousands separator: 1 to 3 digits before the first, 3 after each
+                grouped = true;
+                groupDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (grouped && groupDigits != 3) {
+            return Double.NaN;
+        }
+        if (i < end && value.charAt(i) == '.') {
+            for (i++; i < end && isDigit(value.charAt(i)); i++) {
+                mantissa = mantissa * 10 + (value.charAt(i) - '0');
+                digits++;
+                scale++;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        boolean exponent = false;
+        if (i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < end && isDigit(value.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return Double.NaN;
+            }
+            exponent = true;
+        }
+        
+        double factor = 1;
+        if (i < end) {
+            Suffix suffix = suffix(value, i, end, lowercased);
+            if (suffix == null) {
+                return Double.NaN;
+            }
+            factor = suffix.factor;
+        }
+        
+        // Both operands are exact doubles, so the division is correctly rounded
+        double number;
+        if (!exponent && digits <= 18 && mantissa < (1L << 53) && scale < POWERS_OF_TEN.length) {
+            number = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+            if (negative) {
+                number = -number;
+            }
+        } else {
+            String text = value.substring(start, i);
+            number = Double.parseDouble(grouped ? text.replace(",", "") : text);
+        }
+        return factor == 1 ? number : number * factor;
+    }
+    
+    /**
+     * The canonical unit of a value's suffix, e.g. {@link #MILLISECONDS} for
+     * {@code 45ms}, or {@code null} if it has none (or is not a number).
+     */
+    public static String unit(String value) {
+        int end = value.length();
+        while (end > 0 && Character.isWhitespace(value.charAt(end - 1))) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && !isDigit(value.charAt(start - 1)) && value.charAt(start - 1) != '.') {
+            start--;
+        }
+        if (start == end || start == 0) {
+            return null;
+        }
+        Suffix suffix = suffix(value, start, end, false);
+        return suffix != null ? suffix.unit : null;
+    }
+    
+    /**
+     * Whether the value might start a number; a cheap check before {@link #parse}.
+     */
+    public static boolean mayBeNumeric(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char c = value.charAt(0);
+        return isDigit(c) || c == '-' || c == '+' || c == '.' || Character.isWhitespace(c);
+    }
+    
+    private static Suffix suffix(String value, int start, int end, boolean lowercased) {
+        while (start < end && value.charAt(start) == ' ') {
+            start++;
+        }
+        int length = end - start;
+        for (Suffix suffix : SUFFIXES) {
+            boolean ignoreCase = !suffix.caseSensitive || lowercased;
+            if (suffix.name.length() == length && value.regionMatches(ignoreCase, start, suffix.name, 0, length)) {
+                return suffix;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private static final class Suffix {
+        final String name;
+        final double factor;
+        final String unit;
+        final boolean caseSensitive;
+        
+        Suffix(String name, double factor, String unit) {
+            this(name, factor, unit, false);
+        }
+        
+        Suffix(String name, double factor, String unit, boolean caseSensitive) {
+            this.name = name;
+            this.factor = factor;
+            this.unit = unit;
+            this.caseSensitive = caseSensitive;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import com.locallogsearch.core.config.FieldMapping;
+import com.locallogsearch.core.model.LogEntry;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.DoublePoint;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A document whose field instances are kept and refilled for the next entry instead
+ * of being allocated per line. Which Lucene fields an extracted field gets depends on
+ * its {@link FieldMapping}.
+ *
+ * Facet fields are written the way {@link FacetsConfig#build} writes flat,
+ * multi-valued sorted-set dimensions: the dim/label path as doc values in
+ * {@code $facets}, plus drill-down terms for the path and for the dimension.
+ */
+public class ReusableDocument implements Iterable<IndexableField> {
+    static final int MAX_FACET_LENGTH = 100;
+    private static final int MAX_CACHED_FIELDS = 1024;
+    private static final int MAX_CACHED_OVERFLOW_FIELDS = 64;
+    
+    private final DocumentBuilder owner;
+    private final List<IndexableField> fields = new ArrayList<>();
+    private final Map<String, FieldSlot> slots = new HashMap<>();
+    private final StringBuilder path = new StringBuilder();
+    private final List<StringField> overflow = new ArrayList<>();
+    private int overflowUsed;
+    
+    private final TextField rawText = new TextField("raw_text", "", Field.Store.YES);
+    private final LongPoint timestampPoint = new LongPoint("timestamp", 0L);
+    private final StoredField timestampStored = new StoredField("timestamp", 0L);
+    private final NumericDocValuesField timestampDocValues = new NumericDocValuesField("timestamp", 0L);
+    private final StringField source = new StringField("source", "", Field.Store.YES);
+    
+    ReusableDocument(DocumentBuilder owner) {
+        this.owner = owner;
+    }
+    
+    void fill(LogEntry entry, boolean facets, FieldTypeRegistry fieldTypes) {
+        fields.clear();
+        overflowUsed = 0;
+        
+        rawText.setStringValue(entry.getRawText());
+        fields.add(rawText);
+        
+        if (entry.getTimestamp() != null) {
+            long millis = entry.getTimestamp().toEpochMilli();
+            timestampPoint.setLongValue(millis);
+            timestampStored.setLongValue(millis);
+            timestampDocValues.setLongValue(millis);
+            fields.add(timestampPoint);
+            fields.add(timestampStored);
+            fields.add(timestampDocValues);
+        }
+        
+        source.setStringValue(entry.getSource());
+        fields.add(source);
+        
+        for (Map.Entry<String, String> field : entry.getFields().entrySet()) {
+            addField(field.getKey(), field.getValue(), facets, fieldTypes);
+        }
+    }
+    
+    private void addField(String name, String value, boolean facets, FieldTypeRegistry fieldTypes) {
+        FieldProfile profile = null;
+        if (fieldTypes != null) {
+            profile = fieldTypes.indexedProfile(name);
+            if (profile == null) {
+                addOverflow(name, value);
+                return;
+            }
+        }
+        FieldMapping mapping = profile != null ? profile.getMapping() : FieldMapping.DYNAMIC;
+        if (mapping == FieldMapping.IGNORE) {
+            return;
+        }
+        
+        FieldSlot slot = slots.get(name);
+        if (slot == null) {
+            if (slots.size() >= MAX_CACHED_FIELDS) {
+                slots.clear(); // Unbounded field names; don't keep a slot for each
+            }
+            slot = new FieldSlot(name);
+            slots.put(name, slot);
+        }
+        
+        switch (mapping) {
+            case TEXT -> {
+                profile.count();
+                addText(slot, value);
+            }
+            case KEYWORD -> {
+                profile.count();
+                slot.keywordFields();
+                slot.keyword.setStringValue(value);
+                fields.add(slot.keyword);
+                addFacet(slot, profile, value, facets);
+            }
+            case NUMERIC -> {
+                slot.storedFields();
+                slot.stored.setStringValue(value);
+                fields.add(slot.stored);
+                addNumber(slot, profile.observe(value));
+            }
+            case STORED -> {
+                profile.count();
+                slot.storedFields();
+                slot.stored.setStringValue(value);
+                fields.add(slot.stored);
+            }
+            default -> {
+                // Searchable text and exact match
+                addText(slot, value);
+                slot.exact.setStringValue(value);
+                fields.add(slot.exact);
+                addFacet(slot, profile, value, facets);
+                
+                // Numeric value for range queries; fields known to hold text are not parsed
+                addNumber(slot, profile != null ? profile.observe(value) : NumericValues.parse(value));
+            }
+        }
+    }
+    
+    /**
+     * Index a field beyond the dynamic field limit as a {@code name=value} term of the
+     * overflow field, so it is searchable without adding a field to the index.
+     */
+    private void addOverflow(String name, String value) {
+        StringField field;
+        if (overflowUsed < overflow.size()) {
+            field = overflow.get(overflowUsed);
+        } else {
+            field = new StringField(FieldTypeRegistry.OVERFLOW_FIELD, "", Field.Store.NO);
+            if (overflow.size() < MAX_CACHED_OVERFLOW_FIELDS) {
+                overflow.add(field);
+            }
+        }
+        overflowUsed++;
+        path.setLength(0);
+        path.append(name).append('=').append(value);
+        field.setStringValue(path.toString());
+        fields.add(field);
+    }
+    
+    private void addText(FieldSlot slot, String value) {
+        slot.text.setStringValue(value);
+        fields.add(slot.text);
+    }
+    
+    private void addFacet(FieldSlot slot, FieldProfile profile, String value, boolean facets) {
+        // Very long values, and fields with too many distinct ones, would bloat the index
+        if (facets && !slot.name.isEmpty() && !value.isEmpty() && value.length() <= MAX_FACET_LENGTH
+                && (profile == null || profile.acceptFacet(value))) {
+            path.setLength(0);
+            path.append(slot.name).append(FacetsConfig.DELIM_CHAR).append(value);
+            slot.facetPathBytes.copyChars(path);
+            slot.facetDocValues.setBytesValue(slot.facetPathBytes.get());
+            // Indexed string fields only take a String value
+            slot.facetPathTerm.setStringValue(path.toString());
+            fields.add(slot.facetDocValues);
+            fields.add(slot.facetPathTerm);
+            fields.add(slot.facetDimTerm);
+        }
+    }
+    
+    private void addNumber(FieldSlot slot, double number) {
+        if (!Double.isNaN(number)) {
+            slot.numericFields();
+            slot.numPoint.setDoubleValue(number);
+            slot.numStored.setDoubleValue(number);
+            slot.numDocValues.setDoubleValue(number);
+            fields.add(slot.numPoint);
+            fields.add(slot.numStored);
+            fields.add(slot.numDocValues);
+        }
+    }
+    
+    /**
+     * Hand the document back to its builder once it has been indexed.
+     */
+    public void release() {
+        owner.recycle(this);
+    }
+    
+    @Override
+    public Iterator<IndexableField> iterator() {
+        return fields.iterator();
+    }
+    
+    private static final class FieldSlot {
+        final String name;
+        final TextField text;
+        final StringField exact;
+        final BytesRefBuilder facetPathBytes = new BytesRefBuilder();
+        final SortedSetDocValuesField facetDocValues;
+        final StringField facetPathTerm;
+        final StringField facetDimTerm;
+        DoublePoint numPoint;
+        StoredField numStored;
+        DoubleDocValuesField numDocValues;
+        StringField keyword;
+        StoredField stored;
+        
+        FieldSlot(String name) {
+            this.name = name;
+            this.text = new TextField(name, "", Field.Store.YES);
+            this.exact = new StringField(name + "_exact", "", Field.Store.NO);
+            this.facetDocValues = new SortedSetDocValuesField(FacetsConfig.DEFAULT_INDEX_FIELD_NAME, new BytesRef());
+            this.facetPathTerm = new StringField(FacetsConfig.DEFAULT_INDEX_FIELD_NAME, "", Field.Store.NO);
+            this.facetDimTerm = name.isEmpty() ? null : new StringField(FacetsConfig.DEFAULT_INDEX_FIELD_NAME,
+                FacetsConfig.pathToString(new String[] {name}, 1), Field.Store.NO);
+        }
+        
+        void numericFields() {
+            if (numPoint == null) {
+                numPoint = new DoublePoint(name + "_num", 0.0);
+                numStored = new StoredField(name + "_num", 0.0);
+                numDocValues = new DoubleDocValuesField(name + "_num", 0.0);
+            }
+        }
+        
+        void keywordFields() {
+            if (keyword == null) {
+                keyword = new StringField(name, "", Field.Store.YES);
+            }
+        }
+        
+        void storedFields() {
+            if (stored == null) {
+                stored = new StoredField(name, "");
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+/**
+ * Outcome of one {@link BulkIngester#ingest} call.
+ */
+public class BulkIngestResult {
+    private final long lines;
+    private final long bytes;
+    private final long indexed;
+    private final long rejected;
+    private final long elapsedMillis;
+    
+    public BulkIngestResult(long lines, long bytes, long indexed, long rejected, long elapsedMillis) {
+        this.lines = lines;
+        this.bytes = bytes;
+        this.indexed = indexed;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public long getLines() {
+        return lines;
+    }
+    
+    /**
+     * Bytes read, after decompression.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+    
+    public long getIndexed() {
+        return indexed;
+    }
+    
+    /**
+     * Lines that could not be parsed, or were not a JSON object in NDJSON, or were
+     * dropped by load shedding, or were lost because the index failed to take them.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public double getLinesPerSecond() {
+        return elapsedMillis == 0 ? lines : lines * 1000.0 / elapsedMillis;
+    }
+    
+    public double getBytesPerSecond() {
+        return elapsedMillis == 0 ? bytes : bytes * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.model.LogEntry;
+import com.locallogsearch.core.parser.LogParser;
+import com.locallogsearch.core.parser.ParserFactory;
+import com.locallogsearch.core.tailer.LineReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indexes a stream of events pushed by a client, e.g. the body of an HTTP upload,
+ * without holding more than a few batches of it in memory. Lines go through the
+ * source's parser and the ingest pipeline like tailed lines; NDJSON is read with the
+ * {@code json} parser.
+ */
+public class BulkIngester {
+    private static final Logger log = LoggerFactory.getLogger(BulkIngester.class);
+    private static final int DIRECT_BATCH_BYTES = 256 * 1024;
+    private static final int MAX_IN_FLIGHT_BATCHES = 8;
+    private static final long INDEX_WAIT_MS = 60000;
+    
+    public enum Format {
+        /** One event per line, parsed by the source's parser. */
+        RAW,
+        /** One JSON object per line, parsed by the {@code json} parser. */
+        NDJSON
+    }
+    
+    private final IndexManager indexManager;
+    private final IngestPipeline pipeline;
+    
+    /**
+     * @param pipeline pipeline for raw lines, or {@code null} to parse and index them on
+     *                 the calling thread
+     */
+    public BulkIngester(IndexManager indexManager, IngestPipeline pipeline) {
+        this.indexManager = indexManager;
+        this.pipeline = pipeline;
+    }
+    
+    /**
+     * Read the stream to its end and index every event in it. Returns once the events
+     * have been added to the index; they become durable with its next commit.
+     *
+     * @param config index, parser and charset to use; {@code id} names the source
+     * @throws IllegalStateException if the pipeline is closed, or does not index the
+     *                               batches handed to it in time
+     */
+    public BulkIngestResult ingest(LogSourceConfig config, Format format, InputStream in)
+            throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        Charset charset = config.getCharset() != null ? Charset.forName(config.getCharset()) : StandardCharsets.UTF_8;
+        LineReader lineReader = new LineReader(charset, 0);
+        ReadableByteChannel channel = Channels.newChannel(in);
+        IngestStats stats = new IngestStats();
+        if (format == Format.NDJSON) {
+            config = ndjsonConfig(config);
+        }
+        indexManager.declareFieldMappings(config.getIndexName(), config.getId(), config.getFieldMappings());
+        Batcher batcher = pipeline != null ? new PipelineBatcher(config, stats) : new DirectBatcher(config, stats);
+        
+        int batchBytes = pipeline != null ? pipeline.getBatchBytes() : DIRECT_BATCH_BYTES;
+        List<String> lines = new ArrayList<>();
+        while (true) {
+            long n = lineReader.readStream(channel, batchBytes, lines::add);
+            if (n == 0) {
+                lineReader.flush(lines::add);
+            }
+            stats.addRead(lines.size(), n);
+            if (!lines.isEmpty()) {
+                batcher.submit(lines, lineReader.position());
+                lines = new ArrayList<>();
+            }
+            if (n == 0) {
+                break;
+            }
+        }
+        batcher.finish();
+        
+        return new BulkIngestResult(stats.getLinesRead(), stats.getBytesRead(), stats.getEventsIndexed(),
+            stats.getEventsRejected(), System.currentTimeMillis() - startTime);
+    }
+    
+    /**
+     * Copy of {@code config} that parses lines with the strict {@code json} parser, so
+     * lines that are not JSON objects are rejected.
+     */
+    private static LogSourceConfig ndjsonConfig(LogSourceConfig config) {
+        LogSourceConfig json = new LogSourceConfig();
+        json.setId(config.getId());
+        json.setIndexName(config.getIndexName());
+        json.setCharset(config.getCharset());
+        json.setPriority(config.getPriority());
+        json.setFieldMappings(config.getFieldMappings());
+        json.setParserType("json");
+        if ("json".equalsIgnoreCase(config.getParserType()) && config.getParserConfig() != null) {
+            json.getParserConfig().putAll(config.getParserConfig());
+        }
+        json.getParserConfig().put("strict", "true");
+        return json;
+    }
+    
+    private interface Batcher {
+        void submit(List<String> lines, long endOffset) throws IOException, InterruptedException;
+        
+        void finish() throws InterruptedException;
+    }
+    
+    /**
+     * Hands raw lines to the pipeline, keeping only a few batches in flight so the
+     * client is read no faster than the index takes its events.
+     */
+    private final class PipelineBatcher implements Batcher {
+        private final LogSourceConfig config;
+        private final IngestStats stats;
+        private final OffsetTracker tracker = new OffsetTracker(0);
+        
+        PipelineBatcher(LogSourceConfig config, IngestStats stats) {
+            this.config = config;
+            this.stats = stats;
+        }
+        
+        @Override
+        public void submit(List<String> lines, long endOffset) throws InterruptedException {
+            if (!tracker.awaitInFlight(MAX_IN_FLIGHT_BATCHES - 1, INDEX_WAIT_MS)) {
+                throw new IllegalStateException("Batches were not indexed within " + INDEX_WAIT_MS + " ms");
+            }
+            pipeline.submit(new IngestBatch(config, config.getId(), lines, tracker, endOffset, stats));
+        }
+        
+        @Override
+        public void finish() throws InterruptedException {
+            if (!tracker.awaitIdle(INDEX_WAIT_MS)) {
+                log.warn("Batches from {} still being indexed after {} ms", config.getId(), INDEX_WAIT_MS);
+            }
+        }
+    }
+    
+    /**
+     * Parses and indexes on the calling thread.
+     */
+    private final class DirectBatcher implements Batcher {
+        private final LogSourceConfig config;
+        private final IngestStats stats;
+        private final LogParser parser;
+        
+        DirectBatcher(LogSourceConfig config, IngestStats stats) {
+            this.config = config;
+            this.stats = stats;
+            this.parser = ParserFactory.createParser(config.getParserType(), config.getParserConfig());
+        }
+        
+        @Override
+        public void submit(List<String> lines, long endOffset) throws IOException {
+            long readTime = System.currentTimeMillis();
+            List<LogEntry> entries = new ArrayList<>(lines.size());
+            for (String line : lines) {
+                LogEntry entry = parse(line);
+                if (entry != null) {
+                    entries.add(entry);
+                } else {
+                    stats.addParseFailure();
+                    stats.addRejected(1);
+                }
+            }
+            indexManager.addDocuments(config.getIndexName(), indexManager.buildDocuments(entries), null);
+            stats.addIndexed(entries.size(), System.currentTimeMillis() - readTime);
+        }
+        
+        @Override
+        public void finish() {
+        }
+        
+        private LogEntry parse(String line) {
+            try {
+                LogEntry entry = new LogEntry(line, config.getId(), config.getIndexName());
+                if (!parser.tryParse(entry)) {
+                    stats.addParseFailure();
+                }
+                return entry;
+            } catch (Exception e) {
+                log.debug("Failed to parse line from {}: {}", config.getId(), line, e);
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.index.ReusableDocument;
+import com.locallogsearch.core.model.LogEntry;
+
+import java.util.List;
+
+/**
+ * A group of raw events from one file that moves through the pipeline stages
+ * together. Each stage replaces the payload of the previous one.
+ */
+public class IngestBatch {
+    private final LogSourceConfig sourceConfig;
+    private final String source;
+    private final OffsetTracker tracker;
+    private final int epoch;
+    private final long sequence;
+    private final long endOffset;
+    private final int size;
+    private final IngestStats stats;
+    private final long createdTime = System.currentTimeMillis();
+    
+    private List<String> lines;
+    private List<LogEntry> entries;
+    private List<ReusableDocument> documents;
+    private boolean completed = false;
+    
+    /**
+     * @param source    value of the {@code source} field, usually the file path
+     * @param tracker   told when the batch is indexed, or {@code null}
+     * @param endOffset offset to checkpoint once this batch and all before it are indexed
+     */
+    public IngestBatch(LogSourceConfig sourceConfig, String source, List<String> lines,
+                       OffsetTracker tracker, long endOffset) {
+        this(sourceConfig, source, lines, tracker, endOffset, null);
+    }
+    
+    /**
+     * @param stats counters of the file the batch comes from, or {@code null}
+     */
+    public IngestBatch(LogSourceConfig sourceConfig, String source, List<String> lines,
+                       OffsetTracker tracker, long endOffset, IngestStats stats) {
+        this.sourceConfig = sourceConfig;
+        this.source = source;
+        this.lines = lines;
+        this.size = lines.size();
+        this.tracker = tracker;
+        this.epoch = tracker != null ? tracker.getEpoch() : 0;
+        this.sequence = tracker != null ? tracker.nextSequence() : 0;
+        this.endOffset = endOffset;
+        this.stats = stats;
+    }
+    
+    public LogSourceConfig getSourceConfig() {
+        return sourceConfig;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    /**
+     * Counters of the file the batch comes from, or {@code null}.
+     */
+    public IngestStats getStats() {
+        return stats;
+    }
+    
+    public String getIndexName() {
+        return sourceConfig.getIndexName();
+    }
+    
+    /**
+     * Number of raw events the batch started with.
+     */
+    public int size() {
+        return size;
+    }
+    
+    public List<String> getLines() {
+        return lines;
+    }
+    
+    public List<LogEntry> getEntries() {
+        return entries;
+    }
+    
+    void setEntries(List<LogEntry> entries) {
+        this.entries = entries;
+        this.lines = null;
+    }
+    
+    public List<ReusableDocument> getDocuments() {
+        return documents;
+    }
+    
+    void setDocuments(List<ReusableDocument> documents) {
+        this.documents = documents;
+        this.entries = null;
+    }
+    
+    /**
+     * Count the batch's documents as rejected because the index failed to take them.
+     * It still has to be completed.
+     */
+    synchronized void reject() {
+        if (completed || documents == null) {
+            return;
+        }
+        if (stats != null) {
+            stats.addRejected(documents.size());
+        }
+        documents = null;
+    }
+    
+    /**
+     * Give up on a batch the pipeline never took, e.g. because it was closed. Its events
+     * count as rejected, and offsets tracked for its source stay before it.
+     */
+    public synchronized void abandon() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        if (stats != null) {
+            stats.addRejected(size);
+        }
+        if (tracker != null) {
+            tracker.abandon(epoch, sequence);
+        }
+    }
+    
+    /**
+     * Mark the batch indexed. Only the first call counts.
+     */
+    synchronized void complete() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        if (stats != null && documents != null) {
+            stats.addIndexed(documents.size(), System.currentTimeMillis() - createdTime);
+        }
+        documents = null;
+        if (tracker != null) {
+            tracker.complete(epoch, sequence, endOffset);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.PipelineConfig;
+import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.model.LogEntry;
+import com.locallogsearch.core.parser.LogParser;
+import com.locallogsearch.core.parser.ParserFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Moves batches of raw events through parse, document-build and index stages. Each
+ * stage has its own worker threads and a bounded queue in front of it; when a queue
+ * is full the stage before it blocks, so a slow index stage eventually blocks
+ * {@link #submit(IngestBatch)}. Tailers share scheduler workers and use
+ * {@link #offer(IngestBatch, long)} instead, backing off when it returns false.
+ */
+public class IngestPipeline implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(IngestPipeline.class);
+    private static final IngestBatch POISON = new IngestBatch(new LogSourceConfig(), null, List.of(), null, 0);
+    
+    private final IndexManager indexManager;
+    private final PipelineConfig config;
+    private final Stage parseStage;
+    private final Stage buildStage;
+    private final Stage indexStage;
+    private final AtomicLong blockedSubmits = new AtomicLong();
+    private final AtomicLong blockedMillis = new AtomicLong();
+    private volatile boolean closed = false;
+    private volatile LoadShedder loadShedder;
+    
+    public IngestPipeline(IndexManager indexManager, PipelineConfig config) {
+        this.indexManager = indexManager;
+        this.config = config;
+        int capacity = Math.max(1, config.getQueueCapacity());
+        this.indexStage = new Stage("index", capacity, config.getIndexThreads(), null,
+            () -> this::index);
+        this.buildStage = new Stage("build", capacity, config.getBuildThreads(), indexStage,
+            () -> this::build);
+        this.parseStage = new Stage("parse", capacity, config.getParseThreads(), buildStage,
+            () -> {
+                // Parsers are not assumed to be thread-safe, so each worker keeps its own
+                Map<LogSourceConfig, LogParser> parsers = new WeakHashMap<>();
+                return batch -> parse(batch, parsers);
+            });
+        
+        indexStage.start();
+        buildStage.start();
+        parseStage.start();
+        log.info("Started ingest pipeline with {} parse, {} build and {} index threads",
+            parseStage.threads.size(), buildStage.threads.size(), indexStage.threads.size());
+    }
+    
+    /**
+     * Queue a batch for parsing, blocking while the parse queue is full.
+     */
+    public void submit(IngestBatch batch) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Ingest pipeline is closed");
+        }
+        if (parseStage.queue.offer(batch)) {
+            return;
+        }
+        blockedSubmits.incrementAndGet();
+        long start = System.currentTimeMillis();
+        parseStage.queue.put(batch);
+        blockedMillis.addAndGet(System.currentTimeMillis() - start);
+    }
+    
+    /**
+     * Queue a batch for parsing, waiting at most {@code timeoutMs} for room in the
+     * parse queue.
+     *
+     * @return false if the queue stayed full; the batch was not queued
+     */
+    public boolean offer(IngestBatch batch, long timeoutMs) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Ingest pipeline is closed");
+        }
+        if (parseStage.queue.offer(batch)) {
+            return true;
+        }
+        blockedSubmits.incrementAndGet();
+        long start = System.currentTimeMillis();
+        boolean queued = parseStage.queue.offer(batch, timeoutMs, TimeUnit.MILLISECONDS);
+        blockedMillis.addAndGet(System.currentTimeMillis() - start);
+        return queued;
+    }
+    
+    /**
+     * Set the load shedder whose DEBUG sampling the parse stage applies.
+     */
+    public void setLoadShedder(LoadShedder loadShedder) {
+        this.loadShedder = loadShedder;
+    }
+    
+    private void parse(IngestBatch batch, Map<LogSourceConfig, LogParser> parsers) {
+        LoadShedder shedder = loadShedder;
+        LogSourceConfig config = batch.getSourceConfig();
+        LogParser parser = parsers.computeIfAbsent(config,
+            c -> ParserFactory.createParser(c.getParserType(), c.getParserConfig()));
+        
+        List<LogEntry> entries = new ArrayList<>(batch.size());
+        for (String line : batch.getLines()) {
+            try {
+                LogEntry entry = new LogEntry(line, batch.getSource(), batch.getIndexName());
+                Instant readTime = entry.getTimestamp();
+                boolean matched = parser.tryParse(entry);
+                IngestStats stats = batch.getStats();
+                if (stats != null) {
+                    if (!matched) {
+                        stats.addParseFailure();
+                    }
+                    if (entry.getTimestamp() != readTime) {
+                        stats.addEventTime(entry.getTimestamp().toEpochMilli()); // The parser found one
+                    }
+                }
+                if (shedder == null || shedder.keep(config, entry)) {
+                    entries.add(entry);
+                } else if (stats != null) {
+                    stats.addRejected(1);
+                }
+            } catch (Exception e) {
+                log.error("Failed to process log line: {}", line, e);
+                if (batch.getStats() != null) {
+                    batch.getStats().addParseFailure();
+                    batch.getStats().addRejected(1);
+                }
+            }
+        }
+        batch.setEntries(entries);
+    }
+    
+    /**
+     * Documents come from this worker's reusable builder and go back to it once the
+     * index stage has added them.
+     */
+    private void build(IngestBatch batch) {
+        batch.setDocuments(indexManager.buildDocuments(batch.getEntries()));
+    }
+    
+    private void index(IngestBatch batch) {
+        if (batch.getDocuments() == null) {
+            return; // An earlier stage failed; the batch is only completed
+        }
+        try {
+            // Completing inside the add keeps the tailer's checkpoint in step with commits
+            indexManager.addDocuments(batch.getIndexName(), batch.getDocuments(), batch::complete);
+        } catch (Exception e) {
+            log.error("Failed to index {} events from {}", batch.size(), batch.getSource(), e);
+            batch.reject();
+        }
+    }
+    
+    /**
+     * Bytes a tailer should read into one batch.
+     */
+    public int getBatchBytes() {
+        return config.getBatchBytes();
+    }
+    
+    public List<StageStats> getStageStats() {
+        return List.of(parseStage.stats(), buildStage.stats(), indexStage.stats());
+    }
+    
+    /**
+     * Number of submits that found the parse queue full and had to wait.
+     */
+    public long getBlockedSubmits() {
+        return blockedSubmits.get();
+    }
+    
+    public long getBlockedMillis() {
+        return blockedMillis.get();
+    }
+    
+    /**
+     * Stop accepting batches and let the queued ones finish, stage by stage.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        parseStage.shutdown();
+        buildStage.shutdown();
+        indexStage.shutdown();
+        log.info("Ingest pipeline closed");
+    }
+    
+    /**
+     * Point-in-time view of one stage.
+     */
+    public static class StageStats {
+        private final String name;
+        private final int queueDepth;
+        private final int queueCapacity;
+        private final int threads;
+        private final int busyThreads;
+        private final long batches;
+        private final long events;
+        
+        StageStats(String name, int queueDepth, int queueCapacity, int threads, int busyThreads,
+                   long batches, long events) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.queueCapacity = queueCapacity;
+            this.threads = threads;
+            this.busyThreads = busyThreads;
+            this.batches = batches;
+            this.events = events;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+        
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public int getThreads() {
+            return threads;
+        }
+        
+        public int getBusyThreads() {
+            return busyThreads;
+        }
+        
+        public long getBatches() {
+            return batches;
+        }
+        
+        public long getEvents() {
+            return events;
+        }
+    }
+    
+    private static final class Stage {
+        final String name;
+        final BlockingQueue<IngestBatch> queue;
+        final Stage next;
+        final List<Thread> threads = new ArrayList<>();
+        final AtomicInteger busy = new AtomicInteger();
+        final AtomicLong batches = new AtomicLong();
+        final AtomicLong events = new AtomicLong();
+        
+        Stage(String name, int capacity, int threadCount, Stage next,
+              Supplier<Consumer<IngestBatch>> workerFactory) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.next = next;
+            for (int i = 0; i < Math.max(1, threadCount); i++) {
+                Consumer<IngestBatch> worker = workerFactory.get();
+                Thread thread = new Thread(() -> work(worker), "ingest-" + name + "-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+            }
+        }
+        
+        void start() {
+            threads.forEach(Thread::start);
+        }
+        
+        private void work(Consumer<IngestBatch> worker) {
+            try {
+                while (true) {
+                    IngestBatch batch = queue.take();
+                    if (batch == POISON) {
+                        return;
+                    }
+                    busy.incrementAndGet();
+                    try {
+                        worker.accept(batch);
+                    } catch (Exception e) {
+                        log.error("Ingest {} stage failed for batch from {}", name, batch.getSource(), e);
+                    } finally {
+                        busy.decrementAndGet();
+                    }
+                    batches.incrementAndGet();
+                    events.addAndGet(batch.size());
+                    
+                    if (next != null) {
+                        next.queue.put(batch);
+                    } else {
+                        batch.complete();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        /**
+         * Queue one poison batch per worker behind the pending batches and wait for
+         * the workers to finish.
+         */
+        void shutdown() {
+            try {
+                for (int i = 0; i < threads.size(); i++) {
+                    queue.put(POISON);
+                }
+                for (Thread thread : threads) {
+                    thread.join(TimeUnit.SECONDS.toMillis(30));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        StageStats stats() {
+            return new StageStats(name, queue.size(), queue.size() + queue.remainingCapacity(),
+                threads.size(), busy.get(), batches.get(), events.get());
+        }
+    }
+}
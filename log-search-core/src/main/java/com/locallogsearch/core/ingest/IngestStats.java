@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live ingest counters of one file, updated by its tailer and by the pipeline
+ * stages that work on its batches.
+ */
+public class IngestStats {
+    private static final long RATE_WINDOW_MS = 1000;
+    
+    private final LongAdder linesRead = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LongAdder eventsIndexed = new LongAdder();
+    private final LongAdder eventsRejected = new LongAdder();
+    private final LongAccumulator lastEventTime = new LongAccumulator(Math::max, 0);
+    
+    // Rates over the last window of at least RATE_WINDOW_MS
+    private long windowStart = System.currentTimeMillis();
+    private long windowLines = 0;
+    private long windowBytes = 0;
+    private double linesPerSecond = 0;
+    private double bytesPerSecond = 0;
+    
+    private volatile long lastIndexLatencyMillis = 0;
+    private volatile long maxIndexLatencyMillis = 0;
+    private volatile long lastCheckpointPosition = -1;
+    private volatile long lastCheckpointTime = 0;
+    
+    public void addRead(long lines, long bytes) {
+        linesRead.add(lines);
+        bytesRead.add(bytes);
+        roll(System.currentTimeMillis());
+    }
+    
+    /**
+     * Count a line the parser did not match or threw on.
+     */
+    public void addParseFailure() {
+        parseFailures.increment();
+    }
+    
+    /**
+     * Count events that were read but will never reach the index: lines the parser
+     * threw on, events dropped by load shedding, and batches the index failed to take.
+     */
+    public void addRejected(long events) {
+        eventsRejected.add(events);
+    }
+    
+    /**
+     * Record the timestamp of an event that was read.
+     */
+    public void addEventTime(long millis) {
+        lastEventTime.accumulate(millis);
+    }
+    
+    /**
+     * Record events that reached the index, with the time since they were read.
+     */
+    public void addIndexed(long events, long latencyMillis) {
+        eventsIndexed.add(events);
+        lastIndexLatencyMillis = latencyMillis;
+        if (latencyMillis > maxIndexLatencyMillis) {
+            maxIndexLatencyMillis = latencyMillis;
+        }
+    }
+    
+    /**
+     * Record the position just handed to the index as a commit checkpoint. Recording
+     * the same position again changes nothing in the index, so it does not count.
+     */
+    public void checkpointRecorded(long position) {
+        if (position != lastCheckpointPosition) {
+            lastCheckpointPosition = position;
+            lastCheckpointTime = System.currentTimeMillis();
+        }
+    }
+    
+    /**
+     * Start from a checkpoint restored at startup, which is already durable.
+     */
+    public void checkpointRestored(long position) {
+        lastCheckpointPosition = position;
+    }
+    
+    private synchronized void roll(long now) {
+        long elapsed = now - windowStart;
+        if (elapsed < RATE_WINDOW_MS) {
+            return;
+        }
+        long lines = linesRead.sum();
+        long bytes = bytesRead.sum();
+        linesPerSecond = (lines - windowLines) * 1000.0 / elapsed;
+        bytesPerSecond = (bytes - windowBytes) * 1000.0 / elapsed;
+        windowStart = now;
+        windowLines = lines;
+        windowBytes = bytes;
+    }
+    
+    public synchronized double getLinesPerSecond() {
+        roll(System.currentTimeMillis());
+        return linesPerSecond;
+    }
+    
+    public synchronized double getBytesPerSecond() {
+        roll(System.currentTimeMillis());
+        return bytesPerSecond;
+    }
+    
+    public long getLinesRead() {
+        return linesRead.sum();
+    }
+    
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+    
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+    
+    public long getEventsIndexed() {
+        return eventsIndexed.sum();
+    }
+    
+    public long getEventsRejected() {
+        return eventsRejected.sum();
+    }
+    
+    /**
+     * Newest timestamp of the events read, or 0 if none had one.
+     */
+    public long getLastEventTime() {
+        return lastEventTime.get();
+    }
+    
+    public long getLastIndexLatencyMillis() {
+        return lastIndexLatencyMillis;
+    }
+    
+    public long getMaxIndexLatencyMillis() {
+        return maxIndexLatencyMillis;
+    }
+    
+    /**
+     * Position of the last recorded checkpoint, or -1 if none was recorded yet.
+     */
+    public long getLastCheckpointPosition() {
+        return lastCheckpointPosition;
+    }
+    
+    public long getLastCheckpointTime() {
+        return lastCheckpointTime;
+    }
+}
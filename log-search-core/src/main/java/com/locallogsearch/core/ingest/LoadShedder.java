@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+import com.locallogsearch.core.config.LoadSheddingConfig;
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.SourcePriority;
+import com.locallogsearch.core.model.LogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which {@link SheddingMode}s are active from how far the tailers are behind
+ * their files, and applies the modes that act on single events and sources.
+ */
+public class LoadShedder {
+    private static final Logger log = LoggerFactory.getLogger(LoadShedder.class);
+    
+    private final LoadSheddingConfig config;
+    private volatile Set<SheddingMode> activeModes = Collections.unmodifiableSet(EnumSet.noneOf(SheddingMode.class));
+    private volatile long bytesBehind = 0;
+    private final AtomicLong debugSeen = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+    
+    public LoadShedder(LoadSheddingConfig config) {
+        this.config = config;
+    }
+    
+    /**
+     * Switch modes on at their threshold and off below half of it, so they do not flap
+     * around the threshold.
+     *
+     * Deferring low priority sources only looks at how far the other sources are
+     * behind; deferred sources fall further behind, and would otherwise keep
+     * themselves deferred. The other modes count low priority sources too, unless
+     * they are deferred and so not adding to the load.
+     *
+     * @param bytesBehind            unread bytes of the sources that are not low priority
+     * @param lowPriorityBytesBehind unread bytes of the low priority sources
+     */
+    public synchronized void update(long bytesBehind, long lowPriorityBytesBehind) {
+        this.bytesBehind = bytesBehind + lowPriorityBytesBehind;
+        boolean defer = shouldBeActive(SheddingMode.DEFER_LOW_PRIORITY, bytesBehind);
+        long load = defer ? bytesBehind : bytesBehind + lowPriorityBytesBehind;
+        EnumSet<SheddingMode> modes = EnumSet.noneOf(SheddingMode.class);
+        for (SheddingMode mode : SheddingMode.values()) {
+            if (mode == SheddingMode.DEFER_LOW_PRIORITY ? defer : shouldBeActive(mode, load)) {
+                modes.add(mode);
+            }
+        }
+        if (!modes.equals(activeModes)) {
+            log.info("Load shedding modes changed from {} to {} ({} bytes behind, {} of them low priority)",
+                activeModes, modes, this.bytesBehind, lowPriorityBytesBehind);
+            activeModes = Collections.unmodifiableSet(modes);
+        }
+    }
+    
+    private boolean shouldBeActive(SheddingMode mode, long bytesBehind) {
+        long threshold = threshold(mode);
+        if (threshold <= 0 || !config.isEnabled()) {
+            return false;
+        }
+        return bytesBehind >= threshold || (activeModes.contains(mode) && bytesBehind >= threshold / 2);
+    }
+    
+    private long threshold(SheddingMode mode) {
+        return switch (mode) {
+            case SKIP_FACETS -> config.getSkipFacetsBytesBehind();
+            case SAMPLE_DEBUG -> config.getSampleDebugBytesBehind();
+            case DEFER_LOW_PRIORITY -> config.getDeferLowPriorityBytesBehind();
+        };
+    }
+    
+    public boolean isActive(SheddingMode mode) {
+        return activeModes.contains(mode);
+    }
+    
+    public Set<SheddingMode> getActiveModes() {
+        return activeModes;
+    }
+    
+    /**
+     * Unread bytes of all tailed files at the last update.
+     */
+    public long getBytesBehind() {
+        return bytesBehind;
+    }
+    
+    /**
+     * Whether the source should not read at all for now.
+     */
+    public boolean isDeferred(LogSourceConfig source) {
+        return source.getPriority() == SourcePriority.LOW && isActive(SheddingMode.DEFER_LOW_PRIORITY);
+    }
+    
+    /**
+     * Whether a parsed event should be indexed. While sampling, only one in
+     * {@link LoadSheddingConfig#getDebugSampleRate()} DEBUG and TRACE events of sources
+     * that are not high priority is kept.
+     */
+    public boolean keep(LogSourceConfig source, LogEntry entry) {
+        if (!isActive(SheddingMode.SAMPLE_DEBUG) || source.getPriority() == SourcePriority.HIGH) {
+            return true;
+        }
+        String level = entry.getFields().get(config.getLevelField());
+        if (level == null || !(level.equalsIgnoreCase("DEBUG") || level.equalsIgnoreCase("TRACE"))) {
+            return true;
+        }
+        if (debugSeen.getAndIncrement() % Math.max(1, config.getDebugSampleRate()) == 0) {
+            return true;
+        }
+        sampledOut.incrementAndGet();
+        return false;
+    }
+    
+    /**
+     * Events dropped by sampling so far.
+     */
+    public long getSampledOut() {
+        return sampledOut.get();
+    }
+    
+    public LoadSheddingConfig getConfig() {
+        return config;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Tracks which batches of one file have been indexed. Batches may finish out of
+ * order on different workers; the committed offset only advances past a batch once
+ * every earlier batch has been indexed too, so it is always safe to checkpoint.
+ */
+public class OffsetTracker {
+    private static final long ABANDONED = -1;
+    
+    private final TreeMap<Long, Long> completed = new TreeMap<>();
+    private long nextSequence = 0;
+    private long committedSequence = -1;
+    private long committedOffset;
+    private int epoch = 0;
+    private boolean held = false; // A batch was abandoned; the offset stays before it until reset
+    private LongConsumer listener;
+    
+    public OffsetTracker(long startOffset) {
+        this.committedOffset = startOffset;
+    }
+    
+    /**
+     * Set a listener told the new committed offset whenever it advances. It runs on the
+     * thread that completed the batch.
+     */
+    public synchronized void setListener(LongConsumer listener) {
+        this.listener = listener;
+    }
+    
+    /**
+     * Sequence number for the next batch submitted.
+     */
+    public synchronized long nextSequence() {
+        return nextSequence++;
+    }
+    
+    public synchronized int getEpoch() {
+        return epoch;
+    }
+    
+    /**
+     * Record that a batch ending at {@code endOffset} has been indexed. Completions
+     * from before the last {@link #reset(long)} are ignored.
+     */
+    public synchronized void complete(int batchEpoch, long sequence, long endOffset) {
+        if (batchEpoch != epoch) {
+            return;
+        }
+        completed.put(sequence, endOffset);
+        boolean advanced = false;
+        while (!completed.isEmpty() && completed.firstKey() == committedSequence + 1) {
+            committedSequence++;
+            long offset = completed.pollFirstEntry().getValue();
+            if (offset == ABANDONED) {
+                held = true;
+            } else if (!held) {
+                committedOffset = offset;
+                advanced = true;
+            }
+        }
+        if (advanced && listener != null) {
+            listener.accept(committedOffset);
+        }
+        notifyAll();
+    }
+    
+    /**
+     * Record that a batch will never be indexed, e.g. because the pipeline was closed
+     * before it was queued. It no longer counts as in flight, but the committed offset
+     * stays before it until the next {@link #reset(long)}.
+     */
+    public synchronized void abandon(int batchEpoch, long sequence) {
+        complete(batchEpoch, sequence, ABANDONED);
+    }
+    
+    /**
+     * Start over at a new offset, e.g. in a rotated file. Batches still in flight no
+     * longer move the committed offset.
+     */
+    public synchronized void reset(long offset) {
+        epoch++;
+        held = false;
+        completed.clear();
+        committedSequence = nextSequence - 1;
+        committedOffset = offset;
+        notifyAll();
+    }
+    
+    public synchronized long getCommittedOffset() {
+        return committedOffset;
+    }
+    
+    /**
+     * Offset that is safe to checkpoint given that everything before
+     * {@code submittedPosition} has been submitted.
+     */
+    public synchronized long safeOffset(long submittedPosition) {
+        return getInFlight() == 0 && !held ? submittedPosition : committedOffset;
+    }
+    
+    public synchronized long getInFlight() {
+        return nextSequence - 1 - committedSequence;
+    }
+    
+    /**
+     * Whether every submitted batch has been indexed or abandoned.
+     */
+    public synchronized boolean isIdle() {
+        return getInFlight() == 0;
+    }
+    
+    /**
+     * Wait until every submitted batch has been indexed.
+     *
+     * @return false if batches were still in flight after the timeout
+     */
+    public synchronized boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        return awaitInFlight(0, timeoutMs);
+    }
+    
+    /**
+     * Wait until at most {@code maxInFlight} submitted batches are still being indexed.
+     *
+     * @return false if more were still in flight after the timeout
+     */
+    public synchronized boolean awaitInFlight(long maxInFlight, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (getInFlight() > maxInFlight) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+}
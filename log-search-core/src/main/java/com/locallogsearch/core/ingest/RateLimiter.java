@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+/**
+ * Token buckets for the lines and bytes per second of one source, shared by all of
+ * its files. Each bucket holds up to one second of budget. Reads are recorded after
+ * the fact, so a bucket can go into debt, which the next reads wait out.
+ */
+public class RateLimiter {
+    // Low on purpose: until lines have been seen, overshooting the line budget is worse
+    private static final double INITIAL_BYTES_PER_LINE = 32;
+    
+    private final double linesPerSecond;
+    private final double bytesPerSecond;
+    private double lineTokens;
+    private double byteTokens;
+    private double bytesPerLine = INITIAL_BYTES_PER_LINE;
+    private boolean measured = false;
+    private long lastRefill;
+    private long throttledMillis = 0;
+    
+    /**
+     * @param linesPerSecond lines per second, or 0 for no limit
+     * @param bytesPerSecond bytes per second, or 0 for no limit
+     */
+    public RateLimiter(long linesPerSecond, long bytesPerSecond) {
+        this.linesPerSecond = linesPerSecond;
+        this.bytesPerSecond = bytesPerSecond;
+        this.lineTokens = linesPerSecond;
+        this.byteTokens = bytesPerSecond;
+        this.lastRefill = System.nanoTime();
+    }
+    
+    /**
+     * Milliseconds to wait before reading again; 0 if there is budget now.
+     */
+    public synchronized long delayMs() {
+        refill();
+        double seconds = 0;
+        if (linesPerSecond > 0 && lineTokens < 1) {
+            seconds = Math.max(seconds, (1 - lineTokens) / linesPerSecond);
+        }
+        if (bytesPerSecond > 0 && byteTokens < 1) {
+            seconds = Math.max(seconds, (1 - byteTokens) / bytesPerSecond);
+        }
+        long delay = (long) Math.ceil(seconds * 1000);
+        throttledMillis += delay;
+        return delay;
+    }
+    
+    /**
+     * Bytes that may be read now, at most {@code maxBytes}. The line budget is turned
+     * into bytes with the average line length seen so far.
+     */
+    public synchronized long allowance(long maxBytes) {
+        refill();
+        double allowed = maxBytes;
+        if (bytesPerSecond > 0) {
+            allowed = Math.min(allowed, byteTokens);
+        }
+        if (linesPerSecond > 0) {
+            allowed = Math.min(allowed, lineTokens * bytesPerLine);
+        }
+        return Math.max(1, (long) allowed);
+    }
+    
+    /**
+     * Take what was read from the budget.
+     */
+    public synchronized void record(long lines, long bytes) {
+        lineTokens -= lines;
+        byteTokens -= bytes;
+        if (lines > 0) {
+            double sample = (double) bytes / lines;
+            bytesPerLine = measured ? 0.8 * bytesPerLine + 0.2 * sample : sample;
+            measured = true;
+        }
+    }
+    
+    private void refill() {
+        long now = System.nanoTime();
+        double seconds = (now - lastRefill) / 1e9;
+        lastRefill = now;
+        lineTokens = Math.min(linesPerSecond, lineTokens + seconds * linesPerSecond);
+        byteTokens = Math.min(bytesPerSecond, byteTokens + seconds * bytesPerSecond);
+    }
+    
+    public double getLinesPerSecond() {
+        return linesPerSecond;
+    }
+    
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+    
+    /**
+     * Total time readers have been told to wait.
+     */
+    public synchronized long getThrottledMillis() {
+        return throttledMillis;
+    }
+}
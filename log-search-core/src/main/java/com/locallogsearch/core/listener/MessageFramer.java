@@ -0,0 +1,175 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.listener;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuts the bytes received on one TCP connection into messages and keeps the rest
+ * until more arrive. Messages end at a newline, or with octet counting
+ * ({@code LEN SP MSG}, RFC 6587) are exactly {@code LEN} bytes long.
+ *
+ * Messages are handed on as slices of the receive buffer, which is reused once the
+ * handler returns. A message that does not fit the buffer is cut at its size and the
+ * rest of it dropped as it arrives.
+ */
+final class MessageFramer {
+    private static final int MAX_LENGTH_DIGITS = 10;
+    
+    /**
+     * Receives each message. The bytes are only valid until this returns.
+     */
+    @FunctionalInterface
+    interface MessageHandler {
+        void onMessage(byte[] array, int offset, int length) throws InterruptedException;
+    }
+    
+    private final ByteBuffer buffer;
+    private final boolean octetCounting;
+    private final AtomicLong truncatedMessages;
+    private long skip = 0; // Bytes still to drop of an octet-counted message that was too long
+    private boolean discardLine = false; // Drop up to the next newline after cutting a long line
+    
+    /**
+     * @param octetCounting whether a message starting with a digit is read as a length
+     *                      prefix rather than as a line
+     */
+    MessageFramer(int capacity, boolean octetCounting, AtomicLong truncatedMessages) {
+        this.buffer = ByteBuffer.allocate(capacity);
+        this.octetCounting = octetCounting;
+        this.truncatedMessages = truncatedMessages;
+    }
+    
+    /**
+     * Buffer to read into. Its position marks the end of the bytes received so far.
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+    
+    /**
+     * Hand on the complete messages in the buffer and keep the rest for the next read.
+     *
+     * @param endOfStream whether the connection was closed, so a trailing line without
+     *                    newline is complete too
+     */
+    void frame(boolean endOfStream, MessageHandler handler) throws InterruptedException {
+        byte[] array = buffer.array();
+        int limit = buffer.position();
+        int start = 0;
+        
+        while (start < limit) {
+            if (skip > 0) {
+                // Rest of a message that was too long; it was cut already
+                int skipped = (int) Math.min(skip, limit - start);
+                skip -= skipped;
+                start += skipped;
+                continue;
+            }
+            if (discardLine) {
+                int newline = indexOf(array, start, limit, (byte) '\n');
+                if (newline < 0) {
+                    start = limit;
+                    break;
+                }
+                discardLine = false;
+                start = newline + 1;
+                continue;
+            }
+            
+            byte first = array[start];
+            if (octetCounting && first >= '1' && first <= '9') {
+                int space = start;
+                long length = 0; // Ten digits overflow an int
+                while (space < limit && space - start < MAX_LENGTH_DIGITS && array[space] >= '0' && array[space] <= '9') {
+                    length = length * 10 + (array[space] - '0');
+                    space++;
+                }
+                if (space < limit && array[space] == ' ') {
+                    int messageStart = space + 1;
+                    if (messageStart + length <= limit) {
+                        handler.onMessage(array, messageStart, (int) length);
+                        start = messageStart + (int) length;
+                        continue;
+                    }
+                    if (length > array.length - (messageStart - start)) {
+                        // Cannot ever fit: keep what we have, skip the rest as it arrives
+                        if (limit > messageStart) {
+                            handler.onMessage(array, messageStart, limit - messageStart);
+                        }
+                        truncatedMessages.incrementAndGet();
+                        skip = length - (limit - messageStart);
+                        start = limit;
+                    }
+                    break; // Wait for the rest of the frame
+                }
+                if (space == limit && !endOfStream) {
+                    break; // Length not complete yet
+                }
+                // Not a length after all; fall through to newline framing
+            }
+            
+            int newline = indexOf(array, start, limit, (byte) '\n');
+            if (newline < 0) {
+                if (endOfStream) {
+                    line(array, start, limit, handler);
+                    start = limit;
+                } else if (start == 0 && limit == array.length) {
+                    // A line longer than the buffer: keep its start, drop the rest
+                    line(array, start, limit, handler);
+                    truncatedMessages.incrementAndGet();
+                    discardLine = true;
+                    start = limit;
+                }
+                break;
+            }
+            line(array, start, newline, handler);
+            start = newline + 1;
+        }
+        
+        buffer.position(start);
+        buffer.limit(limit);
+        buffer.compact();
+    }
+    
+    private static void line(byte[] array, int start, int end, MessageHandler handler) throws InterruptedException {
+        if (end > start && array[end - 1] == '\r') {
+            end--;
+        }
+        if (end > start) {
+            handler.onMessage(array, start, end - start);
+        }
+    }
+    
+    private static int indexOf(byte[] array, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.listener;
+
+import com.locallogsearch.core.config.ListenerConfig;
+import com.locallogsearch.core.config.ListenerProtocol;
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.ingest.IngestBatch;
+import com.locallogsearch.core.ingest.IngestPipeline;
+import com.locallogsearch.core.ingest.IngestStats;
+import com.locallogsearch.core.ingest.LoadShedder;
+import com.locallogsearch.core.ingest.OffsetTracker;
+import com.locallogsearch.core.model.LogEntry;
+import com.locallogsearch.core.parser.LogParser;
+import com.locallogsearch.core.parser.ParserFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives events on a local UDP or TCP socket instead of tailing a file. One
+ * selector thread reads all connections, cuts the bytes into messages and hands them
+ * to the pipeline in batches, or parses and indexes them itself without one.
+ *
+ * Only a few batches may be in the pipeline at a time. While they are, the thread
+ * blocks and stops reading: TCP senders are held back by flow control, and UDP
+ * datagrams queue in the socket buffer until the kernel drops them.
+ */
+public class NetworkListener implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(NetworkListener.class);
+    private static final int DIRECT_BATCH_BYTES = 256 * 1024;
+    private static final long LINGER_MS = 50; // Longest a partial batch waits for more messages
+    private static final int DATAGRAMS_PER_WAKEUP = 4096;
+    private static final long STOP_WAIT_MS = 10000;
+    private static final int MAX_IN_FLIGHT_BATCHES = 8;
+    private static final long IN_FLIGHT_WAIT_MS = 60000;
+    
+    private final LogSourceConfig config;
+    private final ListenerConfig listenerConfig;
+    private final IndexManager indexManager;
+    private final IngestPipeline pipeline;
+    private final LoadShedder loadShedder;
+    private final LogParser parser; // Direct mode only
+    private final Charset charset;
+    private final boolean syslog;
+    private final OffsetTracker tracker; // Counts batches in the pipeline; offsets are bytes received
+    private String source;
+    private final int batchBytes;
+    private final IngestStats stats = new IngestStats();
+    private final AtomicLong truncatedMessages = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    
+    private Selector selector;
+    private DatagramChannel datagramChannel;
+    private ServerSocketChannel serverChannel;
+    private ByteBuffer datagramBuffer;
+    private Thread thread;
+    private volatile boolean running = false;
+    
+    private List<String> batch = new ArrayList<>();
+    private long pendingBytes = 0;
+    private long batchStartTime = 0;
+    private long bytesReceived = 0;
+    
+    /**
+     * @param pipeline    pipeline to hand batches to, or {@code null} to parse and index
+     *                    on the listener thread
+     * @param loadShedder applied to events parsed on the listener thread, or {@code null}
+     */
+    public NetworkListener(LogSourceConfig config, IndexManager indexManager, IngestPipeline pipeline,
+                           LoadShedder loadShedder) {
+        this.config = config;
+        this.listenerConfig = config.getListener();
+        this.indexManager = indexManager;
+        this.pipeline = pipeline;
+        this.loadShedder = loadShedder;
+        this.syslog = listenerConfig.getProtocol() != ListenerProtocol.TCP;
+        this.parser = pipeline == null ? ParserFactory.createParser(config.getParserType(), config.getParserConfig()) : null;
+        this.charset = config.getCharset() != null ? Charset.forName(config.getCharset()) : StandardCharsets.UTF_8;
+        this.source = listenerConfig.toString();
+        this.tracker = pipeline != null ? new OffsetTracker(0) : null;
+        this.batchBytes = pipeline != null ? pipeline.getBatchBytes() : DIRECT_BATCH_BYTES;
+    }
+    
+    /**
+     * Bind the socket and start the listener thread.
+     */
+    public synchronized void start() throws IOException {
+        InetSocketAddress address = new InetSocketAddress(listenerConfig.getBindAddress(), listenerConfig.getPort());
+        selector = Selector.open();
+        try {
+            if (listenerConfig.getProtocol() == ListenerProtocol.SYSLOG_UDP) {
+                datagramChannel = DatagramChannel.open();
+                datagramChannel.setOption(StandardSocketOptions.SO_RCVBUF, listenerConfig.getReceiveBufferBytes());
+                datagramChannel.bind(address);
+                datagramChannel.configureBlocking(false);
+                datagramChannel.register(selector, SelectionKey.OP_READ);
+                datagramBuffer = ByteBuffer.allocate(listenerConfig.getMaxMessageBytes());
+            } else {
+                serverChannel = ServerSocketChannel.open();
+                serverChannel.setOption(StandardSocketOptions.SO_RCVBUF, listenerConfig.getReceiveBufferBytes());
+                serverChannel.bind(address);
+                serverChannel.configureBlocking(false);
+                serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            }
+        } catch (IOException e) {
+            closeChannels();
+            throw e;
+        }
+        InetSocketAddress local = getLocalAddress();
+        source = listenerConfig.getProtocol().name().toLowerCase() + "://" + local.getHostString() + ":" + local.getPort();
+        running = true;
+        thread = new Thread(this, "listener-" + config.getId());
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Listening for {} events on {}", config.getId(), getLocalAddress());
+    }
+    
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                long timeout = batch.isEmpty() ? 1000 : Math.max(1, LINGER_MS - (System.currentTimeMillis() - batchStartTime));
+                selector.select(timeout);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.channel() == datagramChannel) {
+                            receiveDatagrams();
+                        } else if (key.isReadable()) {
+                            readConnection(key);
+                        }
+                    } catch (IOException e) {
+                        log.debug("Closing connection of {} after error", config.getId(), e);
+                        closeConnection(key);
+                    }
+                }
+                if (!batch.isEmpty() && System.currentTimeMillis() - batchStartTime >= LINGER_MS) {
+                    flush();
+                }
+            }
+        } catch (IOException e) {
+            log.error("Listener for {} failed", config.getId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof MessageFramer) {
+                    closeConnection(key);
+                }
+            }
+            closeChannels();
+            log.info("Listener for {} stopped", config.getId());
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new MessageFramer(listenerConfig.getMaxMessageBytes(), syslog, truncatedMessages));
+            connections.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Drain the datagrams waiting in the socket, one message each.
+     */
+    private void receiveDatagrams() throws IOException, InterruptedException {
+        byte[] array = datagramBuffer.array();
+        for (int i = 0; i < DATAGRAMS_PER_WAKEUP; i++) {
+            datagramBuffer.clear();
+            if (datagramChannel.receive(datagramBuffer) == null) {
+                return;
+            }
+            int length = datagramBuffer.position();
+            while (length > 0 && (array[length - 1] == '\n' || array[length - 1] == '\r' || array[length - 1] == 0)) {
+                length--;
+            }
+            if (length > 0) {
+                addMessage(array, 0, length);
+            }
+        }
+    }
+    
+    private void readConnection(SelectionKey key) throws IOException, InterruptedException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        MessageFramer framer = (MessageFramer) key.attachment();
+        int n = channel.read(framer.buffer());
+        if (n > 0) {
+            framer.frame(false, this::addMessage);
+        } else if (n < 0) {
+            framer.frame(true, this::addMessage);
+            closeConnection(key);
+        }
+    }
+    
+    private void addMessage(byte[] array, int offset, int length) throws InterruptedException {
+        if (batch.isEmpty()) {
+            batchStartTime = System.currentTimeMillis();
+        }
+        batch.add(new String(array, offset, length, charset));
+        pendingBytes += length;
+        if (pendingBytes >= batchBytes) {
+            flush();
+        }
+    }
+    
+    /**
+     * Hand the batch on. Blocks while the pipeline is full, which is what holds the
+     * senders back.
+     */
+    private void flush() throws InterruptedException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> lines = batch;
+        stats.addRead(lines.size(), pendingBytes);
+        bytesReceived += pendingBytes;
+        batch = new ArrayList<>();
+        pendingBytes = 0;
+        
+        if (pipeline != null) {
+            if (!tracker.awaitInFlight(MAX_IN_FLIGHT_BATCHES - 1, IN_FLIGHT_WAIT_MS)) {
+                // A batch that failed to index never completes; stop waiting for it
+                log.warn("Batches of {} not indexed after {} ms, no longer waiting for them", source, IN_FLIGHT_WAIT_MS);
+                tracker.reset(bytesReceived);
+            }
+            IngestBatch ingestBatch = new IngestBatch(config, source, lines, tracker, bytesReceived, stats);
+            try {
+                pipeline.submit(ingestBatch);
+            } catch (IllegalStateException e) {
+                log.warn("Dropped batch of {} events from {}: {}", lines.size(), source, e.getMessage());
+                ingestBatch.abandon();
+            }
+            return;
+        }
+        
+        List<LogEntry> entries = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                LogEntry entry = new LogEntry(line, source, config.getIndexName());
+                if (!parser.tryParse(entry)) {
+                    stats.addParseFailure();
+                }
+                if (loadShedder == null || loadShedder.keep(config, entry)) {
+                    entries.add(entry);
+                }
+            } catch (Exception e) {
+                log.error("Failed to process log line: {}", line, e);
+                stats.addParseFailure();
+            }
+        }
+        try {
+            indexManager.addDocuments(config.getIndexName(), indexManager.buildDocuments(entries), null);
+            stats.addIndexed(entries.size(), System.currentTimeMillis() - batchStartTime);
+        } catch (Exception e) {
+            log.error("Failed to index {} events from {}", entries.size(), source, e);
+        }
+    }
+    
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.debug("Failed to close connection of {}", config.getId(), e);
+        }
+        if (key.attachment() instanceof MessageFramer) {
+            connections.decrementAndGet();
+        }
+    }
+    
+    private void closeChannels() {
+        try {
+            if (datagramChannel != null) {
+                datagramChannel.close();
+            }
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            log.debug("Failed to close listener channels of {}", config.getId(), e);
+        }
+    }
+    
+    /**
+     * Stop listening. Events received so far are handed on before this returns.
+     */
+    public void stop() {
+        running = false;
+        Thread listenerThread;
+        synchronized (this) {
+            listenerThread = thread;
+        }
+        if (listenerThread == null) {
+            return;
+        }
+        selector.wakeup();
+        try {
+            listenerThread.join(STOP_WAIT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Address the socket is bound to, with the actual port if port 0 was configured.
+     */
+    public InetSocketAddress getLocalAddress() {
+        try {
+            if (datagramChannel != null) {
+                return (InetSocketAddress) datagramChannel.getLocalAddress();
+            }
+            if (serverChannel != null) {
+                return (InetSocketAddress) serverChannel.getLocalAddress();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to get local address of {}", config.getId(), e);
+        }
+        return null;
+    }
+    
+    public String getSourceId() {
+        return config.getId();
+    }
+    
+    public IngestStats getStats() {
+        return stats;
+    }
+    
+    /**
+     * Messages cut at {@link ListenerConfig#getMaxMessageBytes()}.
+     */
+    public long getTruncatedMessages() {
+        return truncatedMessages.get();
+    }
+    
+    public long getConnections() {
+        return connections.get();
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -32,16 +32,41 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Parses lines with a Grok pattern. Before the regex runs, a line must contain the
+ * pattern's fixed text (e.g. {@code " logged in from "}), in order, which rejects most
+ * non-matching lines with a few {@code indexOf} calls.
+ * <p>
+ * Config: {@code pattern}, {@code timestamp.field}, {@code timestamp.format},
+ * {@code timestamp.timezone}, and {@code named.only}: when {@code true}, only the
+ * fields named in the pattern ({@code %{IP:client}}) are captured, with one regex and
+ * without the sub-fields of the library patterns (YEAR, HOUR, ...) or type conversion.
+ */
 public class GrokParser implements LogParser {
     private static final Logger log = LoggerFactory.getLogger(GrokParser.class);
+    private static final Pattern GROK_REFERENCE = Pattern.compile("%\\{[^}]*}");
+    private static final String REGEX_META = "\\^$.|?*+()[]{}";
+    private static final Map<String, PatternStats> PATTERN_STATS = new ConcurrentHashMap<>();
     
     private Grok grok;
     private String timestampField;
-    private String timestampFormat;
+    private TimestampParser timestampParser;
+    private String[] literals;
+    private PatternStats stats;
+    
+    // named.only
+    private Matcher matcher;
+    private int[] groups;
+    private String[] groupFields;
     
     @Override
     public void configure(Map<String, String> config) {
@@ -54,59 +79,247 @@ public class GrokParser implements LogParser {
             grokCompiler.registerDefaultPatterns();
             
             String pattern = config.get("pattern");
-            this.grok = grokCompiler.compile(pattern);
+            boolean namedOnly = Boolean.parseBoolean(config.get("named.only"));
+            this.grok = grokCompiler.compile(pattern, namedOnly);
+            if (namedOnly) {
+                compileNamedOnly();
+            }
             
             this.timestampField = config.get("timestamp.field");
-            this.timestampFormat = config.get("timestamp.format");
+            this.timestampParser = TimestampParser.fromConfig(config);
+            this.literals = requiredLiterals(pattern);
+            this.stats = PATTERN_STATS.computeIfAbsent(pattern, PatternStats::new);
             
         } catch (Exception e) {
             throw new RuntimeException("Failed to compile Grok pattern", e);
         }
     }
     
+    /**
+     * Compile the expanded regex ourselves and remember which groups hold the fields
+     * named in the pattern. Library patterns such as IP contain named groups of their
+     * own, which Grok labels UNWANTED.
+     */
+    private void compileNamedOnly() {
+        Pattern regex = Pattern.compile(grok.getNamedRegex());
+        Map<String, Integer> groupIndexes = regex.namedGroups();
+        List<Integer> indexes = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        for (Map.Entry<String, String> group : grok.getNamedRegexCollection().entrySet()) {
+            String field = group.getValue();
+            Integer index = groupIndexes.get(group.getKey());
+            if (index == null || "UNWANTED".equals(field) || !grok.namedGroups.contains(group.getKey())) {
+                continue;
+            }
+            int type = field.indexOf(':');
+            indexes.add(index);
+            fields.add(type < 0 ? field : field.substring(0, type));
+        }
+        this.matcher = regex.matcher("");
+        this.groups = indexes.stream().mapToInt(Integer::intValue).toArray();
+        this.groupFields = fields.toArray(new String[0]);
+    }
+    
     @Override
     public void parse(LogEntry entry) {
+        tryParse(entry);
+    }
+    
+    @Override
+    public boolean tryParse(LogEntry entry) {
         String text = entry.getRawText();
-        if (text == null || text.trim().isEmpty()) {
-            return;
+        if (text == null || text.isBlank()) {
+            return false;
+        }
+        
+        if (!containsLiterals(text)) {
+            stats.prefiltered.increment();
+            return false;
+        }
+        
+        if (matcher != null) {
+            return parseNamedOnly(text, entry);
         }
         
         Match match = grok.match(text);
         Map<String, Object> capture = match.capture();
+        if (capture.isEmpty()) {
+            stats.missed.increment();
+            return false;
+        }
+        stats.matched.increment();
         
         for (Map.Entry<String, Object> field : capture.entrySet()) {
             String key = field.getKey();
             Object value = field.getValue();
             
             if (value != null) {
-                entry.addField(key, value.toString());
-                
-                // Check if this is the timestamp field
-                if (timestampField != null && timestampField.equals(key)) {
-                    Instant timestamp = parseTimestamp(value.toString());
-                    if (timestamp != null) {
-                        entry.setTimestamp(timestamp);
-                    }
-                }
+                addField(entry, key, value.toString());
             }
         }
+        return true;
     }
     
-    private Instant parseTimestamp(String timestampStr) {
-        if (timestampStr == null) {
-            return null;
+    private boolean parseNamedOnly(String text, LogEntry entry) {
+        if (!matcher.reset(text).find()) {
+            stats.missed.increment();
+            matcher.reset("");
+            return false;
+        }
+        stats.matched.increment();
+        for (int i = 0; i < groups.length; i++) {
+            String value = matcher.group(groups[i]);
+            if (value != null && !entry.getFields().containsKey(groupFields[i])) {
+                addField(entry, groupFields[i], value);
+            }
         }
+        matcher.reset(""); // Don't hold on to the line
+        return true;
+    }
+    
+    private void addField(LogEntry entry, String key, String value) {
+        entry.addField(key, value);
         
-        try {
-            if (timestampFormat != null) {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(timestampFormat);
-                return Instant.from(formatter.parse(timestampStr));
+        // Check if this is the timestamp field
+        if (timestampField != null && timestampField.equals(key)) {
+            Instant timestamp = parseTimestamp(value);
+            if (timestamp != null) {
+                entry.setTimestamp(timestamp);
+            }
+        }
+    }
+    
+    private boolean containsLiterals(String text) {
+        int pos = 0;
+        for (String literal : literals) {
+            pos = text.indexOf(literal, pos);
+            if (pos < 0) {
+                return false;
+            }
+            pos += literal.length();
+        }
+        return true;
+    }
+    
+    /**
+     * Text every match must contain, in order: runs of at least two plain characters
+     * outside {@code %{...}} references, groups, character classes and quantified
+     * atoms. Patterns with a top-level alternation or inline flags have none.
+     */
+    static String[] requiredLiterals(String pattern) {
+        if (pattern.contains("\\Q")) {
+            return new String[0];
+        }
+        String text = GROK_REFERENCE.matcher(pattern).replaceAll("\u0000");
+        List<String> literals = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            char literal = 0;
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                if (REGEX_META.indexOf(next) >= 0 || next == '/' || next == '-' || next == ' ' || next == '"') {
+                    literal = next;
+                }
+                // Otherwise \d, \s, \b... or a back reference
+            } else if (c == '(') {
+                if (text.startsWith("(?", i) && i + 2 < text.length()
+                        && text.charAt(i + 2) != ':' && text.charAt(i + 2) != '<' && text.charAt(i + 2) != '>') {
+                    return new String[0]; // Inline flags or lookaround
+                }
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '[') {
+                // Skip the character class
+                for (i++; i < text.length() && text.charAt(i) != ']'; i++) {
+                    if (text.charAt(i) == '\\') {
+                        i++;
+                    }
+                }
+            } else if (c == '{') {
+                // Skip the bounds of a quantifier
+                int close = text.indexOf('}', i);
+                i = close < 0 ? text.length() : close;
+            } else if (c == '|' && depth == 0) {
+                return new String[0];
+            } else if (depth == 0 && c != 0 && REGEX_META.indexOf(c) < 0) {
+                literal = c;
+            }
+            
+            boolean quantified = i + 1 < text.length() && "?*+{".indexOf(text.charAt(i + 1)) >= 0;
+            if (literal != 0 && depth == 0 && !quantified) {
+                run.append(literal);
             } else {
-                return Instant.parse(timestampStr);
+                // A quantifier applies to the atom before it, which ends the run
+                addLiteral(literals, run);
             }
-        } catch (DateTimeParseException e) {
+        }
+        addLiteral(literals, run);
+        return literals.toArray(new String[0]);
+    }
+    
+    private static void addLiteral(List<String> literals, StringBuilder run) {
+        if (run.length() >= 2) {
+            literals.add(run.toString());
+        }
+        run.setLength(0);
+    }
+    
+    private Instant parseTimestamp(String timestampStr) {
+        Instant timestamp = timestampParser.parse(timestampStr);
+        if (timestamp == null && timestampStr != null) {
             log.debug("Could not parse timestamp: {}", timestampStr);
-            return null;
+        }
+        return timestamp;
+    }
+    
+    /**
+     * How often each configured pattern matched, by pattern.
+     */
+    public static Map<String, PatternStats> getPatternStats() {
+        return new TreeMap<>(PATTERN_STATS);
+    }
+    
+    /**
+     * Lines seen by all parsers using one pattern.
+     */
+    public static class PatternStats {
+        private final String pattern;
+        private final LongAdder matched = new LongAdder();
+        private final LongAdder missed = new LongAdder();
+        private final LongAdder prefiltered = new LongAdder();
+        
+        PatternStats(String pattern) {
+            this.pattern = pattern;
+        }
+        
+        public String getPattern() {
+            return pattern;
+        }
+        
+        public long getMatched() {
+            return matched.sum();
+        }
+        
+        /**
+         * Lines that did not match, including those rejected by the literal prefilter.
+         */
+        public long getMissed() {
+            return missed.sum() + prefiltered.sum();
+        }
+        
+        /**
+         * Lines rejected without running the regex.
+         */
+        public long getPrefiltered() {
+            return prefiltered.sum();
+        }
+        
+        public double getMatchRate() {
+            long total = getMatched() + getMissed();
+            return total == 0 ? 0 : (double) getMatched() / total;
         }
     }
 }
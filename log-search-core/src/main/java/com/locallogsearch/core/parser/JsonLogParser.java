@@ -0,0 +1,280 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.locallogsearch.core.model.LogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses lines holding a JSON object with Jackson's streaming parser, adding each
+ * scalar as a field. Nested objects are flattened into dotted names
+ * ({@code {"http":{"status":200}}} becomes {@code http.status=200}). Lines that are
+ * not JSON are kept as they are.
+ * <p>
+ * Config:
+ * <ul>
+ *   <li>{@code timestamp.field}: comma-separated candidates for the event time
+ *       (default {@code @timestamp,timestamp,time,ts}); strings are read with
+ *       {@code timestamp.format}/{@code timestamp.timezone}, numbers as epoch
+ *       seconds or millis</li>
+ *   <li>{@code message.field}: comma-separated candidates for the message, which
+ *       becomes the raw text (default {@code message,msg})</li>
+ *   <li>{@code max.depth}: objects nested deeper are kept as JSON text (default 5)</li>
+ *   <li>{@code arrays}: {@code json} keeps an array as its JSON text (default),
+ *       {@code join} joins its scalars with commas, {@code index} flattens it into
+ *       {@code name.0}, {@code name.1}..., {@code skip} drops it</li>
+ *   <li>{@code max.value.length}: longer strings are skipped (default 8192)</li>
+ *   <li>{@code strict}: fail on lines that are not a JSON object instead of keeping them</li>
+ * </ul>
+ */
+public class JsonLogParser implements LogParser {
+    private static final Logger log = LoggerFactory.getLogger(JsonLogParser.class);
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int MAX_CACHED_NAMES = 10000;
+    
+    public enum ArrayMode { JSON, JOIN, INDEX, SKIP }
+    
+    private Set<String> timestampFields = Set.of("@timestamp", "timestamp", "time", "ts");
+    private Set<String> messageFields = Set.of("message", "msg");
+    private int maxDepth = 5;
+    private ArrayMode arrayMode = ArrayMode.JSON;
+    private int maxValueLength = 8192;
+    private boolean strict = false;
+    private TimestampParser timestampParser = new TimestampParser();
+    
+    // parent name -> child name -> "parent.child"; names from Jackson are canonical
+    private final Map<String, Map<String, String>> dottedNames = new HashMap<>();
+    private int cachedNames;
+    private final StringBuilder joined = new StringBuilder();
+    private boolean haveTimestamp;
+    private boolean haveMessage;
+    
+    @Override
+    public void configure(Map<String, String> config) {
+        if (config == null) {
+            return;
+        }
+        if (config.containsKey("timestamp.field")) {
+            timestampFields = Set.of(config.get("timestamp.field").split("\\s*,\\s*"));
+        }
+        if (config.containsKey("message.field")) {
+            messageFields = Set.of(config.get("message.field").split("\\s*,\\s*"));
+        }
+        if (config.containsKey("max.depth")) {
+            maxDepth = Integer.parseInt(config.get("max.depth"));
+        }
+        if (config.containsKey("arrays")) {
+            arrayMode = ArrayMode.valueOf(config.get("arrays").toUpperCase());
+        }
+        if (config.containsKey("max.value.length")) {
+            maxValueLength = Integer.parseInt(config.get("max.value.length"));
+        }
+        strict = Boolean.parseBoolean(config.get("strict"));
+        timestampParser = TimestampParser.fromConfig(config);
+    }
+    
+    @Override
+    public void parse(LogEntry entry) {
+        tryParse(entry);
+    }
+    
+    @Override
+    public boolean tryParse(LogEntry entry) {
+        String text = entry.getRawText();
+        if (text == null) {
+            return false;
+        }
+        int start = 0;
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        if (start == text.length() || text.charAt(start) != '{') {
+            if (strict) {
+                throw new IllegalArgumentException("Not a JSON object");
+            }
+            return false;
+        }
+        
+        haveTimestamp = false;
+        haveMessage = false;
+        try (JsonParser parser = JSON.createParser(text)) {
+            parser.nextToken();
+            readObject(parser, text, null, 1, entry);
+        } catch (IOException e) {
+            // Keep the fields read before the error
+            if (strict) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getMessage(), e);
+            }
+            log.debug("Invalid JSON in line: {}", text, e);
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Read the fields of the object whose START_OBJECT is the current token.
+     */
+    private void readObject(JsonParser parser, String text, String prefix, int depth, LogEntry entry)
+            throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String name = fieldName(prefix, parser.currentName());
+            readValue(parser, parser.nextToken(), text, name, depth, entry);
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new IOException("Unexpected " + token);
+        }
+    }
+    
+    private void readValue(JsonParser parser, JsonToken token, String text, String name, int depth, LogEntry entry)
+            throws IOException {
+        if (token == null) {
+            throw new IOException("Unexpected end of input");
+        }
+        switch (token) {
+            case START_OBJECT -> {
+                if (depth < maxDepth) {
+                    readObject(parser, text, name, depth + 1, entry);
+                } else {
+                    entry.addField(name, skipAsJson(parser, text));
+                }
+            }
+            case START_ARRAY -> readArray(parser, text, name, depth, entry);
+            case VALUE_STRING -> {
+                if (parser.getTextLength() <= maxValueLength) {
+                    addScalar(name, parser.getText(), entry);
+                }
+            }
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> {
+                if (!haveTimestamp && timestampFields.contains(name)) {
+                    haveTimestamp = true;
+                    entry.setTimestamp(epochTimestamp(parser));
+                }
+                entry.addField(name, parser.getText());
+            }
+            case VALUE_TRUE -> entry.addField(name, "true");
+            case VALUE_FALSE -> entry.addField(name, "false");
+            default -> { } // null
+        }
+    }
+    
+    private void readArray(JsonParser parser, String text, String name, int depth, LogEntry entry)
+            throws IOException {
+        switch (arrayMode) {
+            case JSON -> entry.addField(name, skipAsJson(parser, text));
+            case SKIP -> parser.skipChildren();
+            case INDEX -> {
+                int index = 0;
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    readValue(parser, token, text, fieldName(name, Integer.toString(index++)), depth, entry);
+                }
+            }
+            case JOIN -> {
+                joined.setLength(0);
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new IOException("Unexpected end of input");
+                    }
+                    if (token.isStructStart()) {
+                        parser.skipChildren();
+                    } else if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                        if (!joined.isEmpty()) {
+                            joined.append(',');
+                        }
+                        joined.append(parser.getText());
+                    }
+                }
+                if (!joined.isEmpty()) {
+                    entry.addField(name, joined.toString());
+                }
+            }
+        }
+    }
+    
+    private void addScalar(String name, String value, LogEntry entry) {
+        if (!haveTimestamp && timestampFields.contains(name)) {
+            Instant timestamp = timestampParser.parse(value);
+            if (timestamp != null) {
+                haveTimestamp = true;
+                entry.setTimestamp(timestamp);
+            }
+        }
+        if (!haveMessage && messageFields.contains(name)) {
+            haveMessage = true;
+            entry.setRawText(value);
+        }
+        entry.addField(name, value);
+    }
+    
+    /**
+     * Skip the object or array that starts at the current token and return its text.
+     */
+    private static String skipAsJson(JsonParser parser, String text) throws IOException {
+        int start = (int) parser.currentTokenLocation().getCharOffset();
+        parser.skipChildren();
+        return text.substring(start, (int) parser.currentLocation().getCharOffset());
+    }
+    
+    /**
+     * Epoch seconds, or millis when the value is too large to be seconds.
+     */
+    private static Instant epochTimestamp(JsonParser parser) throws IOException {
+        double value = parser.getDoubleValue();
+        if (Math.abs(value) >= 100_000_000_000.0) {
+            return Instant.ofEpochMilli(parser.getLongValue());
+        }
+        long seconds = (long) Math.floor(value);
+        return Instant.ofEpochSecond(seconds, Math.round((value - seconds) * 1_000_000) * 1000);
+    }
+    
+    private String fieldName(String prefix, String name) {
+        if (prefix == null) {
+            return name;
+        }
+        Map<String, String> children = dottedNames.computeIfAbsent(prefix, p -> new HashMap<>());
+        String dotted = children.get(name);
+        if (dotted == null) {
+            if (++cachedNames > MAX_CACHED_NAMES) {
+                dottedNames.clear(); // Unbounded field names; stop caching all of them
+                cachedNames = 0;
+            }
+            dotted = prefix + '.' + name;
+            children.put(name, dotted);
+        }
+        return dotted;
+    }
+}
@@ -25,78 +25,164 @@
 package com.locallogsearch.core.parser;
 
 import com.locallogsearch.core.model.LogEntry;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Extracts {@code key=value} pairs and a timestamp from a line in one pass, e.g.
+ * {@code 2025-01-01T12:00:00Z level=INFO msg="user logged in" user=bob}.
+ * Values are either unquoted, running to the next delimiter, or double-quoted with
+ * backslash escapes. The only strings created are the final keys and values.
+ * <p>
+ * Config: {@code delimiter} separates pairs (default whitespace).
+ */
 public class KeyValueParser implements LogParser {
-    private static final Logger log = LoggerFactory.getLogger(KeyValueParser.class);
-    
-    // Pattern to match key=value pairs
-    private static final Pattern KV_PATTERN = Pattern.compile("(\\w+)=([^\\s]+)");
     
-    // Common timestamp patterns
-    private static final Pattern[] TIMESTAMP_PATTERNS = {
-        Pattern.compile("\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}(?:\\.\\d+)?(?:Z|[+-]\\d{2}:\\d{2})?"),
-        Pattern.compile("\\d{4}/\\d{2}/\\d{2} \\d{2}:\\d{2}:\\d{2}"),
-        Pattern.compile("\\d{2}/\\w{3}/\\d{4}:\\d{2}:\\d{2}:\\d{2}"),
-    };
-    
-    private String delimiter = " ";
+    private final TimestampParser timestamps = new TimestampParser();
+    private String delimiter = null; // null means any whitespace
     
     @Override
     public void configure(Map<String, String> config) {
         if (config != null && config.containsKey("delimiter")) {
-            this.delimiter = config.get("delimiter");
+            String value = config.get("delimiter");
+            this.delimiter = value == null || value.isBlank() ? null : value;
         }
     }
     
     @Override
     public void parse(LogEntry entry) {
+        tryParse(entry);
+    }
+    
+    @Override
+    public boolean tryParse(LogEntry entry) {
         String text = entry.getRawText();
-        if (text == null || text.trim().isEmpty()) {
-            return;
+        if (text == null || text.isBlank()) {
+            return false;
         }
         
-        // Extract timestamp if present
-        Instant timestamp = extractTimestamp(text);
-        if (timestamp != null) {
-            entry.setTimestamp(timestamp);
+        Instant readTime = entry.getTimestamp(); // Entries start out with the time they were read
+        int start = parseTimestamp(text, entry);
+        scanPairs(text, start, entry);
+        // Free text without a single pair or timestamp is not in this format
+        return entry.getTimestamp() != readTime || !entry.getFields().isEmpty();
+    }
+    
+    /**
+     * Find the first timestamp, preferring one at the start of the line, and set it on
+     * the entry.
+     *
+     * @return where pair scanning can start: after a leading timestamp, else 0
+     */
+    private int parseTimestamp(String text, LogEntry entry) {
+        int length = text.length();
+        int i = 0;
+        while (i < length && (text.charAt(i) == '[' || Character.isWhitespace(text.charAt(i)))) {
+            i++;
+        }
+        int end = timestamps.parseAt(text, i);
+        if (end > 0) {
+            entry.setTimestamp(timestamps.lastParsed());
+            return end;
         }
         
-        // Extract key=value pairs
-        Matcher matcher = KV_PATTERN.matcher(text);
-        while (matcher.find()) {
-            String key = matcher.group(1);
-            String value = matcher.group(2);
-            entry.addField(key, value);
+        // Anywhere else in the line; every layout starts with two digits
+        for (int j = i + 1; j + 19 <= length; j++) {
+            if (isDigit(text.charAt(j)) && isDigit(text.charAt(j + 1)) && timestamps.parseAt(text, j) > 0) {
+                entry.setTimestamp(timestamps.lastParsed());
+                break;
+            }
+        }
+        return 0;
+    }
+    
+    private void scanPairs(String text, int start, LogEntry entry) {
+        int length = text.length();
+        int keyStart = -1;
+        int i = start;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isKeyChar(c)) {
+                if (keyStart < 0) {
+                    keyStart = i;
+                }
+                i++;
+            } else if (c == '=' && keyStart >= 0) {
+                String key = text.substring(keyStart, i);
+                keyStart = -1;
+                i = scanValue(text, i + 1, key, entry);
+            } else {
+                keyStart = -1;
+                i++;
+            }
         }
     }
     
-    private Instant extractTimestamp(String text) {
-        for (Pattern pattern : TIMESTAMP_PATTERNS) {
-            Matcher matcher = pattern.matcher(text);
-            if (matcher.find()) {
-                String timestampStr = matcher.group();
-                try {
-                    // Try ISO format first
-                    return Instant.parse(timestampStr);
-                } catch (DateTimeParseException e) {
-                    // Try other common formats
-                    try {
-                        return DateTimeFormatter.ISO_DATE_TIME.parse(timestampStr, Instant::from);
-                    } catch (DateTimeParseException e2) {
-                        log.debug("Could not parse timestamp: {}", timestampStr);
-                    }
+    /**
+     * Read the value starting at {@code pos} and add it as a field.
+     *
+     * @return the index after the value
+     */
+    private int scanValue(String text, int pos, String key, LogEntry entry) {
+        int length = text.length();
+        if (pos < length && text.charAt(pos) == '"') {
+            int end = pos + 1;
+            boolean escaped = false;
+            while (end < length && text.charAt(end) != '"') {
+                if (text.charAt(end) == '\\' && end + 1 < length) {
+                    escaped = true;
+                    end++;
                 }
+                end++;
+            }
+            if (end < length) {
+                entry.addField(key, escaped ? unescape(text, pos + 1, end) : text.substring(pos + 1, end));
+                return end + 1;
             }
+            // Unterminated quote; read it as a plain value
         }
-        return null;
+        
+        int end = pos;
+        while (end < length && !isDelimiter(text, end)) {
+            end++;
+        }
+        if (end > pos) {
+            entry.addField(key, text.substring(pos, end));
+        }
+        return end;
+    }
+    
+    private boolean isDelimiter(String text, int i) {
+        if (delimiter == null) {
+            return Character.isWhitespace(text.charAt(i));
+        }
+        return text.startsWith(delimiter, i);
+    }
+    
+    private static String unescape(String text, int start, int end) {
+        StringBuilder value = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                c = text.charAt(++i);
+                switch (c) {
+                    case 'n' -> c = '\n';
+                    case 't' -> c = '\t';
+                    case 'r' -> c = '\r';
+                    default -> { } // \" \\ and anything else stand for themselves
+                }
+            }
+            value.append(c);
+        }
+        return value.toString();
+    }
+    
+    private static boolean isKeyChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 }
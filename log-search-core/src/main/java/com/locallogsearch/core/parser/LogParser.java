@@ -32,6 +32,17 @@ public interface LogParser {
      */
     void parse(LogEntry entry);
     
+    /**
+     * Parse like {@link #parse(LogEntry)} and tell whether the line matched the
+     * parser's format. A line that did not match keeps whatever fields were found and
+     * is still indexed; callers count it as a parse failure. Parsers that cannot tell
+     * report every line as matched.
+     */
+    default boolean tryParse(LogEntry entry) {
+        parse(entry);
+        return true;
+    }
+    
     /**
      * Initialize the parser with configuration
      */
@@ -41,6 +41,12 @@ public class ParserFactory {
             case "grok":
                 parser = new GrokParser();
                 break;
+            case "syslog":
+                parser = new SyslogParser();
+                break;
+            case "json":
+                parser = new JsonLogParser();
+                break;
             case "custom":
                 // Load custom parser class
                 String className = config.get("class");
@@ -29,8 +29,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -41,7 +39,7 @@ public class RegexParser implements LogParser {
     private Pattern pattern;
     private Map<Integer, String> groupToFieldMap;
     private Integer timestampGroup;
-    private String timestampFormat;
+    private TimestampParser timestampParser;
     
     @Override
     public void configure(Map<String, String> config) {
@@ -69,59 +67,56 @@ public class RegexParser implements LogParser {
         // Check for timestamp group
         if (config.containsKey("timestamp.group")) {
             this.timestampGroup = Integer.parseInt(config.get("timestamp.group"));
-            this.timestampFormat = config.get("timestamp.format");
+            this.timestampParser = TimestampParser.fromConfig(config);
         }
     }
     
     @Override
     public void parse(LogEntry entry) {
+        tryParse(entry);
+    }
+    
+    @Override
+    public boolean tryParse(LogEntry entry) {
         String text = entry.getRawText();
         if (text == null || text.trim().isEmpty()) {
-            return;
+            return false;
         }
         
         Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            // Extract mapped fields
-            for (Map.Entry<Integer, String> mapping : groupToFieldMap.entrySet()) {
-                int groupNum = mapping.getKey();
-                String fieldName = mapping.getValue();
-                
-                if (groupNum <= matcher.groupCount()) {
-                    String value = matcher.group(groupNum);
-                    if (value != null) {
-                        entry.addField(fieldName, value);
-                    }
-                }
-            }
+        if (!matcher.find()) {
+            return false;
+        }
+        
+        // Extract mapped fields
+        for (Map.Entry<Integer, String> mapping : groupToFieldMap.entrySet()) {
+            int groupNum = mapping.getKey();
+            String fieldName = mapping.getValue();
             
-            // Extract timestamp if configured
-            if (timestampGroup != null && timestampGroup <= matcher.groupCount()) {
-                String timestampStr = matcher.group(timestampGroup);
-                Instant timestamp = parseTimestamp(timestampStr);
-                if (timestamp != null) {
-                    entry.setTimestamp(timestamp);
+            if (groupNum <= matcher.groupCount()) {
+                String value = matcher.group(groupNum);
+                if (value != null) {
+                    entry.addField(fieldName, value);
                 }
             }
         }
+        
+        // Extract timestamp if configured
+        if (timestampGroup != null && timestampGroup <= matcher.groupCount()) {
+            String timestampStr = matcher.group(timestampGroup);
+            Instant timestamp = parseTimestamp(timestampStr);
+            if (timestamp != null) {
+                entry.setTimestamp(timestamp);
+            }
+        }
+        return true;
     }
     
     private Instant parseTimestamp(String timestampStr) {
-        if (timestampStr == null) {
-            return null;
-        }
-        
-        try {
-            if (timestampFormat != null) {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern(timestampFormat);
-                return Instant.from(formatter.parse(timestampStr));
-            } else {
-                // Try ISO format
-                return Instant.parse(timestampStr);
-            }
-        } catch (DateTimeParseException e) {
+        Instant timestamp = timestampParser.parse(timestampStr);
+        if (timestamp == null && timestampStr != null) {
             log.debug("Could not parse timestamp: {}", timestampStr);
-            return null;
         }
+        return timestamp;
     }
 }
@@ -0,0 +1,290 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.parser;
+
+import com.locallogsearch.core.model.LogEntry;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+/**
+ * Parses syslog messages in the BSD format (RFC 3164) and the structured format
+ * (RFC 5424), telling them apart by the version after the priority. Extracts
+ * facility, severity (also as {@code level}), host, app, pid, msgid, structured
+ * data parameters and the message. Lines without a priority are kept as the message.
+ */
+public class SyslogParser implements LogParser {
+    private static final String[] SEVERITIES = {
+        "EMERG", "ALERT", "CRIT", "ERROR", "WARN", "NOTICE", "INFO", "DEBUG"
+    };
+    private static final String[] FACILITIES = {
+        "kern", "user", "mail", "daemon", "auth", "syslog", "lpr", "news", "uucp", "cron",
+        "authpriv", "ftp", "ntp", "security", "console", "solaris-cron",
+        "local0", "local1", "local2", "local3", "local4", "local5", "local6", "local7"
+    };
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    
+    private final TimestampParser timestamps = new TimestampParser();
+    private ZoneId zone = ZoneId.systemDefault();
+    
+    @Override
+    public void configure(Map<String, String> config) {
+        if (config != null && config.containsKey("timezone")) {
+            // RFC 3164 timestamps carry no zone
+            this.zone = ZoneId.of(config.get("timezone"));
+        }
+    }
+    
+    @Override
+    public void parse(LogEntry entry) {
+        tryParse(entry);
+    }
+    
+    @Override
+    public boolean tryParse(LogEntry entry) {
+        String text = entry.getRawText();
+        if (text == null || text.isEmpty()) {
+            return false;
+        }
+        int pos = parsePriority(text, entry);
+        if (pos < 0) {
+            entry.addField("message", text);
+            return false;
+        }
+        if (pos + 1 < text.length() && text.charAt(pos) == '1' && text.charAt(pos + 1) == ' ') {
+            parseRfc5424(text, pos + 2, entry);
+        } else {
+            parseRfc3164(text, pos, entry);
+        }
+        return true;
+    }
+    
+    /**
+     * @return the position after {@code <PRI>}, or -1 if the text does not start with one
+     */
+    private int parsePriority(String text, LogEntry entry) {
+        if (text.charAt(0) != '<') {
+            return -1;
+        }
+        int priority = 0;
+        int i = 1;
+        while (i < text.length() && i <= 4 && Character.isDigit(text.charAt(i))) {
+            priority = priority * 10 + (text.charAt(i) - '0');
+            i++;
+        }
+        if (i == 1 || i >= text.length() || text.charAt(i) != '>' || priority > 191) {
+            return -1;
+        }
+        int facility = priority >> 3;
+        int severity = priority & 7;
+        entry.addField("facility", FACILITIES[facility]);
+        entry.addField("severity", String.valueOf(severity));
+        entry.addField("level", SEVERITIES[severity]);
+        return i + 1;
+    }
+    
+    /**
+     * {@code VERSION SP TIMESTAMP SP HOSTNAME SP APP-NAME SP PROCID SP MSGID SP SD [SP MSG]},
+     * from after the version.
+     */
+    private void parseRfc5424(String text, int pos, LogEntry entry) {
+        int end = nextSpace(text, pos);
+        // NIL or unparseable keeps the receive time
+        if (timestamps.parseAt(text, pos) == end) {
+            entry.setTimestamp(timestamps.lastParsed());
+        }
+        String[] header = {"host", "app", "pid", "msgid"};
+        for (String field : header) {
+            pos = end + 1;
+            if (pos >= text.length()) {
+                return;
+            }
+            end = nextSpace(text, pos);
+            if (end - pos != 1 || text.charAt(pos) != '-') {
+                entry.addField(field, text.substring(pos, end));
+            }
+        }
+        
+        pos = end + 1;
+        if (pos >= text.length()) {
+            return;
+        }
+        if (text.charAt(pos) == '[') {
+            pos = parseStructuredData(text, pos, entry);
+        } else {
+            pos = nextSpace(text, pos); // NILVALUE
+        }
+        if (pos < text.length() && text.charAt(pos) == ' ') {
+            pos++;
+        }
+        if (pos < text.length() && text.charAt(pos) == '\uFEFF') {
+            pos++; // BOM of a UTF-8 message
+        }
+        entry.addField("message", text.substring(pos));
+    }
+    
+    /**
+     * Add the parameters of {@code [id name="value" ...]...} as {@code id.name} fields.
+     *
+     * @return the position after the last element
+     */
+    private int parseStructuredData(String text, int pos, LogEntry entry) {
+        int length = text.length();
+        while (pos < length && text.charAt(pos) == '[') {
+            int idEnd = pos + 1;
+            while (idEnd < length && text.charAt(idEnd) != ' ' && text.charAt(idEnd) != ']') {
+                idEnd++;
+            }
+            String id = text.substring(pos + 1, idEnd);
+            pos = idEnd;
+            while (pos < length && text.charAt(pos) == ' ') {
+                int eq = text.indexOf('=', pos);
+                if (eq < 0 || eq + 1 >= length || text.charAt(eq + 1) != '"') {
+                    return length;
+                }
+                String name = text.substring(pos + 1, eq);
+                StringBuilder value = new StringBuilder();
+                int i = eq + 2;
+                while (i < length && text.charAt(i) != '"') {
+                    char c = text.charAt(i);
+                    if (c == '\\' && i + 1 < length) {
+                        c = text.charAt(++i); // \" \\ and \] stand for the character itself
+                    }
+                    value.append(c);
+                    i++;
+                }
+                entry.addField(id + "." + name, value.toString());
+                pos = i + 1;
+            }
+            if (pos < length && text.charAt(pos) == ']') {
+                pos++;
+            }
+        }
+        return pos;
+    }
+    
+    /**
+     * {@code Mmm dd hh:mm:ss HOSTNAME TAG[PID]: MSG}, where timestamp and host may be
+     * missing as they often are from local senders.
+     */
+    private void parseRfc3164(String text, int pos, LogEntry entry) {
+        Instant timestamp = parseBsdTimestamp(text, pos);
+        if (timestamp != null) {
+            entry.setTimestamp(timestamp);
+            pos += 16;
+            int end = nextSpace(text, pos);
+            if (end < text.length()) {
+                entry.addField("host", text.substring(pos, end));
+                pos = end + 1;
+            }
+        }
+        
+        int tagEnd = pos;
+        while (tagEnd < text.length() && tagEnd - pos < 48) {
+            char c = text.charAt(tagEnd);
+            if (c == '[' || c == ':' || c == ' ') {
+                break;
+            }
+            tagEnd++;
+        }
+        if (tagEnd < text.length() && tagEnd > pos && (text.charAt(tagEnd) == '[' || text.charAt(tagEnd) == ':')) {
+            entry.addField("app", text.substring(pos, tagEnd));
+            pos = tagEnd;
+            if (text.charAt(pos) == '[') {
+                int close = text.indexOf(']', pos);
+                if (close > 0) {
+                    entry.addField("pid", text.substring(pos + 1, close));
+                    pos = close + 1;
+                }
+            }
+            if (pos < text.length() && text.charAt(pos) == ':') {
+                pos++;
+            }
+            if (pos < text.length() && text.charAt(pos) == ' ') {
+                pos++;
+            }
+        }
+        entry.addField("message", text.substring(Math.min(pos, text.length())));
+    }
+    
+    /**
+     * Parse {@code Mmm dd hh:mm:ss} (day padded with a space) in the configured zone.
+     * The year is the current one, or the previous one for a date in the future.
+     */
+    private Instant parseBsdTimestamp(String text, int pos) {
+        if (text.length() < pos + 16 || text.charAt(pos + 3) != ' ' || text.charAt(pos + 15) != ' '
+                || text.charAt(pos + 9) != ':' || text.charAt(pos + 12) != ':') {
+            return null;
+        }
+        int month = MONTHS.indexOf(text.substring(pos, pos + 3));
+        if (month < 0 || month % 3 != 0) {
+            return null;
+        }
+        char dayTens = text.charAt(pos + 4);
+        int day = digits(text, pos + 5, 1) + (dayTens == ' ' ? 0 : digit(dayTens) * 10);
+        int hour = digits(text, pos + 7, 2);
+        int minute = digits(text, pos + 10, 2);
+        int second = digits(text, pos + 13, 2);
+        if (day < 1 || day > 31 || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return null;
+        }
+        try {
+            ZonedDateTime now = ZonedDateTime.now(zone);
+            ZonedDateTime time = LocalDateTime.of(now.getYear(), month / 3 + 1, day, hour, minute, Math.min(second, 59))
+                .atZone(zone);
+            if (time.isAfter(now.plusDays(1))) {
+                time = time.minusYears(1);
+            }
+            return time.toInstant();
+        } catch (DateTimeException e) {
+            return null; // e.g. Feb 30
+        }
+    }
+    
+    private static int digits(String text, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            int d = digit(text.charAt(i));
+            if (d < 0) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+    
+    private static int digit(char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1000;
+    }
+    
+    private static int nextSpace(String text, int pos) {
+        int space = text.indexOf(' ', pos);
+        return space < 0 ? text.length() : space;
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.parser;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses log timestamps without going through {@link DateTimeFormatter} for the common
+ * layouts, which are recognised by hand:
+ * <ul>
+ *   <li>{@code yyyy-MM-dd'T'HH:mm:ss} or with a space instead of {@code T}</li>
+ *   <li>{@code yyyy/MM/dd HH:mm:ss}</li>
+ *   <li>{@code dd/MMM/yyyy:HH:mm:ss} (Apache access logs)</li>
+ * </ul>
+ * each optionally followed by a fraction ({@code .} or {@code ,}) and a zone
+ * ({@code Z}, {@code +hh:mm}, {@code +hhmm}, or {@code  +hhmm} for Apache). The epoch
+ * second of the last date-time prefix is remembered, so consecutive lines from the same
+ * second only have their fraction and zone parsed.
+ * <p>
+ * Other layouts can be given as a {@link DateTimeFormatter} pattern. Timestamps without
+ * a zone are read in the configured zone, UTC by default.
+ * <p>
+ * Not thread-safe; each parser keeps its own instance.
+ */
+public class TimestampParser {
+    
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+    
+    /** Patterns whose layout the hand-written parser reads the same way. */
+    private static final Set<String> BUILT_IN_PATTERNS = Set.of(
+        "yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss.SSS", "yyyy-MM-dd'T'HH:mm:ss'Z'",
+        "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", "yyyy-MM-dd'T'HH:mm:ssXXX", "yyyy-MM-dd'T'HH:mm:ss.SSSXXX",
+        "yyyy-MM-dd'T'HH:mm:ssZ", "yyyy-MM-dd'T'HH:mm:ss.SSSZ",
+        "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm:ss.SSS", "yyyy-MM-dd HH:mm:ss,SSS",
+        "yyyy/MM/dd HH:mm:ss", "yyyy/MM/dd HH:mm:ss.SSS",
+        "dd/MMM/yyyy:HH:mm:ss", "dd/MMM/yyyy:HH:mm:ss Z");
+    
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    
+    private final ZoneId zone;
+    private final DateTimeFormatter formatter;
+    private final boolean builtIn;
+    
+    // Last date-time prefix and its epoch second
+    private String memoPrefix;
+    private long memoLocalSeconds;
+    private int memoZoneOffset;
+    
+    // Result of the last successful parseAt
+    private long parsedSeconds;
+    private int parsedNanos;
+    private int parsedOffset;
+    
+    /**
+     * Recognise the built-in layouts, reading zoneless timestamps as UTC.
+     */
+    public TimestampParser() {
+        this(null, null);
+    }
+    
+    /**
+     * @param pattern {@link DateTimeFormatter} pattern, or {@code null} for the built-in layouts
+     * @param zone    zone of timestamps without one, or {@code null} for UTC
+     */
+    public TimestampParser(String pattern, ZoneId zone) {
+        this.zone = zone != null ? zone : ZoneOffset.UTC;
+        this.builtIn = pattern == null || BUILT_IN_PATTERNS.contains(pattern);
+        this.formatter = pattern == null ? null
+            : FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern).withZone(this.zone);
+    }
+    
+    /**
+     * Create a parser from the {@code timestamp.format} and {@code timestamp.timezone}
+     * settings of a parser config.
+     */
+    public static TimestampParser fromConfig(Map<String, String> config) {
+        if (config == null) {
+            return new TimestampParser();
+        }
+        String timezone = config.get("timestamp.timezone");
+        return new TimestampParser(config.get("timestamp.format"), timezone != null ? ZoneId.of(timezone) : null);
+    }
+    
+    /**
+     * Parse a whole value, e.g. a captured field. Without a pattern, 10 and 13 digit
+     * numbers are read as epoch seconds and millis.
+     *
+     * @return the instant, or {@code null} if the value is not a timestamp
+     */
+    public Instant parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        String s = value.trim();
+        if (builtIn && parseAt(s, 0) == s.length()) {
+            return lastParsed();
+        }
+        if (formatter != null) {
+            try {
+                return formatter.parse(s, Instant::from);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+        return parseEpoch(s);
+    }
+    
+    /**
+     * Parse a built-in layout starting at {@code pos}, without allocating unless the
+     * date-time prefix differs from the last one. The result is read with
+     * {@link #lastParsed()}.
+     *
+     * @return the index after the timestamp, or -1 if there is none at {@code pos}
+     */
+    public int parseAt(String s, int pos) {
+        int length = s.length();
+        if (pos < 0 || pos + 19 > length) {
+            return -1;
+        }
+        boolean apache = false;
+        int end;
+        char sep = s.charAt(pos + 4);
+        if ((sep == '-' || sep == '/') && s.charAt(pos + 7) == sep
+                && (s.charAt(pos + 10) == ' ' || (sep == '-' && s.charAt(pos + 10) == 'T'))
+                && s.charAt(pos + 13) == ':' && s.charAt(pos + 16) == ':') {
+            end = pos + 19;
+        } else if (s.charAt(pos + 2) == '/' && pos + 20 <= length && s.charAt(pos + 6) == '/'
+                && s.charAt(pos + 11) == ':' && s.charAt(pos + 14) == ':' && s.charAt(pos + 17) == ':') {
+            apache = true;
+            end = pos + 20;
+        } else {
+            return -1;
+        }
+        
+        if (memoPrefix == null || memoPrefix.length() != end - pos || !s.regionMatches(pos, memoPrefix, 0, end - pos)) {
+            long local = apache ? apacheSeconds(s, pos) : isoSeconds(s, pos);
+            if (local == Long.MIN_VALUE) {
+                return -1;
+            }
+            memoPrefix = s.substring(pos, end);
+            memoLocalSeconds = local;
+            memoZoneOffset = zone instanceof ZoneOffset offset ? offset.getTotalSeconds()
+                : zone.getRules().getOffset(LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC)).getTotalSeconds();
+        }
+        
+        int i = end;
+        int nanos = 0;
+        if (i + 1 < length && (s.charAt(i) == '.' || s.charAt(i) == ',') && isDigit(s.charAt(i + 1))) {
+            int scale = 100_000_000;
+            for (i++; i < length && isDigit(s.charAt(i)); i++) {
+                nanos += (s.charAt(i) - '0') * scale;
+                scale /= 10;
+            }
+        }
+        
+        int offset = memoZoneOffset;
+        if (i < length && s.charAt(i) == 'Z') {
+            offset = 0;
+            i++;
+        } else {
+            int zoneStart = apache && i < length && s.charAt(i) == ' ' ? i + 1 : i;
+            int zoneEnd = parseOffset(s, zoneStart);
+            if (zoneEnd > 0) {
+                offset = parsedOffset;
+                i = zoneEnd;
+            }
+        }
+        parsedSeconds = memoLocalSeconds - offset;
+        parsedNanos = nanos;
+        return i;
+    }
+    
+    /**
+     * The instant read by the last successful {@link #parseAt} call.
+     */
+    public Instant lastParsed() {
+        return Instant.ofEpochSecond(parsedSeconds, parsedNanos);
+    }
+    
+    /**
+     * Parse {@code +hh:mm}, {@code +hhmm} or {@code +hh} into {@link #parsedOffset}.
+     *
+     * @return the index after the offset, or -1
+     */
+    private int parseOffset(String s, int pos) {
+        if (pos + 3 > s.length() || (s.charAt(pos) != '+' && s.charAt(pos) != '-')) {
+            return -1;
+        }
+        int hours = digits(s, pos + 1, 2);
+        int minutes = 0;
+        int end = pos + 3;
+        if (end + 3 <= s.length() && s.charAt(end) == ':') {
+            minutes = digits(s, end + 1, 2);
+            end += 3;
+        } else if (end + 2 <= s.length() && isDigit(s.charAt(end))) {
+            minutes = digits(s, end, 2);
+            end += 2;
+        }
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return -1;
+        }
+        parsedOffset = (hours * 3600 + minutes * 60) * (s.charAt(pos) == '-' ? -1 : 1);
+        return end;
+    }
+    
+    /**
+     * {@code yyyy-MM-dd HH:mm:ss} with any separators, as seconds since the epoch in UTC.
+     */
+    private static long isoSeconds(String s, int pos) {
+        return localSeconds(digits(s, pos, 4), digits(s, pos + 5, 2), digits(s, pos + 8, 2),
+            digits(s, pos + 11, 2), digits(s, pos + 14, 2), digits(s, pos + 17, 2));
+    }
+    
+    /**
+     * {@code dd/MMM/yyyy:HH:mm:ss}, as seconds since the epoch in UTC.
+     */
+    private static long apacheSeconds(String s, int pos) {
+        int month = -1;
+        for (int m = 0; m < 12; m++) {
+            if (s.regionMatches(pos + 3, MONTHS, m * 3, 3)) {
+                month = m + 1;
+                break;
+            }
+        }
+        return localSeconds(digits(s, pos + 7, 4), month, digits(s, pos, 2),
+            digits(s, pos + 12, 2), digits(s, pos + 15, 2), digits(s, pos + 18, 2));
+    }
+    
+    /**
+     * @return seconds since the epoch, or {@link Long#MIN_VALUE} if a field is out of range
+     */
+    private static long localSeconds(int year, int month, int day, int hour, int minute, int second) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return Long.MIN_VALUE;
+        }
+        // A leap second is read as the last second of the minute
+        return epochDay(year, month, day) * 86400 + hour * 3600 + minute * 60 + Math.min(second, 59);
+    }
+    
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+    
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+    
+    private static Instant parseEpoch(String s) {
+        int length = s.length();
+        if (length != 10 && length != 13) {
+            return null;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return null;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return length == 10 ? Instant.ofEpochSecond(value) : Instant.ofEpochMilli(value);
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    /**
+     * @return the value of {@code count} decimal digits at {@code pos}, or -1
+     */
+    private static int digits(String s, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -24,6 +24,7 @@
 
 package com.locallogsearch.core.pipe.commands;
 
+import com.locallogsearch.core.index.NumericValues;
 import com.locallogsearch.core.pipe.PipeCommand;
 import com.locallogsearch.core.pipe.PipeResult;
 import com.locallogsearch.core.search.SearchResult;
@@ -216,14 +217,12 @@ public class StatsCommand implements PipeCommand {
                 case "sum":
                 case "min":
                 case "max":
-                    try {
-                        String numStr = value.replaceAll("[^0-9.\\-]", "");
-                        double numValue = Double.parseDouble(numStr);
+                    // Same canonical units as the indexed _num fields, e.g. 1.5s is 1500
+                    double numValue = NumericValues.parse(value);
+                    if (!Double.isNaN(numValue)) {
                         sum += numValue;
                         min = Math.min(min, numValue);
                         max = Math.max(max, numValue);
-                    } catch (NumberFormatException e) {
-                        // Skip non-numeric
                     }
                     break;
                 case "dc":
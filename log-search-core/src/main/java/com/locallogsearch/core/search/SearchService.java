@@ -24,10 +24,17 @@
 
 package com.locallogsearch.core.search;
 
+import com.locallogsearch.core.config.FieldMapping;
 import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.index.FieldTypeRegistry;
+import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.index.NumericValues;
 import com.locallogsearch.core.pipe.*;
 import com.locallogsearch.core.pipe.PipeQueryParser.ParsedQuery;
 import com.locallogsearch.core.pipe.PipeQueryParser.PipeCommandSpec;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
@@ -64,12 +71,24 @@ public class SearchService {
     private static final Logger log = LoggerFactory.getLogger(SearchService.class);
     
     private final IndexConfig indexConfig;
+    private final IndexManager indexManager;
     private final StandardAnalyzer analyzer;
+    private final KeywordAnalyzer keywordAnalyzer;
     private final Map<String, IndexReader> indexReaders;
     
     public SearchService(IndexConfig indexConfig) {
+        this(indexConfig, null);
+    }
+    
+    /**
+     * @param indexManager source of the indices' field mappings, or {@code null} to
+     *                     query every field as analyzed text
+     */
+    public SearchService(IndexConfig indexConfig, IndexManager indexManager) {
         this.indexConfig = indexConfig;
+        this.indexManager = indexManager;
         this.analyzer = new StandardAnalyzer();
+        this.keywordAnalyzer = new KeywordAnalyzer();
         this.indexReaders = new HashMap<>();
     }
     
@@ -107,7 +126,8 @@ public class SearchService {
             
             // Calculate facets if requested
             if (request.isIncludeFacets()) {
-                FacetResultData facetResult = calculateFacetsFromAllHits(context.searcher, context.query, context.totalHits, request.getFacetBuckets());
+                FacetResultData facetResult = calculateFacetsFromAllHits(context.searcher, context.query, context.totalHits,
+                    request.getFacetBuckets(), fieldsWithoutFacets(indexName));
                 mergeFacets(allFacets, facetResult.facets);
             }
             
@@ -193,13 +213,13 @@ public class SearchService {
         
         // Parse query - search in raw_text and all other fields
         String[] fields = {"raw_text"};
-        MultiFieldQueryParser parser = new MultiFieldQueryParser(fields, analyzer);
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(fields, queryAnalyzer(indexName));
         parser.setDefaultOperator(QueryParser.Operator.AND);
         
         Query query = parser.parse(request.getQuery());
         
         // Rewrite range queries to use numeric fields if applicable
-        query = rewriteNumericRangeQueries(query, reader);
+        query = rewriteNumericRangeQueries(query, reader, mappedFields(indexName, FieldMapping.NUMERIC));
         
         // Add timestamp range filter if specified
         if (request.getTimestampFrom() != null || request.getTimestampTo() != null) {
@@ -242,7 +262,8 @@ public class SearchService {
         Map<String, Map<String, Integer>> facets = new HashMap<>();
         Integer facetSampleSize = null;
         if (request.isIncludeFacets()) {
-            FacetResultData facetResult = calculateFacetsFromAllHits(searcher, query, totalHits, request.getFacetBuckets());
+            FacetResultData facetResult = calculateFacetsFromAllHits(searcher, query, totalHits, request.getFacetBuckets(),
+                fieldsWithoutFacets(indexName));
             facets = facetResult.facets;
             facetSampleSize = facetResult.sampleSize;
         }
@@ -303,13 +324,13 @@ public class SearchService {
         
         // Parse query
         String[] fields = {"raw_text"};
-        MultiFieldQueryParser parser = new MultiFieldQueryParser(fields, analyzer);
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(fields, queryAnalyzer(indexName));
         parser.setDefaultOperator(QueryParser.Operator.AND);
         
         Query query = parser.parse(request.getQuery());
         
         // Rewrite range queries to use numeric fields if applicable
-        query = rewriteNumericRangeQueries(query, reader);
+        query = rewriteNumericRangeQueries(query, reader, mappedFields(indexName, FieldMapping.NUMERIC));
         
         // Add timestamp range filter if specified
         if (request.getTimestampFrom() != null || request.getTimestampTo() != null) {
@@ -357,38 +378,67 @@ public class SearchService {
         return result;
     }
     
+    /**
+     * Names of an index's fields with the given mapping.
+     */
+    private Set<String> mappedFields(String indexName, FieldMapping mapping) {
+        return indexManager != null
+            ? indexManager.getFieldTypes(indexName).fieldsMappedAs(mapping)
+            : Collections.emptySet();
+    }
+    
+    /**
+     * Analyzer for queries on an index; keyword fields and the overflow field are
+     * matched unanalyzed, the way they were indexed.
+     */
+    private Analyzer queryAnalyzer(String indexName) {
+        Map<String, Analyzer> fieldAnalyzers = new HashMap<>();
+        fieldAnalyzers.put(FieldTypeRegistry.OVERFLOW_FIELD, keywordAnalyzer);
+        for (String field : mappedFields(indexName, FieldMapping.KEYWORD)) {
+            fieldAnalyzers.put(field, keywordAnalyzer);
+        }
+        return new PerFieldAnalyzerWrapper(analyzer, fieldAnalyzers);
+    }
+    
     /**
      * Rewrites range queries on text fields to use numeric fields if they exist.
      * Detects TermRangeQuery and converts to DoublePoint range query if field_num exists.
+     * Term queries on fields mapped as numeric, which have no text field, become exact
+     * DoublePoint queries.
      */
-    private Query rewriteNumericRangeQueries(Query query, IndexReader reader) throws IOException {
-        if (query instanceof TermRangeQuery) {
+    private Query rewriteNumericRangeQueries(Query query, IndexReader reader, Set<String> numericFields) throws IOException {
+        if (query instanceof TermQuery && numericFields.contains(((TermQuery) query).getTerm().field())) {
+            Term term = ((TermQuery) query).getTerm();
+            double value = NumericValues.parseTerm(term.text());
+            if (!Double.isNaN(value)) {
+                return DoublePoint.newExactQuery(term.field() + "_num", value);
+            }
+        } else if (query instanceof TermRangeQuery) {
             TermRangeQuery rangeQuery = (TermRangeQuery) query;
             String fieldName = rangeQuery.getField();
             String numericFieldName = fieldName + "_num";
             
             // Check if numeric field exists in the index
             if (hasNumericField(reader, numericFieldName)) {
-                try {
-                    // Parse bounds
-                    double lowerBound = Double.NEGATIVE_INFINITY;
-                    double upperBound = Double.POSITIVE_INFINITY;
-                    
-                    if (rangeQuery.getLowerTerm() != null) {
-                        lowerBound = Double.parseDouble(rangeQuery.getLowerTerm().utf8ToString());
-                    }
-                    if (rangeQuery.getUpperTerm() != null) {
-                        upperBound = Double.parseDouble(rangeQuery.getUpperTerm().utf8ToString());
-                    }
-                    
+                // Parse bounds; units are normalized as when indexing, e.g. [1s TO 2s]
+                double lowerBound = Double.NEGATIVE_INFINITY;
+                double upperBound = Double.POSITIVE_INFINITY;
+                
+                if (rangeQuery.getLowerTerm() != null) {
+                    lowerBound = NumericValues.parseTerm(rangeQuery.getLowerTerm().utf8ToString());
+                }
+                if (rangeQuery.getUpperTerm() != null) {
+                    upperBound = NumericValues.parseTerm(rangeQuery.getUpperTerm().utf8ToString());
+                }
+                
+                if (!Double.isNaN(lowerBound) && !Double.isNaN(upperBound)) {
                     log.info("Rewriting range query on {} to use numeric field {} with range [{}, {}]",
                         fieldName, numericFieldName, lowerBound, upperBound);
                     
                     return DoublePoint.newRangeQuery(numericFieldName, lowerBound, upperBound);
-                } catch (NumberFormatException e) {
-                    // Can't parse as number, keep original query
-                    log.debug("Could not parse range bounds as numbers for field {}, keeping text range query", fieldName);
                 }
+                // Can't parse as number, keep original query
+                log.debug("Could not parse range bounds as numbers for field {}, keeping text range query", fieldName);
             }
         } else if (query instanceof BooleanQuery) {
             // Recursively rewrite sub-queries
@@ -397,7 +447,7 @@ public class SearchService {
             boolean changed = false;
             
             for (BooleanClause clause : boolQuery.clauses()) {
-                Query rewritten = rewriteNumericRangeQueries(clause.getQuery(), reader);
+                Query rewritten = rewriteNumericRangeQueries(clause.getQuery(), reader, numericFields);
                 builder.add(rewritten, clause.getOccur());
                 if (rewritten != clause.getQuery()) {
                     changed = true;
@@ -435,13 +485,24 @@ public class SearchService {
         }
     }
     
+    /**
+     * Fields of an index whose facets stopped being indexed for having too many distinct
+     * values; their remaining facet values are partial, so they are not returned.
+     */
+    private Set<String> fieldsWithoutFacets(String indexName) {
+        return indexManager != null
+            ? indexManager.getFieldTypes(indexName).fieldsWithoutFacets()
+            : Collections.emptySet();
+    }
+    
     /**
      * Calculate facets from ALL matching documents using Lucene's native faceting.
      * This uses SortedSetDocValuesFacetCounts for accurate counts across all results.
      * No sampling - counts ALL matching documents.
      */
     private FacetResultData calculateFacetsFromAllHits(IndexSearcher searcher, Query query, long totalHits, 
-                                                       Map<String, SearchRequest.FacetBucketConfig> bucketConfigs) throws IOException {
+                                                       Map<String, SearchRequest.FacetBucketConfig> bucketConfigs,
+                                                       Set<String> skippedDims) throws IOException {
         Map<String, Map<String, Integer>> facets = new HashMap<>();
         
         if (totalHits == 0) {
@@ -471,15 +532,17 @@ public class SearchService {
             // Get all facets using native Lucene faceting
             Facets luceneFacets = new SortedSetDocValuesFacetCounts(state, fc);
             
-            // Get all indexed dimensions (field names) - limit to actual dimension count
-            List<FacetResult> allDims = luceneFacets.getAllDims(dimCount);
-            
-            for (FacetResult facetResult : allDims) {
-                String dimension = facetResult.dim;
-                
-                // Skip internal fields
+            // Get each indexed dimension (field name) - limit to actual dimension count
+            for (String dimension : state.getDims()) {
+                // Skip internal fields, and fields with too many values to facet
                 if (dimension.equals("raw_text") || dimension.equals("source") || 
-                    dimension.equals("timestamp") || dimension.endsWith("_exact") || dimension.endsWith("_num")) {
+                    dimension.equals("timestamp") || dimension.endsWith("_exact") || dimension.endsWith("_num")
+                    || skippedDims.contains(dimension)) {
+                    continue;
+                }
+                
+                FacetResult facetResult = luceneFacets.getTopChildren(dimCount, dimension);
+                if (facetResult == null) {
                     continue;
                 }
                 
@@ -520,44 +583,40 @@ public class SearchService {
      * Bucket a numeric value into a range based on configuration
      */
     private String bucketValue(String value, SearchRequest.FacetBucketConfig config) {
-        try {
-            // Try to parse as numeric (remove non-numeric suffixes like "ms")
-            String numStr = value.replaceAll("[^0-9.\\-]", "");
-            double numValue = Double.parseDouble(numStr);
-            
-            List<Double> ranges = config.getRanges();
-            if (ranges == null || ranges.isEmpty()) {
-                return value;  // No ranges defined, return original
-            }
-            
-            // Sort ranges to ensure proper ordering
-            List<Double> sortedRanges = new ArrayList<>(ranges);
-            Collections.sort(sortedRanges);
+        // Same canonical units as the indexed _num fields, e.g. 1.5s is 1500
+        double numValue = NumericValues.parse(value);
+        if (Double.isNaN(numValue)) {
+            return value;
+        }
+        
+        List<Double> ranges = config.getRanges();
+        if (ranges == null || ranges.isEmpty()) {
+            return value;  // No ranges defined, return original
+        }
+        
+        // Sort ranges to ensure proper ordering
+        List<Double> sortedRanges = new ArrayList<>(ranges);
+        Collections.sort(sortedRanges);
+        
+        // Find which bucket the value falls into
+        for (int i = 0; i < sortedRanges.size(); i++) {
+            double lower = sortedRanges.get(i);
             
-            // Find which bucket the value falls into
-            for (int i = 0; i < sortedRanges.size(); i++) {
-                double lower = sortedRanges.get(i);
-                
-                if (i == sortedRanges.size() - 1) {
-                    // Last range - everything >= this value
-                    if (numValue >= lower) {
-                        return lower + "+";
-                    }
-                } else {
-                    double upper = sortedRanges.get(i + 1);
-                    if (numValue >= lower && numValue < upper) {
-                        return lower + "-" + upper;
-                    }
+            if (i == sortedRanges.size() - 1) {
+                // Last range - everything >= this value
+                if (numValue >= lower) {
+                    return lower + "+";
+                }
+            } else {
+                double upper = sortedRanges.get(i + 1);
+                if (numValue >= lower && numValue < upper) {
+                    return lower + "-" + upper;
                 }
             }
-            
-            // Value is less than smallest range
-            return "<" + sortedRanges.get(0);
-            
-        } catch (NumberFormatException e) {
-            // Not a number, return original value
-            return value;
         }
+        
+        // Value is less than smallest range
+        return "<" + sortedRanges.get(0);
     }
     
     private void mergeFacets(Map<String, Map<String, Integer>> target, Map<String, Map<String, Integer>> source) {
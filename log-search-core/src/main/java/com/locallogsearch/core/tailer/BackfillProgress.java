@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import com.locallogsearch.core.ingest.IngestStats;
+
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Progress of a parallel backfill of one file, with throughput and an estimate of
+ * the time remaining. Ranges finish out of order; the offset up to which every range
+ * has finished is tracked so it can be checkpointed while the backfill runs.
+ */
+public class BackfillProgress {
+    
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+    
+    private final String filePath;
+    private final long startOffset;
+    private final long endOffset;
+    private final long startTime;
+    private final AtomicLong bytesDone = new AtomicLong();
+    private final AtomicLong linesDone = new AtomicLong();
+    private volatile State state = State.RUNNING;
+    private volatile long endTime = 0;
+    private IngestStats stats;
+    private final TreeMap<Long, Long> finishedRanges = new TreeMap<>(); // Guarded by this, start to end
+    private volatile long completedOffset;
+    private LongConsumer completedListener;
+    
+    public BackfillProgress(String filePath, long startOffset, long endOffset) {
+        this.filePath = filePath;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.startTime = System.currentTimeMillis();
+        this.completedOffset = startOffset;
+    }
+    
+    /**
+     * Also count what is read in the ingest stats of the file.
+     */
+    void setStats(IngestStats stats) {
+        this.stats = stats;
+    }
+    
+    /**
+     * Invoke the listener with the new completed offset whenever it advances. It is
+     * called under the progress lock, so offsets arrive in increasing order.
+     */
+    void setCompletedListener(LongConsumer completedListener) {
+        this.completedListener = completedListener;
+    }
+    
+    /**
+     * Record that every event of a range has been added to the index.
+     */
+    synchronized void rangeFinished(long start, long end) {
+        finishedRanges.put(start, end);
+        long offset = completedOffset;
+        Long next;
+        while ((next = finishedRanges.remove(offset)) != null) {
+            offset = next;
+        }
+        if (offset != completedOffset) {
+            completedOffset = offset;
+            if (completedListener != null) {
+                completedListener.accept(offset);
+            }
+        }
+    }
+    
+    void addBytes(long bytes) {
+        bytesDone.addAndGet(bytes);
+        if (stats != null) {
+            stats.addRead(0, bytes);
+        }
+    }
+    
+    void addLines(long lines) {
+        linesDone.addAndGet(lines);
+        if (stats != null) {
+            stats.addRead(lines, 0);
+        }
+    }
+    
+    void finish(State state) {
+        if (this.state == State.RUNNING) {
+            this.state = state;
+            this.endTime = System.currentTimeMillis();
+        }
+    }
+    
+    /**
+     * Ask the backfill to stop; ranges not started yet are skipped.
+     */
+    public void cancel() {
+        finish(State.CANCELLED);
+    }
+    
+    public boolean isCancelled() {
+        return state == State.CANCELLED;
+    }
+    
+    public String getFilePath() {
+        return filePath;
+    }
+    
+    public long getStartOffset() {
+        return startOffset;
+    }
+    
+    public long getEndOffset() {
+        return endOffset;
+    }
+    
+    /**
+     * Offset up to which every range has been indexed, contiguously from the start.
+     */
+    public long getCompletedOffset() {
+        return completedOffset;
+    }
+    
+    public long getTotalBytes() {
+        return endOffset - startOffset;
+    }
+    
+    public long getBytesDone() {
+        return bytesDone.get();
+    }
+    
+    public long getLinesDone() {
+        return linesDone.get();
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public double getPercentComplete() {
+        long total = getTotalBytes();
+        return total == 0 ? 100.0 : 100.0 * getBytesDone() / total;
+    }
+    
+    public long getElapsedMillis() {
+        long end = endTime > 0 ? endTime : System.currentTimeMillis();
+        return end - startTime;
+    }
+    
+    public double getBytesPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed == 0 ? 0 : getBytesDone() * 1000.0 / elapsed;
+    }
+    
+    /**
+     * Estimated seconds until the backfill completes, or -1 while no rate is known yet.
+     */
+    public long getEtaSeconds() {
+        if (state != State.RUNNING) {
+            return 0;
+        }
+        double rate = getBytesPerSecond();
+        if (rate <= 0) {
+            return -1;
+        }
+        return (long) Math.ceil((getTotalBytes() - getBytesDone()) / rate);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: %.1f%% (%d/%d bytes, %.1f MB/s, eta %ds, %s)",
+            filePath, getPercentComplete(), getBytesDone(), getTotalBytes(),
+            getBytesPerSecond() / (1024 * 1024), getEtaSeconds(), state);
+    }
+}
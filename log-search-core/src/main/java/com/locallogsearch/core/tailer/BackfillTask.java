@@ -0,0 +1,248 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Reads a byte range of a file that starts and ends on line boundaries, splitting it
+ * in half at the next newline until ranges are small enough to read on one thread.
+ * Each range gets its own line handler so parsers are never shared between threads.
+ *
+ * For multi-line sources the split goes to the next line that starts an event, so no
+ * event is cut in two by a range boundary.
+ */
+public class BackfillTask extends RecursiveAction {
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    
+    private final FileChannel channel;
+    private final Charset charset;
+    private final byte[] newline;
+    private final long start;
+    private final long end;
+    private final long splitBytes;
+    private final Predicate<String> eventStart;
+    private final Supplier<LineReader.LineHandler> handlerFactory;
+    private final BackfillProgress progress;
+    
+    /**
+     * @param channel        channel shared by all ranges; only positional reads are used
+     * @param start          offset of the first line of the range
+     * @param end            offset just after the last newline of the range
+     * @param eventStart     tells whether a line starts an event, or {@code null} if every
+     *                       line is an event of its own
+     * @param handlerFactory creates the handler for the lines of one range
+     */
+    public BackfillTask(FileChannel channel, Charset charset, long start, long end, long splitBytes,
+                        Predicate<String> eventStart, Supplier<LineReader.LineHandler> handlerFactory,
+                        BackfillProgress progress) {
+        this.channel = channel;
+        this.charset = charset;
+        this.newline = LineReader.newline(charset);
+        this.start = start;
+        this.end = end;
+        this.splitBytes = Math.max(SCAN_BUFFER_SIZE, splitBytes);
+        this.eventStart = eventStart;
+        this.handlerFactory = handlerFactory;
+        this.progress = progress;
+    }
+    
+    @Override
+    protected void compute() {
+        if (progress.isCancelled()) {
+            return;
+        }
+        try {
+            if (end - start <= splitBytes) {
+                readRange();
+                return;
+            }
+            
+            long middle = nextLineStart(channel, newline, start + (end - start) / 2, end);
+            if (eventStart != null && middle < end) {
+                middle = nextEventStart(channel, charset, middle, end, eventStart);
+            }
+            if (middle >= end) {
+                // One huge line or event in the second half; nothing to split on
+                readRange();
+                return;
+            }
+            invokeAll(new BackfillTask(channel, charset, start, middle, splitBytes, eventStart, handlerFactory, progress),
+                      new BackfillTask(channel, charset, middle, end, splitBytes, eventStart, handlerFactory, progress));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void readRange() throws IOException {
+        LineReader reader = new LineReader(charset, start);
+        LineReader.LineHandler handler = handlerFactory.get();
+        long[] lines = new long[1];
+        LineReader.LineHandler counting = line -> {
+            lines[0]++;
+            handler.onLine(line);
+        };
+        
+        while (reader.readPosition() < end && !progress.isCancelled()) {
+            long n = reader.read(channel, Math.min(SCAN_BUFFER_SIZE, end - reader.readPosition()), counting);
+            if (n <= 0) {
+                break;
+            }
+            progress.addBytes(n);
+        }
+        if (!progress.isCancelled()) {
+            handler.endOfInput();
+            progress.rangeFinished(start, reader.position());
+        }
+        progress.addLines(lines[0]);
+    }
+    
+    /**
+     * Offset just after the first newline at or after {@code from}, or {@code limit}
+     * if there is none before it. Only code unit boundaries of the charset are matched.
+     */
+    static long nextLineStart(FileChannel channel, byte[] newline, long from, long limit) throws IOException {
+        int unit = newline.length;
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from + (unit - from % unit) % unit;
+        while (position < limit) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), limit - position));
+            int n = channel.read(buffer, position);
+            n -= n % unit;
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i += unit) {
+                if (matches(buffer, i, newline)) {
+                    return position + i + unit;
+                }
+            }
+            position += n;
+        }
+        return limit;
+    }
+    
+    /**
+     * Offset just after the last newline before {@code limit}, or {@code from} if the
+     * range holds no complete line. {@code from} must be on a code unit boundary.
+     */
+    static long lastLineEnd(FileChannel channel, Charset charset, long from, long limit) throws IOException {
+        byte[] newline = LineReader.newline(charset);
+        int unit = newline.length;
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = limit - (limit - from) % unit;
+        while (position > from) {
+            int length = (int) Math.min(buffer.capacity(), position - from);
+            buffer.clear();
+            buffer.limit(length);
+            long chunkStart = position - length;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, chunkStart + buffer.position()) < 0) {
+                    return from;
+                }
+            }
+            for (int i = length - unit; i >= 0; i -= unit) {
+                if (matches(buffer, i, newline)) {
+                    return chunkStart + i + unit;
+                }
+            }
+            position = chunkStart;
+        }
+        return from;
+    }
+    
+    /**
+     * Offset of the first line at or after {@code from} that starts an event, or
+     * {@code limit} if there is none before it. {@code from} must be a line start.
+     */
+    static long nextEventStart(FileChannel channel, Charset charset, long from, long limit,
+                               Predicate<String> eventStart) throws IOException {
+        long found = findEventStart(channel, charset, from, limit, eventStart, true);
+        return found >= 0 ? found : limit;
+    }
+    
+    /**
+     * Offset of the last line before {@code limit} that starts an event, or {@code from}
+     * if none does. {@code limit} must be a line end. Looks back through growing windows
+     * so usually only the tail of the range is read.
+     */
+    static long lastEventStart(FileChannel channel, Charset charset, long from, long limit,
+                               Predicate<String> eventStart) throws IOException {
+        byte[] newline = LineReader.newline(charset);
+        long window = SCAN_BUFFER_SIZE;
+        while (true) {
+            long windowStart = Math.max(from, limit - window);
+            long lineStart = windowStart == from ? from : nextLineStart(channel, newline, windowStart, limit);
+            long found = findEventStart(channel, charset, lineStart, limit, eventStart, false);
+            if (found >= 0) {
+                return found;
+            }
+            if (windowStart == from) {
+                return from;
+            }
+            window *= 2;
+        }
+    }
+    
+    /**
+     * Offset of the first (or last) line in a range of complete lines that starts an
+     * event, or -1 if none does.
+     */
+    private static long findEventStart(FileChannel channel, Charset charset, long from, long limit,
+                                       Predicate<String> eventStart, boolean first) throws IOException {
+        LineReader reader = new LineReader(charset, from);
+        long[] lineStart = {from};
+        long[] found = {-1};
+        LineReader.LineHandler handler = line -> {
+            if ((found[0] < 0 || !first) && eventStart.test(line)) {
+                found[0] = lineStart[0];
+            }
+            lineStart[0] = reader.position();
+        };
+        while ((found[0] < 0 || !first) && reader.readPosition() < limit) {
+            if (reader.read(channel, Math.min(SCAN_BUFFER_SIZE, limit - reader.readPosition()), handler) <= 0) {
+                break;
+            }
+        }
+        return found[0];
+    }
+    
+    private static boolean matches(ByteBuffer buffer, int index, byte[] pattern) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (buffer.get(index + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
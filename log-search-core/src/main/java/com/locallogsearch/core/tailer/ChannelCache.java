@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of open read channels shared by all tailers, bounding the number of file
+ * descriptors no matter how many files are tailed.
+ *
+ * A channel is pinned between {@link #acquire(Path)} and {@link #release(Path)} and is
+ * never closed while pinned. When every cached channel is pinned the cache may go
+ * over its capacity until some are released.
+ */
+public class ChannelCache implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ChannelCache.class);
+    
+    private final int capacity;
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long opens = 0;
+    private long evictions = 0;
+    
+    public ChannelCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+    
+    /**
+     * Get an open channel for the file, opening it if needed, and pin it until released.
+     */
+    public synchronized FileChannel acquire(Path path) throws IOException {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            entry = new Entry(FileChannel.open(path, StandardOpenOption.READ));
+            entries.put(path, entry);
+            opens++;
+            evictIfNeeded();
+        }
+        entry.pins++;
+        return entry.channel;
+    }
+    
+    /**
+     * Pin and return the channel already cached for the file, or {@code null} if none is
+     * open. Never opens the file, so the channel still refers to whatever file was at the
+     * path when it was opened.
+     */
+    public synchronized FileChannel acquireIfOpen(Path path) {
+        Entry entry = entries.get(path);
+        if (entry == null || entry.invalid) {
+            return null;
+        }
+        entry.pins++;
+        return entry.channel;
+    }
+    
+    public synchronized void release(Path path) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            return;
+        }
+        if (entry.pins > 0) {
+            entry.pins--;
+        }
+        if (entry.pins == 0 && entry.invalid) {
+            entries.remove(path);
+            close(path, entry);
+        }
+        evictIfNeeded();
+    }
+    
+    /**
+     * Close the cached channel for the file, e.g. because it now refers to another file.
+     * A pinned channel is closed once its last holder releases it.
+     */
+    public synchronized void invalidate(Path path) {
+        Entry entry = entries.get(path);
+        if (entry != null && entry.pins == 0) {
+            entries.remove(path);
+            close(path, entry);
+        } else if (entry != null) {
+            entry.invalid = true;
+        }
+    }
+    
+    private void evictIfNeeded() {
+        // Iteration order is least recently used first
+        Iterator<Map.Entry<Path, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Map.Entry<Path, Entry> e = it.next();
+            if (e.getValue().pins == 0) {
+                it.remove();
+                close(e.getKey(), e.getValue());
+                evictions++;
+            }
+        }
+    }
+    
+    private void close(Path path, Entry entry) {
+        try {
+            entry.channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close channel for {}", path, e);
+        }
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public synchronized long getOpens() {
+        return opens;
+    }
+    
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    @Override
+    public synchronized void close() {
+        for (Map.Entry<Path, Entry> e : entries.entrySet()) {
+            close(e.getKey(), e.getValue());
+        }
+        entries.clear();
+    }
+    
+    private static final class Entry {
+        final FileChannel channel;
+        int pins = 0;
+        boolean invalid = false;
+        
+        Entry(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Recognizes compressed rotated logs and decompresses them as streams, so archives
+ * are read without temporary files.
+ */
+public final class CompressedLogs {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private CompressedLogs() {
+    }
+    
+    /**
+     * Whether the file is a gzip or deflate archive, judged by its extension.
+     */
+    public static boolean isCompressed(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".gz") || name.endsWith(".deflate") || name.endsWith(".zz");
+    }
+    
+    /**
+     * Wrap the raw bytes of an archive in a decompressing stream. Concatenated gzip
+     * members are read as one stream; deflate data may be zlib-wrapped or raw.
+     */
+    public static InputStream decompress(Path path, InputStream raw) throws IOException {
+        InputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gz")) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new InflaterInputStream(in, new Inflater(!hasZlibHeader(in)), BUFFER_SIZE);
+    }
+    
+    private static boolean hasZlibHeader(InputStream in) throws IOException {
+        in.mark(2);
+        int cmf = in.read();
+        int flg = in.read();
+        in.reset();
+        return cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wakes tailers when their files change, using a single shared WatchService.
+ *
+ * Directories are registered once no matter how many files in them are tailed, and
+ * events are dispatched to listeners by file name. Registration returns false when
+ * the file system does not support notifications; callers then keep polling.
+ */
+public class FileChangeNotifier implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(FileChangeNotifier.class);
+    
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> directoryKeys = new ConcurrentHashMap<>();
+    private final Map<Path, Map<Path, List<Runnable>>> listeners = new ConcurrentHashMap<>();
+    private final Thread dispatchThread;
+    private volatile boolean running = true;
+    
+    public FileChangeNotifier() {
+        WatchService service = null;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("File change notifications unavailable, tailers will poll", e);
+        }
+        this.watchService = service;
+        
+        if (watchService != null) {
+            this.dispatchThread = new Thread(this::dispatchLoop, "file-change-notifier");
+            this.dispatchThread.setDaemon(true);
+            this.dispatchThread.start();
+        } else {
+            this.dispatchThread = null;
+        }
+    }
+    
+    /**
+     * Invoke the listener whenever the file is created or modified.
+     *
+     * @return true if notifications are active for the file, false if the caller must poll
+     */
+    public boolean register(Path file, Runnable listener) {
+        if (watchService == null) {
+            return false;
+        }
+        
+        Path absolute = file.toAbsolutePath();
+        Path directory = absolute.getParent();
+        if (directory == null) {
+            return false;
+        }
+        
+        try {
+            synchronized (directoryKeys) {
+                if (!directoryKeys.containsKey(directory)) {
+                    WatchKey key = directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                    directoryKeys.put(directory, key);
+                    log.debug("Watching directory {}", directory);
+                }
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            log.info("Cannot watch {} ({}), falling back to polling", directory, e.getMessage());
+            return false;
+        }
+        
+        listeners.computeIfAbsent(directory, d -> new ConcurrentHashMap<>())
+            .computeIfAbsent(absolute.getFileName(), f -> new CopyOnWriteArrayList<>())
+            .add(listener);
+        return true;
+    }
+    
+    public void unregister(Path file, Runnable listener) {
+        Path absolute = file.toAbsolutePath();
+        Path directory = absolute.getParent();
+        if (directory == null) {
+            return;
+        }
+        
+        synchronized (directoryKeys) {
+            Map<Path, List<Runnable>> byFile = listeners.get(directory);
+            if (byFile == null) {
+                return;
+            }
+            List<Runnable> fileListeners = byFile.get(absolute.getFileName());
+            if (fileListeners != null) {
+                fileListeners.remove(listener);
+                if (fileListeners.isEmpty()) {
+                    byFile.remove(absolute.getFileName());
+                }
+            }
+            if (byFile.isEmpty()) {
+                listeners.remove(directory);
+                WatchKey key = directoryKeys.remove(directory);
+                if (key != null) {
+                    key.cancel();
+                }
+            }
+        }
+    }
+    
+    private void dispatchLoop() {
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            }
+            
+            Path directory = (Path) key.watchable();
+            Map<Path, List<Runnable>> byFile = listeners.get(directory);
+            
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (byFile == null) {
+                    continue;
+                }
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Events were lost: wake everything in the directory
+                    byFile.values().forEach(this::fire);
+                    continue;
+                }
+                List<Runnable> fileListeners = byFile.get((Path) event.context());
+                if (fileListeners != null) {
+                    fire(fileListeners);
+                }
+            }
+            
+            if (!key.reset()) {
+                directoryKeys.remove(directory, key);
+            }
+        }
+    }
+    
+    private void fire(List<Runnable> fileListeners) {
+        for (Runnable listener : fileListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.warn("File change listener failed", e);
+            }
+        }
+    }
+    
+    public boolean isAvailable() {
+        return watchService != null;
+    }
+    
+    @Override
+    public void close() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Failed to close watch service", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import com.locallogsearch.core.config.LogSourceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Tails every file matched by a glob (e.g. {@code /var/log/app/*.log}) or found under a
+ * directory. Files are re-discovered periodically: new files get their own
+ * {@link FileTailer} with its own offset, and tailers for deleted files are retired.
+ */
+public class FileSetTailer {
+    private static final Logger log = LoggerFactory.getLogger(FileSetTailer.class);
+    private static final String GLOB_CHARS = "*?[{";
+    
+    private final LogSourceConfig config;
+    private final Path baseDirectory;
+    private final PathMatcher matcher; // null for directory sources: every regular file matches
+    private final int maxDepth;
+    private final Function<String, FileTailer> tailerFactory;
+    private final Consumer<String> onRetired;
+    private final Map<String, FileTailer> tailers = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    
+    /**
+     * @param tailerFactory creates and schedules the tailer for a newly discovered file
+     * @param onRetired     invoked with the file path after a deleted file's tailer is stopped
+     */
+    public FileSetTailer(LogSourceConfig config, Function<String, FileTailer> tailerFactory,
+                         Consumer<String> onRetired) {
+        this.config = config;
+        this.tailerFactory = tailerFactory;
+        this.onRetired = onRetired;
+        
+        String pattern = config.getFilePath();
+        if (containsGlob(pattern)) {
+            // The base is the deepest directory of the pattern without glob characters
+            String[] parts = pattern.split(Pattern.quote(File.separator), -1);
+            int baseParts = 0;
+            while (baseParts < parts.length - 1 && !containsGlob(parts[baseParts])) {
+                baseParts++;
+            }
+            String base = String.join(File.separator, Arrays.copyOf(parts, baseParts));
+            this.baseDirectory = Paths.get(base.isEmpty() ? File.separator : base);
+            this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            this.maxDepth = pattern.contains("**") ? Integer.MAX_VALUE : parts.length - baseParts;
+        } else {
+            this.baseDirectory = Paths.get(pattern);
+            this.matcher = null;
+            this.maxDepth = Integer.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * A source is a file set when its path is a glob or an existing directory.
+     */
+    public static boolean isFileSet(LogSourceConfig config) {
+        String path = config.getFilePath();
+        return path != null && (containsGlob(path) || Files.isDirectory(Paths.get(path)));
+    }
+    
+    /**
+     * Scan for files, start tailers for new ones and retire tailers of deleted ones.
+     */
+    public synchronized void discover() {
+        if (!running || !config.isEnabled()) {
+            return;
+        }
+        
+        Set<String> found = scan();
+        
+        for (String file : found) {
+            if (!tailers.containsKey(file)) {
+                log.info("Discovered file {} for source {}", file, config.getId());
+                tailers.put(file, tailerFactory.apply(file));
+            }
+        }
+        
+        Iterator<Map.Entry<String, FileTailer>> it = tailers.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, FileTailer> entry = it.next();
+            if (!found.contains(entry.getKey()) && !Files.exists(Paths.get(entry.getKey()))) {
+                log.info("File {} of source {} was deleted, retiring its tailer", entry.getKey(), config.getId());
+                entry.getValue().retire();
+                it.remove();
+                onRetired.accept(entry.getKey());
+            }
+        }
+    }
+    
+    private Set<String> scan() {
+        Set<String> files = new HashSet<>();
+        if (!Files.isDirectory(baseDirectory)) {
+            return files;
+        }
+        
+        try {
+            Files.walkFileTree(baseDirectory, EnumSet.noneOf(FileVisitOption.class), maxDepth,
+                new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile() && matches(file)) {
+                            files.add(file.toString());
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                    
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        log.debug("Cannot visit {}: {}", file, e.getMessage());
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+        } catch (IOException e) {
+            log.warn("Failed to scan {} for source {}", baseDirectory, config.getId(), e);
+        }
+        return files;
+    }
+    
+    private boolean matches(Path file) {
+        if (matcher != null) {
+            return matcher.matches(file);
+        }
+        // Directory sources skip hidden files such as editor swap files
+        return !file.getFileName().toString().startsWith(".");
+    }
+    
+    public void stop() {
+        running = false;
+        synchronized (this) {
+            for (FileTailer tailer : tailers.values()) {
+                tailer.stop();
+            }
+            tailers.clear();
+        }
+    }
+    
+    public Map<String, FileTailer> getTailers() {
+        return new ConcurrentHashMap<>(tailers);
+    }
+    
+    public String getSourceId() {
+        return config.getId();
+    }
+    
+    private static boolean containsGlob(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            if (GLOB_CHARS.indexOf(path.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
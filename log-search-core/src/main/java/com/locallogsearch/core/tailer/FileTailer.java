@@ -25,7 +25,15 @@
 package com.locallogsearch.core.tailer;
 
 import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.SourcePriority;
+import com.locallogsearch.core.config.TailerConfig;
 import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.ingest.IngestBatch;
+import com.locallogsearch.core.ingest.IngestPipeline;
+import com.locallogsearch.core.ingest.IngestStats;
+import com.locallogsearch.core.ingest.LoadShedder;
+import com.locallogsearch.core.ingest.OffsetTracker;
+import com.locallogsearch.core.ingest.RateLimiter;
 import com.locallogsearch.core.model.LogEntry;
 import com.locallogsearch.core.parser.LogParser;
 import com.locallogsearch.core.parser.ParserFactory;
@@ -33,56 +41,177 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
 
-public class FileTailer implements Runnable {
+/**
+ * Tails a single log file. A tailer has no thread of its own: {@link TailerScheduler}
+ * calls {@link #runTurn()} repeatedly, and each turn reads a bounded quantum.
+ */
+public class FileTailer {
     private static final Logger log = LoggerFactory.getLogger(FileTailer.class);
-    private static final long POLL_INTERVAL_MS = 1000;
+    private static final long ERROR_BACKOFF_MS = 5000;
     private static final long CHECKPOINT_INTERVAL_MS = 10000; // Save state every 10 seconds
+    private static final int HEAD_BYTES = 256;
+    private static final long FINAL_CHECKPOINT_WAIT_MS = 10000;
+    private static final int DIRECT_BATCH_SIZE = 1000;
+    private static final long DIRECT_BATCH_BYTES = 256 * 1024;
+    private static final long ARCHIVE_SETTLE_MS = 2000; // Archives younger than this may still be written
+    private static final long DEFERRED_POLL_MS = 1000;
+    private static final long PIPELINE_OFFER_MS = 10; // Longest a turn waits for room in the pipeline
+    private static final long PIPELINE_FULL_RETRY_MS = 50;
     
     private final LogSourceConfig config;
+    private final String filePath;
+    private final Path path;
+    private final TailerConfig tailerConfig;
     private final IndexManager indexManager;
     private final LogParser parser;
+    private final LineReader lineReader;
+    private final boolean archive;
+    private final MultilineAssembler multiline;
+    private long lineStart = 0; // Offset of the line being handed to the multiline assembler
     private volatile boolean running = true;
-    private long filePointer = 0;
-    private String currentFileKey = null; // Unique file identifier
+    private ChannelCache channelCache = new ChannelCache(1); // Keeps the channel open between polls
+    private volatile String currentFileKey = null; // Inode of the file being read
+    private volatile long knownFileSize = 0;
+    private volatile long knownModifiedTime = 0;
+    private String checkpointKey;
+    private Path rotatedPath = null; // Where the file being drained was renamed to
+    private boolean rotatedFileRead = false; // The rotated file is read; switching once it is indexed
+    private int headLength = 0;
+    private long headChecksum = 0;
     private long lastCheckpointTime = 0;
     private Consumer<FileTailerState> checkpointCallback;
+    private FileChangeNotifier changeNotifier;
+    private final Runnable changeListener = this::wakeUp;
+    private volatile Runnable wakeHandler;
+    private boolean started = false;
+    private boolean watched = false;
+    private volatile long idleDelay;
+    private long maxIdleDelay;
+    private ForkJoinPool backfillPool = ForkJoinPool.commonPool();
+    private ForkJoinTask<?> backfill;
+    private FileChannel backfillChannel;
+    private volatile BackfillProgress backfillProgress;
+    private long lastProgressLogTime = 0;
+    private Set<String> completedArchives = ConcurrentHashMap.newKeySet();
+    private volatile boolean completed = false;
+    private volatile boolean retired = false; // The file is gone; its checkpoint is being dropped
+    private IngestPipeline pipeline;
+    private OffsetTracker offsetTracker;
+    private List<String> batchLines = new ArrayList<>();
+    private IngestBatch pendingBatch; // Built but not yet accepted by the full pipeline
+    private boolean backpressured = false; // The pipeline was full, or still indexing before a jump
+    private long stopDeadline = 0; // When a stopping tailer stops waiting for the pipeline
+    private final List<LogEntry> directEntries = new ArrayList<>();
+    private LoadShedder loadShedder;
+    private RateLimiter rateLimiter;
+    private long turnLines = 0;
+    private volatile long readOffset = 0; // Read position as seen by other threads
+    private volatile long submittedOffset = 0; // Position handed on for indexing, as seen by other threads
+    private final IngestStats stats = new IngestStats();
+    private final long createdTime = System.currentTimeMillis();
+    private volatile long caughtUpModifiedTime = 0; // Modification time of the file when last read to its end
+    private long directReadTime = 0; // When the first of the direct entries was read
     
     public FileTailer(LogSourceConfig config, IndexManager indexManager) {
         this(config, indexManager, null);
     }
     
     public FileTailer(LogSourceConfig config, IndexManager indexManager, FileTailerState initialState) {
+        this(config, indexManager, initialState, new TailerConfig());
+    }
+    
+    public FileTailer(LogSourceConfig config, IndexManager indexManager, FileTailerState initialState,
+                      TailerConfig tailerConfig) {
+        this(config, config.getFilePath(), indexManager, initialState, tailerConfig);
+    }
+    
+    /**
+     * Create a tailer for one file of a source. For glob and directory sources the file
+     * path differs from the configured path.
+     */
+    public FileTailer(LogSourceConfig config, String filePath, IndexManager indexManager,
+                      FileTailerState initialState, TailerConfig tailerConfig) {
         this.config = config;
+        this.filePath = filePath;
+        this.path = Paths.get(filePath);
+        this.tailerConfig = tailerConfig;
         this.indexManager = indexManager;
         this.parser = ParserFactory.createParser(config.getParserType(), config.getParserConfig());
+        this.archive = CompressedLogs.isCompressed(path);
+        this.checkpointKey = config.getId();
+        LineReader.LineHandler handler = MultilineAssembler.wrap(config.getMultiline(), this::acceptEvent);
+        this.multiline = handler instanceof MultilineAssembler assembler ? assembler : null;
+        Charset charset = config.getCharset() != null ? Charset.forName(config.getCharset()) : StandardCharsets.UTF_8;
         
         // Restore from checkpoint if available
-        if (initialState != null) {
-            this.filePointer = initialState.getFilePointer();
+        if (initialState != null && archive) {
+            this.lineReader = new LineReader(charset, initialState.getFilePointer());
             this.currentFileKey = initialState.getFileKey();
+            this.caughtUpModifiedTime = initialState.getLastModifiedTime();
+            this.completed = initialState.isCompleted();
+            if (completed) {
+                completedArchives.add(archiveId(currentFileKey, initialState.getFileSize()));
+            }
+            log.info("Restored archive {} from checkpoint at position {} (completed: {})",
+                filePath, initialState.getFilePointer(), completed);
+        } else if (initialState != null) {
+            long position = initialState.getFilePointer();
+            String fileKey = initialState.getFileKey();
+            if (fileKey != null && isLegacyFileKey(fileKey)) {
+                // A legacy key cannot be compared; keep the offset if the file still covers it
+                BasicFileAttributes attrs = readAttributes(path);
+                fileKey = attrs != null ? fileKey(attrs) : null;
+                if (attrs == null || attrs.size() < position) {
+                    position = 0;
+                }
+            }
+            this.lineReader = new LineReader(charset, position);
+            this.currentFileKey = fileKey;
+            this.caughtUpModifiedTime = initialState.getLastModifiedTime();
             log.info("Restored tailer for {} from checkpoint at position {} with fileKey {}", 
-                config.getFilePath(), filePointer, currentFileKey);
+                filePath, position, currentFileKey);
         } else {
             // Start from beginning of file to index all content
-            Path path = Paths.get(config.getFilePath());
+            this.lineReader = new LineReader(charset, 0);
             if (Files.exists(path)) {
-                try {
-                    this.filePointer = 0; // Start from beginning
-                    this.currentFileKey = getFileKey(path);
+                BasicFileAttributes attrs = readAttributes(path);
+                if (attrs != null) {
+                    this.currentFileKey = fileKey(attrs);
+                    this.caughtUpModifiedTime = attrs.creationTime().toMillis(); // Nothing read yet
                     log.info("Starting tailer for {} at position {} (beginning) with fileKey {}", 
-                        config.getFilePath(), filePointer, currentFileKey);
-                } catch (IOException e) {
-                    log.warn("Could not determine file info for {}", config.getFilePath(), e);
+                        filePath, 0, currentFileKey);
+                } else {
+                    log.warn("Could not determine file info for {}", filePath);
                 }
             }
         }
+        submittedOffset = lineReader.position();
+        stats.checkpointRestored(submittedOffset);
     }
     
     /**
@@ -92,73 +221,597 @@ public class FileTailer implements Runnable {
         this.checkpointCallback = callback;
     }
     
-    @Override
-    public void run() {
-        log.info("FileTailer started for: {}", config.getFilePath());
+    /**
+     * Set the key this tailer's checkpoints are stored under, in the index commit data
+     * as well as by the checkpoint callback. Defaults to the source id.
+     */
+    public void setCheckpointKey(String checkpointKey) {
+        this.checkpointKey = checkpointKey;
+    }
+    
+    /**
+     * Share a channel cache with other tailers to bound the number of open files.
+     */
+    public void setChannelCache(ChannelCache channelCache) {
+        this.channelCache = channelCache;
+    }
+    
+    /**
+     * Set the notifier used to wake this tailer when its file changes. Without one
+     * (or on file systems without notifications) the tailer only polls.
+     */
+    public void setChangeNotifier(FileChangeNotifier changeNotifier) {
+        this.changeNotifier = changeNotifier;
+    }
+    
+    /**
+     * Set the pool that runs backfills of large existing content.
+     */
+    public void setBackfillPool(ForkJoinPool backfillPool) {
+        this.backfillPool = backfillPool;
+    }
+    
+    /**
+     * Hand lines to a staged pipeline for parsing and indexing instead of doing both on
+     * the tailer's turn. Archives and backfills keep parsing on their pool threads.
+     */
+    public void setIngestPipeline(IngestPipeline pipeline) {
+        this.pipeline = pipeline;
+        this.offsetTracker = pipeline != null && !archive ? new OffsetTracker(lineReader.position()) : null;
+        if (offsetTracker != null) {
+            offsetTracker.setListener(this::recordCommitCheckpoint);
+        }
+    }
+    
+    /**
+     * Set the load shedder whose modes this tailer follows when indexing falls behind.
+     */
+    public void setLoadShedder(LoadShedder loadShedder) {
+        this.loadShedder = loadShedder;
+    }
+    
+    /**
+     * Set the rate limit this tailer reads under, shared with the other files of its
+     * source. Backfills and archives are bounded by their pool instead.
+     */
+    public void setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+    
+    /**
+     * Share the set of archives of a source that have been read completely, so an
+     * archive renamed by rotation (app.log.1.gz to app.log.2.gz) is not read again.
+     */
+    public void setCompletedArchives(Set<String> completedArchives) {
+        completedArchives.addAll(this.completedArchives);
+        this.completedArchives = completedArchives;
+    }
+    
+    /**
+     * Identity of an archive in the completed set. Archives never change, so the size
+     * guards against a reused inode.
+     */
+    static String archiveId(String fileKey, long size) {
+        return fileKey + "@" + size;
+    }
+    
+    /**
+     * Set the handler the scheduler uses to bring an idle tailer's next turn forward.
+     */
+    void setWakeHandler(Runnable wakeHandler) {
+        this.wakeHandler = wakeHandler;
+    }
+    
+    /**
+     * Run one scheduling turn: read at most one quantum of the file and decide when
+     * the next turn should happen. Turns of the same tailer never overlap.
+     *
+     * @return delay in milliseconds before the next turn (0 to be re-queued straight
+     *         away), or -1 once the tailer has stopped
+     */
+    long runTurn() {
+        if (!running || !config.isEnabled()) {
+            return finish();
+        }
         
-        while (running && config.isEnabled()) {
-            try {
-                tailFile();
-                Thread.sleep(POLL_INTERVAL_MS);
-            } catch (InterruptedException e) {
-                log.info("FileTailer interrupted for: {}", config.getFilePath());
-                Thread.currentThread().interrupt();
-                break;
-            } catch (Exception e) {
-                log.error("Error tailing file: {}", config.getFilePath(), e);
-                try {
-                    Thread.sleep(POLL_INTERVAL_MS * 5);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    break;
+        if (!started) {
+            start();
+        }
+        
+        if (loadShedder != null && loadShedder.isDeferred(config)) {
+            return DEFERRED_POLL_MS; // Low priority; others catch up first
+        }
+        
+        if (archive) {
+            return archiveTurn();
+        }
+        
+        if (backfill != null) {
+            if (!backfill.isDone()) {
+                logBackfillProgress();
+                checkpointBackfill();
+                return maxIdleDelay; // Woken when the backfill completes
+            }
+            completeBackfill();
+        }
+        
+        try {
+            long quantum = tailerConfig.getReadQuantumBytes();
+            if (rateLimiter != null) {
+                long wait = rateLimiter.delayMs();
+                if (wait > 0) {
+                    return wait;
+                }
+                quantum = rateLimiter.allowance(quantum);
+            }
+            turnLines = 0;
+            backpressured = false;
+            if (pendingBatch != null && !submitBatch()) {
+                return PIPELINE_FULL_RETRY_MS; // Read nothing more until the pipeline has room
+            }
+            long bytesRead = tailFile(quantum);
+            readOffset = lineReader.readPosition();
+            submittedOffset = submittedPosition();
+            if (readOffset >= knownFileSize) {
+                caughtUpModifiedTime = knownModifiedTime;
+            }
+            if (rateLimiter != null) {
+                rateLimiter.record(turnLines, bytesRead);
+            }
+            
+            if (backpressured) {
+                // Give the worker to other sources instead of waiting for the pipeline
+                return PIPELINE_FULL_RETRY_MS;
+            }
+            
+            if (bytesRead >= quantum) {
+                // More data is waiting; go to the back of the queue so other sources get a turn
+                idleDelay = tailerConfig.getMinPollIntervalMs();
+                return 0;
+            }
+            
+            long delay;
+            if (bytesRead > 0) {
+                idleDelay = tailerConfig.getMinPollIntervalMs();
+                delay = idleDelay;
+            } else {
+                // Idle: back off exponentially until a change notification arrives
+                delay = idleDelay;
+                idleDelay = Math.min(idleDelay * 2, maxIdleDelay);
+            }
+            
+            // Come back in time to emit a pending multi-line event that has timed out
+            if (multiline != null) {
+                long remaining = multiline.flushIfIdle(System.currentTimeMillis());
+                if (remaining >= 0) {
+                    delay = Math.min(delay, remaining);
+                }
+                if (!submitBatch()) {
+                    delay = Math.min(delay, PIPELINE_FULL_RETRY_MS);
                 }
             }
+            return delay;
+        } catch (Exception e) {
+            log.error("Error tailing file: {}", filePath, e);
+            return ERROR_BACKOFF_MS;
         }
+    }
+    
+    private void start() {
+        started = true;
+        readOffset = lineReader.readPosition();
+        log.info("FileTailer started for: {}", filePath);
+        
+        watched = changeNotifier != null && changeNotifier.register(path, changeListener);
+        maxIdleDelay = watched ? tailerConfig.getMaxWatchedPollIntervalMs() : tailerConfig.getMaxPollIntervalMs();
+        idleDelay = tailerConfig.getMinPollIntervalMs();
         
-        log.info("FileTailer stopped for: {}", config.getFilePath());
+        if (!archive) {
+            startBackfill();
+        }
     }
     
-    private void tailFile() throws IOException {
-        Path path = Paths.get(config.getFilePath());
+    /**
+     * A turn for a compressed archive: the archive is streamed through a decompressor
+     * on the backfill pool, so several archives of a rotated set are read in parallel.
+     * Once read to the end it is checkpointed as completed and never read again.
+     */
+    private long archiveTurn() {
+        if (backfill != null) {
+            if (!backfill.isDone()) {
+                logBackfillProgress();
+                return maxIdleDelay;
+            }
+            if (!completeArchive()) {
+                return ERROR_BACKOFF_MS;
+            }
+        }
         
-        if (!Files.exists(path)) {
-            log.debug("File does not exist: {}", config.getFilePath());
-            return;
+        BasicFileAttributes attrs = readAttributes(path);
+        if (attrs == null) {
+            return maxIdleDelay;
         }
+        String fileKey = fileKey(attrs);
+        knownFileSize = attrs.size();
+        knownModifiedTime = attrs.lastModifiedTime().toMillis();
         
-        // Check for file rotation (file was deleted and recreated)
-        String fileKey = getFileKey(path);
-        if (currentFileKey != null && !currentFileKey.equals(fileKey)) {
-            log.info("File rotation detected for {}. Old key: {}, New key: {}. Resetting to start of file.",
-                config.getFilePath(), currentFileKey, fileKey);
-            filePointer = 0;
+        if (completedArchives.contains(archiveId(fileKey, attrs.size()))) {
+            if (!completed || !fileKey.equals(currentFileKey)) {
+                // Rotation moved an archive we already read to this path
+                currentFileKey = fileKey;
+                completed = true;
+                lineReader.reset(0);
+                recordCommitCheckpoint(0);
+                checkpointArchive(attrs.size());
+            }
+            return maxIdleDelay;
+        }
+        if (!fileKey.equals(currentFileKey)) {
             currentFileKey = fileKey;
-        } else if (currentFileKey == null) {
+            completed = false;
+            lineReader.reset(0);
+        }
+        if (System.currentTimeMillis() - attrs.lastModifiedTime().toMillis() < ARCHIVE_SETTLE_MS) {
+            return ARCHIVE_SETTLE_MS;
+        }
+        
+        BackfillProgress progress = new BackfillProgress(filePath, 0, attrs.size());
+        progress.setStats(stats);
+        backfillProgress = progress;
+        lastProgressLogTime = System.currentTimeMillis();
+        backfill = backfillPool.submit(() -> {
+            try {
+                readArchive(progress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                wakeUp();
+            }
+        });
+        log.info("Reading archive {} from uncompressed offset {}", filePath, lineReader.position());
+        return maxIdleDelay;
+    }
+    
+    /**
+     * Stream the archive from the checkpointed uncompressed offset to the end. Runs on
+     * the backfill pool; the tailer does not touch the line reader meanwhile.
+     */
+    private void readArchive(BackfillProgress progress) throws IOException {
+        long start = lineReader.position();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             InputStream in = CompressedLogs.decompress(path, Channels.newInputStream(channel))) {
+            in.skipNBytes(start);
+            lineReader.reset(start);
+            ReadableByteChannel source = Channels.newChannel(in);
+            
+            long consumed = 0;
+            while (!progress.isCancelled()) {
+                lineStart = lineReader.position();
+                turnLines = 0;
+                long n = lineReader.readStream(source, tailerConfig.getReadQuantumBytes(), this::handleLine);
+                submitBatch();
+                stats.addRead(turnLines, 0); // Bytes are counted compressed, through the progress
+                progress.addBytes(channel.position() - consumed);
+                consumed = channel.position();
+                if (n == 0) {
+                    lineReader.flush(this::handleLine);
+                    flushEvent();
+                    submitBatch();
+                    return;
+                }
+                
+                long now = System.currentTimeMillis();
+                if (checkpointCallback != null && (now - lastCheckpointTime) >= CHECKPOINT_INTERVAL_MS) {
+                    checkpointArchive(progress.getEndOffset());
+                    lastCheckpointTime = now;
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return false if the archive could not be read and should be retried
+     */
+    private boolean completeArchive() {
+        BackfillProgress progress = backfillProgress;
+        ForkJoinTask<?> task = backfill;
+        backfill = null;
+        if (task.isCompletedNormally() && !progress.isCancelled()) {
+            progress.finish(BackfillProgress.State.COMPLETED);
+            completed = true;
+            completedArchives.add(archiveId(currentFileKey, progress.getEndOffset()));
+            caughtUpModifiedTime = knownModifiedTime;
+            recordCommitCheckpoint(checkpointPosition());
+            checkpointArchive(progress.getEndOffset());
+            log.info("Archive complete: {} ({} lines)", progress, progress.getLinesDone());
+            return true;
+        }
+        progress.finish(BackfillProgress.State.FAILED);
+        log.error("Failed to read archive {}, retrying from uncompressed offset {}", filePath,
+            lineReader.position(), task.getException());
+        return false;
+    }
+    
+    private void checkpointArchive(long size) {
+        if (checkpointCallback == null) {
+            return;
+        }
+        try {
+            long lastModifiedTime = Files.getLastModifiedTime(path).toMillis();
+            checkpointCallback.accept(new FileTailerState(filePath, checkpointPosition(), lastModifiedTime,
+                size, currentFileKey, completed));
+        } catch (IOException e) {
+            log.error("Failed to checkpoint state for {}", filePath, e);
+        }
+    }
+    
+    /**
+     * Hand large unread content to the backfill pool, which reads line-aligned ranges
+     * in parallel. The tailer resumes at the end of the backfilled range.
+     */
+    private void startBackfill() {
+        if (!tailerConfig.isBackfillEnabled() || backfillPool == null) {
+            return;
+        }
+        BasicFileAttributes attrs = readAttributes(path);
+        long start = lineReader.readPosition();
+        if (attrs == null || attrs.size() - start < tailerConfig.getBackfillThresholdBytes()) {
+            return;
+        }
+        // A file rotated while we were down is drained by the tailer itself
+        String fileKey = fileKey(attrs);
+        if (currentFileKey != null && !currentFileKey.equals(fileKey)) {
+            return;
+        }
+        
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            Charset charset = lineReader.getCharset();
+            long end = BackfillTask.lastLineEnd(channel, charset, start, attrs.size());
+            Predicate<String> eventStart = multiline != null ? multiline::startsEvent : null;
+            if (eventStart != null) {
+                // The last event may go on past the end; the tailer reads it whole
+                end = BackfillTask.lastEventStart(channel, charset, start, end, eventStart);
+            }
+            if (end <= start) {
+                channel.close();
+                return;
+            }
+            BackfillProgress progress = new BackfillProgress(filePath, start, end);
+            progress.setStats(stats);
+            // Ranges indexed contiguously from the start are not read again after a restart
+            progress.setCompletedListener(this::recordCommitCheckpoint);
+            BackfillTask task = new BackfillTask(channel, charset, start, end,
+                tailerConfig.getBackfillSplitBytes(), eventStart, this::newBackfillHandler, progress);
+            
             currentFileKey = fileKey;
+            knownFileSize = attrs.size();
+            knownModifiedTime = attrs.lastModifiedTime().toMillis();
+            backfillChannel = channel;
+            backfillProgress = progress;
+            lastProgressLogTime = System.currentTimeMillis();
+            backfill = backfillPool.submit(() -> {
+                try {
+                    task.invoke();
+                } finally {
+                    wakeUp();
+                }
+            });
+            log.info("Backfilling {} bytes of {} in parallel (offsets {} to {})", end - start, filePath, start, end);
+        } catch (IOException e) {
+            log.warn("Could not start backfill of {}, tailing sequentially", filePath, e);
+        }
+    }
+    
+    private LineReader.LineHandler newBackfillHandler() {
+        // Parsers are not shared between threads
+        LogParser rangeParser = ParserFactory.createParser(config.getParserType(), config.getParserConfig());
+        List<LogEntry> entries = new ArrayList<>();
+        LineReader.LineHandler handler = new LineReader.LineHandler() {
+            private long readTime;
+            
+            @Override
+            public void onLine(String line) {
+                LogEntry entry = parseLine(rangeParser, line);
+                if (entry != null && keep(entry)) {
+                    if (entries.isEmpty()) {
+                        readTime = System.currentTimeMillis();
+                    }
+                    entries.add(entry);
+                    if (entries.size() >= DIRECT_BATCH_SIZE) {
+                        indexEntries(entries, readTime, null);
+                    }
+                }
+            }
+            
+            @Override
+            public void endOfInput() {
+                indexEntries(entries, readTime, null);
+            }
+        };
+        return MultilineAssembler.wrap(config.getMultiline(), handler);
+    }
+    
+    private void completeBackfill() {
+        BackfillProgress progress = backfillProgress;
+        if (backfill.isCompletedNormally() && !progress.isCancelled()) {
+            progress.finish(BackfillProgress.State.COMPLETED);
+            lineReader.reset(progress.getEndOffset());
+            if (offsetTracker != null) {
+                offsetTracker.reset(progress.getEndOffset());
+            }
+            // Every range has been added to the index by now
+            recordCommitCheckpoint(progress.getEndOffset());
+            log.info("Backfill complete: {}", progress);
+            
+            // Hand off to the tailer at the end of the backfilled range
+            if (checkpointCallback != null) {
+                checkpointState(path);
+                lastCheckpointTime = System.currentTimeMillis();
+            }
+        } else {
+            progress.finish(BackfillProgress.State.FAILED);
+            log.error("Backfill of {} failed, tailing from offset {}", filePath,
+                lineReader.readPosition(), backfill.getException());
+        }
+        closeBackfillChannel();
+        backfill = null;
+    }
+    
+    /**
+     * Periodically save the offset up to which the running backfill has indexed every
+     * range, like the checkpoints of a sequential read.
+     */
+    private void checkpointBackfill() {
+        long now = System.currentTimeMillis();
+        if (checkpointCallback == null || now - lastCheckpointTime < CHECKPOINT_INTERVAL_MS) {
+            return;
+        }
+        lastCheckpointTime = now;
+        checkpointCallback.accept(new FileTailerState(filePath, backfillProgress.getCompletedOffset(),
+            knownModifiedTime, knownFileSize, currentFileKey));
+    }
+    
+    private void logBackfillProgress() {
+        long now = System.currentTimeMillis();
+        if (now - lastProgressLogTime >= CHECKPOINT_INTERVAL_MS) {
+            log.info("Backfill progress: {}", backfillProgress);
+            lastProgressLogTime = now;
+        }
+    }
+    
+    private void closeBackfillChannel() {
+        try {
+            backfillChannel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close backfill channel for {}", filePath, e);
+        }
+        backfillChannel = null;
+    }
+    
+    /**
+     * A turn of a stopping tailer. Later turns wait for the pipeline to queue and index
+     * what was read, for at most {@link #FINAL_CHECKPOINT_WAIT_MS}, before the final
+     * checkpoint.
+     *
+     * @return delay before the next turn, or -1 once the tailer has stopped
+     */
+    private long finish() {
+        if (stopDeadline == 0) {
+            stopDeadline = System.currentTimeMillis() + FINAL_CHECKPOINT_WAIT_MS;
+            cancelBackfill();
+            if (watched) {
+                changeNotifier.unregister(path, changeListener);
+                watched = false;
+            }
+        }
+        
+        // Let batches still in the pipeline reach the index before the final checkpoint
+        if (!readyToJump()) {
+            if (System.currentTimeMillis() < stopDeadline && !Thread.currentThread().isInterrupted()) {
+                return PIPELINE_FULL_RETRY_MS;
+            }
+            log.warn("Batches of {} still being indexed; checkpointing before them", filePath);
+        }
+        
+        // Final checkpoint on shutdown
+        if (checkpointCallback != null) {
+            try {
+                if (archive && currentFileKey != null && Files.exists(path)) {
+                    checkpointArchive(Files.size(path));
+                } else if (Files.exists(path)) {
+                    checkpointState(path);
+                }
+            } catch (Exception e) {
+                log.error("Failed to perform final checkpoint for {}", filePath, e);
+            }
         }
         
-        long fileSize = Files.size(path);
+        closeChannel();
+        log.info("FileTailer stopped for: {}", filePath);
+        return -1;
+    }
+    
+    private void cancelBackfill() {
+        if (backfill != null) {
+            // Ranges past the completed offset are read again on restart
+            backfillProgress.cancel();
+            backfill.quietlyJoin();
+            lineReader.reset(backfillProgress.getCompletedOffset());
+            if (offsetTracker != null) {
+                offsetTracker.reset(backfillProgress.getCompletedOffset());
+            }
+            if (backfillChannel != null) {
+                closeBackfillChannel();
+            }
+            backfill = null;
+        }
+    }
+    
+    /**
+     * Signal that the file has changed so an idle tailer polls immediately.
+     */
+    public void wakeUp() {
+        idleDelay = tailerConfig.getMinPollIntervalMs();
+        Runnable handler = wakeHandler;
+        if (handler != null) {
+            handler.run();
+        }
+    }
+    
+    /**
+     * Read up to {@code maxBytes} appended since the last poll.
+     *
+     * @return the number of bytes read
+     */
+    private long tailFile(long maxBytes) throws IOException {
+        BasicFileAttributes attrs = readAttributes(path);
+        
+        // A different inode at the path (or none) means the file was rotated
+        if (currentFileKey != null && (attrs == null || !currentFileKey.equals(fileKey(attrs)))) {
+            return drainRotatedFile(attrs, maxBytes);
+        }
+        if (attrs == null) {
+            log.debug("File does not exist: {}", filePath);
+            return 0;
+        }
+        if (currentFileKey == null) {
+            currentFileKey = fileKey(attrs);
+        }
+        knownFileSize = attrs.size();
+        knownModifiedTime = attrs.lastModifiedTime().toMillis();
         
-        // Check if file was truncated
-        if (fileSize < filePointer) {
-            log.info("File was truncated, resetting position: {}", config.getFilePath());
-            filePointer = 0;
+        // Truncated below what we have read (copytruncate): nothing before the
+        // truncation point is re-read, only the content written since
+        long fileSize = attrs.size();
+        if (fileSize < lineReader.readPosition()) {
+            if (!readyToJump()) {
+                return 0;
+            }
+            log.info("File was truncated, resetting position: {}", filePath);
+            resetToStart();
         }
         
         // Check if there's new content
-        if (fileSize == filePointer) {
-            return;
+        if (fileSize == lineReader.readPosition()) {
+            return 0;
         }
         
-        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
-            file.seek(filePointer);
-            
-            String line;
-            while ((line = file.readLine()) != null) {
-                processLine(line);
+        long bytesRead;
+        FileChannel channel = channelCache.acquire(path);
+        try {
+            // Truncated and written past our position again between two polls
+            if (headLength > 0 && headChecksum(channel, headLength) != headChecksum) {
+                if (!readyToJump()) {
+                    return 0;
+                }
+                log.info("File was truncated and rewritten, resetting position: {}", filePath);
+                resetToStart();
             }
-            
-            filePointer = file.getFilePointer();
+            bytesRead = readLines(channel, maxBytes);
+            recordHead(channel);
+        } finally {
+            channelCache.release(path);
         }
         
         // Checkpoint state periodically
@@ -167,16 +820,168 @@ public class FileTailer implements Runnable {
             checkpointState(path);
             lastCheckpointTime = now;
         }
+        
+        return bytesRead;
+    }
+    
+    /**
+     * Finish reading the file we were tailing before it was rotated away, then switch
+     * to the start of the new file at the path. The old inode is read through the
+     * channel that is still open on it, or found by its key among its siblings.
+     */
+    private long drainRotatedFile(BasicFileAttributes newAttrs, long maxBytes) throws IOException {
+        long bytesRead = 0;
+        if (!rotatedFileRead) {
+            bytesRead = readRotatedFile(maxBytes);
+            if (bytesRead >= maxBytes || backpressured) {
+                return bytesRead; // Keep draining next turn
+            }
+            rotatedFileRead = true;
+        }
+        // Everything from the old file is checkpointed under its key before switching
+        if (!readyToJump()) {
+            return bytesRead;
+        }
+        
+        String newKey = newAttrs != null ? fileKey(newAttrs) : null;
+        log.info("File rotation detected for {}. Old key: {}, New key: {}. Drained old file, continuing at start of new file.",
+            filePath, currentFileKey, newKey);
+        closeChannel();
+        currentFileKey = newKey;
+        resetToStart();
+        rotatedPath = null;
+        rotatedFileRead = false;
+        return bytesRead;
+    }
+    
+    /**
+     * Read up to {@code maxBytes} more of the rotated file. Once it is read to its end a
+     * trailing line without newline is final.
+     */
+    private long readRotatedFile(long maxBytes) throws IOException {
+        FileChannel channel = channelCache.acquireIfOpen(path);
+        boolean cached = channel != null;
+        if (!cached) {
+            if (rotatedPath == null) {
+                rotatedPath = findRotatedFile(currentFileKey);
+            }
+            if (rotatedPath != null) {
+                try {
+                    channel = FileChannel.open(rotatedPath, StandardOpenOption.READ);
+                } catch (IOException e) {
+                    log.debug("Could not open rotated file {}", rotatedPath, e);
+                }
+            }
+        }
+        if (channel == null) {
+            log.warn("Rotated file for {} (key {}) is gone; unread lines after position {} were lost",
+                filePath, currentFileKey, lineReader.position());
+            return 0;
+        }
+        
+        long bytesRead;
+        try {
+            bytesRead = readLines(channel, maxBytes);
+        } finally {
+            if (cached) {
+                channelCache.release(path);
+            } else {
+                channel.close();
+            }
+        }
+        if (bytesRead < maxBytes && !backpressured) {
+            lineReader.flush(this::handleLine);
+        }
+        return bytesRead;
+    }
+    
+    /**
+     * Look for the file with the given key next to the tailed file, e.g. after a
+     * rename to {@code app.log.1}. Only inode keys identify a file across renames.
+     */
+    private Path findRotatedFile(String fileKey) {
+        if (!fileKey.startsWith("(")) {
+            return null;
+        }
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir == null) {
+            return null;
+        }
+        try (DirectoryStream<Path> siblings = Files.newDirectoryStream(dir)) {
+            for (Path sibling : siblings) {
+                BasicFileAttributes attrs = readAttributes(sibling);
+                if (attrs != null && attrs.isRegularFile() && fileKey.equals(fileKey(attrs))) {
+                    return sibling;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Could not scan {} for rotated file", dir, e);
+        }
+        return null;
+    }
+    
+    private void resetToStart() {
+        lineReader.reset(0);
+        if (offsetTracker != null) {
+            offsetTracker.reset(0);
+        }
+        headLength = 0;
+        recordCommitCheckpoint(0);
+    }
+    
+    /**
+     * Remember a checksum of the first bytes of the file so a truncate followed by
+     * writes past our position is not mistaken for appended data.
+     */
+    private void recordHead(FileChannel channel) throws IOException {
+        int length = (int) Math.min(HEAD_BYTES, lineReader.readPosition());
+        if (length > headLength) {
+            long checksum = headChecksum(channel, length);
+            if (checksum >= 0) {
+                headChecksum = checksum;
+                headLength = length;
+            }
+        }
+    }
+    
+    private static long headChecksum(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return -1;
+            }
+        }
+        buffer.flip();
+        CRC32 crc = new CRC32();
+        crc.update(buffer);
+        return crc.getValue();
+    }
+    
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Identify the file independently of its name: device and inode where the file
+     * system provides them, otherwise the creation time.
+     */
+    static String fileKey(BasicFileAttributes attrs) {
+        Object key = attrs.fileKey();
+        if (key != null) {
+            return key.toString();
+        }
+        return "ctime:" + attrs.creationTime().toMillis();
     }
     
     /**
-     * Get a unique identifier for the file based on creation time and size.
-     * This helps detect when a file is deleted and recreated.
+     * Checkpoints written by older versions keyed files by creation time and size.
      */
-    private String getFileKey(Path path) throws IOException {
-        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
-        // Use creation time + file size as a pseudo-inode
-        return attrs.creationTime().toMillis() + ":" + attrs.size();
+    private static boolean isLegacyFileKey(String fileKey) {
+        return !fileKey.startsWith("(") && !fileKey.startsWith("ctime:");
     }
     
     /**
@@ -188,51 +993,300 @@ public class FileTailer implements Runnable {
             long fileSize = Files.size(path);
             
             FileTailerState state = new FileTailerState(
-                config.getFilePath(),
-                filePointer,
+                filePath,
+                checkpointPosition(),
                 lastModifiedTime,
                 fileSize,
                 currentFileKey
             );
             
             checkpointCallback.accept(state);
-            log.debug("Checkpointed state for {}: position={}", config.getFilePath(), filePointer);
+            log.debug("Checkpointed state for {}: position={}", filePath, state.getFilePointer());
         } catch (IOException e) {
-            log.error("Failed to checkpoint state for {}", config.getFilePath(), e);
+            log.error("Failed to checkpoint state for {}", filePath, e);
+        }
+    }
+    
+    /**
+     * Read up to {@code maxBytes} in batch-sized chunks that are indexed, or submitted
+     * to the pipeline, as they fill.
+     */
+    private long readLines(FileChannel channel, long maxBytes) throws IOException {
+        long chunkBytes = offsetTracker != null ? pipeline.getBatchBytes() : DIRECT_BATCH_BYTES;
+        long total = 0;
+        while (total < maxBytes) {
+            long chunk = Math.min(chunkBytes, maxBytes - total);
+            lineStart = lineReader.position();
+            long lines = turnLines;
+            long n = lineReader.read(channel, chunk, this::handleLine);
+            total += n;
+            stats.addRead(turnLines - lines, n);
+            if (!submitBatch()) {
+                backpressured = true;
+                break;
+            }
+            if (n < chunk) {
+                break;
+            }
         }
+        return total;
     }
     
-    private void processLine(String line) {
+    /**
+     * Receive a physical line from the reader and pass it on, through the multiline
+     * assembler if the source has one.
+     */
+    private void handleLine(String line) {
+        turnLines++;
+        if (multiline != null) {
+            multiline.onLine(line, lineStart);
+            lineStart = lineReader.position();
+        } else {
+            acceptEvent(line);
+        }
+    }
+    
+    private void acceptEvent(String event) {
+        if (offsetTracker != null) {
+            batchLines.add(event);
+            return;
+        }
+        LogEntry entry = parseLine(parser, event);
+        if (entry != null && keep(entry)) {
+            if (directEntries.isEmpty()) {
+                directReadTime = System.currentTimeMillis();
+            }
+            directEntries.add(entry);
+        }
+    }
+    
+    /**
+     * Queue the events collected since the last batch. Waits only briefly for room in
+     * the pipeline; if it stays full the batch is kept back and retried before
+     * anything else is read, so a slow index never holds a scheduler worker.
+     *
+     * @return false if the pipeline was full and a batch is still pending
+     */
+    private boolean submitBatch() {
+        if (offsetTracker == null) {
+            long position = checkpointPosition();
+            indexEntries(directEntries, directReadTime, () -> recordCommitCheckpoint(position));
+            return true;
+        }
+        if (pendingBatch != null && !offerPendingBatch()) {
+            return false;
+        }
+        if (batchLines.isEmpty()) {
+            return true;
+        }
+        pendingBatch = new IngestBatch(config, filePath, batchLines, offsetTracker, submittedPosition(), stats);
+        batchLines = new ArrayList<>();
+        return offerPendingBatch();
+    }
+    
+    private boolean offerPendingBatch() {
+        try {
+            if (!pipeline.offer(pendingBatch, PIPELINE_OFFER_MS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            // The batch never completes, so checkpoints stay before it and it is read again
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IllegalStateException e) {
+            // Later batches must not wait for it; the checkpoint stays before it
+            log.warn("Dropped batch of {} lines from {}: {}", pendingBatch.size(), filePath, e.getMessage());
+            pendingBatch.abandon();
+        }
+        pendingBatch = null;
+        return true;
+    }
+    
+    /**
+     * Queue everything collected so far and check that it has been indexed, so its
+     * checkpoint is recorded before the read position jumps (rotation, truncation,
+     * stop). Never waits for the pipeline: the turn ends as backpressured and the jump
+     * is tried again on a later turn.
+     *
+     * @return false while a batch is still pending or being indexed
+     */
+    private boolean readyToJump() {
+        flushEvent();
+        if (submitBatch() && (offsetTracker == null || offsetTracker.isIdle())) {
+            return true;
+        }
+        backpressured = true;
+        return false;
+    }
+    
+    private void flushEvent() {
+        if (multiline != null) {
+            multiline.flush();
+        }
+    }
+    
+    /**
+     * Offset to restart from: past the last complete line, but never past the start of
+     * a multi-line event that has not been emitted yet.
+     */
+    private long checkpointPosition() {
+        long position = submittedPosition();
+        return offsetTracker != null ? offsetTracker.safeOffset(position) : position;
+    }
+    
+    /**
+     * Offset up to which every event has been handed on for indexing.
+     */
+    private long submittedPosition() {
+        if (multiline != null && multiline.hasPending()) {
+            return multiline.getPendingStart();
+        }
+        return lineReader.position();
+    }
+    
+    private LogEntry parseLine(LogParser parser, String line) {
         try {
-            LogEntry entry = new LogEntry(line, config.getFilePath(), config.getIndexName());
-            parser.parse(entry);
-            indexManager.indexLogEntry(entry);
+            LogEntry entry = new LogEntry(line, filePath, config.getIndexName());
+            Instant readTime = entry.getTimestamp();
+            if (!parser.tryParse(entry)) {
+                stats.addParseFailure(); // Indexed anyway, as raw text
+            }
+            if (entry.getTimestamp() != readTime) {
+                stats.addEventTime(entry.getTimestamp().toEpochMilli()); // The parser found one
+            }
+            return entry;
         } catch (Exception e) {
             log.error("Failed to process log line: {}", line, e);
+            stats.addParseFailure();
+            return null;
         }
     }
     
-    public void stop() {
-        this.running = false;
-        
-        // Final checkpoint on shutdown
-        if (checkpointCallback != null) {
-            try {
-                Path path = Paths.get(config.getFilePath());
-                if (Files.exists(path)) {
-                    checkpointState(path);
-                }
-            } catch (Exception e) {
-                log.error("Failed to perform final checkpoint for {}", config.getFilePath(), e);
+    private boolean keep(LogEntry entry) {
+        return loadShedder == null || loadShedder.keep(config, entry);
+    }
+    
+    /**
+     * Index parsed entries in one batch and clear the list.
+     *
+     * @param readTime when the first of the entries was read
+     * @param afterAdd run once the entries are in the index, before the next commit
+     */
+    private void indexEntries(List<LogEntry> entries, long readTime, Runnable afterAdd) {
+        try {
+            indexManager.addDocuments(config.getIndexName(), indexManager.buildDocuments(entries), afterAdd);
+            if (!entries.isEmpty()) {
+                stats.addIndexed(entries.size(), System.currentTimeMillis() - readTime);
             }
+        } catch (Exception e) {
+            log.error("Failed to index {} lines from {}", entries.size(), filePath, e);
+        }
+        entries.clear();
+    }
+    
+    /**
+     * Record the position in the commit data of the index. Everything before it has
+     * been added to the index, so the next commit makes both durable together and a
+     * restart resumes exactly there.
+     */
+    private void recordCommitCheckpoint(long position) {
+        if (retired) {
+            return; // Batches finishing after retirement must not bring the checkpoint back
         }
+        FileTailerState state = new FileTailerState(filePath, position, knownModifiedTime, knownFileSize,
+            currentFileKey, completed);
+        indexManager.recordCheckpoint(config.getIndexName(), checkpointKey, state.toCommitData());
+        stats.checkpointRecorded(position);
+    }
+    
+    private void closeChannel() {
+        channelCache.invalidate(path);
+    }
+    
+    /**
+     * Ask the tailer to stop. The final checkpoint is written by its last turn.
+     */
+    public void stop() {
+        this.running = false;
+        wakeUp();
+    }
+    
+    /**
+     * Stop for good because the file was deleted. No more commit checkpoints are
+     * recorded, so the caller can drop the file's checkpoint right away.
+     */
+    public void retire() {
+        retired = true;
+        stop();
     }
     
     public boolean isRunning() {
         return running;
     }
     
+    /**
+     * Bytes of the file that have not been read yet, as of the last turn.
+     */
+    public long getBytesBehind() {
+        if (archive) {
+            if (completed) {
+                return 0;
+            }
+            BackfillProgress progress = backfillProgress;
+            return progress != null && progress.getState() == BackfillProgress.State.RUNNING
+                ? progress.getTotalBytes() - progress.getBytesDone()
+                : knownFileSize;
+        }
+        return Math.max(0, knownFileSize - readOffset);
+    }
+    
+    /**
+     * Add this file's throughput, lag and indexing figures to the stats of its source.
+     */
+    void addStatsTo(SourceStats sourceStats) {
+        long now = System.currentTimeMillis();
+        long bytesBehind = getBytesBehind();
+        long timeBehind = bytesBehind > 0 ? getTimeBehind() : 0;
+        
+        // Progress is not durable while read past the last checkpoint, or while that
+        // checkpoint waits for the next commit of the index
+        long lastCommit = Math.max(indexManager.getLastCommitTime(config.getIndexName()), createdTime);
+        boolean pending = (!archive && submittedOffset > stats.getLastCheckpointPosition())
+            || stats.getLastCheckpointTime() > lastCommit;
+        long checkpointAge = pending ? now - lastCommit : 0;
+        
+        sourceStats.addFile(stats.getLinesPerSecond(), stats.getBytesPerSecond(), stats.getLinesRead(),
+            stats.getBytesRead(), bytesBehind, timeBehind, stats.getParseFailures(), stats.getEventsIndexed(),
+            stats.getLastIndexLatencyMillis(), stats.getMaxIndexLatencyMillis(), checkpointAge);
+    }
+    
+    /**
+     * How far the read position trails the newest line of the file, which was written
+     * at its modification time. The time at the read position is that of the newest
+     * event read if the parser found timestamps, else the modification time the file
+     * had when the tailer last reached its end.
+     */
+    private long getTimeBehind() {
+        long readTime = stats.getLastEventTime() > 0 ? stats.getLastEventTime() : caughtUpModifiedTime;
+        return readTime > 0 ? Math.max(0, knownModifiedTime - readTime) : 0;
+    }
+    
     public String getSourceId() {
         return config.getId();
     }
+    
+    public SourcePriority getPriority() {
+        return config.getPriority();
+    }
+    
+    public String getFilePath() {
+        return filePath;
+    }
+    
+    /**
+     * Progress of the current or last backfill, or {@code null} if there was none.
+     */
+    public BackfillProgress getBackfillProgress() {
+        return backfillProgress;
+    }
 }
@@ -33,14 +33,21 @@ public class FileTailerState {
     private final long lastModifiedTime;
     private final long fileSize;
     private final String fileKey;
+    private final boolean completed;
     
     public FileTailerState(String filePath, long filePointer, long lastModifiedTime,
                            long fileSize, String fileKey) {
+        this(filePath, filePointer, lastModifiedTime, fileSize, fileKey, false);
+    }
+    
+    public FileTailerState(String filePath, long filePointer, long lastModifiedTime,
+                           long fileSize, String fileKey, boolean completed) {
         this.filePath = filePath;
         this.filePointer = filePointer;
         this.lastModifiedTime = lastModifiedTime;
         this.fileSize = fileSize;
         this.fileKey = fileKey;
+        this.completed = completed;
     }
     
     public String getFilePath() {
@@ -62,4 +69,39 @@ public class FileTailerState {
     public String getFileKey() {
         return fileKey;
     }
+    
+    /**
+     * Whether the file is a compressed archive that has been read to the end.
+     * The file pointer of an archive counts uncompressed bytes.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+    
+    /**
+     * Compact form stored in the commit user data of the index. The file path goes
+     * last since it may contain the separator.
+     */
+    public String toCommitData() {
+        return filePointer + "|" + lastModifiedTime + "|" + fileSize + "|" + completed + "|"
+            + (fileKey != null ? fileKey : "") + "|" + filePath;
+    }
+    
+    /**
+     * Parse the form written by {@link #toCommitData()}.
+     */
+    public static FileTailerState fromCommitData(String data) {
+        String[] parts = data.split("\\|", 6);
+        if (parts.length < 6) {
+            throw new IllegalArgumentException("Malformed checkpoint: " + data);
+        }
+        return new FileTailerState(
+            parts[5],
+            Long.parseLong(parts[0]),
+            Long.parseLong(parts[1]),
+            Long.parseLong(parts[2]),
+            parts[4].isEmpty() ? null : parts[4],
+            Boolean.parseBoolean(parts[3])
+        );
+    }
 }
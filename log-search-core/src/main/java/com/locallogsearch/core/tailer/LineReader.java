@@ -0,0 +1,364 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads complete lines from a file channel.
+ *
+ * Bytes are read with positional reads into a large direct buffer and scanned for
+ * the charset's encoding of a newline, so the channel can stay open between polls and
+ * be shared freely. Lines are decoded straight from that buffer. A trailing line
+ * without a newline is carried over until the rest of it arrives; {@link #position()}
+ * only ever points just past the last complete line, which makes it safe to use as a
+ * checkpoint offset.
+ *
+ * Charsets whose newline is a fixed-width code unit are supported: single-byte and
+ * ASCII-compatible ones such as UTF-8, and UTF-16LE/BE or UTF-32LE/BE, where newlines
+ * are only matched on code unit boundaries. Charsets that depend on a byte order mark,
+ * like plain UTF-16, are rejected.
+ *
+ * Scratch buffers are per thread rather than per reader so memory scales with the
+ * number of reading threads, not with the number of sources.
+ */
+public class LineReader {
+    public static final int READ_BUFFER_SIZE = 256 * 1024;
+    public static final int DEFAULT_MAX_LINE_BYTES = 1024 * 1024;
+    
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+    
+    /**
+     * Receives each complete line. {@link LineReader#position()} already points past
+     * the line when this is invoked.
+     */
+    @FunctionalInterface
+    public interface LineHandler {
+        void onLine(String line);
+        
+        /**
+         * Called when no more lines will follow, e.g. at the end of a backfill range.
+         */
+        default void endOfInput() {
+        }
+    }
+    
+    private final Charset charset;
+    private final CharsetDecoder decoder;
+    private final byte[] newline;
+    private final byte[] carriageReturn;
+    private final int unit; // Bytes per code unit; lines start and end on multiples of it
+    private final boolean asciiCompatible;
+    private final int maxLineBytes;
+    
+    private byte[] carry = new byte[256];
+    private ByteBuffer carryBuffer = ByteBuffer.wrap(carry);
+    private int carryLength = 0;
+    private final byte[] partialUnit = new byte[4]; // Stream bytes short of a whole code unit
+    private int partialLength = 0;
+    private long position;
+    private long readPosition;
+    
+    public LineReader(Charset charset, long startPosition) {
+        this(charset, startPosition, DEFAULT_MAX_LINE_BYTES);
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the charset does not encode line breaks as a
+     *                                  fixed-width code unit
+     */
+    public LineReader(Charset charset, long startPosition, int maxLineBytes) {
+        this.charset = charset != null ? charset : StandardCharsets.UTF_8;
+        this.newline = lineBreak(this.charset, '\n');
+        this.carriageReturn = lineBreak(this.charset, '\r');
+        this.unit = newline.length;
+        this.decoder = this.charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.asciiCompatible = unit == 1 && isAsciiCompatible(this.charset);
+        this.maxLineBytes = maxLineBytes;
+        this.position = startPosition;
+        this.readPosition = startPosition;
+    }
+    
+    /**
+     * Encoding of a newline in the given charset, which line boundaries are found by.
+     *
+     * @throws IllegalArgumentException if the charset does not encode line breaks as a
+     *                                  fixed-width code unit
+     */
+    static byte[] newline(Charset charset) {
+        return lineBreak(charset, '\n');
+    }
+    
+    private static byte[] lineBreak(Charset charset, char c) {
+        if (!charset.canEncode()) {
+            throw new IllegalArgumentException("Unsupported charset for log files: " + charset.name());
+        }
+        byte[] one = String.valueOf(c).getBytes(charset);
+        byte[] two = new String(new char[] {c, c}).getBytes(charset);
+        // A byte order mark or a shift sequence makes the encoding longer than the units
+        if (two.length != 2 * one.length || (one.length != 1 && one.length != 2 && one.length != 4)) {
+            throw new IllegalArgumentException("Unsupported charset for log files: " + charset.name()
+                + " (line breaks are not a fixed-width code unit; use e.g. UTF-16LE or UTF-16BE)");
+        }
+        return one;
+    }
+    
+    /**
+     * Read up to {@code maxBytes} from the channel, emitting every complete line.
+     *
+     * @return the number of bytes read from the channel (0 at end of file)
+     */
+    public long read(FileChannel channel, long maxBytes, LineHandler handler) throws IOException {
+        ByteBuffer buffer = SCRATCH.get().buffer;
+        long total = 0;
+        
+        while (total < maxBytes) {
+            buffer.clear();
+            buffer.limit(readLimit(buffer, maxBytes - total));
+            int n = channel.read(buffer, readPosition);
+            // A code unit that is still being written is read again next time
+            n -= n % unit;
+            if (n <= 0) {
+                break;
+            }
+            readPosition += n;
+            total += n;
+            scan(buffer, n, handler);
+        }
+        
+        return total;
+    }
+    
+    /**
+     * Read up to {@code maxBytes} sequentially from a stream, such as a decompressing
+     * one, emitting every complete line. Positions count bytes of the stream.
+     *
+     * @return the number of bytes read (0 at end of stream)
+     */
+    public long readStream(ReadableByteChannel channel, long maxBytes, LineHandler handler) throws IOException {
+        ByteBuffer buffer = SCRATCH.get().buffer;
+        long total = 0;
+        
+        while (total < maxBytes) {
+            buffer.clear();
+            buffer.put(partialUnit, 0, partialLength);
+            buffer.limit(partialLength + readLimit(buffer, maxBytes - total));
+            int n = channel.read(buffer);
+            if (n < 0) {
+                break;
+            }
+            if (n == 0) {
+                continue;
+            }
+            total += n;
+            
+            // Bytes short of a whole code unit wait for the rest of it
+            int available = partialLength + n;
+            int length = available - available % unit;
+            partialLength = available - length;
+            buffer.get(length, partialUnit, 0, partialLength);
+            if (length > 0) {
+                readPosition += length;
+                scan(buffer, length, handler);
+            }
+        }
+        
+        return total;
+    }
+    
+    private int readLimit(ByteBuffer buffer, long remaining) {
+        long limit = Math.min(buffer.capacity() - partialLength, remaining);
+        return (int) Math.max(unit, limit - limit % unit);
+    }
+    
+    private void scan(ByteBuffer buffer, int length, LineHandler handler) {
+        long chunkStart = readPosition - length;
+        int lineStart = 0;
+        byte first = newline[0];
+        
+        for (int i = 0; i < length; i += unit) {
+            if (buffer.get(i) != first || (unit > 1 && !matches(buffer, i, newline))) {
+                continue;
+            }
+            
+            position = chunkStart + i + unit;
+            if (carryLength > 0) {
+                append(buffer, lineStart, i - lineStart);
+                emit(carryBuffer, 0, carryLength, handler);
+                carryLength = 0;
+            } else {
+                emit(buffer, lineStart, i - lineStart, handler);
+            }
+            lineStart = i + unit;
+        }
+        
+        if (lineStart < length) {
+            append(buffer, lineStart, length - lineStart);
+            if (carryLength >= maxLineBytes) {
+                // Runaway line without a newline: emit what we have rather than growing forever
+                position = readPosition;
+                emit(carryBuffer, 0, carryLength, handler);
+                carryLength = 0;
+            }
+        }
+    }
+    
+    /**
+     * Emit a trailing line that has no newline yet. Used when the file is known to be
+     * finished, e.g. after it has been rotated away.
+     */
+    public void flush(LineHandler handler) {
+        partialLength = 0;
+        if (carryLength > 0) {
+            position = readPosition;
+            emit(carryBuffer, 0, carryLength, handler);
+            carryLength = 0;
+        }
+    }
+    
+    /**
+     * Discard any carried-over bytes and continue reading from the given offset.
+     */
+    public void reset(long newPosition) {
+        carryLength = 0;
+        partialLength = 0;
+        position = newPosition;
+        readPosition = newPosition;
+    }
+    
+    /**
+     * Offset just past the last complete line.
+     */
+    public long position() {
+        return position;
+    }
+    
+    /**
+     * Offset of the next byte to be read, including any partial line carried over.
+     */
+    public long readPosition() {
+        return readPosition;
+    }
+    
+    public int pendingBytes() {
+        return carryLength;
+    }
+    
+    public Charset getCharset() {
+        return charset;
+    }
+    
+    private void append(ByteBuffer src, int offset, int length) {
+        if (carryLength + length > carry.length) {
+            carry = Arrays.copyOf(carry, Math.max(carry.length * 2, carryLength + length));
+            carryBuffer = ByteBuffer.wrap(carry);
+        }
+        src.get(offset, carry, carryLength, length);
+        carryLength += length;
+    }
+    
+    private void emit(ByteBuffer bytes, int offset, int length, LineHandler handler) {
+        if (length >= unit && matches(bytes, offset + length - unit, carriageReturn)) {
+            length -= unit;
+        }
+        handler.onLine(decode(bytes, offset, length));
+    }
+    
+    private String decode(ByteBuffer bytes, int offset, int length) {
+        Scratch scratch = SCRATCH.get();
+        if (asciiCompatible) {
+            char[] chars = scratch.chars(length);
+            int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                byte b = bytes.get(i);
+                if (b < 0) {
+                    break;
+                }
+                chars[i - offset] = (char) b;
+                i++;
+            }
+            if (i == end) {
+                return new String(chars, 0, length);
+            }
+        }
+        
+        CharBuffer out = scratch.charBuffer((int) Math.ceil(length * (double) decoder.maxCharsPerByte()));
+        int limit = bytes.limit();
+        bytes.limit(offset + length).position(offset);
+        decoder.reset();
+        decoder.decode(bytes, out, true);
+        decoder.flush(out);
+        bytes.limit(limit);
+        return out.flip().toString();
+    }
+    
+    private static boolean matches(ByteBuffer bytes, int index, byte[] pattern) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (bytes.get(index + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean isAsciiCompatible(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8)
+            || charset.equals(StandardCharsets.US_ASCII)
+            || charset.equals(StandardCharsets.ISO_8859_1)
+            || charset.name().equalsIgnoreCase("windows-1252");
+    }
+    
+    private static final class Scratch {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        private char[] chars = new char[1024];
+        private CharBuffer charBuffer = CharBuffer.wrap(chars);
+        
+        char[] chars(int capacity) {
+            if (chars.length < capacity) {
+                chars = new char[Math.max(capacity, chars.length * 2)];
+                charBuffer = CharBuffer.wrap(chars);
+            }
+            return chars;
+        }
+        
+        CharBuffer charBuffer(int capacity) {
+            chars(capacity);
+            charBuffer.clear();
+            return charBuffer;
+        }
+    }
+}
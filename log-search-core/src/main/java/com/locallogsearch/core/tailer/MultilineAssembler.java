@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import com.locallogsearch.core.config.MultilineConfig;
+
+import java.util.regex.Pattern;
+
+/**
+ * Assembles physical lines into multi-line events (stack traces, continuation lines)
+ * before they reach the parser. An event is emitted when the next event starts, when
+ * it reaches the maximum number of lines, or when no line arrived for the timeout.
+ *
+ * Not thread-safe; each reader owns its own assembler.
+ */
+public class MultilineAssembler implements LineReader.LineHandler {
+    private final Pattern startPattern;
+    private final Pattern continuationPattern;
+    private final int maxLines;
+    private final long timeoutMs;
+    private final LineReader.LineHandler downstream;
+    
+    private final StringBuilder event = new StringBuilder();
+    private int lines = 0;
+    private long eventStart = -1;
+    private long lastLineTime = 0;
+    
+    public MultilineAssembler(MultilineConfig config, LineReader.LineHandler downstream) {
+        this.startPattern = compile(config.getStartPattern());
+        this.continuationPattern = compile(config.getContinuationPattern());
+        this.maxLines = Math.max(1, config.getMaxLines());
+        this.timeoutMs = config.getTimeoutMs();
+        this.downstream = downstream;
+    }
+    
+    /**
+     * Create an assembler in front of {@code downstream}, or return {@code downstream}
+     * itself if the source has no multiline configuration.
+     */
+    public static LineReader.LineHandler wrap(MultilineConfig config, LineReader.LineHandler downstream) {
+        if (config == null || !config.isEnabled()) {
+            return downstream;
+        }
+        return new MultilineAssembler(config, downstream);
+    }
+    
+    private static Pattern compile(String pattern) {
+        return pattern == null || pattern.isEmpty() ? null : Pattern.compile(pattern);
+    }
+    
+    @Override
+    public void onLine(String line) {
+        onLine(line, -1);
+    }
+    
+    /**
+     * Add a line that starts at the given file offset.
+     */
+    public void onLine(String line, long lineStart) {
+        if (lines > 0 && (lines >= maxLines || !isContinuation(line))) {
+            flush();
+        }
+        if (lines == 0) {
+            eventStart = lineStart;
+        } else {
+            event.append('\n');
+        }
+        event.append(line);
+        lines++;
+        lastLineTime = System.currentTimeMillis();
+    }
+    
+    /**
+     * Whether the line begins a new event rather than continuing the one before it.
+     * Depends only on the configuration, so it may be called from any thread.
+     */
+    public boolean startsEvent(String line) {
+        return !isContinuation(line);
+    }
+    
+    private boolean isContinuation(String line) {
+        boolean start = startPattern != null && startPattern.matcher(line).find();
+        if (continuationPattern != null) {
+            return !start && continuationPattern.matcher(line).find();
+        }
+        return !start;
+    }
+    
+    /**
+     * Emit the pending event, if any.
+     */
+    public void flush() {
+        if (lines == 0) {
+            return;
+        }
+        String text = event.toString();
+        event.setLength(0);
+        lines = 0;
+        eventStart = -1;
+        downstream.onLine(text);
+    }
+    
+    /**
+     * Emit the pending event if no line has arrived for the timeout.
+     *
+     * @return milliseconds until the pending event times out, or -1 if none is pending
+     */
+    public long flushIfIdle(long now) {
+        if (lines == 0) {
+            return -1;
+        }
+        long remaining = lastLineTime + timeoutMs - now;
+        if (remaining <= 0) {
+            flush();
+            return -1;
+        }
+        return remaining;
+    }
+    
+    @Override
+    public void endOfInput() {
+        flush();
+        downstream.endOfInput();
+    }
+    
+    public boolean hasPending() {
+        return lines > 0;
+    }
+    
+    /**
+     * File offset of the first line of the pending event. Checkpoints must not pass it,
+     * or the event would be cut short on restart.
+     */
+    public long getPendingStart() {
+        return eventStart;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+/**
+ * Snapshot of how a source, or a group of sources, keeps up with its files. Rates
+ * and counts add up over the files; lags are those of the file furthest behind.
+ */
+public class SourceStats {
+    private final String sourceId;
+    private int files;
+    private double linesPerSecond;
+    private double bytesPerSecond;
+    private long linesRead;
+    private long bytesRead;
+    private long bytesBehind;
+    private long timeBehindMillis;
+    private long parseFailures;
+    private long eventsIndexed;
+    private long lastIndexLatencyMillis;
+    private long maxIndexLatencyMillis;
+    private long checkpointAgeMillis;
+    
+    public SourceStats(String sourceId) {
+        this.sourceId = sourceId;
+    }
+    
+    void addFile(double linesPerSecond, double bytesPerSecond, long linesRead, long bytesRead,
+                 long bytesBehind, long timeBehindMillis, long parseFailures, long eventsIndexed,
+                 long lastIndexLatencyMillis, long maxIndexLatencyMillis, long checkpointAgeMillis) {
+        this.files++;
+        this.linesPerSecond += linesPerSecond;
+        this.bytesPerSecond += bytesPerSecond;
+        this.linesRead += linesRead;
+        this.bytesRead += bytesRead;
+        this.bytesBehind += bytesBehind;
+        this.timeBehindMillis = Math.max(this.timeBehindMillis, timeBehindMillis);
+        this.parseFailures += parseFailures;
+        this.eventsIndexed += eventsIndexed;
+        this.lastIndexLatencyMillis = Math.max(this.lastIndexLatencyMillis, lastIndexLatencyMillis);
+        this.maxIndexLatencyMillis = Math.max(this.maxIndexLatencyMillis, maxIndexLatencyMillis);
+        this.checkpointAgeMillis = Math.max(this.checkpointAgeMillis, checkpointAgeMillis);
+    }
+    
+    /**
+     * Fold the stats of another source into these, e.g. for a summary of all sources.
+     */
+    public void add(SourceStats other) {
+        addFile(other.linesPerSecond, other.bytesPerSecond, other.linesRead, other.bytesRead,
+            other.bytesBehind, other.timeBehindMillis, other.parseFailures, other.eventsIndexed,
+            other.lastIndexLatencyMillis, other.maxIndexLatencyMillis, other.checkpointAgeMillis);
+        this.files += other.files - 1;
+    }
+    
+    public String getSourceId() {
+        return sourceId;
+    }
+    
+    public int getFiles() {
+        return files;
+    }
+    
+    public double getLinesPerSecond() {
+        return linesPerSecond;
+    }
+    
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+    
+    public long getLinesRead() {
+        return linesRead;
+    }
+    
+    public long getBytesRead() {
+        return bytesRead;
+    }
+    
+    /**
+     * Bytes of the files that have not been read yet.
+     */
+    public long getBytesBehind() {
+        return bytesBehind;
+    }
+    
+    /**
+     * How far in time the read position trails the newest line written, for the file
+     * furthest behind, or 0 while every file is read to its end.
+     */
+    public long getTimeBehindMillis() {
+        return timeBehindMillis;
+    }
+    
+    /**
+     * Lines the parser did not match, which are indexed as raw text, or threw on,
+     * which are not indexed.
+     */
+    public long getParseFailures() {
+        return parseFailures;
+    }
+    
+    public long getEventsIndexed() {
+        return eventsIndexed;
+    }
+    
+    /**
+     * Time from reading to indexing of the last batch.
+     */
+    public long getLastIndexLatencyMillis() {
+        return lastIndexLatencyMillis;
+    }
+    
+    public long getMaxIndexLatencyMillis() {
+        return maxIndexLatencyMillis;
+    }
+    
+    /**
+     * How long progress that has been read has not been made durable by a commit,
+     * or 0 if the committed checkpoint covers everything read.
+     */
+    public long getCheckpointAgeMillis() {
+        return checkpointAgeMillis;
+    }
+}
@@ -25,29 +25,98 @@
 package com.locallogsearch.core.tailer;
 
 import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.SourcePriority;
+import com.locallogsearch.core.config.TailerConfig;
 import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.listener.NetworkListener;
+import com.locallogsearch.core.ingest.IngestPipeline;
+import com.locallogsearch.core.ingest.IngestStats;
+import com.locallogsearch.core.ingest.LoadShedder;
+import com.locallogsearch.core.ingest.RateLimiter;
+import com.locallogsearch.core.ingest.SheddingMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class TailerManager implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(TailerManager.class);
     
+    /**
+     * Separates the source id from the file path in checkpoint keys of file set sources.
+     */
+    public static final String CHECKPOINT_KEY_SEPARATOR = "#";
+    
     private final IndexManager indexManager;
+    private final IngestPipeline pipeline;
+    private final TailerConfig tailerConfig;
     private final Map<String, FileTailer> tailers;
-    private final ExecutorService executorService;
+    private final Map<String, FileSetTailer> fileSets;
+    private final Map<String, ScheduledFuture<?>> discoveryTasks;
+    private final TailerScheduler scheduler;
+    private final ScheduledExecutorService discoveryExecutor;
+    private final ChannelCache channelCache;
+    private final ForkJoinPool backfillPool;
+    private final FileChangeNotifier changeNotifier;
+    private final LoadShedder loadShedder;
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Map<String, NetworkListener> listeners = new ConcurrentHashMap<>();
     private BiConsumer<String, FileTailerState> checkpointCallback;
+    private Consumer<String> checkpointRemovalCallback;
     
     public TailerManager(IndexManager indexManager) {
+        this(indexManager, new TailerConfig());
+    }
+    
+    public TailerManager(IndexManager indexManager, TailerConfig tailerConfig) {
+        this(indexManager, tailerConfig, null);
+    }
+    
+    /**
+     * @param pipeline pipeline that parses and indexes for the tailers, or {@code null}
+     *                 to do both on the tailer threads
+     */
+    public TailerManager(IndexManager indexManager, TailerConfig tailerConfig, IngestPipeline pipeline) {
         this.indexManager = indexManager;
+        this.pipeline = pipeline;
+        this.tailerConfig = tailerConfig;
         this.tailers = new ConcurrentHashMap<>();
-        this.executorService = Executors.newCachedThreadPool();
+        this.fileSets = new ConcurrentHashMap<>();
+        this.discoveryTasks = new ConcurrentHashMap<>();
+        this.scheduler = new TailerScheduler(tailerConfig.getSchedulerThreads());
+        this.discoveryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tailer-discovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.channelCache = new ChannelCache(tailerConfig.getMaxOpenFiles());
+        this.backfillPool = new ForkJoinPool(Math.max(1, tailerConfig.getBackfillParallelism()));
+        this.changeNotifier = tailerConfig.isWatchServiceEnabled() ? new FileChangeNotifier() : null;
+        
+        this.loadShedder = new LoadShedder(tailerConfig.getLoadShedding());
+        if (pipeline != null) {
+            pipeline.setLoadShedder(loadShedder);
+        }
+        if (tailerConfig.getLoadShedding().isEnabled()) {
+            long interval = tailerConfig.getLoadShedding().getCheckIntervalMs();
+            discoveryExecutor.scheduleWithFixedDelay(this::updateLoadShedding, interval, interval, TimeUnit.MILLISECONDS);
+        }
     }
     
     /**
@@ -58,35 +127,197 @@ public class TailerManager implements AutoCloseable {
         this.checkpointCallback = callback;
     }
     
+    /**
+     * Set a callback to be invoked with the checkpoint key of a file that no longer
+     * exists, so its saved state can be dropped.
+     */
+    public void setCheckpointRemovalCallback(Consumer<String> callback) {
+        this.checkpointRemovalCallback = callback;
+    }
+    
+    /**
+     * Checkpoint key of one file of a glob or directory source.
+     */
+    public static String checkpointKey(String sourceId, String filePath) {
+        return sourceId + CHECKPOINT_KEY_SEPARATOR + filePath;
+    }
+    
     public void addLogSource(LogSourceConfig config) {
-        addLogSource(config, null);
+        addLogSource(config, (FileTailerState) null);
     }
     
+    /**
+     * Add a source. A checkpoint committed with the source's index takes precedence over
+     * {@code initialState}, since it matches what the index holds.
+     */
     public void addLogSource(LogSourceConfig config, FileTailerState initialState) {
-        if (tailers.containsKey(config.getId())) {
+        if (config.getListener() != null) {
+            startListener(config);
+            return;
+        }
+        if (FileSetTailer.isFileSet(config)) {
+            addLogSource(config, Collections.emptyMap());
+            return;
+        }
+        
+        if (exists(config.getId())) {
+            log.warn("Log source already exists: {}", config.getId());
+            return;
+        }
+        
+        FileTailerState committed = committedStates(config).get(config.getId());
+        if (committed != null) {
+            log.info("Restoring {} from the checkpoint committed with index {} at position {}",
+                config.getFilePath(), config.getIndexName(), committed.getFilePointer());
+            initialState = committed;
+        }
+        startFileSource(config, initialState);
+    }
+    
+    private boolean exists(String sourceId) {
+        return tailers.containsKey(sourceId) || fileSets.containsKey(sourceId) || listeners.containsKey(sourceId);
+    }
+    
+    /**
+     * Start listening for a network source. Received events are not replayed, so there
+     * is no checkpoint to restore.
+     */
+    private void startListener(LogSourceConfig config) {
+        if (exists(config.getId())) {
+            log.warn("Log source already exists: {}", config.getId());
+            return;
+        }
+        indexManager.declareFieldMappings(config.getIndexName(), config.getId(), config.getFieldMappings());
+        if (!config.isEnabled()) {
+            log.info("Log source {} is disabled, not listening on {}", config.getId(), config.getListener());
+            return;
+        }
+        NetworkListener listener = new NetworkListener(config, indexManager, pipeline, loadShedder);
+        try {
+            listener.start();
+            listeners.put(config.getId(), listener);
+            log.info("Added log source: {}", config);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not listen on {} for source {}", config.getListener(), config.getId(), e);
+        }
+    }
+    
+    private void startFileSource(LogSourceConfig config, FileTailerState initialState) {
+        indexManager.declareFieldMappings(config.getIndexName(), config.getId(), config.getFieldMappings());
+        tailers.put(config.getId(), startTailer(config, config.getFilePath(), initialState, config.getId()));
+        log.info("Added log source: {}", config);
+    }
+    
+    /**
+     * Add a glob or directory source. Checkpoints committed with the source's index take
+     * precedence over {@code fileStates}.
+     *
+     * @param fileStates saved state of each file by file path
+     */
+    public void addLogSource(LogSourceConfig config, Map<String, FileTailerState> fileStates) {
+        if (config.getListener() != null || !FileSetTailer.isFileSet(config)) {
+            addLogSource(config, fileStates.get(config.getFilePath()));
+            return;
+        }
+        
+        if (exists(config.getId())) {
             log.warn("Log source already exists: {}", config.getId());
             return;
         }
         
-        FileTailer tailer = new FileTailer(config, indexManager, initialState);
+        Map<String, FileTailerState> states = new HashMap<>(fileStates);
+        String filePrefix = config.getId() + CHECKPOINT_KEY_SEPARATOR;
+        for (Map.Entry<String, FileTailerState> entry : committedStates(config).entrySet()) {
+            if (entry.getKey().startsWith(filePrefix)) {
+                states.put(entry.getValue().getFilePath(), entry.getValue());
+            }
+        }
+        startFileSet(config, states);
+    }
+    
+    private void startFileSet(LogSourceConfig config, Map<String, FileTailerState> fileStates) {
+        indexManager.declareFieldMappings(config.getIndexName(), config.getId(), config.getFieldMappings());
+        // Archives read under any name, so rotation renames do not cause a second read
+        Set<String> completedArchives = ConcurrentHashMap.newKeySet();
+        for (FileTailerState state : fileStates.values()) {
+            if (state.isCompleted()) {
+                completedArchives.add(FileTailer.archiveId(state.getFileKey(), state.getFileSize()));
+            }
+        }
+        
+        FileSetTailer fileSet = new FileSetTailer(config,
+            filePath -> {
+                FileTailer tailer = createTailer(config, filePath, fileStates.get(filePath),
+                    checkpointKey(config.getId(), filePath));
+                tailer.setCompletedArchives(completedArchives);
+                scheduler.schedule(tailer);
+                return tailer;
+            },
+            filePath -> {
+                String key = checkpointKey(config.getId(), filePath);
+                indexManager.removeCheckpoint(config.getIndexName(), key);
+                if (checkpointRemovalCallback != null) {
+                    checkpointRemovalCallback.accept(key);
+                }
+            });
+        fileSets.put(config.getId(), fileSet);
+        discoveryTasks.put(config.getId(), discoveryExecutor.scheduleWithFixedDelay(
+            fileSet::discover, 0, tailerConfig.getDiscoveryIntervalMs(), TimeUnit.MILLISECONDS));
+        
+        log.info("Added file set log source: {}", config);
+    }
+    
+    private FileTailer startTailer(LogSourceConfig config, String filePath, FileTailerState initialState,
+                                   String checkpointKey) {
+        FileTailer tailer = createTailer(config, filePath, initialState, checkpointKey);
+        scheduler.schedule(tailer);
+        return tailer;
+    }
+    
+    private FileTailer createTailer(LogSourceConfig config, String filePath, FileTailerState initialState,
+                                    String checkpointKey) {
+        FileTailer tailer = new FileTailer(config, filePath, indexManager, initialState, tailerConfig);
+        tailer.setCheckpointKey(checkpointKey);
+        tailer.setChangeNotifier(changeNotifier);
+        tailer.setChannelCache(channelCache);
+        tailer.setBackfillPool(backfillPool);
+        tailer.setIngestPipeline(pipeline);
+        tailer.setLoadShedder(loadShedder);
+        if (config.getMaxLinesPerSecond() > 0 || config.getMaxBytesPerSecond() > 0) {
+            // One budget for all files of the source
+            tailer.setRateLimiter(rateLimiters.computeIfAbsent(config.getId(),
+                id -> new RateLimiter(config.getMaxLinesPerSecond(), config.getMaxBytesPerSecond())));
+        }
         
         // Set checkpoint callback if configured
         if (checkpointCallback != null) {
-            tailer.setCheckpointCallback(state -> checkpointCallback.accept(config.getId(), state));
+            tailer.setCheckpointCallback(state -> checkpointCallback.accept(checkpointKey, state));
         }
-        
-        tailers.put(config.getId(), tailer);
-        executorService.submit(tailer);
-        
-        log.info("Added log source: {}", config);
+        return tailer;
     }
     
     public void removeLogSource(String id) {
+        rateLimiters.remove(id);
+        NetworkListener listener = listeners.remove(id);
+        if (listener != null) {
+            listener.stop();
+            log.info("Removed log source: {}", id);
+        }
         FileTailer tailer = tailers.remove(id);
         if (tailer != null) {
             tailer.stop();
             log.info("Removed log source: {}", id);
         }
+        
+        ScheduledFuture<?> discovery = discoveryTasks.remove(id);
+        if (discovery != null) {
+            discovery.cancel(false);
+        }
+        FileSetTailer fileSet = fileSets.remove(id);
+        if (fileSet != null) {
+            fileSet.stop();
+            log.info("Removed file set log source: {}", id);
+        }
     }
     
     public void updateLogSource(LogSourceConfig config) {
@@ -104,30 +335,194 @@ public class TailerManager implements AutoCloseable {
     public void reindexLogSource(LogSourceConfig config) {
         log.info("Reindexing log source: {}", config.getId());
         removeLogSource(config.getId());
-        // Add with null initial state to start from beginning
-        addLogSource(config, null);
+        if (config.getListener() != null) {
+            startListener(config); // Nothing to read again; only new events are indexed
+            return;
+        }
+        
+        // Start from the beginning without restoring committed checkpoints
+        removeCommittedCheckpoints(config);
+        if (FileSetTailer.isFileSet(config)) {
+            startFileSet(config, Collections.emptyMap());
+        } else {
+            startFileSource(config, null);
+        }
+    }
+    
+    /**
+     * Checkpoints of the source's files committed with its index, by checkpoint key.
+     */
+    private Map<String, FileTailerState> committedStates(LogSourceConfig config) {
+        Map<String, FileTailerState> states = new HashMap<>();
+        String filePrefix = config.getId() + CHECKPOINT_KEY_SEPARATOR;
+        try {
+            for (Map.Entry<String, String> entry : indexManager.getCommittedCheckpoints(config.getIndexName()).entrySet()) {
+                String key = entry.getKey();
+                if (key.equals(config.getId()) || key.startsWith(filePrefix)) {
+                    states.put(key, FileTailerState.fromCommitData(entry.getValue()));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read committed checkpoints of index {}", config.getIndexName(), e);
+        }
+        return states;
+    }
+    
+    private void removeCommittedCheckpoints(LogSourceConfig config) {
+        for (String key : committedStates(config).keySet()) {
+            indexManager.removeCheckpoint(config.getIndexName(), key);
+        }
+        indexManager.removeCheckpoint(config.getIndexName(), config.getId());
     }
     
     public Map<String, FileTailer> getTailers() {
         return new ConcurrentHashMap<>(tailers);
     }
     
+    public Map<String, FileSetTailer> getFileSets() {
+        return new ConcurrentHashMap<>(fileSets);
+    }
+    
+    /**
+     * Backfill progress of every file of a source that has been backfilled.
+     */
+    public List<BackfillProgress> getBackfillProgress(String sourceId) {
+        List<BackfillProgress> progress = new ArrayList<>();
+        for (FileTailer t : sourceTailers(sourceId)) {
+            if (t.getBackfillProgress() != null) {
+                progress.add(t.getBackfillProgress());
+            }
+        }
+        return progress;
+    }
+    
+    /**
+     * Throughput, lag and indexing figures of a source over all of its files, or
+     * {@code null} if the source is not being tailed.
+     */
+    public SourceStats getSourceStats(String sourceId) {
+        if (!exists(sourceId)) {
+            return null;
+        }
+        SourceStats stats = new SourceStats(sourceId);
+        for (FileTailer tailer : sourceTailers(sourceId)) {
+            tailer.addStatsTo(stats);
+        }
+        NetworkListener listener = listeners.get(sourceId);
+        if (listener != null) {
+            // Nothing to be behind on: what the socket holds has not been sent as far as we know
+            IngestStats listenerStats = listener.getStats();
+            stats.addFile(listenerStats.getLinesPerSecond(), listenerStats.getBytesPerSecond(),
+                listenerStats.getLinesRead(), listenerStats.getBytesRead(), 0, 0, listenerStats.getParseFailures(),
+                listenerStats.getEventsIndexed(), listenerStats.getLastIndexLatencyMillis(),
+                listenerStats.getMaxIndexLatencyMillis(), 0);
+        }
+        return stats;
+    }
+    
+    /**
+     * Stats of every source being tailed, by source id.
+     */
+    public Map<String, SourceStats> getAllSourceStats() {
+        Map<String, SourceStats> all = new TreeMap<>();
+        for (String sourceId : tailers.keySet()) {
+            all.put(sourceId, getSourceStats(sourceId));
+        }
+        for (String sourceId : fileSets.keySet()) {
+            all.put(sourceId, getSourceStats(sourceId));
+        }
+        for (String sourceId : listeners.keySet()) {
+            all.put(sourceId, getSourceStats(sourceId));
+        }
+        all.values().removeIf(Objects::isNull); // Removed meanwhile
+        return all;
+    }
+    
+    private List<FileTailer> sourceTailers(String sourceId) {
+        List<FileTailer> sourceTailers = new ArrayList<>();
+        FileTailer tailer = tailers.get(sourceId);
+        if (tailer != null) {
+            sourceTailers.add(tailer);
+        }
+        FileSetTailer fileSet = fileSets.get(sourceId);
+        if (fileSet != null) {
+            sourceTailers.addAll(fileSet.getTailers().values());
+        }
+        return sourceTailers;
+    }
+    
+    /**
+     * Measure how far all tailers are behind and switch load shedding modes to match.
+     */
+    private void updateLoadShedding() {
+        try {
+            long bytesBehind = 0;
+            long lowPriorityBytesBehind = 0;
+            for (FileTailer tailer : allTailers()) {
+                if (tailer.getPriority() == SourcePriority.LOW) {
+                    lowPriorityBytesBehind += tailer.getBytesBehind();
+                } else {
+                    bytesBehind += tailer.getBytesBehind();
+                }
+            }
+            loadShedder.update(bytesBehind, lowPriorityBytesBehind);
+            indexManager.setSkipFacets(loadShedder.isActive(SheddingMode.SKIP_FACETS));
+        } catch (RuntimeException e) {
+            log.error("Failed to update load shedding", e);
+        }
+    }
+    
+    private List<FileTailer> allTailers() {
+        List<FileTailer> all = new ArrayList<>(tailers.values());
+        for (FileSetTailer fileSet : fileSets.values()) {
+            all.addAll(fileSet.getTailers().values());
+        }
+        return all;
+    }
+    
+    public LoadShedder getLoadShedder() {
+        return loadShedder;
+    }
+    
+    /**
+     * Rate limiter of a source, or {@code null} if the source has no limits.
+     */
+    public RateLimiter getRateLimiter(String sourceId) {
+        return rateLimiters.get(sourceId);
+    }
+    
+    /**
+     * Network listener of a source, or {@code null} if the source tails files.
+     */
+    public NetworkListener getListener(String sourceId) {
+        return listeners.get(sourceId);
+    }
+    
+    public ChannelCache getChannelCache() {
+        return channelCache;
+    }
+    
     @Override
     public void close() {
         log.info("Closing TailerManager");
         
+        discoveryExecutor.shutdownNow();
+        for (FileSetTailer fileSet : fileSets.values()) {
+            fileSet.stop();
+        }
         for (FileTailer tailer : tailers.values()) {
             tailer.stop();
         }
+        for (NetworkListener listener : listeners.values()) {
+            listener.stop();
+        }
         
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
+        scheduler.close();
+        backfillPool.shutdownNow();
+        channelCache.close();
+        
+        if (changeNotifier != null) {
+            changeNotifier.close();
         }
     }
 }
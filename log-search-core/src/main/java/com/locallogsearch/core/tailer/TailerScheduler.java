@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs all tailers on a small shared pool of threads.
+ *
+ * Each tailer is a task that reads one quantum per turn and then re-schedules
+ * itself: straight to the back of the queue when more data is waiting, or after its
+ * idle backoff otherwise. A hot file therefore cannot starve the others, and idle
+ * sources cost nothing but a pending timer, so thousands of sources fit on one box.
+ */
+public class TailerScheduler implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(TailerScheduler.class);
+    
+    private final ScheduledThreadPoolExecutor executor;
+    
+    public TailerScheduler(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "tailer-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), threadFactory);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+    
+    /**
+     * Start running turns for the tailer until it stops.
+     */
+    public void schedule(FileTailer tailer) {
+        ScheduledTailer task = new ScheduledTailer(tailer);
+        tailer.setWakeHandler(task::wake);
+        task.submit(0);
+    }
+    
+    public int getQueuedTasks() {
+        return executor.getQueue().size();
+    }
+    
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private final class ScheduledTailer implements Runnable {
+        private final FileTailer tailer;
+        private ScheduledFuture<?> pending; // Guarded by this
+        private boolean running;
+        private boolean woken;
+        private boolean done;
+        
+        ScheduledTailer(FileTailer tailer) {
+            this.tailer = tailer;
+        }
+        
+        synchronized void submit(long delayMs) {
+            if (done) {
+                return;
+            }
+            try {
+                pending = executor.schedule(this, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.debug("Scheduler shut down, dropping tailer {}", tailer.getSourceId());
+                done = true;
+            }
+        }
+        
+        /**
+         * Bring the next turn forward to now. A wake that arrives mid-turn makes the
+         * tailer run again as soon as the current turn ends.
+         */
+        synchronized void wake() {
+            if (done) {
+                return;
+            }
+            if (running) {
+                woken = true;
+                return;
+            }
+            if (pending != null && pending.getDelay(TimeUnit.MILLISECONDS) > 0 && pending.cancel(false)) {
+                submit(0);
+            }
+        }
+        
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                running = true;
+                woken = false;
+                pending = null;
+            }
+            
+            long delay = turn();
+            if (delay >= 0 && !tailer.isRunning()) {
+                // Stopped during this turn: finish now rather than re-queue on a closing executor
+                delay = turn();
+            }
+            while (delay >= 0 && !tailer.isRunning() && executor.isShutdown()) {
+                // Still waiting for the pipeline, but a closing executor takes no more turns
+                pause(delay);
+                delay = turn();
+            }
+            
+            synchronized (this) {
+                running = false;
+                if (delay < 0) {
+                    done = true;
+                    return;
+                }
+                if (woken) {
+                    woken = false;
+                    delay = 0;
+                }
+                submit(delay);
+            }
+        }
+        
+        private void pause(long delayMs) {
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // The tailer checkpoints without waiting any longer
+            }
+        }
+        
+        private long turn() {
+            try {
+                return tailer.runTurn();
+            } catch (RuntimeException e) {
+                log.error("Tailer turn failed for {}", tailer.getSourceId(), e);
+                return 0;
+            }
+        }
+    }
+}
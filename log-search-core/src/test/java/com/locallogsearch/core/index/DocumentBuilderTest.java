@@ -0,0 +1,237 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import com.locallogsearch.core.config.FieldMapping;
+import com.locallogsearch.core.model.LogEntry;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.facet.DrillDownQuery;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentBuilderTest {
+
+    private List<String> fieldNames(FieldTypeRegistry registry, String field, String value) {
+        LogEntry entry = new LogEntry("line", "app.log", "logs");
+        entry.addField(field, value);
+        ReusableDocument document = new DocumentBuilder().build(entry, true, registry);
+        List<String> names = new ArrayList<>();
+        for (IndexableField indexed : document) {
+            if (indexed.name().startsWith(field)) {
+                names.add(indexed.name() + (indexed.fieldType().stored() ? "+stored" : ""));
+            }
+        }
+        return names;
+    }
+
+    private FieldTypeRegistry mapped(String field, FieldMapping mapping) {
+        FieldTypeRegistry registry = new FieldTypeRegistry(null, 1);
+        registry.declare(Map.of(field, mapping));
+        return registry;
+    }
+
+    @Test
+    void testDynamicFieldGetsAllVariants() {
+        assertEquals(List.of("status+stored", "status_exact", "status_num", "status_num+stored", "status_num"),
+            fieldNames(new FieldTypeRegistry(null, 1), "status", "200"));
+    }
+
+    @Test
+    void testMappedFieldsGetOnlyWhatTheyNeed() {
+        assertEquals(List.of("msg+stored"), fieldNames(mapped("msg", FieldMapping.TEXT), "msg", "200"));
+        assertEquals(List.of("id+stored"), fieldNames(mapped("id", FieldMapping.KEYWORD), "id", "a-1"));
+        assertEquals(List.of("took+stored", "took_num", "took_num+stored", "took_num"),
+            fieldNames(mapped("took", FieldMapping.NUMERIC), "took", "45ms"));
+        assertEquals(List.of("took+stored"), fieldNames(mapped("took", FieldMapping.NUMERIC), "took", "n/a"));
+        assertEquals(List.of("trace+stored"), fieldNames(mapped("trace", FieldMapping.STORED), "trace", "at x"));
+        assertEquals(List.of(), fieldNames(mapped("junk", FieldMapping.IGNORE), "junk", "x"));
+    }
+
+    @Test
+    void testFacetsStopAboveCardinalityLimit() throws Exception {
+        FieldTypeRegistry registry = new FieldTypeRegistry(null, 1, 500);
+        DocumentBuilder builder = new DocumentBuilder();
+        int faceted = 0;
+        for (int i = 0; i < 5000; i++) {
+            LogEntry entry = new LogEntry("line", "app.log", "logs");
+            entry.addField("requestId", "req-" + i);
+            entry.addField("level", i % 2 == 0 ? "INFO" : "WARN");
+            for (IndexableField indexed : builder.build(entry, true, registry)) {
+                if (indexed.name().equals("$facets") && indexed.stringValue() != null
+                        && indexed.stringValue().startsWith("requestId" + FacetsConfig.DELIM_CHAR)) {
+                    faceted++;
+                }
+            }
+        }
+        assertTrue(registry.getField("requestId").isFacetsDisabled());
+        assertTrue(faceted > 400 && faceted < 1000, "faceted=" + faceted);
+        assertFalse(registry.getField("level").isFacetsDisabled());
+        assertEquals(Set.of("requestId"), registry.fieldsWithoutFacets());
+    }
+
+    @Test
+    void testFieldsBeyondLimitGoToOverflow() {
+        FieldTypeRegistry registry = new FieldTypeRegistry(null, 1, 0, 2);
+        registry.declare(Map.of("level", FieldMapping.KEYWORD));
+        LogEntry entry = new LogEntry("line", "app.log", "logs");
+        entry.addField("level", "INFO");
+        entry.addField("k1", "a");
+        entry.addField("k2", "b");
+        entry.addField("k3", "c");
+        entry.addField("k4", "d");
+        List<String> overflow = new ArrayList<>();
+        for (IndexableField indexed : new DocumentBuilder().build(entry, true, registry)) {
+            if (indexed.name().equals(FieldTypeRegistry.OVERFLOW_FIELD)) {
+                overflow.add(indexed.stringValue());
+            }
+        }
+        // Declared fields don't count towards the limit
+        assertEquals(2, registry.getDynamicFields());
+        assertEquals(2, overflow.size());
+        assertEquals(2, registry.getOverflowValues());
+        assertEquals(3, registry.getFields().size());
+        for (String term : overflow) {
+            String key = term.substring(0, term.indexOf('='));
+            assertTrue(registry.getOverflowFields().contains(key), term);
+            assertNull(registry.getField(key));
+        }
+    }
+
+    @Test
+    void testMappingsSurviveClear() throws Exception {
+        FieldTypeRegistry registry = mapped("id", FieldMapping.KEYWORD);
+        registry.profile("other").observe("1");
+        registry.clear();
+        assertEquals(FieldMapping.KEYWORD, registry.getField("id").getMapping());
+        assertNull(registry.getField("other"));
+    }
+
+    private List<LogEntry> facetEntries() {
+        List<LogEntry> entries = new ArrayList<>();
+        String[] levels = {"INFO", "WARN", "ERROR"};
+        for (int i = 0; i < 30; i++) {
+            LogEntry entry = new LogEntry("line " + i, "app.log", "logs");
+            entry.addField("level", levels[i % 3]);
+            entry.addField("host", "web-" + (i % 4));
+            if (i % 5 == 0) {
+                entry.addField("user", "u/" + i); // Path delimiter-like characters in the label
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private Map<String, FacetResult> facetCounts(Directory dir, List<String> dims) throws IOException {
+        try (DirectoryReader reader = DirectoryReader.open(dir)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            FacetsCollector fc = new FacetsCollector();
+            FacetsCollector.search(searcher, new MatchAllDocsQuery(), 10, fc);
+            SortedSetDocValuesFacetCounts counts =
+                new SortedSetDocValuesFacetCounts(new DefaultSortedSetDocValuesReaderState(reader), fc);
+            Map<String, FacetResult> results = new LinkedHashMap<>();
+            for (String dim : dims) {
+                results.put(dim, counts.getTopChildren(10, dim));
+            }
+            return results;
+        }
+    }
+
+    private int drillDownCount(Directory dir, String dim, String value) throws IOException {
+        try (DirectoryReader reader = DirectoryReader.open(dir)) {
+            DrillDownQuery query = new DrillDownQuery(new FacetsConfig());
+            query.add(dim, value);
+            return new IndexSearcher(reader).count(query);
+        }
+    }
+
+    @Test
+    void testFacetsMatchFacetsConfigBuild() throws Exception {
+        FacetsConfig config = new FacetsConfig();
+        List<String> dims = List.of("level", "host", "user");
+        for (String dim : dims) {
+            config.setMultiValued(dim, true);
+        }
+        
+        try (Directory expected = new ByteBuffersDirectory(); Directory actual = new ByteBuffersDirectory()) {
+            try (IndexWriter viaConfig = new IndexWriter(expected, new IndexWriterConfig());
+                 IndexWriter viaBuilder = new IndexWriter(actual, new IndexWriterConfig())) {
+                DocumentBuilder builder = new DocumentBuilder();
+                for (LogEntry entry : facetEntries()) {
+                    Document document = new Document();
+                    for (Map.Entry<String, String> field : entry.getFields().entrySet()) {
+                        document.add(new SortedSetDocValuesFacetField(field.getKey(), field.getValue()));
+                    }
+                    viaConfig.addDocument(config.build(document));
+                    
+                    ReusableDocument reusable = builder.build(entry);
+                    viaBuilder.addDocument(reusable);
+                    reusable.release();
+                }
+            }
+            
+            Map<String, FacetResult> expectedCounts = facetCounts(expected, dims);
+            assertEquals(expectedCounts, facetCounts(actual, dims));
+            assertEquals(30, expectedCounts.get("level").value.intValue());
+            assertEquals(3, expectedCounts.get("level").childCount);
+            
+            for (String[] drill : new String[][] {{"level", "WARN"}, {"host", "web-3"}, {"user", "u/10"}, {"level", "DEBUG"}}) {
+                assertEquals(drillDownCount(expected, drill[0], drill[1]), drillDownCount(actual, drill[0], drill[1]),
+                    drill[0] + "=" + drill[1]);
+            }
+            assertEquals(7, drillDownCount(actual, "host", "web-3"));
+            
+            // Dimension-only drill-down matches every document with the field
+            DrillDownQuery anyUser = new DrillDownQuery(new FacetsConfig());
+            anyUser.add("user");
+            try (DirectoryReader expectedReader = DirectoryReader.open(expected);
+                 DirectoryReader actualReader = DirectoryReader.open(actual)) {
+                assertEquals(new IndexSearcher(expectedReader).count(anyUser), new IndexSearcher(actualReader).count(anyUser));
+                assertEquals(6, new IndexSearcher(actualReader).count(anyUser));
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldTypeRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLearnsTypeFromSample() {
+        FieldTypeRegistry registry = new FieldTypeRegistry(null, 3);
+        FieldProfile status = registry.profile("status");
+        FieldProfile user = registry.profile("user");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FieldType.UNKNOWN, status.getType());
+            assertEquals(200.0, status.observe("200"));
+            user.observe("alice");
+        }
+        assertEquals(FieldType.NUMERIC, status.getType());
+        assertEquals(FieldType.STRING, user.getType());
+        assertTrue(Double.isNaN(user.observe("bob")));
+    }
+
+    @Test
+    void testRecordsUnitOfField() {
+        FieldTypeRegistry registry = new FieldTypeRegistry(null, 2);
+        FieldProfile duration = registry.profile("duration");
+        assertEquals(12.0, duration.observe("12"));
+        assertNull(duration.getUnit());
+        assertEquals(1500.0, duration.observe("1.5s"));
+        assertEquals(NumericValues.MILLISECONDS, duration.getUnit());
+        assertEquals(FieldType.NUMERIC, duration.getType());
+    }
+
+    @Test
+    void testFieldChangingTypeBecomesMixed() {
+        FieldTypeRegistry registry = new FieldTypeRegistry(null, 2);
+        FieldProfile code = registry.profile("code");
+        code.observe("1");
+        code.observe("2");
+        assertEquals(FieldType.NUMERIC, code.getType());
+
+        assertTrue(Double.isNaN(code.observe("E42")));
+        assertEquals(FieldType.MIXED, code.getType());
+        assertEquals(3.0, code.observe("3"));
+        assertEquals(FieldType.MIXED, code.getType());
+
+        FieldProfile id = registry.profile("id");
+        id.observe("abc");
+        id.observe("7");
+        assertEquals(FieldType.MIXED, id.getType());
+    }
+
+    @Test
+    void testConcurrentNewFieldsStayWithinLimit() throws InterruptedException {
+        FieldTypeRegistry registry = new FieldTypeRegistry(null, 1, 0, 10);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger admitted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 50; i++) {
+                    if (registry.indexedProfile("t" + thread + "-" + i) != null) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(10, admitted.get());
+        assertEquals(10, registry.getDynamicFields());
+        assertEquals(10, registry.getFields().size());
+        assertEquals(390, registry.getOverflowValues());
+    }
+
+    @Test
+    void testTypesSurviveReopen() throws IOException {
+        Path file = tempDir.resolve(FieldTypeRegistry.FILE_NAME);
+        FieldTypeRegistry registry = new FieldTypeRegistry(file, 1);
+        registry.profile("latency").observe("12.5ms");
+        registry.profile("host").observe("web-1");
+        registry.save();
+
+        FieldTypeRegistry reopened = new FieldTypeRegistry(file, 1);
+        assertEquals(FieldType.NUMERIC, reopened.getField("latency").getType());
+        assertEquals(NumericValues.MILLISECONDS, reopened.getField("latency").getUnit());
+        assertEquals(FieldType.STRING, reopened.getField("host").getType());
+
+        reopened.clear();
+        assertTrue(reopened.getFields().isEmpty());
+        assertFalse(Files.exists(file));
+    }
+}
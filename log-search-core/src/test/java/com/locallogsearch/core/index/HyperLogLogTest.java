@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEstimatesDistinctValues() {
+        for (int distinct : new int[] {10, 1_000, 100_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int repeat = 0; repeat < 3; repeat++) {
+                for (int i = 0; i < distinct; i++) {
+                    sketch.add("req-" + i);
+                }
+            }
+            assertEquals(distinct, sketch.estimate(), distinct * 0.05 + 1, "distinct=" + distinct);
+        }
+    }
+
+    @Test
+    void testRepeatedValueChangesNothing() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue(sketch.add("GET"));
+        assertFalse(sketch.add("GET"));
+        assertEquals(1, sketch.estimate());
+    }
+}
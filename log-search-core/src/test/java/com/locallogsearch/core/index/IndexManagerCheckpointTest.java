@@ -0,0 +1,106 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.model.LogEntry;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexManagerCheckpointTest {
+
+    @TempDir
+    Path tempDir;
+
+    private IndexManager newIndexManager() {
+        IndexConfig config = new IndexConfig();
+        config.setBaseDirectory(tempDir.toString());
+        config.setCommitIntervalSeconds(3600);
+        return new IndexManager(config);
+    }
+
+    private List<ReusableDocument> documents(IndexManager indexManager, String... lines) {
+        return indexManager.buildDocuments(Arrays.stream(lines)
+            .map(line -> new LogEntry(line, "app.log", "logs"))
+            .toList());
+    }
+
+    @Test
+    void testCheckpointIsCommittedWithDocuments() throws IOException {
+        try (IndexManager indexManager = newIndexManager()) {
+            indexManager.addDocuments("logs", documents(indexManager, "one", "two"),
+                () -> indexManager.recordCheckpoint("logs", "source", "8"));
+            assertTrue(indexManager.getCommittedCheckpoints("logs").isEmpty());
+
+            indexManager.commit("logs");
+            assertEquals(Map.of("source", "8"), indexManager.getCommittedCheckpoints("logs"));
+        }
+    }
+
+    @Test
+    void testCheckpointsSurviveReopen() throws IOException {
+        try (IndexManager indexManager = newIndexManager()) {
+            indexManager.addDocuments("logs", documents(indexManager, "one"),
+                () -> indexManager.recordCheckpoint("logs", "a", "4"));
+            indexManager.recordCheckpoint("logs", "b", "0");
+        }
+
+        try (IndexManager indexManager = newIndexManager()) {
+            assertEquals(Map.of("a", "4", "b", "0"), indexManager.getCommittedCheckpoints("logs"));
+
+            // Later commits carry the checkpoints of other sources forward
+            indexManager.addDocuments("logs", documents(indexManager, "two"),
+                () -> indexManager.recordCheckpoint("logs", "a", "8"));
+            indexManager.commit("logs");
+            assertEquals(Map.of("a", "8", "b", "0"), indexManager.getCommittedCheckpoints("logs"));
+        }
+
+        try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(tempDir.resolve("logs")))) {
+            assertEquals(2, reader.numDocs());
+        }
+    }
+
+    @Test
+    void testClearIndexDropsCheckpoints() throws IOException {
+        try (IndexManager indexManager = newIndexManager()) {
+            indexManager.addDocuments("logs", documents(indexManager, "one"),
+                () -> indexManager.recordCheckpoint("logs", "source", "4"));
+            indexManager.commit("logs");
+
+            indexManager.clearIndex("logs");
+            assertTrue(indexManager.getCommittedCheckpoints("logs").isEmpty());
+        }
+    }
+}
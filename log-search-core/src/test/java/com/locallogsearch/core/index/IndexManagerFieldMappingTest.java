@@ -0,0 +1,159 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.core.index;
+
+import com.locallogsearch.core.config.FieldMapping;
+import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.model.LogEntry;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexManagerFieldMappingTest {
+
+    @TempDir
+    Path tempDir;
+
+    private IndexManager newIndexManager() {
+        return newIndexManager(0);
+    }
+
+    private IndexManager newIndexManager(int maxDynamicFields) {
+        IndexConfig config = new IndexConfig();
+        config.setBaseDirectory(tempDir.toString());
+        config.setCommitIntervalSeconds(3600);
+        config.setMaxDynamicFields(maxDynamicFields);
+        return new IndexManager(config);
+    }
+
+    private static LogEntry entry(Map<String, String> fields) {
+        LogEntry entry = new LogEntry("line " + fields, "app.log", "logs");
+        fields.forEach(entry::addField);
+        return entry;
+    }
+
+    private static int count(IndexManager indexManager, Term term) throws IOException {
+        indexManager.commit("logs");
+        try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(indexManager.getIndexPath("logs")))) {
+            return term == null ? reader.numDocs() : new IndexSearcher(reader).count(new TermQuery(term));
+        }
+    }
+
+    @Test
+    void testMappingOfFieldIndexedDynamicallyWaitsForClear() throws IOException {
+        try (IndexManager indexManager = newIndexManager()) {
+            indexManager.indexBatch(List.of(entry(Map.of("status", "200"))));
+
+            indexManager.declareFieldMappings("logs", "app", Map.of("status", FieldMapping.KEYWORD));
+
+            FieldTypeRegistry registry = indexManager.getFieldTypes("logs");
+            assertEquals(FieldMapping.DYNAMIC, registry.getField("status").getMapping());
+            assertEquals(Map.of("status", FieldMapping.KEYWORD), registry.getPendingMappings());
+            // A keyword term next to the text field would fail the whole batch
+            indexManager.indexBatch(List.of(entry(Map.of("status", "404"))));
+            assertEquals(2, count(indexManager, null));
+
+            indexManager.clearIndex("logs");
+            assertEquals(FieldMapping.KEYWORD, registry.getField("status").getMapping());
+            assertTrue(registry.getPendingMappings().isEmpty());
+            indexManager.indexBatch(List.of(entry(Map.of("status", "Server Error"))));
+            assertEquals(1, count(indexManager, new Term("status", "Server Error")));
+        }
+    }
+
+    @Test
+    void testFieldsNoLongerDeclaredGoBackToDynamic() throws IOException {
+        try (IndexManager indexManager = newIndexManager()) {
+            FieldTypeRegistry registry = indexManager.getFieldTypes("logs");
+            indexManager.declareFieldMappings("logs", "app",
+                Map.of("status", FieldMapping.KEYWORD, "user", FieldMapping.STORED));
+            indexManager.declareFieldMappings("logs", "proxy", Map.of("host", FieldMapping.KEYWORD));
+
+            // The source is reconfigured without the user mapping; the other source's stays
+            indexManager.declareFieldMappings("logs", "app", Map.of("status", FieldMapping.KEYWORD));
+            assertEquals(FieldMapping.DYNAMIC, registry.getField("user").getMapping());
+            assertEquals(FieldMapping.KEYWORD, registry.getField("status").getMapping());
+            assertEquals(FieldMapping.KEYWORD, registry.getField("host").getMapping());
+
+            indexManager.indexBatch(List.of(entry(Map.of("status", "OK", "user", "alice", "host", "web-1"))));
+            assertEquals(1, count(indexManager, new Term("user_exact", "alice")));
+
+            // Status is in the index as a keyword now, so going back to dynamic waits
+            indexManager.declareFieldMappings("logs", "app", Map.of());
+            assertEquals(FieldMapping.KEYWORD, registry.getField("status").getMapping());
+            assertEquals(Map.of("status", FieldMapping.DYNAMIC), registry.getPendingMappings());
+            indexManager.indexBatch(List.of(entry(Map.of("status", "OK"))));
+            assertEquals(2, count(indexManager, new Term("status", "OK")));
+        }
+    }
+
+    @Test
+    void testSameMappingAgainLeavesPendingMappingsAlone() throws IOException {
+        try (IndexManager indexManager = newIndexManager()) {
+            indexManager.indexBatch(List.of(entry(Map.of("latency", "12ms"))));
+            indexManager.declareFieldMappings("logs", "app", Map.of("latency", FieldMapping.NUMERIC));
+            indexManager.declareFieldMappings("logs", "app", Map.of("latency", FieldMapping.NUMERIC));
+
+            FieldTypeRegistry registry = indexManager.getFieldTypes("logs");
+            assertEquals(Map.of("latency", FieldMapping.NUMERIC), registry.getPendingMappings());
+
+            // Declaring what the index already holds drops the pending change
+            indexManager.declareFieldMappings("logs", "app", Map.of("latency", FieldMapping.TEXT));
+            assertEquals(FieldMapping.TEXT, registry.getField("latency").getMapping());
+            assertTrue(registry.getPendingMappings().isEmpty());
+        }
+    }
+
+    @Test
+    void testDynamicFieldsInIndexCountTowardsLimitWithoutSavedTypes() throws IOException {
+        try (IndexManager indexManager = newIndexManager(4)) {
+            indexManager.declareFieldMappings("logs", "app", Map.of("level", FieldMapping.KEYWORD));
+            indexManager.indexBatch(List.of(entry(Map.of("level", "INFO", "a", "1", "b", "2", "c", "3"))));
+        }
+        // As if the types were not saved after the last commit
+        Files.delete(tempDir.resolve("logs").resolve(FieldTypeRegistry.FILE_NAME));
+
+        try (IndexManager indexManager = newIndexManager(4)) {
+            FieldTypeRegistry registry = indexManager.getFieldTypes("logs");
+            assertEquals(3, registry.getDynamicFields());
+            assertNull(registry.getField("level")); // A keyword, not a dynamic field
+
+            indexManager.indexBatch(List.of(entry(Map.of("d", "4", "e", "5"))));
+            assertEquals(4, registry.getDynamicFields());
+            assertEquals(1, registry.getOverflowValues());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericValuesTest {
+
+    @Test
+    void testParsesDecimalNumbers() {
+        assertEquals(42.0, NumericValues.parse("42"));
+        assertEquals(-1.5, NumericValues.parse(" -1.5 "));
+        assertEquals(0.25, NumericValues.parse(".25"));
+        assertEquals(1200.0, NumericValues.parse("1.2e3"));
+        assertEquals(123456789012345678901.0, NumericValues.parse("123456789012345678901"));
+        assertTrue(Double.isNaN(NumericValues.parse("")));
+        assertTrue(Double.isNaN(NumericValues.parse("-")));
+        assertTrue(Double.isNaN(NumericValues.parse("1.2.3")));
+        assertTrue(Double.isNaN(NumericValues.parse("NaN")));
+        assertTrue(Double.isNaN(NumericValues.parse("Infinity")));
+    }
+
+    @Test
+    void testAcceptsThousandsSeparators() {
+        assertEquals(1234.0, NumericValues.parse("1,234"));
+        assertEquals(-1234567.5, NumericValues.parse("-1,234,567.5"));
+        assertEquals(2048.0 * 1024, NumericValues.parse("2,048KB"));
+        assertEquals(1234567890123456789012.0, NumericValues.parse("1,234,567,890,123,456,789,012"));
+        assertTrue(Double.isNaN(NumericValues.parse("1,23")));
+        assertTrue(Double.isNaN(NumericValues.parse("1,2345")));
+        assertTrue(Double.isNaN(NumericValues.parse("1234,567")));
+        assertTrue(Double.isNaN(NumericValues.parse("1,")));
+        assertTrue(Double.isNaN(NumericValues.parse(",123")));
+        assertTrue(Double.isNaN(NumericValues.parse("1,,234")));
+        assertTrue(Double.isNaN(NumericValues.parse("1.234,567")));
+    }
+
+    @Test
+    void testNormalizesDurationsToMilliseconds() {
+        assertEquals(45.0, NumericValues.parse("45ms"));
+        assertEquals(1500.0, NumericValues.parse("1.5s"));
+        assertEquals(1500.0, NumericValues.parse("1.5 s"));
+        assertEquals(0.25, NumericValues.parse("250us"));
+        assertEquals(120_000.0, NumericValues.parse("2min"));
+        assertEquals(3_600_000.0, NumericValues.parse("1h"));
+        assertEquals(45.0, NumericValues.parse("45MS"));
+    }
+
+    @Test
+    void testNormalizesSizesToBytes() {
+        assertEquals(512.0, NumericValues.parse("512B"));
+        assertEquals(2048.0, NumericValues.parse("2KB"));
+        assertEquals(1.5 * 1024 * 1024, NumericValues.parse("1.5MB"));
+        assertEquals(1024.0 * 1024 * 1024, NumericValues.parse("1gib"));
+        assertEquals(99.5, NumericValues.parse("99.5%"));
+    }
+
+    @Test
+    void testOnlyUpperCaseBIsBytes() {
+        assertEquals(4.0, NumericValues.parse("4 B"));
+        assertTrue(Double.isNaN(NumericValues.parse("4b")));
+        assertTrue(Double.isNaN(NumericValues.parse("1b")));
+        assertNull(NumericValues.unit("4b"));
+        assertEquals(NumericValues.BYTES, NumericValues.unit("4B"));
+        assertEquals(4.0, NumericValues.parse("4bytes"));
+        assertEquals(4096.0, NumericValues.parse("4kb"));
+
+        // Query analyzers lowercase range bounds such as [100B TO 1KB]
+        assertEquals(100.0, NumericValues.parseTerm("100b"));
+        assertEquals(1024.0, NumericValues.parseTerm("1kb"));
+        assertEquals(1234.0, NumericValues.parseTerm("1,234"));
+    }
+
+    @Test
+    void testRejectsUnknownSuffixes() {
+        assertTrue(Double.isNaN(NumericValues.parse("5d")));
+        assertTrue(Double.isNaN(NumericValues.parse("10 apples")));
+        assertTrue(Double.isNaN(NumericValues.parse("ms")));
+        assertTrue(Double.isNaN(NumericValues.parse("1e")));
+    }
+
+    @Test
+    void testReportsCanonicalUnit() {
+        assertEquals(NumericValues.MILLISECONDS, NumericValues.unit("120ms"));
+        assertEquals(NumericValues.MILLISECONDS, NumericValues.unit("2 s"));
+        assertEquals(NumericValues.BYTES, NumericValues.unit("4KB"));
+        assertEquals(NumericValues.PERCENT, NumericValues.unit("50%"));
+        assertNull(NumericValues.unit("120"));
+        assertNull(NumericValues.unit("1e5"));
+        assertNull(NumericValues.unit("5d"));
+        assertNull(NumericValues.unit("ms"));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.core.ingest;
+
+import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.PipelineConfig;
+import com.locallogsearch.core.index.IndexManager;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkIngesterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private IndexManager newIndexManager() {
+        IndexConfig config = new IndexConfig();
+        config.setBaseDirectory(tempDir.resolve("index").toString());
+        config.setCommitIntervalSeconds(3600);
+        return new IndexManager(config);
+    }
+
+    private static LogSourceConfig source(String parserType) {
+        LogSourceConfig config = new LogSourceConfig();
+        config.setId("http:logs");
+        config.setIndexName("logs");
+        config.setParserType(parserType);
+        return config;
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int docCount(IndexManager indexManager) throws IOException {
+        indexManager.commit("logs");
+        try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(indexManager.getIndexPath("logs")))) {
+            return reader.numDocs();
+        }
+    }
+
+    @Test
+    void testNdjsonLinesThatAreNotObjectsAreRejected() throws Exception {
+        String ndjson = "{\"level\":\"INFO\",\"message\":\"one\"}\nnot json\n[1,2]\n{\"message\":\"two\"}\n";
+        try (IndexManager indexManager = newIndexManager()) {
+            BulkIngester ingester = new BulkIngester(indexManager, null);
+
+            BulkIngestResult result = ingester.ingest(source(null), BulkIngester.Format.NDJSON, body(ndjson));
+
+            assertEquals(4, result.getLines());
+            assertEquals(2, result.getIndexed());
+            assertEquals(2, result.getRejected());
+            assertEquals(2, docCount(indexManager));
+        }
+    }
+
+    @Test
+    void testPipelineCountsRejectedAndIndexedSeparately() throws Exception {
+        String ndjson = "{\"message\":\"one\"}\nnot json\n{\"message\":\"two\"}\n{\"message\":\"three\"}\n";
+        try (IndexManager indexManager = newIndexManager();
+             IngestPipeline pipeline = new IngestPipeline(indexManager, new PipelineConfig())) {
+            BulkIngester ingester = new BulkIngester(indexManager, pipeline);
+
+            BulkIngestResult result = ingester.ingest(source(null), BulkIngester.Format.NDJSON, body(ndjson));
+
+            assertEquals(4, result.getLines());
+            assertEquals(3, result.getIndexed());
+            assertEquals(1, result.getRejected());
+            assertEquals(3, docCount(indexManager));
+        }
+    }
+
+    @Test
+    void testUnmatchedRawLinesAreIndexedNotRejected() throws Exception {
+        try (IndexManager indexManager = newIndexManager()) {
+            BulkIngester ingester = new BulkIngester(indexManager, null);
+
+            BulkIngestResult result = ingester.ingest(source("keyvalue"), BulkIngester.Format.RAW,
+                body("level=INFO msg=one\nno pairs here\n"));
+
+            assertEquals(2, result.getIndexed());
+            assertEquals(0, result.getRejected());
+        }
+    }
+
+    @Test
+    void testClosedPipelineFailsIngest() throws Exception {
+        try (IndexManager indexManager = newIndexManager()) {
+            IngestPipeline pipeline = new IngestPipeline(indexManager, new PipelineConfig());
+            pipeline.close();
+            BulkIngester ingester = new BulkIngester(indexManager, pipeline);
+
+            assertThrows(IllegalStateException.class,
+                () -> ingester.ingest(source(null), BulkIngester.Format.RAW, body("line\n")));
+        }
+    }
+}
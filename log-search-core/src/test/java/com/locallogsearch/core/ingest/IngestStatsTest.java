@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.core.ingest;
+
+import com.locallogsearch.core.config.LogSourceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestStatsTest {
+
+    @Test
+    void testCountsAddUp() {
+        IngestStats stats = new IngestStats();
+        stats.addRead(10, 1000);
+        stats.addRead(5, 200);
+        stats.addParseFailure();
+        stats.addIndexed(12, 40);
+        stats.addIndexed(2, 15);
+
+        assertEquals(15, stats.getLinesRead());
+        assertEquals(1200, stats.getBytesRead());
+        assertEquals(1, stats.getParseFailures());
+        assertEquals(14, stats.getEventsIndexed());
+        assertEquals(15, stats.getLastIndexLatencyMillis());
+        assertEquals(40, stats.getMaxIndexLatencyMillis());
+    }
+
+    @Test
+    void testRejectedBatchIsNotCountedAsIndexed() {
+        IngestStats stats = new IngestStats();
+        OffsetTracker tracker = new OffsetTracker(0);
+        IngestBatch batch = new IngestBatch(new LogSourceConfig(), "test", List.of("a", "b", "c"), tracker, 30, stats);
+        batch.setDocuments(Collections.nCopies(3, null));
+
+        batch.reject();
+        batch.complete();
+
+        assertEquals(0, stats.getEventsIndexed());
+        assertEquals(3, stats.getEventsRejected());
+        assertEquals(0, tracker.getInFlight());
+    }
+
+    @Test
+    void testLastEventTimeIsNewestSeen() {
+        IngestStats stats = new IngestStats();
+        assertEquals(0, stats.getLastEventTime());
+        stats.addEventTime(2000);
+        stats.addEventTime(1000); // Parse workers may finish out of order
+        assertEquals(2000, stats.getLastEventTime());
+    }
+
+    @Test
+    void testRecordingSameCheckpointAgainChangesNothing() throws InterruptedException {
+        IngestStats stats = new IngestStats();
+        assertEquals(-1, stats.getLastCheckpointPosition());
+        stats.checkpointRestored(100);
+        assertEquals(100, stats.getLastCheckpointPosition());
+        assertEquals(0, stats.getLastCheckpointTime());
+
+        stats.checkpointRecorded(200);
+        long recorded = stats.getLastCheckpointTime();
+        assertTrue(recorded > 0);
+        Thread.sleep(5);
+        stats.checkpointRecorded(200);
+        assertEquals(recorded, stats.getLastCheckpointTime());
+        stats.checkpointRecorded(300);
+        assertEquals(300, stats.getLastCheckpointPosition());
+        assertTrue(stats.getLastCheckpointTime() > recorded);
+    }
+
+    @Test
+    void testRatesCoverLastWindow() throws InterruptedException {
+        IngestStats stats = new IngestStats();
+        assertEquals(0, stats.getLinesPerSecond());
+        stats.addRead(100, 10_000);
+        Thread.sleep(1100);
+        double lines = stats.getLinesPerSecond();
+        double bytes = stats.getBytesPerSecond();
+        assertTrue(lines > 50 && lines <= 100, "lines=" + lines);
+        assertEquals(100 * lines, bytes, 0.001);
+
+        // Nothing read in the next window
+        Thread.sleep(1100);
+        assertEquals(0, stats.getLinesPerSecond());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.core.ingest;
+
+import com.locallogsearch.core.config.LoadSheddingConfig;
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.SourcePriority;
+import com.locallogsearch.core.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadShedderTest {
+
+    private static LoadSheddingConfig config() {
+        LoadSheddingConfig config = new LoadSheddingConfig();
+        config.setSkipFacetsBytesBehind(100);
+        config.setSampleDebugBytesBehind(200);
+        config.setDeferLowPriorityBytesBehind(400);
+        config.setDebugSampleRate(10);
+        return config;
+    }
+
+    private static LogSourceConfig source(SourcePriority priority) {
+        LogSourceConfig source = new LogSourceConfig();
+        source.setId(priority.name().toLowerCase());
+        source.setPriority(priority);
+        return source;
+    }
+
+    private static LogEntry entry(String level) {
+        LogEntry entry = new LogEntry("line", "app.log", "logs");
+        entry.addField("level", level);
+        return entry;
+    }
+
+    @Test
+    void testModesSwitchOnAtThresholdAndOffBelowHalf() {
+        LoadShedder shedder = new LoadShedder(config());
+        shedder.update(99, 0);
+        assertEquals(Set.of(), shedder.getActiveModes());
+
+        shedder.update(100, 0);
+        assertEquals(Set.of(SheddingMode.SKIP_FACETS), shedder.getActiveModes());
+
+        // Between half the threshold and the threshold the mode keeps its state
+        shedder.update(50, 0);
+        assertTrue(shedder.isActive(SheddingMode.SKIP_FACETS));
+        shedder.update(49, 0);
+        assertFalse(shedder.isActive(SheddingMode.SKIP_FACETS));
+        shedder.update(99, 0);
+        assertFalse(shedder.isActive(SheddingMode.SKIP_FACETS));
+
+        shedder.update(250, 0);
+        assertEquals(Set.of(SheddingMode.SKIP_FACETS, SheddingMode.SAMPLE_DEBUG), shedder.getActiveModes());
+        shedder.update(120, 0);
+        assertEquals(Set.of(SheddingMode.SKIP_FACETS, SheddingMode.SAMPLE_DEBUG), shedder.getActiveModes());
+        shedder.update(99, 0);
+        assertEquals(Set.of(SheddingMode.SKIP_FACETS), shedder.getActiveModes());
+        assertEquals(99, shedder.getBytesBehind());
+    }
+
+    @Test
+    void testNothingIsShedWhenDisabled() {
+        LoadSheddingConfig config = config();
+        config.setEnabled(false);
+        LoadShedder shedder = new LoadShedder(config);
+        shedder.update(1000, 1000);
+        assertEquals(Set.of(), shedder.getActiveModes());
+        assertFalse(shedder.isDeferred(source(SourcePriority.LOW)));
+    }
+
+    @Test
+    void testOnlyOtherSourcesLagDefersLowPriority() {
+        LoadSheddingConfig config = config();
+        config.setSampleDebugBytesBehind(1000);
+        LoadShedder shedder = new LoadShedder(config);
+        LogSourceConfig low = source(SourcePriority.LOW);
+        LogSourceConfig normal = source(SourcePriority.NORMAL);
+
+        // Low priority sources behind on their own are not deferred, but still add load
+        shedder.update(0, 10_000);
+        assertFalse(shedder.isDeferred(low));
+        assertTrue(shedder.isActive(SheddingMode.SAMPLE_DEBUG));
+        shedder.update(0, 0);
+
+        shedder.update(400, 10_000);
+        assertTrue(shedder.isDeferred(low));
+        assertFalse(shedder.isDeferred(normal));
+        assertFalse(shedder.isActive(SheddingMode.SAMPLE_DEBUG), "deferred sources add no load");
+        assertEquals(10_400, shedder.getBytesBehind());
+
+        // Deferred sources keep falling behind; that must not keep them deferred
+        shedder.update(200, 20_000);
+        assertTrue(shedder.isDeferred(low));
+        shedder.update(199, 30_000);
+        assertFalse(shedder.isDeferred(low));
+        // Once they read again, their lag counts towards the other modes
+        assertTrue(shedder.isActive(SheddingMode.SAMPLE_DEBUG));
+    }
+
+    @Test
+    void testDebugEventsAreSampledExceptForHighPriority() {
+        LoadShedder shedder = new LoadShedder(config());
+        LogSourceConfig normal = source(SourcePriority.NORMAL);
+        LogSourceConfig high = source(SourcePriority.HIGH);
+        assertTrue(shedder.keep(normal, entry("DEBUG")));
+
+        shedder.update(200, 0);
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (shedder.keep(normal, entry(i % 2 == 0 ? "DEBUG" : "trace"))) {
+                kept++;
+            }
+        }
+        assertEquals(10, kept);
+        assertEquals(90, shedder.getSampledOut());
+        assertTrue(shedder.keep(normal, entry("INFO")));
+        assertTrue(shedder.keep(normal, new LogEntry("no level", "app.log", "logs")));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(shedder.keep(high, entry("DEBUG")));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.ingest;
+
+import com.locallogsearch.core.config.LogSourceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffsetTrackerTest {
+
+    @Test
+    void testCommittedOffsetWaitsForEarlierBatches() {
+        OffsetTracker tracker = new OffsetTracker(0);
+        List<Long> committed = new ArrayList<>();
+        tracker.setListener(committed::add);
+        long first = tracker.nextSequence();
+        long second = tracker.nextSequence();
+
+        tracker.complete(0, second, 20);
+        assertEquals(0, tracker.getCommittedOffset());
+        assertEquals(0, tracker.safeOffset(20));
+
+        tracker.complete(0, first, 10);
+        assertEquals(20, tracker.getCommittedOffset());
+        assertEquals(List.of(20L), committed);
+        assertTrue(tracker.isIdle());
+    }
+
+    @Test
+    void testAbandonedBatchHoldsOffsetWithoutStayingInFlight() throws InterruptedException {
+        OffsetTracker tracker = new OffsetTracker(0);
+        long first = tracker.nextSequence();
+        long dropped = tracker.nextSequence();
+        long third = tracker.nextSequence();
+
+        tracker.complete(0, first, 10);
+        tracker.abandon(0, dropped);
+        tracker.complete(0, third, 30);
+
+        assertTrue(tracker.isIdle());
+        assertTrue(tracker.awaitIdle(0));
+        assertEquals(10, tracker.getCommittedOffset());
+        assertEquals(10, tracker.safeOffset(30));
+
+        // A reset starts over without the hold
+        tracker.reset(0);
+        assertEquals(40, tracker.safeOffset(40));
+    }
+
+    @Test
+    void testAbandonedBatchIsCountedAsRejected() {
+        IngestStats stats = new IngestStats();
+        OffsetTracker tracker = new OffsetTracker(0);
+        IngestBatch batch = new IngestBatch(new LogSourceConfig(), "test",
+            List.of("a", "b"), tracker, 20, stats);
+
+        batch.abandon();
+        batch.complete();
+
+        assertEquals(2, stats.getEventsRejected());
+        assertEquals(0, stats.getEventsIndexed());
+        assertTrue(tracker.isIdle());
+    }
+}
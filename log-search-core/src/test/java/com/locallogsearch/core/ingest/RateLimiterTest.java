@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.core.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void testUnlimitedNeverWaits() {
+        RateLimiter limiter = new RateLimiter(0, 0);
+        limiter.record(1_000_000, 1_000_000_000);
+        assertEquals(0, limiter.delayMs());
+        assertEquals(4096, limiter.allowance(4096));
+        assertEquals(0, limiter.getThrottledMillis());
+    }
+
+    @Test
+    void testByteBudgetLimitsAllowanceAndDebtIsWaitedOut() {
+        RateLimiter limiter = new RateLimiter(0, 1000);
+        assertEquals(0, limiter.delayMs());
+        assertEquals(1000, limiter.allowance(4096));
+        assertEquals(10, limiter.allowance(10));
+
+        limiter.record(10, 600);
+        long allowance = limiter.allowance(4096);
+        assertTrue(allowance >= 400 && allowance < 500, "allowance=" + allowance);
+
+        // A read past the budget leaves a debt of one second
+        limiter.record(10, 1400);
+        long delay = limiter.delayMs();
+        assertTrue(delay > 900 && delay <= 1001, "delay=" + delay);
+        assertEquals(delay, limiter.getThrottledMillis());
+        assertEquals(1, limiter.allowance(4096), "always allow a minimal read");
+    }
+
+    @Test
+    void testLineBudgetIsTurnedIntoBytesWithAverageLineLength() {
+        RateLimiter limiter = new RateLimiter(10, 0);
+        // Before any line was seen, lines are assumed to be short
+        assertEquals(320, limiter.allowance(1_000_000));
+
+        limiter.record(5, 500);
+        long allowance = limiter.allowance(1_000_000);
+        assertTrue(allowance >= 500 && allowance < 600, "allowance=" + allowance);
+
+        limiter.record(5, 500);
+        long delay = limiter.delayMs();
+        assertTrue(delay > 0 && delay <= 100, "delay=" + delay);
+    }
+
+    @Test
+    void testBudgetRefillsButHoldsAtMostOneSecond() throws InterruptedException {
+        RateLimiter limiter = new RateLimiter(0, 1000);
+        limiter.record(1, 1000);
+        Thread.sleep(200);
+        long refilled = limiter.allowance(4096);
+        assertTrue(refilled >= 150 && refilled <= 1000, "refilled=" + refilled);
+
+        Thread.sleep(1200);
+        assertEquals(1000, limiter.allowance(4096));
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.core.listener;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageFramerTest {
+
+    private final AtomicLong truncated = new AtomicLong();
+    private final List<String> messages = new ArrayList<>();
+
+    private void receive(MessageFramer framer, String bytes) throws InterruptedException {
+        framer.buffer().put(bytes.getBytes(StandardCharsets.UTF_8));
+        framer.frame(false, this::collect);
+    }
+
+    private void collect(byte[] array, int offset, int length) {
+        messages.add(new String(array, offset, length, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSeveralFramesInOneRead() throws InterruptedException {
+        MessageFramer framer = new MessageFramer(1024, true, truncated);
+
+        receive(framer, "5 first6 second\nthird\r\n12 <13>1 fourth");
+
+        assertEquals(List.of("first", "second", "third", "<13>1 fourth"), messages);
+        assertEquals(0, framer.buffer().position());
+    }
+
+    @Test
+    void testFramesSplitAcrossReads() throws InterruptedException {
+        MessageFramer framer = new MessageFramer(1024, true, truncated);
+
+        receive(framer, "1");
+        receive(framer, "1 hello");
+        assertEquals(List.of(), messages);
+        receive(framer, " world");
+        assertEquals(List.of("hello world"), messages);
+
+        receive(framer, "plain li");
+        receive(framer, "ne\nnext");
+        assertEquals(List.of("hello world", "plain line"), messages);
+
+        framer.frame(true, this::collect);
+        assertEquals(List.of("hello world", "plain line", "next"), messages);
+        assertEquals(0, truncated.get());
+    }
+
+    @Test
+    void testOversizeOctetCountedFrameIsCutAndRestSkipped() throws InterruptedException {
+        MessageFramer framer = new MessageFramer(16, true, truncated);
+
+        receive(framer, "20 0123456789abc");
+        assertEquals(List.of("0123456789abc"), messages);
+        assertEquals(1, truncated.get());
+
+        // The remaining 7 bytes of the frame are dropped, the next frame is read
+        receive(framer, "defghij3 end");
+        assertEquals(List.of("0123456789abc", "end"), messages);
+        assertEquals(1, truncated.get());
+    }
+
+    @Test
+    void testOversizeLineIsCutAndRestDiscarded() throws InterruptedException {
+        MessageFramer framer = new MessageFramer(8, false, truncated);
+
+        receive(framer, "abcdefgh");
+        assertEquals(List.of("abcdefgh"), messages);
+        assertEquals(1, truncated.get());
+
+        receive(framer, "ijk");
+        receive(framer, "lm\nnext\n");
+        assertEquals(List.of("abcdefgh", "next"), messages);
+        assertEquals(1, truncated.get());
+    }
+
+    @Test
+    void testMalformedLengthPrefixFallsBackToLines() throws InterruptedException {
+        MessageFramer framer = new MessageFramer(1024, true, truncated);
+
+        receive(framer, "12abc\n2024-01-01 started\n12345678901 eleven digits\n");
+
+        assertEquals(List.of("12abc", "2024-01-01 started", "12345678901 eleven digits"), messages);
+        assertEquals(0, truncated.get());
+    }
+
+    @Test
+    void testLengthPrefixBeyondIntRangeIsTruncatedNotOverflowed() throws InterruptedException {
+        MessageFramer framer = new MessageFramer(1024, true, truncated);
+
+        receive(framer, "9999999999 huge");
+
+        assertEquals(List.of("huge"), messages);
+        assertEquals(1, truncated.get());
+    }
+
+    @Test
+    void testDigitsAreLinesWithoutOctetCounting() throws InterruptedException {
+        MessageFramer framer = new MessageFramer(1024, false, truncated);
+
+        receive(framer, "5 abc\n");
+
+        assertEquals(List.of("5 abc"), messages);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.parser;
+
+import com.locallogsearch.core.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrokParserTest {
+
+    private static final String PATTERN =
+        "%{TIMESTAMP_ISO8601:timestamp} \\[%{LOGLEVEL:level}\\] %{WORD:user} logged in from %{IP:client}";
+
+    private LogEntry parse(GrokParser parser, String line) {
+        LogEntry entry = new LogEntry(line, "test", "test");
+        parser.parse(entry);
+        return entry;
+    }
+
+    @Test
+    void testRequiredLiterals() {
+        assertArrayEquals(new String[] {" [", "] ", " logged in from "}, GrokParser.requiredLiterals(PATTERN));
+        assertArrayEquals(new String[] {"ab", "de "}, GrokParser.requiredLiterals("abc?de %{WORD}x{2,3}(?:fgh)?"));
+        assertArrayEquals(new String[] {"GET "}, GrokParser.requiredLiterals("GET [a-z]+ (?<v>HTTP/1\\.1)"));
+        assertArrayEquals(new String[0], GrokParser.requiredLiterals("foo bar|baz qux"));
+        assertArrayEquals(new String[0], GrokParser.requiredLiterals("(?i)foo bar"));
+    }
+
+    @Test
+    void testNamedOnlyCapturesPatternFields() {
+        GrokParser parser = new GrokParser();
+        parser.configure(Map.of("pattern", PATTERN, "named.only", "true", "timestamp.field", "timestamp"));
+
+        LogEntry entry = parse(parser, "2025-01-14T10:30:00Z [INFO] bob logged in from 10.0.0.1");
+        assertEquals(Map.of("timestamp", "2025-01-14T10:30:00Z", "level", "INFO", "user", "bob", "client", "10.0.0.1"),
+            entry.getFields());
+        assertEquals(Instant.parse("2025-01-14T10:30:00Z"), entry.getTimestamp());
+
+        assertTrue(parse(parser, "2025-01-14T10:30:00Z [INFO] bob logged out").getFields().isEmpty());
+        assertTrue(parse(parser, "garbage [x] y logged in from nowhere").getFields().isEmpty());
+
+        GrokParser.PatternStats stats = GrokParser.getPatternStats().get(PATTERN);
+        assertTrue(stats.getMatched() >= 1);
+        assertTrue(stats.getPrefiltered() >= 1);
+        assertTrue(stats.getMissed() >= 2);
+    }
+
+    @Test
+    void testFullCaptureKeepsLibraryFields() {
+        GrokParser parser = new GrokParser();
+        parser.configure(Map.of("pattern", PATTERN));
+
+        Map<String, String> fields = parse(parser, "2025-01-14T10:30:00Z [WARN] amy logged in from 10.0.0.2").getFields();
+        assertEquals("WARN", fields.get("level"));
+        assertEquals("2025", fields.get("YEAR"));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.parser;
+
+import com.locallogsearch.core.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLogParserTest {
+
+    private LogEntry parse(String line, Map<String, String> config) {
+        JsonLogParser parser = new JsonLogParser();
+        parser.configure(config);
+        LogEntry entry = new LogEntry(line, "test", "test");
+        parser.parse(entry);
+        return entry;
+    }
+
+    @Test
+    void testFlattensNestedObjects() {
+        LogEntry entry = parse("{\"@timestamp\":\"2025-01-14T10:30:00.5Z\",\"level\":\"INFO\",\"message\":\"done\","
+            + "\"http\":{\"status\":200,\"req\":{\"path\":\"/a\",\"deep\":{\"x\":1}}},\"ok\":true,\"none\":null,"
+            + "\"tags\":[\"a\",{\"b\":1}],\"blob\":\"" + "x".repeat(100) + "\"}",
+            Map.of("max.depth", "3", "max.value.length", "50"));
+
+        Map<String, String> fields = entry.getFields();
+        assertEquals(Instant.parse("2025-01-14T10:30:00.5Z"), entry.getTimestamp());
+        assertEquals("done", entry.getRawText());
+        assertEquals("INFO", fields.get("level"));
+        assertEquals("200", fields.get("http.status"));
+        assertEquals("/a", fields.get("http.req.path"));
+        assertEquals("{\"x\":1}", fields.get("http.req.deep"));
+        assertEquals("true", fields.get("ok"));
+        assertEquals("[\"a\",{\"b\":1}]", fields.get("tags"));
+        assertFalse(fields.containsKey("none"));
+        assertFalse(fields.containsKey("blob"));
+    }
+
+    @Test
+    void testArrayModesAndEpochTimestamp() {
+        String line = "{\"ts\":1736850600123,\"msg\":\"m\",\"ids\":[1,2,{\"c\":3}]}";
+
+        LogEntry joined = parse(line, Map.of("arrays", "join"));
+        assertEquals(Instant.ofEpochMilli(1736850600123L), joined.getTimestamp());
+        assertEquals("m", joined.getRawText());
+        assertEquals("1,2", joined.getFields().get("ids"));
+
+        Map<String, String> indexed = parse(line, Map.of("arrays", "index")).getFields();
+        assertEquals("1", indexed.get("ids.0"));
+        assertEquals("3", indexed.get("ids.2.c"));
+
+        assertFalse(parse(line, Map.of("arrays", "skip")).getFields().containsKey("ids"));
+    }
+
+    @Test
+    void testNonJsonLines() {
+        LogEntry entry = parse("plain text line", Map.of());
+        assertEquals("plain text line", entry.getRawText());
+        assertTrue(entry.getFields().isEmpty());
+
+        assertEquals("1", parse("{\"a\":1,\"b\":", Map.of()).getFields().get("a"));
+        assertThrows(IllegalArgumentException.class, () -> parse("[1,2]", Map.of("strict", "true")));
+        assertThrows(IllegalArgumentException.class, () -> parse("{\"a\":1", Map.of("strict", "true")));
+    }
+
+    @Test
+    void testTryParseTellsWhetherLineMatched() {
+        JsonLogParser parser = new JsonLogParser();
+        parser.configure(Map.of());
+        assertTrue(parser.tryParse(new LogEntry("{\"level\":\"INFO\"}", "test", "test")));
+        assertFalse(parser.tryParse(new LogEntry("plain text", "test", "test")));
+        LogEntry broken = new LogEntry("{\"level\":\"WARN\",\"msg\":", "test", "test");
+        assertFalse(parser.tryParse(broken));
+        assertEquals("WARN", broken.getFields().get("level"));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.parser;
+
+import com.locallogsearch.core.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyValueParserTest {
+
+    private LogEntry parse(String line, Map<String, String> config) {
+        KeyValueParser parser = new KeyValueParser();
+        parser.configure(config);
+        LogEntry entry = new LogEntry(line, "test", "test");
+        entry.setTimestamp(null);
+        parser.parse(entry);
+        return entry;
+    }
+
+    @Test
+    void testParsesLeadingTimestampAndQuotedValues() {
+        LogEntry entry = parse("2025-01-01T12:00:00.123Z level=INFO msg=\"user \\\"bob\\\" logged in\" "
+            + "path=/a=b empty=\"\" bare= duration=15ms", Map.of());
+
+        Map<String, String> fields = entry.getFields();
+        assertEquals(Instant.parse("2025-01-01T12:00:00.123Z"), entry.getTimestamp());
+        assertEquals("INFO", fields.get("level"));
+        assertEquals("user \"bob\" logged in", fields.get("msg"));
+        assertEquals("/a=b", fields.get("path"));
+        assertEquals("", fields.get("empty"));
+        assertFalse(fields.containsKey("bare"));
+        assertEquals("15ms", fields.get("duration"));
+        assertEquals(5, fields.size());
+    }
+
+    @Test
+    void testFindsTimestampInsideLine() {
+        LogEntry entry = parse("[worker-1] INFO ts=2025-03-01 08:30:00+02:00 n=7", Map.of());
+
+        assertEquals(Instant.parse("2025-03-01T06:30:00Z"), entry.getTimestamp());
+        assertEquals("7", entry.getFields().get("n"));
+
+        assertNull(parse("level=INFO at 2025-02-30T00:00:00Z", Map.of()).getTimestamp());
+    }
+
+    @Test
+    void testCustomDelimiter() {
+        LogEntry entry = parse("user=Jane Doe,action=login,msg=\"a,b\"", Map.of("delimiter", ","));
+
+        Map<String, String> fields = entry.getFields();
+        assertEquals("Jane Doe", fields.get("user"));
+        assertEquals("login", fields.get("action"));
+        assertEquals("a,b", fields.get("msg"));
+    }
+
+    @Test
+    void testTryParseTellsWhetherLineMatched() {
+        KeyValueParser parser = new KeyValueParser();
+        parser.configure(Map.of());
+        assertTrue(parser.tryParse(new LogEntry("level=INFO done", "test", "test")));
+        assertTrue(parser.tryParse(new LogEntry("2025-01-01T12:00:00Z started", "test", "test")));
+        assertFalse(parser.tryParse(new LogEntry("just some text", "test", "test")));
+        assertFalse(parser.tryParse(new LogEntry("   ", "test", "test")));
+    }
+}
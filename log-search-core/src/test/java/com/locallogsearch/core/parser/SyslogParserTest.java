@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.parser;
+
+import com.locallogsearch.core.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyslogParserTest {
+
+    private LogEntry parse(String line) {
+        SyslogParser parser = new SyslogParser();
+        parser.configure(Map.of("timezone", "UTC"));
+        LogEntry entry = new LogEntry(line, "test", "test");
+        parser.parse(entry);
+        return entry;
+    }
+
+    @Test
+    void testParsesRfc5424WithStructuredData() {
+        LogEntry entry = parse("<165>1 2003-10-11T22:14:15.003Z mymachine.example.com evntslog - ID47 "
+            + "[exampleSDID@32473 iut=\"3\" eventSource=\"Appl\\\"ication\"] An application event");
+
+        Map<String, String> fields = entry.getFields();
+        assertEquals("local4", fields.get("facility"));
+        assertEquals("NOTICE", fields.get("level"));
+        assertEquals("mymachine.example.com", fields.get("host"));
+        assertEquals("evntslog", fields.get("app"));
+        assertNull(fields.get("pid"));
+        assertEquals("ID47", fields.get("msgid"));
+        assertEquals("3", fields.get("exampleSDID@32473.iut"));
+        assertEquals("Appl\"ication", fields.get("exampleSDID@32473.eventSource"));
+        assertEquals("An application event", fields.get("message"));
+        assertEquals(Instant.parse("2003-10-11T22:14:15.003Z"), entry.getTimestamp());
+    }
+
+    @Test
+    void testParsesRfc3164() {
+        LogEntry entry = parse("<34>Oct  1 22:14:15 mymachine su[230]: 'su root' failed for lonvick");
+
+        Map<String, String> fields = entry.getFields();
+        assertEquals("auth", fields.get("facility"));
+        assertEquals("CRIT", fields.get("level"));
+        assertEquals("mymachine", fields.get("host"));
+        assertEquals("su", fields.get("app"));
+        assertEquals("230", fields.get("pid"));
+        assertEquals("'su root' failed for lonvick", fields.get("message"));
+        assertEquals("10-01T22:14:15Z", entry.getTimestamp().toString().substring(5));
+    }
+
+    @Test
+    void testKeepsLinesWithoutPriorityAsMessage() {
+        LogEntry entry = parse("plain line without a header");
+
+        assertEquals("plain line without a header", entry.getFields().get("message"));
+        assertNull(entry.getFields().get("level"));
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampParserTest {
+
+    @Test
+    void testBuiltInLayouts() {
+        TimestampParser parser = new TimestampParser();
+
+        assertEquals(Instant.parse("2025-01-14T10:30:00Z"), parser.parse("2025-01-14T10:30:00Z"));
+        assertEquals(Instant.parse("2025-01-14T10:30:00.123456789Z"), parser.parse("2025-01-14T10:30:00.123456789Z"));
+        assertEquals(Instant.parse("2025-01-14T08:30:00Z"), parser.parse("2025-01-14T10:30:00+02:00"));
+        assertEquals(Instant.parse("2025-01-14T10:30:00.123Z"), parser.parse("2025-01-14 10:30:00,123"));
+        assertEquals(Instant.parse("2025-01-14T10:30:00Z"), parser.parse("2025/01/14 10:30:00"));
+        assertEquals(Instant.parse("2000-10-10T20:55:36Z"), parser.parse("10/Oct/2000:13:55:36 -0700"));
+        assertEquals(Instant.parse("2024-02-29T23:59:59Z"), parser.parse("2024-02-29 23:59:59"));
+        assertEquals(Instant.ofEpochSecond(1736850600), parser.parse("1736850600"));
+        assertEquals(Instant.ofEpochMilli(1736850600123L), parser.parse("1736850600123"));
+
+        assertNull(parser.parse("2025-02-29 00:00:00"));
+        assertNull(parser.parse("2025-01-14T10:30:00Z trailing"));
+        assertNull(parser.parse("not a timestamp"));
+    }
+
+    @Test
+    void testRepeatedPrefixOnlyReparsesFraction() {
+        TimestampParser parser = new TimestampParser(null, ZoneId.of("America/New_York"));
+
+        String line = "2025-07-01 12:00:00.250 INFO first";
+        assertEquals(23, parser.parseAt(line, 0));
+        assertEquals(Instant.parse("2025-07-01T16:00:00.250Z"), parser.lastParsed());
+        assertEquals(23, parser.parseAt("2025-07-01 12:00:00.999 INFO second", 0));
+        assertEquals(Instant.parse("2025-07-01T16:00:00.999Z"), parser.lastParsed());
+        assertEquals(20, parser.parseAt("2025-07-01 12:00:00Z", 0));
+        assertEquals(Instant.parse("2025-07-01T12:00:00Z"), parser.lastParsed());
+        assertEquals(19, parser.parseAt("2025-01-01 12:00:00", 0));
+        assertEquals(Instant.parse("2025-01-01T17:00:00Z"), parser.lastParsed());
+    }
+
+    @Test
+    void testCustomPattern() {
+        TimestampParser parser = new TimestampParser("MMM d, yyyy h:mm:ss a", ZoneId.of("UTC"));
+
+        assertEquals(Instant.parse("2025-01-14T22:30:00Z"), parser.parse("Jan 14, 2025 10:30:00 PM"));
+        assertNull(parser.parse("2025-01-14 22:30:00 garbage"));
+    }
+}
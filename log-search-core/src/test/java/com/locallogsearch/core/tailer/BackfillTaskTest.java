@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import com.locallogsearch.core.config.MultilineConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackfillTaskTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final int LINE_BYTES = "line-00000\n".length();
+
+    private Path writeLines(int count) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(String.format("line-%05d\n", i));
+        }
+        return Files.writeString(tempDir.resolve("app.log"), text);
+    }
+
+    @Test
+    void testCompletedOffsetOnlyCoversContiguouslyFinishedRanges() {
+        BackfillProgress progress = new BackfillProgress("app.log", 0, 300);
+        List<Long> completed = new ArrayList<>();
+        progress.setCompletedListener(completed::add);
+
+        progress.rangeFinished(100, 200);
+        assertEquals(0, progress.getCompletedOffset());
+        progress.rangeFinished(0, 100);
+        assertEquals(200, progress.getCompletedOffset());
+        progress.rangeFinished(200, 300);
+
+        assertEquals(List.of(200L, 300L), completed);
+        assertEquals(300, progress.getCompletedOffset());
+    }
+
+    @Test
+    void testCancelledBackfillKeepsFinishedPrefix() throws IOException {
+        int count = 16_000;
+        Path file = writeLines(count);
+        long size = Files.size(file);
+        BackfillProgress progress = new BackfillProgress(file.toString(), 0, size);
+        List<String> lines = new ArrayList<>();
+
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // One worker reads the ranges in file order; stop in the second half
+            BackfillTask task = new BackfillTask(channel, StandardCharsets.UTF_8, 0, size, 0, null,
+                () -> line -> {
+                    lines.add(line);
+                    if (line.equals("line-12000")) {
+                        progress.cancel();
+                    }
+                }, progress);
+            pool.submit(task).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        long completed = progress.getCompletedOffset();
+        assertTrue(completed >= count / 2 * LINE_BYTES, "first half is complete: " + completed);
+        assertTrue(completed <= 12_000L * LINE_BYTES, "range with the cancel is not complete: " + completed);
+        assertEquals(0, completed % LINE_BYTES);
+        // Everything before the completed offset was handed on
+        assertTrue(lines.containsAll(List.of("line-00000", String.format("line-%05d", completed / LINE_BYTES - 1))));
+    }
+
+    @Test
+    void testSplitDoesNotCutStackTraceInTwo() throws IOException {
+        // Single-line events around one long stack trace that spans the middle of the file
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append(String.format("2024-01-01 INFO event %05d\n", i));
+        }
+        text.append("2024-01-01 ERROR failed\n");
+        for (int i = 0; i < 2000; i++) {
+            text.append("\tat com.example.Frame.method").append(i).append("(Frame.java:1)\n");
+        }
+        for (int i = 0; i < 3000; i++) {
+            text.append(String.format("2024-01-01 INFO event %05d\n", 3000 + i));
+        }
+        Path file = Files.writeString(tempDir.resolve("app.log"), text);
+        long size = Files.size(file);
+
+        MultilineConfig multiline = new MultilineConfig();
+        multiline.setStartPattern("^\\d{4}-");
+        multiline.setMaxLines(5000);
+        MultilineAssembler splitter = new MultilineAssembler(multiline, line -> { });
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        BackfillProgress progress = new BackfillProgress(file.toString(), 0, size);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertTrue(BackfillTask.nextLineStart(channel, LineReader.newline(StandardCharsets.UTF_8), size / 2, size)
+                < BackfillTask.nextEventStart(channel, StandardCharsets.UTF_8,
+                    BackfillTask.nextLineStart(channel, LineReader.newline(StandardCharsets.UTF_8), size / 2, size),
+                    size, splitter::startsEvent), "the middle of the file is inside the stack trace");
+
+            new BackfillTask(channel, StandardCharsets.UTF_8, 0, size, 0, splitter::startsEvent,
+                () -> MultilineAssembler.wrap(multiline, events::add), progress).invoke();
+        }
+
+        assertEquals(6001, events.size());
+        assertTrue(events.stream().noneMatch(event -> event.startsWith("\tat")));
+        String trace = events.stream().filter(event -> event.contains("ERROR")).findFirst().orElseThrow();
+        assertEquals(2001, trace.split("\n").length);
+        assertEquals(size, progress.getCompletedOffset());
+    }
+
+    @Test
+    void testLastEventStartLeavesOpenEventToTheTailer() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("app.log"),
+            "2024-01-01 first\n2024-01-01 second\n\tat frame\n");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = BackfillTask.lastEventStart(channel, StandardCharsets.UTF_8, 0, Files.size(file),
+                line -> line.startsWith("2024"));
+            assertEquals("2024-01-01 first\n".length(), end);
+        }
+    }
+}
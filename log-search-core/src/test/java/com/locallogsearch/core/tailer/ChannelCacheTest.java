@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file(String name) throws IOException {
+        return Files.writeString(tempDir.resolve(name), name + "\n");
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedChannel() throws IOException {
+        Path a = file("a.log");
+        Path b = file("b.log");
+        Path c = file("c.log");
+
+        try (ChannelCache cache = new ChannelCache(2)) {
+            FileChannel channelA = cache.acquire(a);
+            cache.release(a);
+            FileChannel channelB = cache.acquire(b);
+            cache.release(b);
+            // Touching a makes b the least recently used
+            cache.acquire(a);
+            cache.release(a);
+            cache.acquire(c);
+            cache.release(c);
+
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.getEvictions());
+            assertTrue(channelA.isOpen());
+            assertFalse(channelB.isOpen());
+        }
+    }
+
+    @Test
+    void testReopensEvictedFile() throws IOException {
+        Path a = file("a.log");
+        Path b = file("b.log");
+
+        try (ChannelCache cache = new ChannelCache(1)) {
+            FileChannel first = cache.acquire(a);
+            cache.release(a);
+            cache.acquire(b);
+            cache.release(b);
+            assertFalse(first.isOpen());
+            assertNull(cache.acquireIfOpen(a));
+
+            FileChannel reopened = cache.acquire(a);
+            assertTrue(reopened.isOpen());
+            assertEquals(Files.size(a), reopened.size());
+            cache.release(a);
+            assertEquals(3, cache.getOpens());
+        }
+    }
+
+    @Test
+    void testNeverClosesPinnedChannel() throws IOException {
+        Path a = file("a.log");
+        Path b = file("b.log");
+
+        try (ChannelCache cache = new ChannelCache(1)) {
+            FileChannel pinned = cache.acquire(a);
+            cache.acquire(b);
+            cache.release(b);
+
+            // Over capacity while a is pinned; b is the only channel that can go
+            assertTrue(pinned.isOpen());
+            assertEquals(1, cache.size());
+            assertSame(pinned, cache.acquireIfOpen(a));
+            cache.release(a);
+            cache.release(a);
+            assertTrue(pinned.isOpen());
+        }
+    }
+
+    @Test
+    void testInvalidatedChannelClosesOnLastRelease() throws IOException {
+        Path a = file("a.log");
+
+        try (ChannelCache cache = new ChannelCache(4)) {
+            FileChannel channel = cache.acquire(a);
+            cache.invalidate(a);
+
+            assertTrue(channel.isOpen());
+            assertNull(cache.acquireIfOpen(a));
+
+            cache.release(a);
+            assertFalse(channel.isOpen());
+            assertEquals(0, cache.size());
+
+            // The next acquire opens whatever file is at the path now
+            FileChannel reopened = cache.acquire(a);
+            assertNotSame(channel, reopened);
+            assertTrue(reopened.isOpen());
+            cache.release(a);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class FileChangeNotifierTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void append(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void testWakesListenerOfModifiedFileOnly() throws Exception {
+        Path file = tempDir.resolve("app.log");
+        Path other = tempDir.resolve("other.log");
+        append(file, "first\n");
+
+        try (FileChangeNotifier notifier = new FileChangeNotifier()) {
+            assumeTrue(notifier.isAvailable());
+            CountDownLatch woken = new CountDownLatch(1);
+            AtomicInteger otherWakes = new AtomicInteger();
+            assertTrue(notifier.register(file, woken::countDown));
+            assertTrue(notifier.register(other, otherWakes::incrementAndGet));
+
+            append(file, "second\n");
+
+            assertTrue(woken.await(30, TimeUnit.SECONDS));
+            assertEquals(0, otherWakes.get());
+        }
+    }
+
+    @Test
+    void testWakesListenerWhenFileIsCreated() throws Exception {
+        Path file = tempDir.resolve("app.log");
+
+        try (FileChangeNotifier notifier = new FileChangeNotifier()) {
+            assumeTrue(notifier.isAvailable());
+            CountDownLatch woken = new CountDownLatch(1);
+            assertTrue(notifier.register(file, woken::countDown));
+
+            // Rotation creates a new file at the tailed path
+            append(file, "first\n");
+
+            assertTrue(woken.await(30, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void testUnregisteredListenerIsNotWoken() throws Exception {
+        Path file = tempDir.resolve("app.log");
+        append(file, "first\n");
+
+        try (FileChangeNotifier notifier = new FileChangeNotifier()) {
+            assumeTrue(notifier.isAvailable());
+            AtomicInteger wakes = new AtomicInteger();
+            Runnable listener = wakes::incrementAndGet;
+            CountDownLatch sentinel = new CountDownLatch(1);
+            assertTrue(notifier.register(file, listener));
+            notifier.unregister(file, listener);
+            // A second file keeps the directory watched, so its event marks when ours was dispatched
+            assertTrue(notifier.register(tempDir.resolve("other.log"), sentinel::countDown));
+
+            append(file, "second\n");
+            append(tempDir.resolve("other.log"), "other\n");
+
+            assertTrue(sentinel.await(30, TimeUnit.SECONDS));
+            assertEquals(0, wakes.get());
+        }
+    }
+}
@@ -0,0 +1,509 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.PipelineConfig;
+import com.locallogsearch.core.config.TailerConfig;
+import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.index.ReusableDocument;
+import com.locallogsearch.core.ingest.IngestPipeline;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTailerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void append(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private IndexManager newIndexManager() {
+        IndexConfig config = new IndexConfig();
+        config.setBaseDirectory(tempDir.resolve("index").toString());
+        config.setCommitIntervalSeconds(3600);
+        return new IndexManager(config);
+    }
+
+    /**
+     * An index manager that adds documents only once {@code indexing} is released.
+     */
+    private IndexManager newIndexManager(CountDownLatch indexing) {
+        IndexConfig config = new IndexConfig();
+        config.setBaseDirectory(tempDir.resolve("index").toString());
+        config.setCommitIntervalSeconds(3600);
+        return new IndexManager(config) {
+            @Override
+            public void addDocuments(String indexName, List<ReusableDocument> documents, Runnable afterAdd)
+                throws IOException {
+                try {
+                    indexing.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.addDocuments(indexName, documents, afterAdd);
+            }
+        };
+    }
+
+    private FileTailer newTailer(IndexManager indexManager, Path file, FileTailerState initialState) {
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        return newTailer(indexManager, file, initialState, tailerConfig);
+    }
+
+    private FileTailer newTailer(IndexManager indexManager, Path file, FileTailerState initialState,
+                                 TailerConfig tailerConfig) {
+        LogSourceConfig config = new LogSourceConfig();
+        config.setId("app");
+        config.setFilePath(file.toString());
+        config.setIndexName("logs");
+        return new FileTailer(config, indexManager, initialState, tailerConfig);
+    }
+
+    private static void turns(FileTailer tailer, int count) {
+        for (int i = 0; i < count; i++) {
+            tailer.runTurn();
+        }
+    }
+
+    private Path writeArchive(String name, String text) throws IOException {
+        Path archive = tempDir.resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive))) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        // Archives that were just written are left to settle first
+        Files.setLastModifiedTime(archive, FileTime.from(System.currentTimeMillis() - 60_000, TimeUnit.MILLISECONDS));
+        return archive;
+    }
+
+    private static void readArchive(FileTailer tailer) throws InterruptedException {
+        turns(tailer, 1);
+        BackfillProgress progress = tailer.getBackfillProgress();
+        while (progress != null && progress.getState() == BackfillProgress.State.RUNNING) {
+            Thread.sleep(10);
+            turns(tailer, 1);
+        }
+    }
+
+    private List<String> indexedLines(IndexManager indexManager) throws IOException {
+        indexManager.commit("logs");
+        List<String> lines = new ArrayList<>();
+        try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(tempDir.resolve("index").resolve("logs")))) {
+            StoredFields storedFields = reader.storedFields();
+            for (int i = 0; i < reader.maxDoc(); i++) {
+                lines.add(storedFields.document(i).get("raw_text"));
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    void testDrainsRenamedFileBeforeSwitchingToNewOne() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "one\n");
+
+        try (IndexManager indexManager = newIndexManager()) {
+            FileTailer tailer = newTailer(indexManager, file, null);
+            turns(tailer, 1);
+
+            // Written to the old inode after the rename, like a logger that has not reopened yet
+            Path rotated = tempDir.resolve("app.log.1");
+            Files.move(file, rotated);
+            append(rotated, "two\nthree");
+            append(file, "four\n");
+            turns(tailer, 3);
+
+            assertEquals(List.of("one", "two", "three", "four"), indexedLines(indexManager));
+            tailer.stop();
+            turns(tailer, 1);
+        }
+    }
+
+    @Test
+    void testSwitchesToRotatedFileOnceItsBatchesAreIndexed() throws Exception {
+        Path file = tempDir.resolve("app.log");
+        append(file, "one\n");
+
+        CountDownLatch indexing = new CountDownLatch(1);
+        try (IndexManager indexManager = newIndexManager(indexing);
+             IngestPipeline pipeline = new IngestPipeline(indexManager, new PipelineConfig())) {
+            FileTailer tailer = newTailer(indexManager, file, null);
+            tailer.setIngestPipeline(pipeline);
+            turns(tailer, 1);
+
+            Files.move(file, tempDir.resolve("app.log.1"));
+            append(file, "two\n");
+            // The old file's batch is still being indexed; the turn does not wait for it
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> turns(tailer, 2));
+
+            indexing.countDown();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (stats(tailer).getEventsIndexed() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+                turns(tailer, 1);
+            }
+            assertEquals(List.of("one", "two"), indexedLines(indexManager));
+            tailer.stop();
+            turns(tailer, 1);
+        }
+    }
+
+    @Test
+    void testFindsFileRotatedWhileStoppedByItsKey() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "one\n");
+
+        try (IndexManager indexManager = newIndexManager()) {
+            AtomicReference<FileTailerState> saved = new AtomicReference<>();
+            FileTailer tailer = newTailer(indexManager, file, null);
+            tailer.setCheckpointCallback(saved::set);
+            turns(tailer, 1);
+            tailer.stop();
+            turns(tailer, 1);
+            assertEquals(4, saved.get().getFilePointer());
+
+            Path rotated = tempDir.resolve("app.log.1");
+            Files.move(file, rotated);
+            append(rotated, "two\n");
+            append(file, "three\n");
+
+            FileTailer restarted = newTailer(indexManager, file, saved.get());
+            turns(restarted, 3);
+
+            assertEquals(List.of("one", "two", "three"), indexedLines(indexManager));
+            restarted.stop();
+            turns(restarted, 1);
+        }
+    }
+
+    @Test
+    void testReadsOnlyNewContentAfterTruncation() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "first line\nsecond line\n");
+
+        try (IndexManager indexManager = newIndexManager()) {
+            FileTailer tailer = newTailer(indexManager, file, null);
+            turns(tailer, 1);
+
+            // copytruncate: same inode, shorter than what was read
+            Files.write(file, "after\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+            turns(tailer, 2);
+
+            assertEquals(List.of("first line", "second line", "after"), indexedLines(indexManager));
+            tailer.stop();
+            turns(tailer, 1);
+        }
+    }
+
+    @Test
+    void testDetectsTruncationRewrittenPastReadPosition() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "one\n");
+
+        try (IndexManager indexManager = newIndexManager()) {
+            FileTailer tailer = newTailer(indexManager, file, null);
+            turns(tailer, 1);
+
+            // Truncated and written past the old size between two polls
+            Files.write(file, "rewritten\nagain\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.TRUNCATE_EXISTING);
+            turns(tailer, 2);
+
+            assertEquals(List.of("one", "rewritten", "again"), indexedLines(indexManager));
+            tailer.stop();
+            turns(tailer, 1);
+        }
+    }
+
+    @Test
+    void testBatchDroppedByClosedPipelineDoesNotHoldUpStop() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "one\n");
+
+        try (IndexManager indexManager = newIndexManager()) {
+            IngestPipeline pipeline = new IngestPipeline(indexManager, new PipelineConfig());
+            AtomicReference<FileTailerState> saved = new AtomicReference<>();
+            FileTailer tailer = newTailer(indexManager, file, null);
+            tailer.setCheckpointCallback(saved::set);
+            tailer.setIngestPipeline(pipeline);
+            turns(tailer, 1);
+            pipeline.close(); // Indexes the first batch
+
+            append(file, "two\n");
+            turns(tailer, 1);
+            tailer.stop();
+            long start = System.currentTimeMillis();
+            assertEquals(-1, tailer.runTurn());
+
+            assertTrue(System.currentTimeMillis() - start < 5000, "stop waited for the dropped batch");
+            assertEquals(4, saved.get().getFilePointer()); // Read again after a restart
+            assertEquals(List.of("one"), indexedLines(indexManager));
+        }
+    }
+
+    @Test
+    void testStopWaitsForFullPipelineAcrossTurns() throws Exception {
+        Path file = tempDir.resolve("app.log");
+        for (int i = 0; i < 50; i++) {
+            append(file, String.format("line %02d\n", i));
+        }
+
+        CountDownLatch indexing = new CountDownLatch(1);
+        PipelineConfig pipelineConfig = new PipelineConfig();
+        pipelineConfig.setQueueCapacity(1);
+        pipelineConfig.setBatchBytes(16);
+        pipelineConfig.setParseThreads(1);
+        pipelineConfig.setBuildThreads(1);
+        pipelineConfig.setIndexThreads(1);
+        try (IndexManager indexManager = newIndexManager(indexing)) {
+            IngestPipeline pipeline = new IngestPipeline(indexManager, pipelineConfig);
+            AtomicReference<FileTailerState> saved = new AtomicReference<>();
+            FileTailer tailer = newTailer(indexManager, file, null);
+            tailer.setCheckpointCallback(saved::set);
+            tailer.setIngestPipeline(pipeline);
+            turns(tailer, 1); // Fills the pipeline and keeps a batch back
+
+            tailer.stop();
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertTrue(tailer.runTurn() >= 0));
+
+            indexing.countDown();
+            long delay;
+            while ((delay = tailer.runTurn()) >= 0) {
+                Thread.sleep(delay);
+            }
+            pipeline.close();
+            int indexed = indexedLines(indexManager).size();
+            assertTrue(indexed > 0 && indexed < 50, "read " + indexed + " lines into a full pipeline");
+            assertEquals(8L * indexed, saved.get().getFilePointer());
+        }
+    }
+
+    @Test
+    void testBackfillCheckpointsRangesAsTheyComplete() throws Exception {
+        Path file = tempDir.resolve("app.log");
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+        append(file, text.toString());
+
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        tailerConfig.setBackfillThresholdBytes(1);
+        tailerConfig.setBackfillSplitBytes(1);
+        try (IndexManager indexManager = newIndexManager()) {
+            FileTailer tailer = newTailer(indexManager, file, null, tailerConfig);
+            turns(tailer, 1);
+            BackfillProgress progress = tailer.getBackfillProgress();
+            assertNotNull(progress);
+            while (progress.getState() == BackfillProgress.State.RUNNING) {
+                Thread.sleep(10);
+                turns(tailer, 1);
+            }
+
+            assertEquals(BackfillProgress.State.COMPLETED, progress.getState());
+            assertEquals(Files.size(file), progress.getCompletedOffset());
+            assertEquals(20_000, indexedLines(indexManager).size());
+            FileTailerState committed = FileTailerState.fromCommitData(
+                indexManager.getCommittedCheckpoints("logs").get("app"));
+            assertEquals(Files.size(file), committed.getFilePointer());
+            tailer.stop();
+            turns(tailer, 1);
+        }
+    }
+
+    @Test
+    void testCompletedArchiveIsNotReadAgainAfterRestart() throws Exception {
+        Path archive = writeArchive("app.log.1.gz", "one\ntwo\n");
+
+        try (IndexManager indexManager = newIndexManager()) {
+            AtomicReference<FileTailerState> saved = new AtomicReference<>();
+            FileTailer tailer = newTailer(indexManager, archive, null);
+            tailer.setCheckpointCallback(saved::set);
+            readArchive(tailer);
+            tailer.stop();
+            turns(tailer, 1);
+
+            assertTrue(saved.get().isCompleted());
+            assertEquals(List.of("one", "two"), indexedLines(indexManager));
+
+            FileTailer restarted = newTailer(indexManager, archive, saved.get());
+            readArchive(restarted);
+
+            assertNull(restarted.getBackfillProgress());
+            assertEquals(0, restarted.getBytesBehind());
+            assertEquals(List.of("one", "two"), indexedLines(indexManager));
+            restarted.stop();
+            turns(restarted, 1);
+        }
+    }
+
+    @Test
+    void testArchiveResumesFromUncompressedOffset() throws Exception {
+        Path archive = writeArchive("app.log.1.gz", "one\ntwo\nthree\n");
+        String fileKey = FileTailer.fileKey(Files.readAttributes(archive, BasicFileAttributes.class));
+        FileTailerState interrupted = new FileTailerState(archive.toString(), 4,
+            Files.getLastModifiedTime(archive).toMillis(), Files.size(archive), fileKey, false);
+
+        try (IndexManager indexManager = newIndexManager()) {
+            AtomicReference<FileTailerState> saved = new AtomicReference<>();
+            FileTailer tailer = newTailer(indexManager, archive, interrupted);
+            tailer.setCheckpointCallback(saved::set);
+            readArchive(tailer);
+
+            assertEquals(List.of("two", "three"), indexedLines(indexManager));
+            assertTrue(saved.get().isCompleted());
+            assertEquals(14, saved.get().getFilePointer());
+            tailer.stop();
+            turns(tailer, 1);
+        }
+    }
+
+    @Test
+    void testArchiveRenamedByRotationIsNotReadAgain() throws Exception {
+        Path archive = writeArchive("app.log.1.gz", "one\n");
+
+        try (IndexManager indexManager = newIndexManager()) {
+            Set<String> completedArchives = ConcurrentHashMap.newKeySet();
+            FileTailer tailer = newTailer(indexManager, archive, null);
+            tailer.setCompletedArchives(completedArchives);
+            readArchive(tailer);
+            tailer.stop();
+            turns(tailer, 1);
+
+            Path renamed = tempDir.resolve("app.log.2.gz");
+            Files.move(archive, renamed);
+            FileTailer renamedTailer = newTailer(indexManager, renamed, null);
+            renamedTailer.setCompletedArchives(completedArchives);
+            readArchive(renamedTailer);
+
+            assertEquals(List.of("one"), indexedLines(indexManager));
+            renamedTailer.stop();
+            turns(renamedTailer, 1);
+        }
+    }
+
+    private static SourceStats stats(FileTailer tailer) {
+        SourceStats stats = new SourceStats(tailer.getSourceId());
+        tailer.addStatsTo(stats);
+        return stats;
+    }
+
+    @Test
+    void testUnmatchedLinesCountAsParseFailuresAndAreIndexed() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "level=INFO started\nno pairs here\nlevel=WARN slow\n\n");
+
+        try (IndexManager indexManager = newIndexManager()) {
+            FileTailer tailer = newTailer(indexManager, file, null);
+            turns(tailer, 2);
+            assertEquals(2, stats(tailer).getParseFailures());
+            assertEquals(4, indexedLines(indexManager).size());
+        }
+    }
+
+    @Test
+    void testTimeBehindIsAgeOfNewestUnreadLine() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        long start = Instant.parse("2025-01-01T12:00:00Z").toEpochMilli();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            lines.append(Instant.ofEpochMilli(start + i * 60_000L)).append(" level=INFO minute=").append(i).append('\n');
+        }
+        append(file, lines.toString());
+        // The last line was written when it says
+        Files.setLastModifiedTime(file, FileTime.fromMillis(start + 59 * 60_000L));
+
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        tailerConfig.setReadQuantumBytes(lines.length() / 4);
+        try (IndexManager indexManager = newIndexManager()) {
+            FileTailer tailer = newTailer(indexManager, file, null, tailerConfig);
+            tailer.runTurn();
+            SourceStats stats = stats(tailer);
+            assertTrue(stats.getBytesBehind() > 0);
+            // A quarter of the lines read: the read position is about 45 minutes behind
+            long minutes = stats.getTimeBehindMillis() / 60_000;
+            assertTrue(minutes >= 44 && minutes <= 46, "minutes=" + minutes);
+
+            turns(tailer, 4);
+            assertEquals(0, stats(tailer).getTimeBehindMillis());
+        }
+    }
+
+    @Test
+    void testTimeBehindWithoutTimestampsUsesModificationTimes() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "first\n");
+        long caughtUp = System.currentTimeMillis() - 3_600_000;
+        Files.setLastModifiedTime(file, FileTime.fromMillis(caughtUp));
+
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        tailerConfig.setReadQuantumBytes(64);
+        try (IndexManager indexManager = newIndexManager()) {
+            FileTailer tailer = newTailer(indexManager, file, null, tailerConfig);
+            tailer.runTurn();
+            assertEquals(0, stats(tailer).getTimeBehindMillis());
+
+            // Written ten minutes after the tailer last reached the end
+            append(file, "more text without a timestamp\n".repeat(10));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(caughtUp + 600_000));
+            tailer.runTurn();
+            SourceStats stats = stats(tailer);
+            assertTrue(stats.getBytesBehind() > 0);
+            assertEquals(600_000, stats.getTimeBehindMillis());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void append(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void testReadsCompleteLinesAndStripsCarriageReturn() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "first\nsecond\r\nthird\n");
+
+        LineReader reader = new LineReader(StandardCharsets.UTF_8, 0);
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            reader.read(channel, Long.MAX_VALUE, lines::add);
+        }
+
+        assertEquals(List.of("first", "second", "third"), lines);
+        assertEquals(Files.size(file), reader.position());
+    }
+
+    @Test
+    void testCarriesPartialLineUntilNewlineArrives() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "complete\npart");
+
+        LineReader reader = new LineReader(StandardCharsets.UTF_8, 0);
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            reader.read(channel, Long.MAX_VALUE, lines::add);
+
+            // The partial line is not emitted and the checkpoint position excludes it
+            assertEquals(List.of("complete"), lines);
+            assertEquals(9, reader.position());
+            assertEquals(13, reader.readPosition());
+
+            append(file, "ial\n");
+            reader.read(channel, Long.MAX_VALUE, lines::add);
+        }
+
+        assertEquals(List.of("complete", "partial"), lines);
+        assertEquals(Files.size(file), reader.position());
+    }
+
+    @Test
+    void testDecodesMultiByteCharactersSplitAcrossReads() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "café 日本\nascii\n");
+
+        LineReader reader = new LineReader(StandardCharsets.UTF_8, 0);
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Read one byte at a time so every multi-byte sequence is split
+            while (reader.read(channel, 1, lines::add) > 0) {
+                // keep reading
+            }
+        }
+
+        assertEquals(List.of("café 日本", "ascii"), lines);
+    }
+
+    @Test
+    void testResumesFromCheckpointPosition() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        append(file, "one\ntwo\nthree\n");
+
+        LineReader reader = new LineReader(StandardCharsets.UTF_8, 4);
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            reader.read(channel, Long.MAX_VALUE, lines::add);
+        }
+
+        assertEquals(List.of("two", "three"), lines);
+    }
+
+    @Test
+    void testSplitsUtf16OnCodeUnitBoundaries() throws IOException {
+        Path file = tempDir.resolve("app.log");
+        // U+010A is 0A 01 in UTF-16LE: its low byte must not be taken for a newline
+        Files.write(file, "\u010Afirst\r\nsecond\n".getBytes(StandardCharsets.UTF_16LE));
+
+        LineReader reader = new LineReader(StandardCharsets.UTF_16LE, 0);
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Odd read sizes split code units across reads
+            while (reader.read(channel, 3, lines::add) > 0) {
+                // keep reading
+            }
+        }
+
+        assertEquals(List.of("\u010Afirst", "second"), lines);
+        assertEquals(Files.size(file), reader.position());
+    }
+
+    @Test
+    void testRejectsCharsetWithByteOrderMark() {
+        assertThrows(IllegalArgumentException.class, () -> new LineReader(StandardCharsets.UTF_16, 0));
+    }
+}
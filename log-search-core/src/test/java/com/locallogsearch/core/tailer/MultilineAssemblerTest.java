@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import com.locallogsearch.core.config.MultilineConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultilineAssemblerTest {
+
+    private MultilineConfig config(String start, String continuation, int maxLines) {
+        MultilineConfig config = new MultilineConfig();
+        config.setStartPattern(start);
+        config.setContinuationPattern(continuation);
+        config.setMaxLines(maxLines);
+        return config;
+    }
+
+    @Test
+    void testStartPatternJoinsStackTrace() {
+        List<String> events = new ArrayList<>();
+        MultilineAssembler assembler = new MultilineAssembler(config("^\\d{4}-", null, 100), events::add);
+
+        assembler.onLine("2025-01-01 ERROR failed", 0);
+        assembler.onLine("java.lang.IllegalStateException: boom", 27);
+        assembler.onLine("\tat com.example.Foo.bar(Foo.java:10)", 66);
+        assembler.onLine("2025-01-01 INFO next", 103);
+
+        assertEquals(1, events.size());
+        assertEquals("2025-01-01 ERROR failed\njava.lang.IllegalStateException: boom\n"
+            + "\tat com.example.Foo.bar(Foo.java:10)", events.get(0));
+        assertTrue(assembler.hasPending());
+        assertEquals(103, assembler.getPendingStart());
+
+        assembler.flush();
+        assertEquals("2025-01-01 INFO next", events.get(1));
+        assertFalse(assembler.hasPending());
+    }
+
+    @Test
+    void testContinuationPatternAndMaxLines() {
+        List<String> events = new ArrayList<>();
+        MultilineAssembler assembler = new MultilineAssembler(config(null, "^\\s", 2), events::add);
+
+        assembler.onLine("first");
+        assembler.onLine("  one");
+        assembler.onLine("  two");
+        assembler.onLine("second");
+        assembler.endOfInput();
+
+        assertEquals(List.of("first\n  one", "  two", "second"), events);
+    }
+
+    @Test
+    void testTimeoutFlushesPendingEvent() {
+        List<String> events = new ArrayList<>();
+        MultilineConfig config = config("^START", null, 100);
+        config.setTimeoutMs(50);
+        MultilineAssembler assembler = new MultilineAssembler(config, events::add);
+
+        assembler.onLine("START a");
+        long now = System.currentTimeMillis();
+        assertTrue(assembler.flushIfIdle(now) > 0);
+        assertTrue(events.isEmpty());
+
+        assertEquals(-1, assembler.flushIfIdle(now + 1000));
+        assertEquals(List.of("START a"), events);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.core.tailer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SourceStatsTest {
+
+    @Test
+    void testRatesAndCountsAddUpAndLagsAreFurthestBehind() {
+        SourceStats stats = new SourceStats("app");
+        stats.addFile(10, 1000, 100, 10_000, 500, 60_000, 1, 90, 20, 200, 0);
+        stats.addFile(5, 500, 50, 5_000, 0, 0, 2, 48, 30, 100, 15_000);
+
+        assertEquals("app", stats.getSourceId());
+        assertEquals(2, stats.getFiles());
+        assertEquals(15, stats.getLinesPerSecond());
+        assertEquals(1500, stats.getBytesPerSecond());
+        assertEquals(150, stats.getLinesRead());
+        assertEquals(15_000, stats.getBytesRead());
+        assertEquals(500, stats.getBytesBehind());
+        assertEquals(60_000, stats.getTimeBehindMillis());
+        assertEquals(3, stats.getParseFailures());
+        assertEquals(138, stats.getEventsIndexed());
+        assertEquals(30, stats.getLastIndexLatencyMillis());
+        assertEquals(200, stats.getMaxIndexLatencyMillis());
+        assertEquals(15_000, stats.getCheckpointAgeMillis());
+    }
+
+    @Test
+    void testAddFoldsInOtherSourcesWithTheirFiles() {
+        SourceStats app = new SourceStats("app");
+        app.addFile(10, 1000, 100, 10_000, 500, 60_000, 1, 90, 20, 200, 0);
+        app.addFile(5, 500, 50, 5_000, 0, 0, 2, 48, 30, 100, 0);
+        SourceStats web = new SourceStats("web");
+        web.addFile(1, 100, 10, 1_000, 2_000, 1_000, 0, 10, 5, 5, 0);
+
+        SourceStats all = new SourceStats("all");
+        all.add(app);
+        all.add(web);
+        assertEquals(3, all.getFiles());
+        assertEquals(160, all.getLinesRead());
+        assertEquals(2_500, all.getBytesBehind());
+        assertEquals(60_000, all.getTimeBehindMillis());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.core.tailer;
+
+import com.locallogsearch.core.config.FieldMapping;
+import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.TailerConfig;
+import com.locallogsearch.core.index.IndexManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailerManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void append(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private IndexManager newIndexManager() {
+        IndexConfig config = new IndexConfig();
+        config.setBaseDirectory(tempDir.resolve("index").toString());
+        config.setCommitIntervalSeconds(3600);
+        return new IndexManager(config);
+    }
+
+    private static Set<String> committedKeys(IndexManager indexManager) throws IOException {
+        indexManager.commit("logs");
+        return new TreeSet<>(indexManager.getCommittedCheckpoints("logs").keySet());
+    }
+
+    private static void awaitCheckpoint(IndexManager indexManager, String key) throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!committedKeys(indexManager).contains(key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(committedKeys(indexManager).contains(key), key);
+    }
+
+    @Test
+    void testFilesRotatedOutOfFileSetLoseTheirCheckpoint() throws Exception {
+        Path dir = Files.createDirectory(tempDir.resolve("logs"));
+        Path first = dir.resolve("app-1.log");
+        append(first, "one\ntwo\n");
+
+        LogSourceConfig config = new LogSourceConfig();
+        config.setId("app");
+        config.setFilePath(dir.resolve("*.log").toString());
+        config.setIndexName("logs");
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        tailerConfig.setDiscoveryIntervalMs(3_600_000); // Only the first scan runs on its own
+        try (IndexManager indexManager = newIndexManager();
+             TailerManager manager = new TailerManager(indexManager, tailerConfig)) {
+            List<String> removed = new CopyOnWriteArrayList<>();
+            manager.setCheckpointRemovalCallback(removed::add);
+            manager.addLogSource(config, Map.of());
+            String firstKey = TailerManager.checkpointKey("app", first.toString());
+            awaitCheckpoint(indexManager, firstKey);
+
+            // Each rotation starts a new file and deletes the oldest one
+            FileSetTailer fileSet = manager.getFileSets().get("app");
+            Path previous = first;
+            for (int i = 2; i <= 3; i++) {
+                Path next = dir.resolve("app-" + i + ".log");
+                append(next, "line " + i + "\n");
+                Files.delete(previous);
+                fileSet.discover();
+
+                String previousKey = TailerManager.checkpointKey("app", previous.toString());
+                String nextKey = TailerManager.checkpointKey("app", next.toString());
+                assertEquals(previousKey, removed.get(removed.size() - 1));
+                assertEquals(Set.of(next.toString()), fileSet.getTailers().keySet());
+                awaitCheckpoint(indexManager, nextKey);
+                assertEquals(Set.of(nextKey), committedKeys(indexManager));
+                previous = next;
+            }
+            assertEquals(2, removed.size());
+        }
+    }
+
+    @Test
+    void testDuplicateSourceKeepsTheRunningSourcesMappings() throws Exception {
+        Path file = tempDir.resolve("app.log");
+        append(file, "one\n");
+
+        LogSourceConfig config = new LogSourceConfig();
+        config.setId("app");
+        config.setFilePath(file.toString());
+        config.setIndexName("logs");
+        config.setFieldMappings(Map.of("status", FieldMapping.KEYWORD));
+        LogSourceConfig duplicate = new LogSourceConfig();
+        duplicate.setId("app");
+        duplicate.setFilePath(file.toString());
+        duplicate.setIndexName("logs");
+        duplicate.setFieldMappings(Map.of("status", FieldMapping.NUMERIC));
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        try (IndexManager indexManager = newIndexManager();
+             TailerManager manager = new TailerManager(indexManager, tailerConfig)) {
+            manager.addLogSource(config);
+            manager.addLogSource(duplicate);
+
+            assertEquals(FieldMapping.KEYWORD, indexManager.getFieldTypes("logs").getField("status").getMapping());
+        }
+    }
+}
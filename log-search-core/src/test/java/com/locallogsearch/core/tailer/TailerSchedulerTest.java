@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.core.tailer;
+
+import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.TailerConfig;
+import com.locallogsearch.core.index.IndexManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailerSchedulerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private void append(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private IndexManager newIndexManager() {
+        IndexConfig config = new IndexConfig();
+        config.setBaseDirectory(tempDir.resolve("index").toString());
+        config.setCommitIntervalSeconds(3600);
+        return new IndexManager(config);
+    }
+
+    private FileTailer newTailer(IndexManager indexManager, Path file, TailerConfig tailerConfig) {
+        LogSourceConfig config = new LogSourceConfig();
+        config.setId(file.getFileName().toString());
+        config.setFilePath(file.toString());
+        config.setIndexName("logs");
+        return new FileTailer(config, indexManager, null, tailerConfig);
+    }
+
+    private static long linesRead(FileTailer tailer) {
+        SourceStats stats = new SourceStats(tailer.getSourceId());
+        tailer.addStatsTo(stats);
+        return stats.getLinesRead();
+    }
+
+    private static void awaitValue(long expected, LongSupplier value) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (value.getAsLong() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, value.getAsLong());
+    }
+
+    @Test
+    void testTailersShareWorkerAndEachGetsTurns() throws Exception {
+        Path hot = tempDir.resolve("hot.log");
+        Path quiet = tempDir.resolve("quiet.log");
+        // Many quanta of data in one file must not hold back the other
+        append(hot, "line with some padding to fill the read quantum quickly\n".repeat(20_000));
+        append(quiet, "quiet\n");
+
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        tailerConfig.setReadQuantumBytes(4096);
+        try (IndexManager indexManager = newIndexManager();
+             TailerScheduler scheduler = new TailerScheduler(1)) {
+            FileTailer hotTailer = newTailer(indexManager, hot, tailerConfig);
+            FileTailer quietTailer = newTailer(indexManager, quiet, tailerConfig);
+            scheduler.schedule(hotTailer);
+            scheduler.schedule(quietTailer);
+
+            awaitValue(1, () -> linesRead(quietTailer));
+            assertTrue(linesRead(hotTailer) < 20_000, "the quiet file was read while the hot one was still behind");
+            awaitValue(20_000, () -> linesRead(hotTailer));
+
+            hotTailer.stop();
+            quietTailer.stop();
+        }
+    }
+
+    @Test
+    void testWakeUpRunsIdleTailerBeforeItsBackoffExpires() throws Exception {
+        Path file = tempDir.resolve("app.log");
+        append(file, "first\n");
+
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        tailerConfig.setMaxPollIntervalMs(60_000);
+        try (IndexManager indexManager = newIndexManager();
+             TailerScheduler scheduler = new TailerScheduler(1)) {
+            FileTailer tailer = newTailer(indexManager, file, tailerConfig);
+            scheduler.schedule(tailer);
+            awaitValue(1, () -> linesRead(tailer));
+            Thread.sleep(3000); // Let the idle backoff grow past a second
+
+            append(file, "second\n");
+            tailer.wakeUp();
+
+            long deadline = System.currentTimeMillis() + 1000;
+            while (linesRead(tailer) < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, linesRead(tailer));
+            tailer.stop();
+        }
+    }
+
+    @Test
+    void testStoppedTailerLeavesTheQueue() throws Exception {
+        Path file = tempDir.resolve("app.log");
+        append(file, "first\n");
+
+        TailerConfig tailerConfig = new TailerConfig();
+        tailerConfig.setWatchServiceEnabled(false);
+        try (IndexManager indexManager = newIndexManager();
+             TailerScheduler scheduler = new TailerScheduler(1)) {
+            FileTailer tailer = newTailer(indexManager, file, tailerConfig);
+            scheduler.schedule(tailer);
+            awaitValue(1, () -> linesRead(tailer));
+
+            tailer.stop();
+            awaitValue(0, () -> scheduler.getQueuedTasks());
+        }
+    }
+}
@@ -24,9 +24,15 @@
 
 package com.locallogsearch.service.config;
 
+import com.locallogsearch.core.config.FieldMapping;
 import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.config.LoadSheddingConfig;
 import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.PipelineConfig;
+import com.locallogsearch.core.config.TailerConfig;
 import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.ingest.BulkIngester;
+import com.locallogsearch.core.ingest.IngestPipeline;
 import com.locallogsearch.core.search.SearchService;
 import com.locallogsearch.core.tailer.FileTailerState;
 import com.locallogsearch.core.tailer.TailerManager;
@@ -35,9 +41,12 @@ import com.locallogsearch.service.repository.LogSourceRepository;
 import com.locallogsearch.service.repository.TailerStateRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
 
 import jakarta.annotation.PostConstruct;
 import java.nio.file.Paths;
@@ -56,18 +65,178 @@ public class ServiceConfiguration {
     @Value("${index.max-buffered-docs}")
     private int maxBufferedDocs;
     
+    @Value("${index.field-type-sample-size:100}")
+    private int fieldTypeSampleSize;
+    
+    @Value("${index.facet-cardinality-limit:10000}")
+    private long facetCardinalityLimit;
+    
+    @Value("${index.max-dynamic-fields:1000}")
+    private int maxDynamicFields;
+    
+    @Value("${index.field-mappings:}")
+    private String fieldMappings;
+    
     @Value("${state.directory:./state}")
     private String stateDirectory;
     
+    @Value("${tailer.watch-service.enabled:true}")
+    private boolean watchServiceEnabled;
+    
+    @Value("${tailer.min-poll-interval-ms:10}")
+    private long minPollIntervalMs;
+    
+    @Value("${tailer.max-poll-interval-ms:1000}")
+    private long maxPollIntervalMs;
+    
+    @Value("${tailer.max-watched-poll-interval-ms:5000}")
+    private long maxWatchedPollIntervalMs;
+    
+    @Value("${tailer.scheduler-threads:0}")
+    private int schedulerThreads;
+    
+    @Value("${tailer.read-quantum-bytes:1048576}")
+    private long readQuantumBytes;
+    
+    @Value("${tailer.max-open-files:1024}")
+    private int maxOpenFiles;
+    
+    @Value("${tailer.discovery-interval-ms:5000}")
+    private long discoveryIntervalMs;
+    
+    @Value("${tailer.backfill.enabled:true}")
+    private boolean backfillEnabled;
+    
+    @Value("${tailer.backfill.threshold-bytes:67108864}")
+    private long backfillThresholdBytes;
+    
+    @Value("${tailer.backfill.split-bytes:8388608}")
+    private long backfillSplitBytes;
+    
+    @Value("${tailer.backfill.parallelism:0}")
+    private int backfillParallelism;
+    
+    @Value("${tailer.shedding.enabled:true}")
+    private boolean sheddingEnabled;
+    
+    @Value("${tailer.shedding.skip-facets-bytes-behind:268435456}")
+    private long skipFacetsBytesBehind;
+    
+    @Value("${tailer.shedding.sample-debug-bytes-behind:536870912}")
+    private long sampleDebugBytesBehind;
+    
+    @Value("${tailer.shedding.defer-low-priority-bytes-behind:1073741824}")
+    private long deferLowPriorityBytesBehind;
+    
+    @Value("${tailer.shedding.debug-sample-rate:10}")
+    private int debugSampleRate;
+    
+    @Value("${tailer.shedding.level-field:level}")
+    private String sheddingLevelField;
+    
+    @Value("${ingest.pipeline.enabled:true}")
+    private boolean pipelineEnabled;
+    
+    @Value("${ingest.pipeline.queue-capacity:64}")
+    private int pipelineQueueCapacity;
+    
+    @Value("${ingest.pipeline.batch-bytes:262144}")
+    private int pipelineBatchBytes;
+    
+    @Value("${ingest.pipeline.parse-threads:0}")
+    private int pipelineParseThreads;
+    
+    @Value("${ingest.pipeline.build-threads:0}")
+    private int pipelineBuildThreads;
+    
+    @Value("${ingest.pipeline.index-threads:0}")
+    private int pipelineIndexThreads;
+    
     @Bean
     public IndexConfig indexConfig() {
         IndexConfig config = new IndexConfig();
         config.setBaseDirectory(baseDirectory);
         config.setCommitIntervalSeconds(commitIntervalSeconds);
         config.setMaxBufferedDocs(maxBufferedDocs);
+        config.setFieldTypeSampleSize(fieldTypeSampleSize);
+        config.setFacetCardinalityLimit(facetCardinalityLimit);
+        config.setMaxDynamicFields(maxDynamicFields);
+        
+        // index:field=mapping, comma-separated
+        for (String entry : fieldMappings.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            int equals = entry.indexOf('=', colon + 1);
+            if (colon <= 0 || equals < 0) {
+                throw new IllegalArgumentException("Expected index:field=mapping in index.field-mappings: " + entry);
+            }
+            config.putFieldMapping(entry.substring(0, colon).trim(), entry.substring(colon + 1, equals).trim(),
+                FieldMapping.parse(entry.substring(equals + 1)));
+        }
+        return config;
+    }
+    
+    @Bean
+    public TailerConfig tailerConfig() {
+        TailerConfig config = new TailerConfig();
+        config.setWatchServiceEnabled(watchServiceEnabled);
+        config.setMinPollIntervalMs(minPollIntervalMs);
+        config.setMaxPollIntervalMs(maxPollIntervalMs);
+        config.setMaxWatchedPollIntervalMs(maxWatchedPollIntervalMs);
+        if (schedulerThreads > 0) {
+            config.setSchedulerThreads(schedulerThreads);
+        }
+        config.setReadQuantumBytes(readQuantumBytes);
+        config.setMaxOpenFiles(maxOpenFiles);
+        config.setDiscoveryIntervalMs(discoveryIntervalMs);
+        config.setBackfillEnabled(backfillEnabled);
+        config.setBackfillThresholdBytes(backfillThresholdBytes);
+        config.setBackfillSplitBytes(backfillSplitBytes);
+        if (backfillParallelism > 0) {
+            config.setBackfillParallelism(backfillParallelism);
+        }
+        
+        LoadSheddingConfig shedding = config.getLoadShedding();
+        shedding.setEnabled(sheddingEnabled);
+        shedding.setSkipFacetsBytesBehind(skipFacetsBytesBehind);
+        shedding.setSampleDebugBytesBehind(sampleDebugBytesBehind);
+        shedding.setDeferLowPriorityBytesBehind(deferLowPriorityBytesBehind);
+        shedding.setDebugSampleRate(debugSampleRate);
+        shedding.setLevelField(sheddingLevelField);
         return config;
     }
     
+    @Bean
+    public PipelineConfig pipelineConfig() {
+        PipelineConfig config = new PipelineConfig();
+        config.setEnabled(pipelineEnabled);
+        config.setQueueCapacity(pipelineQueueCapacity);
+        config.setBatchBytes(pipelineBatchBytes);
+        if (pipelineParseThreads > 0) {
+            config.setParseThreads(pipelineParseThreads);
+        }
+        if (pipelineBuildThreads > 0) {
+            config.setBuildThreads(pipelineBuildThreads);
+        }
+        if (pipelineIndexThreads > 0) {
+            config.setIndexThreads(pipelineIndexThreads);
+        }
+        return config;
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "ingest.pipeline.enabled", havingValue = "true", matchIfMissing = true)
+    public IngestPipeline ingestPipeline(IndexManager indexManager, PipelineConfig pipelineConfig) {
+        return new IngestPipeline(indexManager, pipelineConfig);
+    }
+    
+    @Bean
+    public BulkIngester bulkIngester(IndexManager indexManager, ObjectProvider<IngestPipeline> ingestPipeline) {
+        return new BulkIngester(indexManager, ingestPipeline.getIfAvailable());
+    }
+    
     @Bean
     public IndexManager indexManager(IndexConfig indexConfig) {
         return new IndexManager(indexConfig);
@@ -84,8 +253,12 @@ public class ServiceConfiguration {
     }
     
     @Bean
-    public TailerManager tailerManager(IndexManager indexManager, TailerStateRepository stateRepository) {
-        TailerManager manager = new TailerManager(indexManager);
+    public TailerManager tailerManager(IndexManager indexManager, TailerConfig tailerConfig,
+                                       @Nullable IngestPipeline ingestPipeline,
+                                       TailerStateRepository stateRepository) {
+        // Injected rather than looked up, so the context stops the tailers, with their final
+        // checkpoints, before it closes the pipeline
+        TailerManager manager = new TailerManager(indexManager, tailerConfig, ingestPipeline);
         
         // Set up checkpoint callback to persist tailer state
         manager.setCheckpointCallback((sourceId, state) -> {
@@ -96,14 +269,18 @@ public class ServiceConfiguration {
                 state.getFileSize(),
                 state.getFileKey()
             );
+            persistentState.setCompleted(state.isCompleted());
             stateRepository.save(sourceId, persistentState);
         });
         
+        // Drop the saved state of files that were deleted from glob and directory sources
+        manager.setCheckpointRemovalCallback(stateRepository::remove);
+        
         return manager;
     }
     
     @Bean
-    public SearchService searchService(IndexConfig indexConfig) {
-        return new SearchService(indexConfig);
+    public SearchService searchService(IndexConfig indexConfig, IndexManager indexManager) {
+        return new SearchService(indexConfig, indexManager);
     }
 }
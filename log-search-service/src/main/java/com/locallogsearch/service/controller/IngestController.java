@@ -0,0 +1,203 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.locallogsearch.service.controller;
+
+import com.locallogsearch.core.config.LogSourceConfig;
+import com.locallogsearch.core.config.PipelineConfig;
+import com.locallogsearch.core.ingest.BulkIngestResult;
+import com.locallogsearch.core.ingest.BulkIngester;
+import com.locallogsearch.core.ingest.IngestPipeline;
+import com.locallogsearch.core.ingest.LoadShedder;
+import com.locallogsearch.core.ingest.RateLimiter;
+import com.locallogsearch.core.parser.GrokParser;
+import com.locallogsearch.core.tailer.TailerManager;
+import com.locallogsearch.service.repository.LogSourceRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@RequestMapping("/api/ingest")
+public class IngestController {
+    private static final Logger log = LoggerFactory.getLogger(IngestController.class);
+    private static final Pattern INDEX_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+    
+    private final IngestPipeline ingestPipeline; // null when the pipeline is disabled
+    private final PipelineConfig pipelineConfig;
+    private final TailerManager tailerManager;
+    private final LogSourceRepository logSourceRepository;
+    private final BulkIngester bulkIngester;
+    
+    public IngestController(ObjectProvider<IngestPipeline> ingestPipeline, PipelineConfig pipelineConfig,
+                            TailerManager tailerManager, LogSourceRepository logSourceRepository,
+                            BulkIngester bulkIngester) {
+        this.ingestPipeline = ingestPipeline.getIfAvailable();
+        this.pipelineConfig = pipelineConfig;
+        this.tailerManager = tailerManager;
+        this.logSourceRepository = logSourceRepository;
+        this.bulkIngester = bulkIngester;
+    }
+    
+    /**
+     * Index the request body into {@code index} as it streams in. The body holds one
+     * event per line: raw log lines parsed by {@code parser} (or by the parser of source
+     * {@code sourceId}), or JSON objects when {@code format=ndjson} or the content type
+     * is {@code application/x-ndjson}. Gzip bodies are accepted with
+     * {@code Content-Encoding: gzip}.
+     *
+     * Answers 503 when the ingest pipeline is shutting down or does not keep up; events
+     * handed to it before then may have been indexed.
+     */
+    @PostMapping("/{index}")
+    public ResponseEntity<Map<String, Object>> ingest(@PathVariable String index,
+                                                      @RequestParam(required = false) String format,
+                                                      @RequestParam(required = false) String parser,
+                                                      @RequestParam(required = false) String sourceId,
+                                                      HttpServletRequest request) {
+        if (!INDEX_NAME.matcher(index).matches()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid index name: " + index));
+        }
+        BulkIngester.Format bodyFormat;
+        if (format != null) {
+            try {
+                bodyFormat = BulkIngester.Format.valueOf(format.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Unknown format: " + format));
+            }
+        } else {
+            String contentType = request.getContentType();
+            bodyFormat = contentType != null && contentType.contains("ndjson")
+                ? BulkIngester.Format.NDJSON : BulkIngester.Format.RAW;
+        }
+        
+        LogSourceConfig config = new LogSourceConfig();
+        if (sourceId != null) {
+            LogSourceConfig source = logSourceRepository.loadAll().get(sourceId);
+            if (source == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Unknown source: " + sourceId));
+            }
+            config.setParserType(source.getParserType());
+            config.setParserConfig(source.getParserConfig());
+            config.setCharset(source.getCharset());
+            config.setPriority(source.getPriority());
+            config.setFieldMappings(source.getFieldMappings());
+        } else if (parser != null) {
+            config.setParserType(parser);
+        }
+        config.setId("http:" + index);
+        config.setIndexName(index);
+        
+        try (InputStream body = "gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))
+                ? new GZIPInputStream(request.getInputStream(), 64 * 1024)
+                : request.getInputStream()) {
+            BulkIngestResult result = bulkIngester.ingest(config, bodyFormat, body);
+            Map<String, Object> response = new HashMap<>();
+            response.put("index", index);
+            response.put("lines", result.getLines());
+            response.put("bytes", result.getBytes());
+            response.put("indexed", result.getIndexed());
+            response.put("rejected", result.getRejected());
+            response.put("elapsedMillis", result.getElapsedMillis());
+            response.put("linesPerSecond", result.getLinesPerSecond());
+            response.put("bytesPerSecond", result.getBytesPerSecond());
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            log.warn("Failed to read ingest request for index {}", index, e);
+            return ResponseEntity.badRequest().body(Map.of("error", "Failed to read request body: " + e.getMessage()));
+        } catch (IllegalStateException e) {
+            // The pipeline is shutting down or not keeping up; the client may retry later
+            log.warn("Ingest pipeline did not take request for index {}: {}", index, e.getMessage());
+            return ResponseEntity.status(503).body(Map.of("error", "Ingest unavailable: " + e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.internalServerError().body(Map.of("error", "Interrupted"));
+        }
+    }
+    
+    /**
+     * Queue depth, workers and throughput of each pipeline stage.
+     */
+    @GetMapping("/pipeline")
+    public ResponseEntity<Map<String, Object>> getPipelineStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", pipelineConfig.isEnabled() && ingestPipeline != null);
+        if (ingestPipeline != null) {
+            stats.put("stages", ingestPipeline.getStageStats());
+            stats.put("blockedSubmits", ingestPipeline.getBlockedSubmits());
+            stats.put("blockedMillis", ingestPipeline.getBlockedMillis());
+        }
+        return ResponseEntity.ok(stats);
+    }
+    
+    /**
+     * Matched, missed and prefiltered line counts of each Grok pattern in use.
+     */
+    @GetMapping("/grok")
+    public ResponseEntity<Collection<GrokParser.PatternStats>> getGrokStats() {
+        return ResponseEntity.ok(GrokParser.getPatternStats().values());
+    }
+    
+    /**
+     * Active load shedding modes, how far the tailers are behind, and the rate limit,
+     * priority and deferral of each source.
+     */
+    @GetMapping("/load")
+    public ResponseEntity<Map<String, Object>> getLoad() {
+        LoadShedder shedder = tailerManager.getLoadShedder();
+        Map<String, Object> load = new HashMap<>();
+        load.put("enabled", shedder.getConfig().isEnabled());
+        load.put("activeModes", shedder.getActiveModes());
+        load.put("bytesBehind", shedder.getBytesBehind());
+        load.put("sampledOut", shedder.getSampledOut());
+        
+        List<Map<String, Object>> sources = new ArrayList<>();
+        for (LogSourceConfig config : logSourceRepository.loadAll().values()) {
+            Map<String, Object> source = new HashMap<>();
+            source.put("id", config.getId());
+            source.put("priority", config.getPriority());
+            source.put("deferred", shedder.isDeferred(config));
+            source.put("maxLinesPerSecond", config.getMaxLinesPerSecond());
+            source.put("maxBytesPerSecond", config.getMaxBytesPerSecond());
+            RateLimiter limiter = tailerManager.getRateLimiter(config.getId());
+            source.put("throttledMillis", limiter != null ? limiter.getThrottledMillis() : 0);
+            sources.add(source);
+        }
+        load.put("sources", sources);
+        return ResponseEntity.ok(load);
+    }
+}
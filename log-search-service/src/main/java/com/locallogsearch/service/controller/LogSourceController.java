@@ -26,7 +26,10 @@ package com.locallogsearch.service.controller;
 
 import com.locallogsearch.core.config.LogSourceConfig;
 import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.tailer.BackfillProgress;
+import com.locallogsearch.core.tailer.FileSetTailer;
 import com.locallogsearch.core.tailer.FileTailerState;
+import com.locallogsearch.core.tailer.SourceStats;
 import com.locallogsearch.core.tailer.TailerManager;
 import com.locallogsearch.service.model.TailerState;
 import com.locallogsearch.service.repository.LogSourceRepository;
@@ -38,6 +41,7 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -78,17 +82,25 @@ public class LogSourceController {
         Map<String, TailerState> savedStates = stateRepository.loadAll();
         
         for (LogSourceConfig config : logSources.values()) {
+            if (FileSetTailer.isFileSet(config)) {
+                // Glob and directory sources keep one checkpoint per file
+                String filePrefix = config.getId() + TailerManager.CHECKPOINT_KEY_SEPARATOR;
+                Map<String, FileTailerState> fileStates = new HashMap<>();
+                for (Map.Entry<String, TailerState> entry : savedStates.entrySet()) {
+                    if (entry.getKey().startsWith(filePrefix)) {
+                        fileStates.put(entry.getValue().getFilePath(), toFileTailerState(entry.getValue()));
+                    }
+                }
+                log.info("Restoring file set source {} with {} file checkpoints", config.getFilePath(), fileStates.size());
+                tailerManager.addLogSource(config, fileStates);
+                continue;
+            }
+            
             TailerState savedState = savedStates.get(config.getId());
             FileTailerState initialState = null;
             
             if (savedState != null) {
-                initialState = new FileTailerState(
-                    savedState.getFilePath(),
-                    savedState.getFilePointer(),
-                    savedState.getLastModifiedTime(),
-                    savedState.getFileSize(),
-                    savedState.getFileKey()
-                );
+                initialState = toFileTailerState(savedState);
                 log.info("Restoring tailer for {} from checkpoint at position {}", 
                     config.getFilePath(), savedState.getFilePointer());
             }
@@ -97,6 +109,17 @@ public class LogSourceController {
         }
     }
     
+    private FileTailerState toFileTailerState(TailerState savedState) {
+        return new FileTailerState(
+            savedState.getFilePath(),
+            savedState.getFilePointer(),
+            savedState.getLastModifiedTime(),
+            savedState.getFileSize(),
+            savedState.getFileKey(),
+            savedState.isCompleted()
+        );
+    }
+    
     @GetMapping
     public List<LogSourceConfig> getAllSources() {
         return new ArrayList<>(logSources.values());
@@ -183,6 +206,46 @@ public class LogSourceController {
         return ResponseEntity.ok().build();
     }
     
+    /**
+     * Progress and ETA of the parallel backfill of each file of the source.
+     */
+    @GetMapping("/{id}/backfill")
+    public ResponseEntity<List<BackfillProgress>> getBackfillProgress(@PathVariable String id) {
+        if (!logSources.containsKey(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(tailerManager.getBackfillProgress(id));
+    }
+    
+    /**
+     * Throughput, lag behind the end of the files, parse failures, index latency and
+     * checkpoint age of a source. A source that is not being tailed reports zeros.
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<SourceStats> getSourceStats(@PathVariable String id) {
+        if (!logSources.containsKey(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        SourceStats stats = tailerManager.getSourceStats(id);
+        return ResponseEntity.ok(stats != null ? stats : new SourceStats(id));
+    }
+    
+    /**
+     * Stats of all sources being tailed, with totals over all of them.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStatsSummary() {
+        Map<String, SourceStats> sources = tailerManager.getAllSourceStats();
+        SourceStats total = new SourceStats(null);
+        for (SourceStats stats : sources.values()) {
+            total.add(stats);
+        }
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("total", total);
+        summary.put("sources", sources);
+        return ResponseEntity.ok(summary);
+    }
+    
     /**
      * Reindex a log source by clearing its index and re-reading the entire log file.
      * This will:
@@ -204,7 +267,7 @@ public class LogSourceController {
             indexManager.clearIndex(config.getIndexName());
             
             // Delete the tailer state so it starts from the beginning
-            stateRepository.remove(id);
+            stateRepository.removeSource(id);
             
             // Restart the tailer from the beginning
             tailerManager.reindexLogSource(config);
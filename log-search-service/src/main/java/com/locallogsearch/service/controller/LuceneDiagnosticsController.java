@@ -25,6 +25,8 @@
 package com.locallogsearch.service.controller;
 
 import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.index.FieldTypeRegistry;
+import com.locallogsearch.core.index.IndexManager;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.*;
@@ -50,9 +52,11 @@ public class LuceneDiagnosticsController {
     private static final Logger log = LoggerFactory.getLogger(LuceneDiagnosticsController.class);
     
     private final IndexConfig indexConfig;
+    private final IndexManager indexManager;
     
-    public LuceneDiagnosticsController(IndexConfig indexConfig) {
+    public LuceneDiagnosticsController(IndexConfig indexConfig, IndexManager indexManager) {
         this.indexConfig = indexConfig;
+        this.indexManager = indexManager;
     }
     
     /**
@@ -366,4 +370,28 @@ public class LuceneDiagnosticsController {
             );
         }
     }
+    
+    /**
+     * Get the field types learned while indexing
+     */
+    @GetMapping("/{indexName}/field-types")
+    public ResponseEntity<Map<String, Object>> getFieldTypes(@PathVariable String indexName) {
+        if (!Files.exists(Paths.get(indexConfig.getBaseDirectory(), indexName))) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        FieldTypeRegistry registry = indexManager.getFieldTypes(indexName);
+        Map<String, Object> response = new HashMap<>();
+        response.put("indexName", indexName);
+        response.put("sampleSize", registry.getSampleSize());
+        response.put("facetCardinalityLimit", registry.getFacetCardinalityLimit());
+        response.put("maxDynamicFields", registry.getMaxDynamicFields());
+        response.put("dynamicFields", registry.getDynamicFields());
+        response.put("overflowField", FieldTypeRegistry.OVERFLOW_FIELD);
+        response.put("overflowValues", registry.getOverflowValues());
+        response.put("overflowFields", registry.getOverflowFields());
+        response.put("pendingMappings", registry.getPendingMappings()); // Need the index cleared and reindexed
+        response.put("fields", registry.getFields());
+        return ResponseEntity.ok(response);
+    }
 }
@@ -49,10 +49,11 @@ public class ParserTestController {
             LogEntry entry = new LogEntry(request.getLogEntry(), "test", "test");
             
             // Parse the entry in-place
-            parser.parse(entry);
+            boolean matched = parser.tryParse(entry);
             
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
+            result.put("matched", matched);
             result.put("timestamp", entry.getTimestamp() != null ? entry.getTimestamp().toEpochMilli() : null);
             result.put("fields", entry.getFields());
             result.put("rawText", request.getLogEntry());
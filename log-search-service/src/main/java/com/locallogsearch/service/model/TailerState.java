@@ -34,6 +34,7 @@ public class TailerState {
     private long fileSize;
     private String fileKey;  // Unique identifier for the file (inode-like)
     private long lastCheckpointTime;
+    private boolean completed;  // Compressed archive read to the end
     
     public TailerState() {
     }
@@ -88,6 +89,14 @@ public class TailerState {
         this.fileKey = fileKey;
     }
     
+    public boolean isCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+    
     public long getLastCheckpointTime() {
         return lastCheckpointTime;
     }
@@ -104,6 +113,7 @@ public class TailerState {
                 ", lastModifiedTime=" + lastModifiedTime +
                 ", fileSize=" + fileSize +
                 ", fileKey='" + fileKey + '\'' +
+                ", completed=" + completed +
                 ", lastCheckpointTime=" + lastCheckpointTime +
                 '}';
     }
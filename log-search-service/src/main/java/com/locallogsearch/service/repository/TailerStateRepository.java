@@ -24,26 +24,57 @@
 
 package com.locallogsearch.service.repository;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.locallogsearch.core.tailer.TailerManager;
 import com.locallogsearch.service.model.TailerState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Repository for persisting tailer state (file position, inode, etc.) to disk.
+ *
+ * Checkpoints go to an append-only journal next to a snapshot file. Saves only update
+ * memory; a single writer thread appends the latest state of each changed source once
+ * per flush interval, so frequent checkpoints of one source coalesce into one record.
+ * Records are numbered; when the journal has grown well past the number of sources
+ * it is compacted into a new snapshot that notes the last record it includes.
  */
-public class TailerStateRepository {
+public class TailerStateRepository implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(TailerStateRepository.class);
     private static final String TAILER_STATE_FILE = "tailer-state.json";
+    private static final String TAILER_JOURNAL_FILE = "tailer-state.journal";
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final int COMPACT_MIN_RECORDS = 1000;
+    private static final int COMPACT_RECORDS_PER_SOURCE = 4;
+    private static final TailerState REMOVED = new TailerState();
     
     private final Path stateDirectory;
     private final ObjectMapper objectMapper;
+    private final Map<String, TailerState> states = new ConcurrentHashMap<>();
+    private final Map<String, TailerState> pending = new ConcurrentHashMap<>();
+    private final Object updateLock = new Object(); // Keeps states and pending in step
+    private final ScheduledExecutorService writer;
+    private FileChannel journal;
+    private int journalRecords = 0;
+    private long sequence = 0; // Sequence number of the last journal record
     
     public TailerStateRepository(Path stateDirectory) {
         this.stateDirectory = stateDirectory;
@@ -54,69 +85,276 @@ public class TailerStateRepository {
         } catch (IOException e) {
             log.error("Failed to create state directory: {}", stateDirectory, e);
         }
+        
+        load();
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tailer-state-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
     }
     
     /**
-     * Save all tailer states to disk.
+     * Replace all saved tailer states.
      */
-    public void saveAll(Map<String, TailerState> states) {
-        Path file = stateDirectory.resolve(TAILER_STATE_FILE);
-        try {
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), states);
-            log.debug("Saved {} tailer states to {}", states.size(), file);
-        } catch (IOException e) {
-            log.error("Failed to save tailer states to {}", file, e);
+    public void saveAll(Map<String, TailerState> newStates) {
+        for (String sourceId : states.keySet()) {
+            if (!newStates.containsKey(sourceId)) {
+                remove(sourceId);
+            }
         }
+        newStates.forEach(this::save);
     }
     
     /**
-     * Save a single tailer state to disk.
+     * Save a single tailer state. It reaches disk with the next flush.
      */
     public void save(String sourceId, TailerState state) {
-        Map<String, TailerState> states = loadAll();
-        states.put(sourceId, state);
-        saveAll(states);
+        synchronized (updateLock) {
+            states.put(sourceId, state);
+            pending.put(sourceId, state);
+        }
     }
     
     /**
-     * Load all tailer states from disk.
+     * Load all tailer states.
      */
     public Map<String, TailerState> loadAll() {
-        Path file = stateDirectory.resolve(TAILER_STATE_FILE);
+        return new HashMap<>(states);
+    }
+    
+    /**
+     * Load a single tailer state.
+     */
+    public TailerState load(String sourceId) {
+        return states.get(sourceId);
+    }
+    
+    /**
+     * Remove a tailer state.
+     */
+    public void remove(String sourceId) {
+        synchronized (updateLock) {
+            if (states.remove(sourceId) != null) {
+                pending.put(sourceId, REMOVED);
+            }
+        }
+    }
+    
+    /**
+     * Remove the state of a source, including the per-file states of glob and directory sources.
+     */
+    public void removeSource(String sourceId) {
+        String filePrefix = sourceId + TailerManager.CHECKPOINT_KEY_SEPARATOR;
+        for (String key : states.keySet()) {
+            if (key.equals(sourceId) || key.startsWith(filePrefix)) {
+                remove(key);
+            }
+        }
+    }
+    
+    /**
+     * Read the snapshot, then replay the journal records written after it. A record
+     * torn by a crash can only be at the end; it is skipped and cut off the journal so
+     * the next append starts on a clean line.
+     */
+    private void load() {
+        Path snapshot = stateDirectory.resolve(TAILER_STATE_FILE);
+        long snapshotSequence = 0;
+        if (Files.exists(snapshot)) {
+            try {
+                JsonNode saved = objectMapper.readTree(snapshot.toFile());
+                if (saved.has("sequence") && saved.path("states").isObject()) {
+                    snapshotSequence = saved.get("sequence").asLong();
+                    saved = saved.get("states");
+                }
+                // Snapshots written before journal sequence numbers are a bare map
+                Map<String, TailerState> savedStates = objectMapper.convertValue(saved,
+                    objectMapper.getTypeFactory().constructMapType(HashMap.class, String.class, TailerState.class));
+                states.putAll(savedStates);
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("Failed to load tailer states from {}", snapshot, e);
+            }
+        }
+        sequence = snapshotSequence;
         
-        if (!Files.exists(file)) {
-            log.debug("No existing tailer state file found at {}", file);
-            return new HashMap<>();
+        Path journalFile = stateDirectory.resolve(TAILER_JOURNAL_FILE);
+        if (Files.exists(journalFile)) {
+            try {
+                byte[] data = Files.readAllBytes(journalFile);
+                int validEnd = 0;
+                int start = 0;
+                int end;
+                while (start < data.length && (end = indexOf(data, (byte) '\n', start)) >= 0) {
+                    if (replay(new String(data, start, end - start, StandardCharsets.UTF_8), snapshotSequence)) {
+                        validEnd = end + 1;
+                    }
+                    start = end + 1;
+                }
+                if (validEnd < data.length) {
+                    log.warn("Truncating torn tailer state journal {} from {} to {} bytes",
+                        journalFile, data.length, validEnd);
+                    try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                        channel.truncate(validEnd);
+                        channel.force(true);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Failed to read tailer state journal {}", journalFile, e);
+            }
+        }
+        log.info("Loaded {} tailer states from {} ({} journal records)", states.size(), stateDirectory, journalRecords);
+    }
+    
+    private static int indexOf(byte[] data, byte b, int from) {
+        for (int i = from; i < data.length; i++) {
+            if (data[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Apply one journal record unless the snapshot already includes it.
+     *
+     * @return false if the record could not be read
+     */
+    private boolean replay(String line, long snapshotSequence) {
+        if (line.isBlank()) {
+            return true;
+        }
+        try {
+            JsonNode record = objectMapper.readTree(line);
+            long recordSequence = record.path("seq").asLong(0);
+            sequence = Math.max(sequence, recordSequence);
+            journalRecords++;
+            if (recordSequence > 0 && recordSequence <= snapshotSequence) {
+                return true; // Left behind by a crash during compaction
+            }
+            String key = record.get("key").asText();
+            JsonNode state = record.get("state");
+            if (state == null || state.isNull()) {
+                states.remove(key);
+            } else {
+                states.put(key, objectMapper.treeToValue(state, TailerState.class));
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping unreadable tailer state journal record: {}", line);
+            return false;
+        }
+    }
+    
+    /**
+     * Append the latest state of every source changed since the last flush. Runs on
+     * the writer thread, and once more on close.
+     */
+    synchronized void flush() {
+        Map<String, TailerState> changes;
+        Map<String, TailerState> snapshot = null;
+        long firstSequence;
+        synchronized (updateLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changes = new LinkedHashMap<>(pending);
+            pending.clear();
+            firstSequence = sequence + 1;
+            sequence += changes.size();
+            if (journalRecords + changes.size() >= Math.max(COMPACT_MIN_RECORDS, COMPACT_RECORDS_PER_SOURCE * states.size())) {
+                // Exactly the states the journal holds up to the last of these records
+                snapshot = new HashMap<>(states);
+            }
         }
         
         try {
-            Map<String, TailerState> states = objectMapper.readValue(
-                file.toFile(),
-                objectMapper.getTypeFactory().constructMapType(
-                    HashMap.class, String.class, TailerState.class
-                )
-            );
-            log.info("Loaded {} tailer states from {}", states.size(), file);
-            return states;
+            if (journal == null) {
+                journal = FileChannel.open(stateDirectory.resolve(TAILER_JOURNAL_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            
+            StringBuilder records = new StringBuilder();
+            long recordSequence = firstSequence;
+            for (Map.Entry<String, TailerState> change : changes.entrySet()) {
+                ObjectNode record = objectMapper.createObjectNode();
+                record.put("seq", recordSequence++);
+                record.put("key", change.getKey());
+                record.set("state", change.getValue() == REMOVED ? null : objectMapper.valueToTree(change.getValue()));
+                records.append(objectMapper.writeValueAsString(record)).append('\n');
+            }
+            
+            ByteBuffer buffer = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+            journalRecords += changes.size();
+            log.debug("Appended {} tailer states to journal", changes.size());
         } catch (IOException e) {
-            log.error("Failed to load tailer states from {}", file, e);
-            return new HashMap<>();
+            log.error("Failed to write tailer state journal in {}", stateDirectory, e);
+            synchronized (updateLock) {
+                // Retry with the next flush unless the source has changed again since
+                changes.forEach(pending::putIfAbsent);
+            }
+            return;
+        }
+        
+        if (snapshot != null) {
+            try {
+                compact(snapshot, firstSequence + changes.size() - 1);
+            } catch (IOException e) {
+                log.error("Failed to compact tailer state journal in {}", stateDirectory, e);
+            }
         }
     }
     
     /**
-     * Load a single tailer state from disk.
+     * Write the states up to journal record {@code snapshotSequence} to a new snapshot
+     * and start an empty journal. The snapshot carries that sequence number, so if a
+     * crash leaves the old journal behind, its records are recognised as included and
+     * skipped instead of being replayed over newer states.
      */
-    public TailerState load(String sourceId) {
-        return loadAll().get(sourceId);
+    private void compact(Map<String, TailerState> snapshot, long snapshotSequence) throws IOException {
+        Path snapshotFile = stateDirectory.resolve(TAILER_STATE_FILE);
+        Path temp = stateDirectory.resolve(TAILER_STATE_FILE + ".tmp");
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("sequence", snapshotSequence);
+        root.set("states", objectMapper.valueToTree(snapshot));
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), root);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        journal.truncate(0);
+        journal.force(true);
+        log.info("Compacted {} tailer state journal records into {}", journalRecords, snapshotFile);
+        journalRecords = 0;
     }
     
     /**
-     * Remove a tailer state from disk.
+     * Write outstanding states and stop the writer thread.
      */
-    public void remove(String sourceId) {
-        Map<String, TailerState> states = loadAll();
-        states.remove(sourceId);
-        saveAll(states);
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        synchronized (this) {
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    log.error("Failed to close tailer state journal", e);
+                }
+                journal = null;
+            }
+        }
     }
 }
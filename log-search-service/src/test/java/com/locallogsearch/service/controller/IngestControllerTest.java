@@ -0,0 +1,132 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.service.controller;
+
+import com.locallogsearch.core.config.IndexConfig;
+import com.locallogsearch.core.config.PipelineConfig;
+import com.locallogsearch.core.index.IndexManager;
+import com.locallogsearch.core.ingest.BulkIngester;
+import com.locallogsearch.core.ingest.IngestPipeline;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestControllerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private IndexManager indexManager;
+    private IngestPipeline pipeline;
+    private IngestController controller;
+
+    @BeforeEach
+    void setUp() {
+        IndexConfig config = new IndexConfig();
+        config.setBaseDirectory(tempDir.resolve("index").toString());
+        config.setCommitIntervalSeconds(3600);
+        indexManager = new IndexManager(config);
+        PipelineConfig pipelineConfig = new PipelineConfig();
+        pipeline = new IngestPipeline(indexManager, pipelineConfig);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("ingestPipeline", pipeline));
+        controller = new IngestController(beans.getBeanProvider(IngestPipeline.class), pipelineConfig,
+            null, null, new BulkIngester(indexManager, pipeline));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.close();
+        indexManager.close();
+    }
+
+    private static MockHttpServletRequest request(String contentType, byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/ingest/logs");
+        request.setContentType(contentType);
+        request.setContent(body);
+        return request;
+    }
+
+    @Test
+    void testNdjsonBodyReportsIndexedAndRejected() {
+        byte[] body = "{\"message\":\"one\"}\nnot json\n{\"message\":\"two\"}\n".getBytes(StandardCharsets.UTF_8);
+
+        ResponseEntity<Map<String, Object>> response = controller.ingest("logs", null, null, null,
+            request("application/x-ndjson", body));
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(3L, response.getBody().get("lines"));
+        assertEquals(2L, response.getBody().get("indexed"));
+        assertEquals(1L, response.getBody().get("rejected"));
+    }
+
+    @Test
+    void testGzipRawBody() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write("level=INFO msg=one\nlevel=WARN msg=two\n".getBytes(StandardCharsets.UTF_8));
+        }
+        MockHttpServletRequest request = request("text/plain", bytes.toByteArray());
+        request.addHeader("Content-Encoding", "gzip");
+
+        ResponseEntity<Map<String, Object>> response = controller.ingest("logs", "raw", "keyvalue", null, request);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(2L, response.getBody().get("indexed"));
+        assertEquals(0L, response.getBody().get("rejected"));
+    }
+
+    @Test
+    void testInvalidIndexNameAndFormatAreBadRequests() {
+        byte[] body = "line\n".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(400, controller.ingest("../logs", null, null, null, request("text/plain", body))
+            .getStatusCode().value());
+        assertEquals(400, controller.ingest("logs", "xml", null, null, request("text/plain", body))
+            .getStatusCode().value());
+    }
+
+    @Test
+    void testClosedPipelineAnswersServiceUnavailable() {
+        pipeline.close();
+
+        ResponseEntity<Map<String, Object>> response = controller.ingest("logs", null, null, null,
+            request("text/plain", "line\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(503, response.getStatusCode().value());
+        assertTrue(response.getBody().containsKey("error"));
+    }
+}
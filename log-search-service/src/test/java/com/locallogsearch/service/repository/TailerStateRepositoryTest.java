@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2025 Chris Collins
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.locallogsearch.service.repository;
+
+import com.locallogsearch.service.model.TailerState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailerStateRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static TailerState state(long position) {
+        return new TailerState("/var/log/app.log", position, 1000L, position, "(dev=1,ino=2)");
+    }
+
+    private Path journal() {
+        return tempDir.resolve("tailer-state.journal");
+    }
+
+    private void append(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Save and flush one source often enough for the journal to be compacted.
+     */
+    private static void churn(TailerStateRepository repository, String sourceId) {
+        for (int i = 0; i < 1000; i++) {
+            repository.save(sourceId, state(i));
+            repository.flush();
+        }
+    }
+
+    @Test
+    void testJournalIsReplayedOnLoad() {
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            repository.save("a", state(10));
+            repository.save("b", state(20));
+        }
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            assertEquals(10, repository.load("a").getFilePointer());
+            assertEquals(20, repository.load("b").getFilePointer());
+            repository.remove("a");
+            repository.save("b", state(30));
+        }
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            assertNull(repository.load("a"));
+            assertEquals(30, repository.load("b").getFilePointer());
+            assertEquals(1, repository.loadAll().size());
+        }
+    }
+
+    @Test
+    void testTornRecordIsCutOffTheJournal() throws IOException {
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            repository.save("a", state(10));
+        }
+        long complete = Files.size(journal());
+        append(journal(), "{\"seq\":2,\"key\":\"b\",\"state\":{\"filePo");
+
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            assertEquals(10, repository.load("a").getFilePointer());
+            assertNull(repository.load("b"));
+            assertEquals(complete, Files.size(journal()));
+            repository.save("c", state(30));
+        }
+        // The record after the torn one was not glued onto it
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            assertEquals(10, repository.load("a").getFilePointer());
+            assertEquals(30, repository.load("c").getFilePointer());
+        }
+    }
+
+    @Test
+    void testCompactionMovesJournalIntoSnapshot() throws IOException {
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            repository.save("a", state(10));
+            churn(repository, "b");
+        }
+        assertTrue(Files.exists(tempDir.resolve("tailer-state.json")));
+        // 1001 records: compacted at the 1000th, so only the last one is left
+        assertEquals(1, Files.readAllLines(journal()).size());
+
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            assertEquals(2, repository.loadAll().size());
+            assertEquals(10, repository.load("a").getFilePointer());
+            assertEquals(999, repository.load("b").getFilePointer());
+            repository.save("a", state(20));
+        }
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            assertEquals(20, repository.load("a").getFilePointer());
+        }
+    }
+
+    @Test
+    void testJournalLeftBehindByCrashDuringCompactionIsNotReplayed() throws IOException {
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            repository.save("a", state(10));
+            repository.save("b", state(10));
+        }
+        byte[] oldJournal = Files.readAllBytes(journal());
+
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            repository.save("a", state(20));
+            repository.remove("b");
+            churn(repository, "c");
+        }
+        // As if the crash came after the new snapshot replaced the old one but before
+        // the journal was cleared
+        Files.write(journal(), oldJournal);
+
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            assertEquals(20, repository.load("a").getFilePointer());
+            assertNull(repository.load("b"));
+            repository.save("a", state(30));
+        }
+        // Records after the left-behind ones still count
+        try (TailerStateRepository repository = new TailerStateRepository(tempDir)) {
+            assertEquals(30, repository.load("a").getFilePointer());
+        }
+    }
+}